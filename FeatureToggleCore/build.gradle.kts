@@ -0,0 +1,47 @@
+plugins {
+    `java-library`
+    alias(libs.plugins.maven.publish)
+    alias(libs.plugins.jmh)
+}
+
+group = "com.github.gabi-elmaliah"
+version = "1.0.0"
+
+// Pure-Java core of the library: controller, models, local stores and evaluation.
+// It has no Android dependency so that JVM services can use it directly.
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+    withSourcesJar()
+}
+
+publishing {
+    publications {
+        create<MavenPublication>("release") {
+            groupId = "com.github.gabi-elmaliah"
+            artifactId = "FeatureToggleCore"
+            version = "1.0.0"
+            from(components["java"])
+        }
+    }
+}
+
+jmh {
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+}
+
+tasks.test {
+    // The concurrency stress tests run longer with -Pstress.scale=20
+    systemProperty("stress.scale", providers.gradleProperty("stress.scale").getOrElse("1"))
+}
+
+dependencies {
+    api(libs.gson)
+    api(libs.retrofit)
+    implementation(libs.converter.gson)
+
+    testImplementation(libs.junit)
+    testImplementation(libs.mockwebserver)
+}
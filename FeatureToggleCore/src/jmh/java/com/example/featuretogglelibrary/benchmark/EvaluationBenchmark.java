@@ -0,0 +1,72 @@
+package com.example.featuretogglelibrary.benchmark;
+
+import com.example.featuretogglelibrary.FeatureToggleClient;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures toggle evaluation throughput on a shared {@link FeatureToggleClient}, with one thread
+ * and with one thread per core.
+ *
+ * Run with: ./gradlew :FeatureToggleCore:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EvaluationBenchmark {
+
+    private static final String PACKAGE_NAME = "com.example.featuretoggledemoapp";
+
+    @Param({"1000"})
+    public int toggleCount;
+
+    private FeatureToggleClient client;
+    private String[] names;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setUp() {
+        client = new FeatureToggleClient();
+        names = new String[toggleCount];
+        List<FeatureToggleItem> items = new ArrayList<>(toggleCount);
+        for (int i = 0; i < toggleCount; i++) {
+            names[i] = "toggle_" + i;
+            // Half of the toggles are active now, the other half expired
+            FeatureToggleItem item = new FeatureToggleItem("2024-01-01 00:00:00", null, null,
+                    i % 2 == 0 ? "2099-12-31 23:59:59" : "2024-12-31 23:59:59", names[i], null, PACKAGE_NAME);
+            item.set_id(UUID.randomUUID().toString());
+            items.add(item);
+        }
+        client.getStore(PACKAGE_NAME).replaceAll(items);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean isEnabledSingleThread(Cursor cursor) {
+        return client.isEnabled(PACKAGE_NAME, names[cursor.next++ % names.length]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean isEnabledAllCores(Cursor cursor) {
+        return client.isEnabled(PACKAGE_NAME, names[cursor.next++ % names.length]);
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.featuretogglelibrary;
+
+import com.example.featuretogglelibrary.api.FeatureController;
+import com.example.featuretogglelibrary.api.RequestHandle;
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.interfaces.SnapshotSubscriber;
+import com.example.featuretogglelibrary.model.ActivitySeries;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.model.FeaturesStatistics;
+import com.example.featuretogglelibrary.model.StartupMetrics;
+import com.example.featuretogglelibrary.store.FeatureStoreRegistry;
+import com.example.featuretogglelibrary.store.FeatureToggleStore;
+import com.example.featuretogglelibrary.store.StoreWriteThrough;
+import com.example.featuretogglelibrary.store.ToggleSnapshot;
+import com.example.featuretogglelibrary.tracing.Scope;
+import com.example.featuretogglelibrary.tracing.Span;
+import com.example.featuretogglelibrary.tracing.Tracer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The FeatureToggleClient class is the plain Java entry point of the library. It ties a
+ * {@link FeatureController} to the local per-package stores and evaluates toggles against them.
+ *
+ * Unlike the Android {@code FeatureToggle} facade, it takes explicit package names and has no
+ * Android dependency, so backend services on the JVM can use it directly. Evaluation methods are
+ * lock-free and safe to call from any number of threads.
+ */
+
+public class FeatureToggleClient {
+
+    private final FeatureController featureController;
+    private final FeatureStoreRegistry featureStores;
+    private final StoreWriteThrough writeThrough;
+
+    /**
+     * Creates a client for the default feature toggle backend.
+     */
+    public FeatureToggleClient() {
+        this(new FeatureController(), new FeatureStoreRegistry());
+    }
+
+    /**
+     * @param featureController The controller used to reach the backend.
+     * @param featureStores     The registry holding the local store of each package.
+     */
+    public FeatureToggleClient(FeatureController featureController, FeatureStoreRegistry featureStores) {
+        this.featureController = featureController;
+        this.featureStores = featureStores;
+        this.writeThrough = new StoreWriteThrough(featureStores);
+        featureController.addMutationListener(writeThrough);
+    }
+
+    /**
+     * @return The controller used to reach the backend.
+     */
+    public FeatureController getController() {
+        return featureController;
+    }
+
+    /**
+     * @return The registry holding the local store of each package.
+     */
+    public FeatureStoreRegistry getFeatureStores() {
+        return featureStores;
+    }
+
+    /**
+     * @param packageName The name of the package.
+     * @return The local store of the package.
+     */
+    public FeatureToggleStore getStore(String packageName) {
+        return featureStores.getStore(packageName);
+    }
+
+    /**
+     * Fetches all feature toggles of a package and replaces its local store.
+     *
+     * @param packageName The name of the package to refresh.
+     * @param callback    The callback to handle the fetched feature toggles or errors.
+     * @return The handle of the refresh. As the request may be shared with other callers, cancelling it
+     *         only drops the callback, the store is still refreshed.
+     */
+    public RequestHandle<List<FeatureToggleItem>> refresh(String packageName,
+                                                          GenericCallBack<List<FeatureToggleItem>> callback) {
+        RequestHandle<List<FeatureToggleItem>> handle =
+                new RequestHandle<>(callback, featureController.getCallbackExecutor());
+        Span span = featureController.getTracer().startSpan("FeatureToggleClient.refresh")
+                .setAttribute("package_name", packageName);
+        Scope scope = span.makeCurrent();
+        try {
+            featureStores.refresh(featureController, packageName, span.wrap(handle.asCallback()));
+        } finally {
+            scope.close();
+        }
+        return handle;
+    }
+
+    /**
+     * Prepares the client on a background thread: builds the HTTP client, resolves the backend's host name
+     * and fetches the package's feature toggles into its local store, which opens the connection later calls
+     * reuse. A refresh or {@link FeatureToggleStore#addChangeListener} made meanwhile shares the fetch, so a
+     * flag lookup made right away still waits for it, and only lookups made later find the toggles ready.
+     *
+     * @param packageName The package whose feature toggles are fetched, or null to only open a connection.
+     * @param callback    The callback notified with the timings once the warm-up is done, or null.
+     * @return The timings, filled in as the warm-up progresses.
+     */
+    public StartupMetrics warmUp(String packageName, GenericCallBack<StartupMetrics> callback) {
+        StartupMetrics metrics = new StartupMetrics();
+        long start = System.nanoTime();
+        Thread thread = new Thread(() -> {
+            try {
+                featureController.warmUp();
+                metrics.setClient_ready_millis(elapsedMillis(start));
+                featureController.resolveHost();
+                metrics.setHost_resolved_millis(elapsedMillis(start));
+                if (packageName == null) {
+                    featureController.preconnect();
+                    metrics.setConnected_millis(elapsedMillis(start));
+                    finishWarmUp(metrics, callback);
+                    return;
+                }
+            } catch (IOException e) {
+                metrics.setError(String.valueOf(e.getMessage()));
+                finishWarmUp(metrics, callback);
+                return;
+            }
+            refresh(packageName, new GenericCallBack<List<FeatureToggleItem>>() {
+                @Override
+                public void success(List<FeatureToggleItem> data) {
+                    metrics.setSnapshot_ready_millis(elapsedMillis(start));
+                    finishWarmUp(metrics, callback);
+                }
+
+                @Override
+                public void error(String error) {
+                    metrics.setError(error);
+                    finishWarmUp(metrics, callback);
+                }
+            });
+        }, "FeatureToggle-Startup");
+        thread.setDaemon(true);
+        thread.start();
+        return metrics;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static void finishWarmUp(StartupMetrics metrics, GenericCallBack<StartupMetrics> callback) {
+        if (callback == null) {
+            return;
+        }
+        if (metrics.getError() == null) {
+            callback.success(metrics);
+        } else {
+            callback.error(metrics.getError());
+        }
+    }
+
+    /**
+     * Admin operations made through the controller are applied to the local stores once the backend
+     * accepts them. Optimistic updates apply them at once instead, and roll them back if they fail.
+     *
+     * @param optimistic True to update the local stores before the backend answers.
+     */
+    public void setOptimisticUpdates(boolean optimistic) {
+        writeThrough.setOptimistic(optimistic);
+    }
+
+    /**
+     * Enables tracing of the calls made through this client, see {@link FeatureController#setTracer(Tracer)}.
+     *
+     * @param tracer The tracer to use, or {@link Tracer#NOOP} to disable tracing.
+     */
+    public void setTracer(Tracer tracer) {
+        featureController.setTracer(tracer);
+    }
+
+    /**
+     * @return The tracer used by this client.
+     */
+    public Tracer getTracer() {
+        return featureController.getTracer();
+    }
+
+    /**
+     * Checks whether a feature toggle is active now, using the local store of its package.
+     *
+     * @param packageName The name of the package.
+     * @param featureName The name of the feature toggle.
+     * @return True if the toggle is known locally and the current time is within its dates.
+     */
+    public boolean isEnabled(String packageName, String featureName) {
+        return featureStores.getStore(packageName).isEnabled(featureName);
+    }
+
+    /**
+     * Checks whether a feature toggle, looked up by ID, is active now, using the local store of its package.
+     *
+     * @param packageName The name of the package.
+     * @param featureId   The ID of the feature toggle.
+     * @return True if the toggle is known locally and the current time is within its dates.
+     */
+    public boolean isEnabledById(String packageName, String featureId) {
+        return featureStores.getStore(packageName).isEnabledById(featureId);
+    }
+
+    /**
+     * Finds the locally known feature toggles of a package by name fragment or description keyword.
+     *
+     * @param packageName The name of the package.
+     * @param query       The words to look for.
+     * @param limit       The maximum number of toggles to return.
+     * @return The matching feature toggles, best matches first.
+     */
+    public List<FeatureToggleItem> search(String packageName, String query, int limit) {
+        return featureStores.getStore(packageName).getSearchIndex().search(query, limit);
+    }
+
+    /**
+     * Returns a page of the locally known feature toggles of a package created or updated in the last days.
+     *
+     * @param packageName The name of the package.
+     * @param days        The number of days to look back from now.
+     * @param offset      The number of matching toggles to skip.
+     * @param limit       The maximum number of toggles to return.
+     * @return The matching feature toggles, newest first.
+     */
+    public List<FeatureToggleItem> getRecent(String packageName, int days, int offset, int limit) {
+        return featureStores.getStore(packageName).getRecent(days, offset, limit);
+    }
+
+    /**
+     * Computes how many locally known feature toggles of a package were active on each day of a range.
+     *
+     * @param packageName The name of the package.
+     * @param from        The start of the first day, in milliseconds since the epoch.
+     * @param days        The number of days in the range.
+     * @return The active, starting and ending toggles per day, and the peak of active toggles.
+     */
+    public ActivitySeries getActivitySeries(String packageName, long from, int days) {
+        return getStore(packageName).snapshot().getActivitySeries(from, days);
+    }
+
+    /**
+     * @param packageName The name of the package.
+     * @return The statistics of the locally known feature toggles of the package.
+     */
+    public FeaturesStatistics getLocalStatistics(String packageName) {
+        return featureStores.getStore(packageName).getStatistics();
+    }
+
+    /**
+     * Subscribes to the snapshots of a package's local store. Subscribers share the refreshes and
+     * snapshots of the store, so adding subscribers never adds network calls or copies.
+     *
+     * @param packageName The name of the package.
+     * @param subscriber  The subscriber receiving a snapshot after every change of the store.
+     */
+    public void subscribe(String packageName, SnapshotSubscriber<ToggleSnapshot> subscriber) {
+        featureStores.getStore(packageName).getPublisher().subscribe(subscriber);
+    }
+
+    /**
+     * Subscribes to a single feature toggle of a package's local store.
+     *
+     * @param packageName The name of the package.
+     * @param featureName The name of the feature toggle to follow.
+     * @param subscriber  The subscriber receiving the toggle when it changes, or null once it is removed.
+     */
+    public void subscribe(String packageName, String featureName, SnapshotSubscriber<FeatureToggleItem> subscriber) {
+        featureStores.getStore(packageName).getPublisher().subscribe(featureName, subscriber);
+    }
+}
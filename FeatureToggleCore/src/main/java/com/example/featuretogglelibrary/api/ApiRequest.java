@@ -0,0 +1,141 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.model.PendingMutation;
+
+/**
+ * One call of a {@link FeatureController} method, as seen by the
+ * {@link com.example.featuretogglelibrary.interfaces.RequestInterceptor}s it goes through:
+ * the endpoint and the arguments it is called with.
+ *
+ * @param <T> The type of data the call delivers to its callback.
+ */
+
+public final class ApiRequest<T> {
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final Endpoint<T> endpoint;
+    private final String packageName;
+    private final String featureId;
+    private final FeatureToggleItem body;
+    private final Object[] arguments;
+    private final PendingMutation mutation;
+
+    // Set by the controller before the call enters the pipeline
+    private RequestHandle<T> handle;
+    // Set by the HTTP call, read by the controller once the callback is called on the same thread
+    private boolean accepted;
+    private String responseBody;
+    private Throwable failure;
+
+    ApiRequest(Endpoint<T> endpoint, String packageName) {
+        this(endpoint, packageName, null, null, NO_ARGUMENTS, null);
+    }
+
+    ApiRequest(Endpoint<T> endpoint, String packageName, Object... arguments) {
+        this(endpoint, packageName, null, null, arguments, null);
+    }
+
+    ApiRequest(Endpoint<T> endpoint, PendingMutation mutation, FeatureToggleItem body) {
+        this(endpoint, mutation.getPackage_name(), mutation.getFeature_id(), body, NO_ARGUMENTS, mutation);
+    }
+
+    private ApiRequest(Endpoint<T> endpoint, String packageName, String featureId, FeatureToggleItem body,
+                       Object[] arguments, PendingMutation mutation) {
+        this.endpoint = endpoint;
+        this.packageName = packageName;
+        this.featureId = featureId;
+        this.body = body;
+        this.arguments = arguments;
+        this.mutation = mutation;
+    }
+
+    /**
+     * @return The endpoint called.
+     */
+    public Endpoint<T> getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return The package the call reads or changes.
+     */
+    public String getPackageName() {
+        return packageName;
+    }
+
+    /**
+     * @return The ID of the feature toggle changed, or null if the call is not about a single existing toggle.
+     */
+    public String getFeatureId() {
+        return featureId;
+    }
+
+    /**
+     * @return The feature toggle data sent with the call, or null if there is none.
+     */
+    public FeatureToggleItem getBody() {
+        return body;
+    }
+
+    /**
+     * @return The other arguments of the call, such as the dates of a range query. Never null.
+     */
+    public Object[] getArguments() {
+        return arguments;
+    }
+
+    /**
+     * @return The admin operation sent by the call, or null for reads.
+     */
+    public PendingMutation getMutation() {
+        return mutation;
+    }
+
+    /**
+     * @return A request for the same call without the outcome of this one, made under another handle.
+     */
+    ApiRequest<T> copy(RequestHandle<T> handle) {
+        ApiRequest<T> copy = new ApiRequest<>(endpoint, packageName, featureId, body, arguments, mutation);
+        copy.handle = handle;
+        return copy;
+    }
+
+    RequestHandle<T> getHandle() {
+        return handle;
+    }
+
+    void setHandle(RequestHandle<T> handle) {
+        this.handle = handle;
+    }
+
+    boolean isAccepted() {
+        return accepted;
+    }
+
+    void setAccepted(boolean accepted) {
+        this.accepted = accepted;
+    }
+
+    String getResponseBody() {
+        return responseBody;
+    }
+
+    void setResponseBody(String responseBody) {
+        this.responseBody = responseBody;
+    }
+
+    Throwable getFailure() {
+        return failure;
+    }
+
+    void setFailure(Throwable failure) {
+        this.failure = failure;
+    }
+
+    @Override
+    public String toString() {
+        return endpoint + " " + packageName + (featureId == null ? "" : "/" + featureId);
+    }
+}
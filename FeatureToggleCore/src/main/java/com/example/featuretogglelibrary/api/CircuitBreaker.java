@@ -0,0 +1,407 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.interfaces.CircuitStateListener;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import retrofit2.Invocation;
+
+/**
+ * The CircuitBreaker class stops calling the backend while it is failing or slow, so that callers
+ * fail fast instead of waiting for the full timeout, and the backend gets room to recover.
+ *
+ * There is one circuit per API method and package. A closed circuit counts the outcomes of its last
+ * calls, where server errors, network failures and calls slower than the slow call threshold are
+ * failures. Once enough calls failed, the circuit opens and rejects calls with a
+ * {@link CircuitOpenException}, except GET calls that succeeded before: those are answered with the
+ * last good response, marked with the {@link #FALLBACK_HEADER} header. After the open duration, the
+ * circuit lets a few probe calls through. It closes when they all succeed and opens again otherwise.
+ *
+ * Keeping a good response means reading its whole body, up to 1 MB, before the caller gets it. So only
+ * the responses of the list and statistics endpoints are kept by default, see {@link #setFallbackEndpoints}.
+ * The paged endpoints stream their pages and are never buffered.
+ *
+ * Install it on a {@link FeatureController} with {@link FeatureController#setCircuitBreaker}.
+ */
+
+public class CircuitBreaker implements Interceptor {
+
+    /**
+     * The states of a circuit.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Thrown instead of calling the backend while a circuit is open.
+     */
+    public static class CircuitOpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Header set on the last good responses that are served while a circuit is open.
+     */
+    public static final String FALLBACK_HEADER = "X-Circuit-Fallback";
+
+    private static final int DEFAULT_WINDOW_SIZE = 20;
+    private static final int DEFAULT_MINIMUM_CALLS = 10;
+    private static final float DEFAULT_FAILURE_RATE = 0.5f;
+    private static final long DEFAULT_SLOW_CALL_MILLIS = TimeUnit.SECONDS.toMillis(3);
+    private static final long DEFAULT_OPEN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final int DEFAULT_HALF_OPEN_PROBES = 2;
+
+    private static final int MAX_FALLBACKS = 32;
+    private static final long MAX_FALLBACK_BYTES = 1024 * 1024;
+
+    // The endpoints read through the facade and the client
+    private static final Set<String> DEFAULT_FALLBACK_ENDPOINTS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "getAllFeatureToggles", "getActiveFeatureToggles", "getRecentFeatureToggles", "getActiveFeaturesInRange",
+            "getFeatureTogglesByDate", "getFeatureToggleStatistics")));
+
+    private final LongSupplier clock;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final float failureRate;
+    private final long slowCallMillis;
+    private final long openMillis;
+    private final int halfOpenProbes;
+
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<CircuitStateListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Set<String> fallbackEndpoints = DEFAULT_FALLBACK_ENDPOINTS;
+
+    // Last good response of each GET URL, guarded by itself
+    private final LinkedHashMap<String, Fallback> fallbacks = new LinkedHashMap<String, Fallback>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Fallback> eldest) {
+            return size() > MAX_FALLBACKS;
+        }
+    };
+
+    /**
+     * Creates a circuit breaker that opens when half of the last 20 calls failed or took more than
+     * 3 seconds, and probes again after 30 seconds.
+     */
+    public CircuitBreaker() {
+        this(System::currentTimeMillis, DEFAULT_WINDOW_SIZE, DEFAULT_MINIMUM_CALLS, DEFAULT_FAILURE_RATE,
+                DEFAULT_SLOW_CALL_MILLIS, DEFAULT_OPEN_MILLIS, DEFAULT_HALF_OPEN_PROBES);
+    }
+
+    /**
+     * @param clock          The source of the current time, in milliseconds.
+     * @param windowSize     The number of recent calls whose outcome is counted.
+     * @param minimumCalls   The number of calls needed before a circuit can open.
+     * @param failureRate    The share of failed calls, between 0 and 1, at which a circuit opens.
+     * @param slowCallMillis The duration after which a call counts as failed, even if it succeeds.
+     * @param openMillis     How long an open circuit rejects calls before probing.
+     * @param halfOpenProbes The number of probe calls that must succeed to close a circuit.
+     */
+    public CircuitBreaker(LongSupplier clock, int windowSize, int minimumCalls, float failureRate,
+                          long slowCallMillis, long openMillis, int halfOpenProbes) {
+        this.clock = clock;
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRate = failureRate;
+        this.slowCallMillis = slowCallMillis;
+        this.openMillis = openMillis;
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    /**
+     * Sets the GET endpoints whose last good response is kept and served while their circuit is open.
+     *
+     * @param endpoints The API methods, such as "getActiveFeatureToggles". None to never keep responses.
+     */
+    public void setFallbackEndpoints(String... endpoints) {
+        this.fallbackEndpoints = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(endpoints)));
+    }
+
+    /**
+     * @param listener The listener notified when a circuit changes state.
+     */
+    public void addListener(CircuitStateListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener The listener to remove.
+     */
+    public void removeListener(CircuitStateListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @param endpoint    The API method, such as "getActiveFeatureToggles".
+     * @param packageName The package, or null for calls without a package.
+     * @return The state of the circuit, CLOSED if it was never used.
+     */
+    public State getState(String endpoint, String packageName) {
+        Circuit circuit = circuits.get(key(endpoint, packageName));
+        return circuit == null ? State.CLOSED : circuit.state();
+    }
+
+    /**
+     * @return The state of every circuit used so far, keyed by "endpoint package".
+     */
+    public Map<String, State> getStates() {
+        Map<String, State> states = new LinkedHashMap<>();
+        for (Map.Entry<String, Circuit> entry : circuits.entrySet()) {
+            states.put(entry.getKey(), entry.getValue().state());
+        }
+        return states;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation == null) {
+            // Not an API call, such as a preconnect
+            return chain.proceed(request);
+        }
+        String endpoint = invocation.method().getName();
+        String packageName = Invocations.packageOf(invocation);
+        Circuit circuit = circuits.computeIfAbsent(key(endpoint, packageName),
+                key -> new Circuit(endpoint, packageName));
+
+        State permit = circuit.acquire(clock.getAsLong());
+        if (permit == null) {
+            return fallback(request, circuit);
+        }
+
+        long start = clock.getAsLong();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException e) {
+            if (chain.call().isCanceled()) {
+                // Canceled by the caller, such as a deadline, which says nothing about the backend
+                circuit.abandon(permit);
+            } else {
+                circuit.release(permit, false, clock.getAsLong());
+            }
+            throw e;
+        }
+        long end = clock.getAsLong();
+        circuit.release(permit, response.code() < 500 && end - start < slowCallMillis, end);
+
+        if (response.isSuccessful() && "GET".equals(request.method()) && fallbackEndpoints.contains(endpoint)) {
+            remember(request, response);
+        }
+        return response;
+    }
+
+    private Response fallback(Request request, Circuit circuit) throws IOException {
+        Fallback fallback = null;
+        if ("GET".equals(request.method())) {
+            synchronized (fallbacks) {
+                fallback = fallbacks.get(request.url().toString());
+            }
+        }
+        if (fallback == null) {
+            throw new CircuitOpenException("Circuit open for " + circuit.endpoint
+                    + (circuit.packageName == null ? "" : " of " + circuit.packageName) + ", backend not called.");
+        }
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(fallback.code)
+                .message(fallback.message)
+                .headers(fallback.headers)
+                .header(FALLBACK_HEADER, "true")
+                .body(ResponseBody.create(fallback.contentType, fallback.body))
+                .sentRequestAtMillis(clock.getAsLong())
+                .receivedResponseAtMillis(clock.getAsLong())
+                .build();
+    }
+
+    // Copies the body without consuming it, so the caller still streams the response
+    private void remember(Request request, Response response) throws IOException {
+        ResponseBody body = response.body();
+        if (body == null || body.contentLength() > MAX_FALLBACK_BYTES) {
+            return;
+        }
+        BufferedSource source = body.source();
+        if (source.request(MAX_FALLBACK_BYTES + 1)) {
+            return;
+        }
+        Buffer buffer = source.getBuffer();
+        Fallback fallback = new Fallback(response.code(), response.message(), response.headers(),
+                body.contentType(), buffer.clone().readByteArray());
+        synchronized (fallbacks) {
+            fallbacks.put(request.url().toString(), fallback);
+        }
+    }
+
+    private void notifyListeners(Circuit circuit, State previous, State current) {
+        for (CircuitStateListener listener : listeners) {
+            listener.onStateChanged(circuit.endpoint, circuit.packageName, previous, current);
+        }
+    }
+
+    private static String key(String endpoint, String packageName) {
+        return endpoint + " " + packageName;
+    }
+
+    private static final class Fallback {
+        final int code;
+        final String message;
+        final Headers headers;
+        final MediaType contentType;
+        final byte[] body;
+
+        Fallback(int code, String message, Headers headers, MediaType contentType, byte[] body) {
+            this.code = code;
+            this.message = message;
+            this.headers = headers;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+
+    private final class Circuit {
+        final String endpoint;
+        final String packageName;
+
+        // Guarded by this
+        private State state = State.CLOSED;
+        private final boolean[] outcomes = new boolean[windowSize];
+        private int calls;
+        private int next;
+        private int failures;
+        private long openedAt;
+        private int probesInFlight;
+        private int probesSucceeded;
+
+        Circuit(String endpoint, String packageName) {
+            this.endpoint = endpoint;
+            this.packageName = packageName;
+        }
+
+        synchronized State state() {
+            return state;
+        }
+
+        /**
+         * @return The state the call was let through in, or null if the call is rejected.
+         */
+        State acquire(long now) {
+            State previous;
+            synchronized (this) {
+                previous = state;
+                if (state == State.OPEN) {
+                    if (now - openedAt < openMillis) {
+                        return null;
+                    }
+                    state = State.HALF_OPEN;
+                    probesInFlight = 0;
+                    probesSucceeded = 0;
+                }
+                if (state == State.HALF_OPEN) {
+                    if (probesInFlight + probesSucceeded >= halfOpenProbes) {
+                        return null;
+                    }
+                    probesInFlight++;
+                }
+            }
+            if (previous != state) {
+                notifyListeners(this, previous, State.HALF_OPEN);
+            }
+            return previous == State.CLOSED ? State.CLOSED : State.HALF_OPEN;
+        }
+
+        /**
+         * Records the outcome of a call let through by {@link #acquire}. Outcomes of calls that
+         * started in an earlier state of the circuit are ignored.
+         */
+        void release(State permit, boolean success, long now) {
+            State previous;
+            State current;
+            synchronized (this) {
+                previous = state;
+                if (permit != state) {
+                    return;
+                }
+                if (state == State.CLOSED) {
+                    record(success);
+                    if (calls >= minimumCalls && failures >= failureRate * calls) {
+                        open(now);
+                    }
+                } else {
+                    // A probe of an earlier half-open period may still be running
+                    probesInFlight = Math.max(probesInFlight - 1, 0);
+                    if (!success) {
+                        open(now);
+                    } else if (++probesSucceeded >= halfOpenProbes) {
+                        state = State.CLOSED;
+                    }
+                }
+                current = state;
+            }
+            if (previous != current) {
+                notifyListeners(this, previous, current);
+            }
+        }
+
+        /**
+         * Gives back a permit of {@link #acquire} without recording an outcome, for a canceled call.
+         */
+        synchronized void abandon(State permit) {
+            if (permit == State.HALF_OPEN && state == State.HALF_OPEN) {
+                probesInFlight = Math.max(probesInFlight - 1, 0);
+            }
+        }
+
+        // Must be called while holding the lock
+        private void record(boolean success) {
+            if (calls == windowSize) {
+                if (!outcomes[next]) {
+                    failures--;
+                }
+            } else {
+                calls++;
+            }
+            outcomes[next] = success;
+            if (!success) {
+                failures++;
+            }
+            next = (next + 1) % windowSize;
+        }
+
+        // Must be called while holding the lock
+        private void open(long now) {
+            state = State.OPEN;
+            openedAt = now;
+            calls = 0;
+            next = 0;
+            failures = 0;
+        }
+    }
+}
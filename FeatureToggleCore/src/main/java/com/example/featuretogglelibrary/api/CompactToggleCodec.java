@@ -0,0 +1,263 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.utils.ToggleDates;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CompactToggleCodec class encodes lists of feature toggles in a compact binary format,
+ * served with the {@link #MEDIA_TYPE} content type.
+ *
+ * Layout:
+ * - The magic bytes "FTB1".
+ * - A string table: a count followed by length-prefixed UTF-8 strings. Every distinct ID, name,
+ *   description, package name and non-canonical date string is stored once per payload.
+ * - An item count followed by one record per item: four string table references (ID, name,
+ *   description, package name) and four dates (beginning, expiration, created, updated).
+ *
+ * All integers are unsigned varints, string references are stored as index + 1 with 0 meaning null.
+ * A date is a tag (0 = null, 1 = epoch seconds, 2 = string reference) followed by its value. Dates in
+ * the canonical "YYYY-MM-DD HH:MM:SS" format are stored as zigzag-encoded epoch seconds, anything
+ * else is kept as a string so that decoding returns exactly what was encoded.
+ */
+
+public final class CompactToggleCodec {
+
+    /**
+     * The content type of payloads in this format.
+     */
+    public static final String MEDIA_TYPE = "application/x-feature-toggles";
+
+    private static final int MAGIC = 0x46544231; // "FTB1"
+
+    private static final int DATE_NULL = 0;
+    private static final int DATE_EPOCH_SECONDS = 1;
+    private static final int DATE_STRING = 2;
+
+    private CompactToggleCodec() {
+
+    }
+
+    /**
+     * Encodes a list of feature toggles. The stream is flushed but not closed.
+     *
+     * @param items  The feature toggles to encode.
+     * @param output The stream to write the payload to.
+     * @throws IOException If writing to the stream fails.
+     */
+    public static void encode(List<FeatureToggleItem> items, OutputStream output) throws IOException {
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIndex = new HashMap<>();
+        for (FeatureToggleItem item : items) {
+            intern(item.get_id(), strings, stringIndex);
+            intern(item.getName(), strings, stringIndex);
+            intern(item.getDescription(), strings, stringIndex);
+            intern(item.getPackage_name(), strings, stringIndex);
+            internDate(item.getBeginning_date(), strings, stringIndex);
+            internDate(item.getExpiration_date(), strings, stringIndex);
+            internDate(item.getCreated_at(), strings, stringIndex);
+            internDate(item.getUpdated_at(), strings, stringIndex);
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        out.writeInt(MAGIC);
+        writeVarint(out, strings.size());
+        for (String value : strings) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length);
+            out.write(bytes);
+        }
+
+        writeVarint(out, items.size());
+        for (FeatureToggleItem item : items) {
+            writeReference(out, item.get_id(), stringIndex);
+            writeReference(out, item.getName(), stringIndex);
+            writeReference(out, item.getDescription(), stringIndex);
+            writeReference(out, item.getPackage_name(), stringIndex);
+            writeDate(out, item.getBeginning_date(), stringIndex);
+            writeDate(out, item.getExpiration_date(), stringIndex);
+            writeDate(out, item.getCreated_at(), stringIndex);
+            writeDate(out, item.getUpdated_at(), stringIndex);
+        }
+        out.flush();
+    }
+
+    /**
+     * Decodes a list of feature toggles. The stream is not closed.
+     *
+     * @param input The stream to read the payload from.
+     * @return The decoded feature toggles.
+     * @throws IOException If reading fails or the payload is not in this format.
+     */
+    public static List<FeatureToggleItem> decode(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a compact feature toggle payload.");
+        }
+
+        // Counts and lengths come from the payload, so memory only grows with what was actually read
+        int stringCount = readVarint(in);
+        List<String> table = new ArrayList<>();
+        byte[] buffer = new byte[64];
+        for (int i = 0; i < stringCount; i++) {
+            int length = readVarint(in);
+            buffer = readBytes(in, buffer, length);
+            table.add(new String(buffer, 0, length, StandardCharsets.UTF_8));
+        }
+        String[] strings = table.toArray(new String[0]);
+
+        int count = readVarint(in);
+        List<FeatureToggleItem> items = new ArrayList<>();
+        // Toggles tend to share dates, format each distinct date once and share the string
+        Map<Long, String> formattedDates = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            FeatureToggleItem item = new FeatureToggleItem();
+            item.set_id(readReference(in, strings));
+            item.setName(readReference(in, strings));
+            item.setDescription(readReference(in, strings));
+            item.setPackage_name(readReference(in, strings));
+            item.setBeginning_date(readDate(in, strings, formattedDates));
+            item.setExpiration_date(readDate(in, strings, formattedDates));
+            item.setCreated_at(readDate(in, strings, formattedDates));
+            item.setUpdated_at(readDate(in, strings, formattedDates));
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * Reads length bytes, growing the buffer as they arrive rather than to the announced length at once.
+     *
+     * @return The buffer holding the bytes, which may be a new one.
+     */
+    private static byte[] readBytes(DataInputStream in, byte[] buffer, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            if (read == buffer.length) {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(length, buffer.length * 2L));
+            }
+            int chunk = in.read(buffer, read, Math.min(length, buffer.length) - read);
+            if (chunk < 0) {
+                throw new EOFException("Truncated compact payload.");
+            }
+            read += chunk;
+        }
+        return buffer;
+    }
+
+    private static boolean isCanonical(String date) {
+        long epochMillis = ToggleDates.parse(date);
+        return epochMillis != ToggleDates.NO_DATE && date.equals(ToggleDates.format(epochMillis));
+    }
+
+    private static void intern(String value, List<String> strings, Map<String, Integer> stringIndex) {
+        if (value != null && !stringIndex.containsKey(value)) {
+            stringIndex.put(value, strings.size());
+            strings.add(value);
+        }
+    }
+
+    private static void internDate(String date, List<String> strings, Map<String, Integer> stringIndex) {
+        if (date != null && !isCanonical(date)) {
+            intern(date, strings, stringIndex);
+        }
+    }
+
+    private static void writeReference(DataOutputStream out, String value, Map<String, Integer> stringIndex)
+            throws IOException {
+        writeVarint(out, value == null ? 0 : stringIndex.get(value) + 1);
+    }
+
+    private static String readReference(DataInputStream in, String[] strings) throws IOException {
+        int reference = readVarint(in);
+        if (reference == 0) {
+            return null;
+        }
+        if (reference > strings.length) {
+            throw new IOException("Invalid string reference: " + reference);
+        }
+        return strings[reference - 1];
+    }
+
+    private static void writeDate(DataOutputStream out, String date, Map<String, Integer> stringIndex)
+            throws IOException {
+        if (date == null) {
+            writeVarint(out, DATE_NULL);
+        } else if (isCanonical(date)) {
+            long seconds = ToggleDates.parse(date) / 1000L;
+            writeVarint(out, DATE_EPOCH_SECONDS);
+            writeVarLong(out, (seconds << 1) ^ (seconds >> 63));
+        } else {
+            writeVarint(out, DATE_STRING);
+            writeReference(out, date, stringIndex);
+        }
+    }
+
+    private static String readDate(DataInputStream in, String[] strings, Map<Long, String> formattedDates)
+            throws IOException {
+        int tag = readVarint(in);
+        switch (tag) {
+            case DATE_NULL:
+                return null;
+            case DATE_EPOCH_SECONDS:
+                long zigzag = readVarLong(in);
+                long seconds = (zigzag >>> 1) ^ -(zigzag & 1);
+                String formatted = formattedDates.get(seconds);
+                if (formatted == null) {
+                    formatted = ToggleDates.format(seconds * 1000L);
+                    formattedDates.put(seconds, formatted);
+                }
+                return formatted;
+            case DATE_STRING:
+                return readReference(in, strings);
+            default:
+                throw new IOException("Invalid date tag: " + tag);
+        }
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        long value = readVarLong(in);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("Varint out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint.");
+    }
+}
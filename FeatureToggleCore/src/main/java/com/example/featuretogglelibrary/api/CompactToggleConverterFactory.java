@@ -0,0 +1,69 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * A Retrofit converter factory that decodes feature toggle lists sent in the compact binary format.
+ *
+ * The converter looks at the content type of each response: payloads of type
+ * {@link CompactToggleCodec#MEDIA_TYPE} are decoded with {@link CompactToggleCodec}, anything else is
+ * passed on to the next converter (Gson). This keeps the client working against servers that
+ * ignore the Accept header and still answer with JSON.
+ *
+ * It must be registered before the Gson converter factory.
+ */
+
+public final class CompactToggleConverterFactory extends Converter.Factory {
+
+    public static CompactToggleConverterFactory create() {
+        return new CompactToggleConverterFactory();
+    }
+
+    private CompactToggleConverterFactory() {
+
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        if (!isToggleList(type)) {
+            return null;
+        }
+        Converter<ResponseBody, List<FeatureToggleItem>> fallback =
+                retrofit.nextResponseBodyConverter(this, type, annotations);
+
+        return body -> {
+            if (!isCompact(body.contentType())) {
+                return fallback.convert(body);
+            }
+            try {
+                return CompactToggleCodec.decode(body.byteStream());
+            } finally {
+                body.close();
+            }
+        };
+    }
+
+    private static boolean isToggleList(Type type) {
+        if (!(type instanceof ParameterizedType)) {
+            return false;
+        }
+        ParameterizedType parameterized = (ParameterizedType) type;
+        return parameterized.getRawType() == List.class
+                && parameterized.getActualTypeArguments()[0] == FeatureToggleItem.class;
+    }
+
+    private static boolean isCompact(MediaType contentType) {
+        return contentType != null
+                && CompactToggleCodec.MEDIA_TYPE.equals(contentType.type() + "/" + contentType.subtype());
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.interfaces.FeatureApi;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.model.FeaturesStatistics;
+import com.example.featuretogglelibrary.model.PendingMutation;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.util.List;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+
+/**
+ * Describes one of the backend calls made by {@link FeatureController}: the name it is known by in caches,
+ * metrics and logs, how its request is built, how its response is read, and the messages it ends with.
+ * Every call goes through the same pipeline, which only differs by its endpoint.
+ *
+ * @param <T> The type of data the call delivers to its callback.
+ */
+
+public final class Endpoint<T> {
+
+    private static final Gson GSON = new Gson();
+
+    public static final Endpoint<List<FeatureToggleItem>> FETCH_ALL = read("fetchAllFeatureToggles",
+            "Failed to fetch feature toggles",
+            (api, request) -> api.getAllFeatureToggles(request.getPackageName()));
+
+    public static final Endpoint<List<FeatureToggleItem>> FETCH_ACTIVE = read("fetchAllActiveFeatures",
+            "Failed to fetch active feature toggles",
+            (api, request) -> api.getActiveFeatureToggles(request.getPackageName()));
+
+    public static final Endpoint<List<FeatureToggleItem>> RECENT = read("getRecentFeatureToggles",
+            "Failed to fetch recent feature toggles",
+            (api, request) -> api.getRecentFeatureToggles(request.getPackageName()));
+
+    public static final Endpoint<List<FeatureToggleItem>> ACTIVE_IN_RANGE = read("getActiveFeaturesInRange",
+            "Failed to retrieve active features in range",
+            (api, request) -> api.getActiveFeaturesInRange(request.getPackageName(),
+                    (String) request.getArguments()[0], (String) request.getArguments()[1]));
+
+    public static final Endpoint<List<FeatureToggleItem>> BY_DATE = read("getFeatureTogglesByDate",
+            "Failed to fetch feature toggles by date",
+            (api, request) -> api.getFeatureTogglesByDate(request.getPackageName(), (String) request.getArguments()[0]));
+
+    public static final Endpoint<FeaturesStatistics> STATISTICS = new Endpoint<>("getFeatureToggleStatistics",
+            null, "Failed to fetch statistics", null, FeaturesStatistics.class,
+            (api, request) -> api.getFeatureToggleStatistics(request.getPackageName()));
+
+    public static final Endpoint<String> CREATE = mutation("createNewFeatureToggle", PendingMutation.Type.CREATE,
+            "Failed to create feature toggle", "Feature created successfully!",
+            (api, request) -> api.createFeatureToggle(request.getBody()));
+
+    public static final Endpoint<String> DELETE = mutation("deleteFeatureToggle", PendingMutation.Type.DELETE,
+            "Failed to delete feature toggle", "Feature toggle deleted successfully.",
+            (api, request) -> api.deleteFeatureToggle(request.getPackageName(), request.getFeatureId()));
+
+    public static final Endpoint<String> UPDATE_DATES = mutation("updateFeatureDates", PendingMutation.Type.UPDATE_DATES,
+            "Failed to update feature toggle dates", "Feature toggle dates updated successfully.",
+            (api, request) -> api.updateFeatureDates(request.getPackageName(), request.getFeatureId(), request.getBody()));
+
+    public static final Endpoint<String> UPDATE_INFO = mutation("updateFeatureInfo", PendingMutation.Type.UPDATE_INFO,
+            "Failed to update feature information", "Feature information updated successfully.",
+            (api, request) -> api.updateFeatureInfo(request.getPackageName(), request.getFeatureId(), request.getBody()));
+
+    // Answers with the backend's own message
+    public static final Endpoint<String> DELETE_ALL = mutation("deleteAllFeatureToggles", PendingMutation.Type.DELETE_ALL,
+            "Failed to delete feature toggles", null,
+            (api, request) -> api.deleteAllFeatureToggles(request.getPackageName()));
+
+    private final String name;
+    private final PendingMutation.Type mutationType;
+    private final String failureMessage;
+    private final String successMessage;
+    private final Class<T> bodyType;
+    private final CallFactory factory;
+
+    private Endpoint(String name, PendingMutation.Type mutationType, String failureMessage, String successMessage,
+                     Class<T> bodyType, CallFactory factory) {
+        this.name = name;
+        this.mutationType = mutationType;
+        this.failureMessage = failureMessage;
+        this.successMessage = successMessage;
+        this.bodyType = bodyType;
+        this.factory = factory;
+    }
+
+    private static Endpoint<List<FeatureToggleItem>> read(String name, String failureMessage, CallFactory factory) {
+        return new Endpoint<>(name, null, failureMessage, null, null, factory);
+    }
+
+    private static Endpoint<String> mutation(String name, PendingMutation.Type type, String failureMessage,
+                                             String successMessage, CallFactory factory) {
+        return new Endpoint<>(name, type, failureMessage, successMessage, String.class, factory);
+    }
+
+    /**
+     * @param type The kind of admin operation.
+     * @return The endpoint sending that operation.
+     */
+    public static Endpoint<String> of(PendingMutation.Type type) {
+        switch (type) {
+            case CREATE:
+                return CREATE;
+            case UPDATE_DATES:
+                return UPDATE_DATES;
+            case UPDATE_INFO:
+                return UPDATE_INFO;
+            case DELETE_ALL:
+                return DELETE_ALL;
+            default:
+                return DELETE;
+        }
+    }
+
+    /**
+     * @return The name of the FeatureController method calling this endpoint, such as "getFeatureTogglesByDate".
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return True if the endpoint changes feature toggles on the backend.
+     */
+    public boolean isMutation() {
+        return mutationType != null;
+    }
+
+    /**
+     * @return The kind of admin operation, or null for reads.
+     */
+    public PendingMutation.Type getMutationType() {
+        return mutationType;
+    }
+
+    /**
+     * @return The beginning of the error messages of this endpoint, such as "Failed to fetch statistics".
+     */
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    Call<?> newCall(FeatureApi api, ApiRequest<T> request) {
+        return factory.create(api, request);
+    }
+
+    /**
+     * Converts the body of a successful response into the data of the call.
+     *
+     * @throws IOException If the body cannot be read, with the message to report.
+     */
+    @SuppressWarnings("unchecked")
+    T read(ApiRequest<T> request, Object body) throws IOException {
+        if (bodyType == null) {
+            if (body == null) {
+                throw new IOException(failureMessage + ": empty response.");
+            }
+            // Converted by Retrofit
+            return (T) body;
+        }
+        String text;
+        try {
+            text = body == null ? null : ((ResponseBody) body).string();
+        } catch (IOException e) {
+            text = null;
+        }
+        if (isMutation()) {
+            request.setResponseBody(text);
+            if (successMessage != null) {
+                return (T) successMessage;
+            }
+            if (text == null) {
+                throw new IOException("Failed to parse server response.");
+            }
+            return (T) text;
+        }
+        try {
+            T value = GSON.fromJson(text, bodyType);
+            if (value != null) {
+                return value;
+            }
+        } catch (RuntimeException e) {
+            // Reported below
+        }
+        throw new IOException(failureMessage + ": invalid response.");
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private interface CallFactory {
+        Call<?> create(FeatureApi api, ApiRequest<?> request);
+    }
+}
@@ -0,0 +1,892 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.interfaces.FeatureApi;
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.interfaces.MutationListener;
+import com.example.featuretogglelibrary.interfaces.RequestInterceptor;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.model.FeaturesStatistics;
+import com.example.featuretogglelibrary.model.ImportSummary;
+import com.example.featuretogglelibrary.model.PendingMutation;
+import com.example.featuretogglelibrary.tracing.Tracer;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.Callback;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * The FeatureController class is responsible for interacting with the backend API
+ * to manage feature toggles for the application.
+ */
+
+public class FeatureController {
+
+    /**
+     * The system property overriding the backend of controllers created without a base URL, such as the one
+     * of the Android facade. Tests and benchmarks set it to a local backend before the library is first used.
+     */
+    public static final String BASE_URL_PROPERTY = "featuretoggle.base_url";
+
+    private static final String BASE_URL = "https://feature-toggle-api-mao-2102299.vercel.app/";
+    private static final Gson GSON = new Gson();
+
+    private final String baseUrl;
+    private volatile FeatureApi featureApi;
+    private volatile OkHttpClient okHttpClient;
+    private volatile MutationQueue mutationQueue;
+    private volatile Tracer tracer = Tracer.NOOP;
+    private volatile CircuitBreaker circuitBreaker;
+    private volatile RequestScheduler requestScheduler = new RequestScheduler();
+    private volatile QueryCache queryCache;
+    private volatile Executor callbackExecutor;
+    private final CopyOnWriteArrayList<MutationListener> mutationListeners = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<RequestInterceptor> interceptors = new CopyOnWriteArrayList<>();
+    private final RequestInterceptor.Chain httpCall = new RequestInterceptor.Chain() {
+        @Override
+        public <T> void proceed(ApiRequest<T> request, GenericCallBack<T> callback) {
+            execute(request, callback);
+        }
+    };
+    // The query cache and interceptors linked in front of the HTTP call, rebuilt when they change
+    private volatile RequestInterceptor.Chain pipeline = httpCall;
+
+    /**
+     * Creates a controller for the default feature toggle backend, or for the one named by
+     * {@link #BASE_URL_PROPERTY} if it is set.
+     */
+    public FeatureController() {
+        this(System.getProperty(BASE_URL_PROPERTY, BASE_URL));
+    }
+
+    /**
+     * Creates a controller for another deployment of the feature toggle backend, such as a relay or a local server.
+     *
+     * @param baseUrl The base URL of the backend, ending with a slash.
+     */
+    public FeatureController(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Sets the queue that admin operations are stored in when the backend cannot be reached.
+     * Without a queue, such operations fail with an error as before.
+     *
+     * @param mutationQueue The queue to use, or null to disable offline queuing.
+     */
+    public void setMutationQueue(MutationQueue mutationQueue) {
+        this.mutationQueue = mutationQueue;
+    }
+
+    /**
+     * @return The queue used for offline admin operations, or null if offline queuing is disabled.
+     */
+    public MutationQueue getMutationQueue() {
+        return mutationQueue;
+    }
+
+    /**
+     * Sets the tracer recording a span for every API call and for the phases of its HTTP exchange.
+     * Calls made after this take the new tracer into account.
+     *
+     * @param tracer The tracer to use, or {@link Tracer#NOOP} to disable tracing.
+     */
+    public void setTracer(Tracer tracer) {
+        this.tracer = tracer == null ? Tracer.NOOP : tracer;
+    }
+
+    /**
+     * @return The tracer used for API calls, {@link Tracer#NOOP} by default.
+     */
+    public Tracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Sets the circuit breaker that fails calls fast while the backend is failing or slow, and serves
+     * the last good responses of reads meanwhile. Calls made after this take the new breaker into account.
+     *
+     * @param circuitBreaker The circuit breaker to use, or null to always call the backend.
+     */
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * @return The circuit breaker guarding API calls, or null if there is none.
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Sets the scheduler that decides when each call starts, by priority class and package.
+     * Calls enqueued after this use the new scheduler.
+     *
+     * @param requestScheduler The scheduler to use, or null to restore a default one.
+     */
+    public void setRequestScheduler(RequestScheduler requestScheduler) {
+        this.requestScheduler = requestScheduler == null ? new RequestScheduler() : requestScheduler;
+    }
+
+    /**
+     * @return The scheduler of API calls.
+     */
+    public RequestScheduler getRequestScheduler() {
+        return requestScheduler;
+    }
+
+    /**
+     * Sets the cache answering repeated reads without a round trip. Successful admin operations
+     * drop the cached results of their package.
+     *
+     * @param queryCache The cache to use, or null to always call the backend.
+     */
+    public void setQueryCache(QueryCache queryCache) {
+        this.queryCache = queryCache;
+        rebuildPipeline();
+    }
+
+    /**
+     * @return The cache of read results, or null if there is none.
+     */
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Sets the executor callbacks are delivered on, including the errors of passed deadlines. By default,
+     * that is the main thread on Android and the thread that completed the call elsewhere.
+     *
+     * @param callbackExecutor The executor to use, or null for the default.
+     * @throws IllegalStateException If a call was already made, as the HTTP client is built with it.
+     */
+    public synchronized void setCallbackExecutor(Executor callbackExecutor) {
+        if (featureApi != null) {
+            throw new IllegalStateException("The callback executor must be set before the first call.");
+        }
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Builds the HTTP client if needed.
+     *
+     * @return The executor callbacks are delivered on, or null if they are delivered on the thread that
+     *         completed the call.
+     */
+    public Executor getCallbackExecutor() {
+        getAPI();
+        return callbackExecutor;
+    }
+
+    /**
+     * Adds a stage to the pipeline every API call goes through, such as metrics, retries or coalescing.
+     * Interceptors run in the order they were added, after the query cache, so cached answers skip them.
+     *
+     * @param interceptor The interceptor to add.
+     */
+    public void addInterceptor(RequestInterceptor interceptor) {
+        interceptors.addIfAbsent(interceptor);
+        rebuildPipeline();
+    }
+
+    /**
+     * @param interceptor The interceptor to remove.
+     */
+    public void removeInterceptor(RequestInterceptor interceptor) {
+        interceptors.remove(interceptor);
+        rebuildPipeline();
+    }
+
+    /**
+     * Adds a listener following the admin operations sent by this controller, such as a write-through
+     * to the local stores.
+     *
+     * @param listener The listener to add.
+     */
+    public void addMutationListener(MutationListener listener) {
+        mutationListeners.addIfAbsent(listener);
+    }
+
+    /**
+     * @param listener The listener to remove.
+     */
+    public void removeMutationListener(MutationListener listener) {
+        mutationListeners.remove(listener);
+    }
+
+    /**
+     * Retrieves an instance of the FeatureApi interface for making API calls.
+     * The Retrofit client is built on first use and shared by all calls, so they reuse its connection pool.
+     *
+     * @return A FeatureApi instance.
+     */
+
+    FeatureApi getAPI() {
+        FeatureApi api = featureApi;
+        if (api == null) {
+            synchronized (this) {
+                if (featureApi == null) {
+                    // The scheduler limits concurrency, so OkHttp must not queue calls behind its own per-host limit
+                    Dispatcher dispatcher = new Dispatcher();
+                    dispatcher.setMaxRequestsPerHost(dispatcher.getMaxRequests());
+                    OkHttpClient client = new OkHttpClient.Builder()
+                            .dispatcher(dispatcher)
+                            .eventListenerFactory(TracingEventListener.factory(this))
+                            .addInterceptor(chain -> {
+                                CircuitBreaker breaker = circuitBreaker;
+                                return breaker == null ? chain.proceed(chain.request()) : breaker.intercept(chain);
+                            })
+                            .build();
+                    Retrofit.Builder builder = new Retrofit.Builder()
+                            .baseUrl(baseUrl)
+                            .client(client)
+                            .addCallAdapterFactory(new TracingCallAdapterFactory(this))
+                            .addCallAdapterFactory(new SchedulingCallAdapterFactory(this))
+                            // Must come first, it hands JSON responses over to Gson
+                            .addConverterFactory(CompactToggleConverterFactory.create())
+                            .addConverterFactory(
+                                    GsonConverterFactory.create(
+                                            new GsonBuilder()
+                                                    .setLenient()
+                                                    .create()
+                                    )
+                            );
+                    if (callbackExecutor != null) {
+                        builder.callbackExecutor(callbackExecutor);
+                    }
+                    Retrofit retrofit = builder.build();
+
+                    // Retrofit picks the main thread on Android
+                    callbackExecutor = retrofit.callbackExecutor();
+                    okHttpClient = client;
+                    featureApi = retrofit.create(FeatureApi.class);
+                }
+                api = featureApi;
+            }
+        }
+        return api;
+    }
+
+    /**
+     * Builds the HTTP client ahead of the first call, which loads and sets up Retrofit, OkHttp and Gson.
+     */
+    public void warmUp() {
+        getAPI();
+    }
+
+    /**
+     * Resolves the backend's host name ahead of the first call, so that the lookup is cached.
+     * This blocks, call it from a background thread.
+     *
+     * @throws IOException If the host name cannot be resolved.
+     */
+    public void resolveHost() throws IOException {
+        getAPI();
+        okHttpClient.dns().lookup(HttpUrl.get(baseUrl).host());
+    }
+
+    /**
+     * Opens a connection to the backend, including the TLS handshake, and leaves it in the connection
+     * pool for the next calls. This blocks, call it from a background thread.
+     *
+     * @throws IOException If the backend cannot be reached.
+     */
+    public void preconnect() throws IOException {
+        getAPI();
+        Request request = new Request.Builder().url(baseUrl).head().build();
+        // Any status will do, only the connection matters
+        okHttpClient.newCall(request).execute().close();
+    }
+
+    /**
+     * Extracts error messages from a failed API response.
+     *
+     * @param response The Response object containing error details.
+     * @return The extracted error message or a default error message if parsing fails.
+     */
+
+    private String extractErrorMessage(Response<?> response) {
+        try {
+            String errorBody = response.errorBody().string();
+            JsonObject errorJson = GSON.fromJson(errorBody, JsonObject.class);
+            return errorJson.has("error") ? errorJson.get("error").getAsString() : "Unknown error";
+        } catch (Exception e) {
+             return "Failed to parse error response.";
+        }
+    }
+
+    private synchronized void rebuildPipeline() {
+        RequestInterceptor.Chain chain = httpCall;
+        for (int i = interceptors.size() - 1; i >= 0; i--) {
+            chain = new Link(interceptors.get(i), chain);
+        }
+        QueryCache cache = queryCache;
+        pipeline = cache == null ? chain : new Link(cache, chain);
+    }
+
+    /**
+     * Sends a call through the pipeline. Admin operations are checked against the offline queue first and
+     * reported to the mutation listeners around the whole pipeline, so that retries count as one operation.
+     */
+    private <T> RequestHandle<T> send(ApiRequest<T> request, GenericCallBack<T> callback) {
+        request = resolveFeatureId(request);
+        RequestHandle<T> handle = new RequestHandle<>(callback, getCallbackExecutor());
+        request.setHandle(handle);
+        PendingMutation mutation = request.getMutation();
+        if (mutation == null) {
+            pipeline.proceed(request, handle.asCallback());
+            return handle;
+        }
+        if (mutation.getFeature_id() != null && queueIfPending(mutation, handle.asCallback())) {
+            return handle;
+        }
+        mutationStarted(mutation);
+        pipeline.proceed(request, new MutationOutcome<>(request, handle.asCallback()));
+        return handle;
+    }
+
+    /**
+     * Redirects an admin operation on a feature created from the offline queue, made with the placeholder ID
+     * the queue handed out, to the ID the backend gave to the feature.
+     */
+    private <T> ApiRequest<T> resolveFeatureId(ApiRequest<T> request) {
+        MutationQueue queue = mutationQueue;
+        PendingMutation mutation = request.getMutation();
+        if (queue == null || mutation == null || mutation.getFeature_id() == null) {
+            return request;
+        }
+        String featureId = queue.resolve(mutation.getPackage_name(), mutation.getFeature_id());
+        if (featureId.equals(mutation.getFeature_id())) {
+            return request;
+        }
+        return new ApiRequest<>(request.getEndpoint(), new PendingMutation(mutation.getType(),
+                mutation.getPackage_name(), featureId, mutation.getPayload()), request.getBody());
+    }
+
+    // The end of the pipeline
+    @SuppressWarnings("unchecked")
+    private <T> void execute(ApiRequest<T> request, GenericCallBack<T> callback) {
+        Call<Object> call = (Call<Object>) request.getEndpoint().newCall(getAPI(), request);
+        Exchange<T> exchange = new Exchange<>(request, callback, call);
+        RequestHandle<T> handle = request.getHandle();
+        if (handle != null && !handle.attach(call)) {
+            // Cancelled before reaching the network, the interceptors still see the call end
+            exchange.onFailure(call, new IOException("Canceled"));
+            return;
+        }
+        call.enqueue(exchange);
+    }
+
+    private void mutationStarted(PendingMutation mutation) {
+        for (MutationListener listener : mutationListeners) {
+            listener.onMutationStarted(mutation);
+        }
+    }
+
+    /**
+     * Drops the cached reads of the mutated package and hands the toggle returned by the backend to the listeners.
+     *
+     * @param mutation The mutation the backend accepted.
+     * @param body     The body of the response, or null if it could not be read.
+     */
+    void mutationSucceeded(PendingMutation mutation, String body) {
+        QueryCache cache = queryCache;
+        if (cache != null) {
+            cache.invalidate(mutation.getPackage_name());
+        }
+        if (mutationListeners.isEmpty()) {
+            return;
+        }
+        FeatureToggleItem result = parseToggle(body);
+        for (MutationListener listener : mutationListeners) {
+            listener.onMutationSucceeded(mutation, result);
+        }
+    }
+
+    private void mutationFailed(PendingMutation mutation) {
+        for (MutationListener listener : mutationListeners) {
+            listener.onMutationFailed(mutation);
+        }
+    }
+
+    static String bodyOf(Response<ResponseBody> response) {
+        ResponseBody body = response.body();
+        if (body == null) {
+            return null;
+        }
+        try {
+            return body.string();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Finds the feature toggle in the response to a mutation. Depending on the endpoint, the backend
+     * answers with the toggle itself, wraps it in an object next to a message, or sends only a message.
+     *
+     * @param body The body of the response.
+     * @return The feature toggle, or null if the body has none.
+     */
+    static FeatureToggleItem parseToggle(String body) {
+        if (body == null || body.isEmpty()) {
+            return null;
+        }
+        try {
+            JsonElement json = GSON.fromJson(body, JsonElement.class);
+            if (json == null || !json.isJsonObject()) {
+                return null;
+            }
+            JsonObject object = json.getAsJsonObject();
+            if (object.has("_id")) {
+                return GSON.fromJson(object, FeatureToggleItem.class);
+            }
+            for (Map.Entry<String, JsonElement> member : object.entrySet()) {
+                JsonElement value = member.getValue();
+                if (value.isJsonObject() && value.getAsJsonObject().has("_id")) {
+                    return GSON.fromJson(value, FeatureToggleItem.class);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Not JSON, the change is picked up by the next refresh
+        }
+        return null;
+    }
+
+    /**
+     * Queues a mutation instead of sending it when the feature already has queued mutations,
+     * so that it cannot overtake them.
+     *
+     * @param mutation        The mutation about to be sent.
+     * @param genericCallBack The callback notified when the mutation is queued.
+     * @return True if the mutation was queued and must not be sent.
+     */
+    private <T> boolean queueIfPending(PendingMutation mutation, GenericCallBack<T> genericCallBack) {
+        MutationQueue queue = mutationQueue;
+        if (queue == null || !queue.hasPending(mutation.getPackage_name(), mutation.getFeature_id())) {
+            return false;
+        }
+        String featureId = queue.enqueue(mutation);
+        deliverMessage(genericCallBack, "Mutation queued behind pending changes of feature " + featureId + ".");
+        return true;
+    }
+
+    /**
+     * Queues a mutation that failed because the backend could not be reached.
+     *
+     * @param t               The failure reported by Retrofit.
+     * @param mutation        The mutation that failed.
+     * @param genericCallBack The callback notified when the mutation is queued.
+     * @return True if the mutation was queued, false if the failure must be reported as an error.
+     */
+    private <T> boolean queueIfOffline(Throwable t, PendingMutation mutation, GenericCallBack<T> genericCallBack) {
+        MutationQueue queue = mutationQueue;
+        if (queue == null || !(t instanceof IOException) || mutation.getType() == PendingMutation.Type.DELETE_ALL) {
+            return false;
+        }
+        String featureId = queue.enqueue(mutation);
+        for (MutationListener listener : mutationListeners) {
+            listener.onMutationQueued(mutation, featureId);
+        }
+        deliverMessage(genericCallBack, "Backend unreachable, mutation of feature " + featureId + " queued for replay.");
+        return true;
+    }
+
+    /**
+     * Fetches all feature toggles for the given package.
+     *
+     * @param packageName The package name to retrieve feature toggles for.
+     * @param callbackFeatures The callback to handle the result or errors.
+     * @return The handle of the request, to cancel it, set a deadline or wait for its result.
+     */
+
+    public RequestHandle<List<FeatureToggleItem>> fetchAllFeatureToggles(String packageName, GenericCallBack<List<FeatureToggleItem>> callbackFeatures)
+    {
+        return send(new ApiRequest<>(Endpoint.FETCH_ALL, packageName), callbackFeatures);
+    }
+
+
+
+    /**
+     * Fetches all active feature toggles for the given package.
+     *
+     * @param packageName The package name to retrieve active feature toggles for.
+     * @param callbackFeatures The callback to handle the result or errors.
+     * @return The handle of the request, to cancel it, set a deadline or wait for its result.
+     */
+    public RequestHandle<List<FeatureToggleItem>> fetchAllActiveFeatures(String packageName, GenericCallBack<List<FeatureToggleItem>> callbackFeatures)
+    {
+        return send(new ApiRequest<>(Endpoint.FETCH_ACTIVE, packageName), callbackFeatures);
+    }
+
+/**
+ * Sends a request to create a new feature toggle in the backend.
+ *
+ * @param featureToggle    The {@link FeatureToggleItem} object containing the details of the new feature toggle to be created.
+ * @param genericCallBack  A callback to handle success or error responses from the server.
+ * @return The handle of the request, to cancel it, set a deadline or wait for its result.
+ */
+
+
+    public RequestHandle<String> createNewFeatureToggle(FeatureToggleItem featureToggle, GenericCallBack<String> genericCallBack) {
+        PendingMutation mutation = new PendingMutation(PendingMutation.Type.CREATE,
+                featureToggle.getPackage_name(), null, featureToggle);
+        return send(new ApiRequest<>(Endpoint.CREATE, mutation, featureToggle), genericCallBack);
+    }
+
+/**
+ * Sends a request to delete a specific feature toggle from the backend.
+ *
+ * @param packageName     The name of the package to which the feature toggle belongs.
+ * @param featureId       The unique ID of the feature toggle to be deleted.
+ * @param genericCallBack A callback to handle success or error responses from the server.
+ * @return The handle of the request, to cancel it, set a deadline or wait for its result.
+ */
+
+    public RequestHandle<String> deleteFeatureToggle(String packageName, String featureId, GenericCallBack<String> genericCallBack) {
+        PendingMutation mutation = new PendingMutation(PendingMutation.Type.DELETE, packageName, featureId, null);
+        return send(new ApiRequest<>(Endpoint.DELETE, mutation, null), genericCallBack);
+    }
+
+    /**
+     * Updates the beginning and expiration dates of a specific feature toggle.
+     *
+     * @param packageName     The name of the package to which the feature toggle belongs.
+     * @param featureId       The unique ID of the feature toggle to be updated.
+     * @param updatedData     A {@link com.example.featuretogglelibrary.model.FeatureToggleItem} object containing the new beginning and expiration dates.
+     * @param genericCallBack A callback to handle success or error responses from the server.
+     * @return The handle of the request, to cancel it, set a deadline or wait for its result.
+     *
+     * Example usage:
+     * <pre>
+     * FeatureToggleItem updatedData = new FeatureToggleItem();
+     * updatedData.setBeginning_date("2025-02-01 00:00:00");
+     * updatedData.setExpiration_date("2025-12-31 23:59:59");
+     *
+     * featureController.updateFeatureDates(
+     *     "com.example.myapp", // Replace with the actual package name
+     *     "814b5dda-c77b-4929-9a40-b683c56adbc6", // Replace with the actual feature ID
+     *     updatedData,
+     *      new GenericCallBack&lt;String&gt;() {
+     *
+     *         public void success(String message) {
+     *             System.out.println("Feature dates updated successfully: " + message);
+     *         }
+     *
+     *
+     *         public void error(String error) {
+     *             System.err.println("Error updating feature dates: " + error);
+     *         }
+     *     }
+     * );
+     * </pre>
+     */
+    public RequestHandle<String> updateFeatureDates(String packageName, String featureId, FeatureToggleItem updatedData,
+                                   GenericCallBack<String> genericCallBack)
+    {
+        PendingMutation mutation = new PendingMutation(PendingMutation.Type.UPDATE_DATES, packageName, featureId, updatedData);
+        return send(new ApiRequest<>(Endpoint.UPDATE_DATES, mutation, updatedData), genericCallBack);
+    }
+
+
+/**
+ * Retrieves all feature toggles created in the last 30 days for a specific package.
+ *
+ * @param packageName     The name of the package for which recent feature toggles are to be fetched.
+ * @param callbackFeatures A callback to handle the success or error responses.
+ * @return The handle of the request, to cancel it, set a deadline or wait for its result.
+ */
+    public RequestHandle<List<FeatureToggleItem>> getRecentFeatureToggles(String packageName, GenericCallBack<List<FeatureToggleItem>> callbackFeatures) {
+        return send(new ApiRequest<>(Endpoint.RECENT, packageName), callbackFeatures);
+    }
+
+    /**
+     * Updates the name and descriotion of a specific feature toggle for a package.
+     *
+     * @param packageName   The name of the package containing the feature toggle.
+     * @param featureId     The unique identifier of the feature toggle to be updated.
+     * @param updatedData   The updated feature toggle data, including changes to be applied.
+     * @param genericCallBack A callback to handle the success or error responses.
+     * @return The handle of the request, to cancel it, set a deadline or wait for its result.
+     */
+    public RequestHandle<String> updateFeatureInfo(String packageName, String featureId,
+                                  FeatureToggleItem updatedData, GenericCallBack<String> genericCallBack)
+    {
+        PendingMutation mutation = new PendingMutation(PendingMutation.Type.UPDATE_INFO, packageName, featureId, updatedData);
+        return send(new ApiRequest<>(Endpoint.UPDATE_INFO, mutation, updatedData), genericCallBack);
+    }
+
+/**
+ * Retrieves all active feature toggles for a specific package within a specified date range.
+ *
+ * @param packageName    The name of the package containing the feature toggles.
+ * @param startDate      The start date of the range in the format "YYYY-MM-DD HH:MM:SS".
+ * @param endDate        The end date of the range in the format "YYYY-MM-DD HH:MM:SS".
+ * @param callbackFeatures A callback to handle the success or error responses,
+ *                         providing a list of active feature toggles or an error message.
+ * @return The handle of the request, to cancel it, set a deadline or wait for its result.
+ */
+
+    public RequestHandle<List<FeatureToggleItem>> getActiveFeaturesInRange(String packageName, String startDate, String endDate,
+            GenericCallBack<List<FeatureToggleItem>> callbackFeatures)
+    {
+        return send(new ApiRequest<>(Endpoint.ACTIVE_IN_RANGE, packageName, startDate, endDate), callbackFeatures);
+    }
+
+
+    /**
+     * Fetches statistics about feature toggles for a specific package.
+     *
+     * @param packageName    The name of the package for which the statistics are to be retrieved.
+     * @param genericCallBack A callback to handle the success or error responses.
+     *                        On success, it provides a {@link com.example.featuretogglelibrary.model.FeaturesStatistics} object containing the statistics.
+     * @return The handle of the request, to cancel it, set a deadline or wait for its result.
+     */
+
+    public RequestHandle<FeaturesStatistics> getFeatureToggleStatistics(String packageName, GenericCallBack<FeaturesStatistics> genericCallBack)
+    {
+        return send(new ApiRequest<>(Endpoint.STATISTICS, packageName), genericCallBack);
+    }
+
+/**
+ * Fetches all feature toggles for a specific package that are active on a given date.
+ *
+ * @param packageName     The name of the package for which feature toggles are to be retrieved.
+ * @param date            The specific date in the format "YYYY-MM-DD", used to filter active toggles.
+ * @param genericCallBack A callback to handle the success or error responses.
+ *                        On success, it provides a list of {@link FeatureToggleItem} objects.
+ * @return The handle of the request, to cancel it, set a deadline or wait for its result.
+ */
+    public RequestHandle<List<FeatureToggleItem>> getFeatureTogglesByDate(String packageName, String date, GenericCallBack<List<FeatureToggleItem>> genericCallBack
+    ) {
+        return send(new ApiRequest<>(Endpoint.BY_DATE, packageName, date), genericCallBack);
+    }
+
+
+
+
+
+/**
+ * Deletes all feature toggles for a specific package.
+ *
+ * @param packageName     The name of the package whose feature toggles are to be deleted.
+ * @param genericCallBack A callback to handle the result of the operation.
+ *                        On success, it provides a success message as a {@link String}.
+ * @return The handle of the request, to cancel it, set a deadline or wait for its result.
+ */
+
+
+
+    public RequestHandle<String> deleteAllFeatureToggles(String packageName, GenericCallBack<String> genericCallBack) {
+        PendingMutation mutation = new PendingMutation(PendingMutation.Type.DELETE_ALL, packageName, null, null);
+        return send(new ApiRequest<>(Endpoint.DELETE_ALL, mutation, null), genericCallBack);
+    }
+
+    /**
+     * Writes all feature toggles of a package to a channel, page by page, so that packages of any size
+     * can be backed up with constant memory. A backend without paging is read as one list instead.
+     * This blocks, call it from a background thread.
+     *
+     * @param packageName The package to export.
+     * @param channel     The channel to write to, which is not closed.
+     * @param format      The format to write.
+     * @return The number of feature toggles written.
+     * @throws IOException If a page cannot be fetched or the channel cannot be written.
+     */
+    public long exportFeatureToggles(String packageName, WritableByteChannel channel, ToggleTransfer.Format format)
+            throws IOException {
+        return ToggleTransfer.export(this, packageName, channel, format);
+    }
+
+    /**
+     * Creates the feature toggles read from a channel in a package, such as an export of another package.
+     * Toggles are created while the following ones are read, with up to parallelism creations in flight,
+     * which the {@link RequestScheduler} further limits to its mutation cap. The IDs in the input are
+     * ignored and the local store is not updated, refresh it afterwards. This blocks, call it from a
+     * background thread.
+     *
+     * @param packageName The package to create the feature toggles in.
+     * @param channel     The channel to read from, which is not closed.
+     * @param format      The format to read.
+     * @param parallelism The maximum number of creations in flight.
+     * @return The number of feature toggles read, created and rejected.
+     * @throws IOException If the channel cannot be read.
+     */
+    public ImportSummary importFeatureToggles(String packageName, ReadableByteChannel channel,
+                                              ToggleTransfer.Format format, int parallelism) throws IOException {
+        return ToggleTransfer.importToggles(this, packageName, channel, format, parallelism);
+    }
+
+    /**
+     * Iterates over all feature toggles of a package page by page, prefetching the following pages.
+     *
+     * @param packageName   The package name to retrieve feature toggles for.
+     * @param pageSize      The number of feature toggles requested per page.
+     * @param prefetchDepth The number of pages fetched ahead of the one being consumed.
+     * @return An iterator that must be used off the main thread and closed when no longer needed.
+     */
+    public FeaturePageIterator iterateAllFeatureToggles(String packageName, int pageSize, int prefetchDepth) {
+        FeatureApi api = getAPI();
+        return new FeaturePageIterator(
+                cursor -> api.getAllFeatureTogglesPage(packageName, pageSize, cursor), prefetchDepth);
+    }
+
+    /**
+     * Iterates over the feature toggles created in the last 30 days page by page, prefetching the following pages.
+     *
+     * @param packageName   The name of the package for which recent feature toggles are to be fetched.
+     * @param pageSize      The number of feature toggles requested per page.
+     * @param prefetchDepth The number of pages fetched ahead of the one being consumed.
+     * @return An iterator that must be used off the main thread and closed when no longer needed.
+     */
+    public FeaturePageIterator iterateRecentFeatureToggles(String packageName, int pageSize, int prefetchDepth) {
+        FeatureApi api = getAPI();
+        return new FeaturePageIterator(
+                cursor -> api.getRecentFeatureTogglesPage(packageName, pageSize, cursor), prefetchDepth);
+    }
+
+    /**
+     * Iterates over the feature toggles active within a date range page by page, prefetching the following pages.
+     *
+     * @param packageName   The name of the package containing the feature toggles.
+     * @param startDate     The start date of the range in the format "YYYY-MM-DD HH:MM:SS".
+     * @param endDate       The end date of the range in the format "YYYY-MM-DD HH:MM:SS".
+     * @param pageSize      The number of feature toggles requested per page.
+     * @param prefetchDepth The number of pages fetched ahead of the one being consumed.
+     * @return An iterator that must be used off the main thread and closed when no longer needed.
+     */
+    public FeaturePageIterator iterateActiveFeaturesInRange(String packageName, String startDate, String endDate,
+                                                            int pageSize, int prefetchDepth) {
+        FeatureApi api = getAPI();
+        return new FeaturePageIterator(
+                cursor -> api.getActiveFeaturesInRangePage(packageName, startDate, endDate, pageSize, cursor),
+                prefetchDepth);
+    }
+
+    // Admin operations always deliver a message
+    @SuppressWarnings("unchecked")
+    private static <T> void deliverMessage(GenericCallBack<T> callback, String message) {
+        callback.success((T) message);
+    }
+
+    /**
+     * A stage of the pipeline, calling an interceptor with the rest of the chain.
+     */
+    private static final class Link implements RequestInterceptor.Chain {
+        private final RequestInterceptor interceptor;
+        private final RequestInterceptor.Chain next;
+
+        Link(RequestInterceptor interceptor, RequestInterceptor.Chain next) {
+            this.interceptor = interceptor;
+            this.next = next;
+        }
+
+        @Override
+        public <T> void proceed(ApiRequest<T> request, GenericCallBack<T> callback) {
+            interceptor.intercept(request, callback, next);
+        }
+    }
+
+    /**
+     * Receives the HTTP response of a call, and reports it with a single message per outcome.
+     */
+    private final class Exchange<T> implements Callback<Object> {
+        private final ApiRequest<T> request;
+        private final GenericCallBack<T> callback;
+        // As made, the call reported back may be a wrapper of it
+        private final Call<Object> call;
+
+        Exchange(ApiRequest<T> request, GenericCallBack<T> callback, Call<Object> call) {
+            this.request = request;
+            this.callback = callback;
+            this.call = call;
+        }
+
+        @Override
+        public void onResponse(Call<Object> call, Response<Object> response) {
+            detach();
+            Endpoint<T> endpoint = request.getEndpoint();
+            if (!response.isSuccessful()) {
+                callback.error(endpoint.getFailureMessage() + ": " + extractErrorMessage(response));
+                return;
+            }
+            request.setAccepted(true);
+            T data;
+            try {
+                data = endpoint.read(request, response.body());
+            } catch (IOException e) {
+                callback.error(e.getMessage());
+                return;
+            }
+            callback.success(data);
+        }
+
+        @Override
+        public void onFailure(Call<Object> call, Throwable t) {
+            detach();
+            request.setFailure(t);
+            callback.error(request.getEndpoint().getFailureMessage() + ": " + t.getMessage());
+        }
+
+        private void detach() {
+            RequestHandle<T> handle = request.getHandle();
+            if (handle != null) {
+                handle.detach(call);
+            }
+        }
+    }
+
+    /**
+     * Reports the outcome of an admin operation to the mutation listeners, or queues it if the backend
+     * could not be reached, before passing it on to the caller.
+     */
+    private final class MutationOutcome<T> implements GenericCallBack<T> {
+        private final ApiRequest<T> request;
+        private final GenericCallBack<T> callback;
+
+        MutationOutcome(ApiRequest<T> request, GenericCallBack<T> callback) {
+            this.request = request;
+            this.callback = callback;
+        }
+
+        @Override
+        public void success(T data) {
+            mutationSucceeded(request.getMutation(), request.getResponseBody());
+            callback.success(data);
+        }
+
+        @Override
+        public void error(String error) {
+            if (request.isAccepted()) {
+                // Applied by the backend, only its answer could not be read
+                mutationSucceeded(request.getMutation(), request.getResponseBody());
+            } else if (request.getHandle().isClosed()
+                    || !queueIfOffline(request.getFailure(), request.getMutation(), callback)) {
+                // A cancelled operation is given up rather than replayed
+                mutationFailed(request.getMutation());
+            } else {
+                return;
+            }
+            callback.error(error);
+        }
+    }
+
+}
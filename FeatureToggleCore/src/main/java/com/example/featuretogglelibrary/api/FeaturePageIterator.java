@@ -0,0 +1,203 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.model.FeatureTogglePage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Iterates over the feature toggles of a paged list endpoint, fetching pages by cursor.
+ *
+ * While the caller consumes one page, up to prefetchDepth following pages are fetched in the
+ * background, so the next page is usually already there when it is needed. Only the pages in
+ * that window are held in memory.
+ *
+ * hasNext() blocks while a page is being fetched, so the iterator must not be used on the main thread.
+ * A failed page fetch, or a response that is not a page, ends the iteration with an
+ * {@link UncheckedIOException}. Closing the iterator from another thread ends the iteration too.
+ */
+
+public class FeaturePageIterator implements Iterator<FeatureToggleItem>, Closeable {
+
+    /**
+     * Creates the request for the page starting at the given cursor.
+     */
+    interface PageRequest {
+        Call<FeatureTogglePage> create(String cursor);
+    }
+
+    /**
+     * The response to a page request was not a page, such as a plain list from a backend without paging.
+     */
+    static class MalformedPageException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        MalformedPageException(RuntimeException cause) {
+            super("Malformed page of feature toggles: " + cause.getMessage(), cause);
+        }
+    }
+
+    private static final Object END = new Object();
+
+    private static final ExecutorService PREFETCHER = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "FeatureToggle-PagePrefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final PageRequest pageRequest;
+    private final int prefetchDepth;
+
+    // Holds fetched pages, the failure that ended the iteration, or END
+    private final BlockingQueue<Object> ready = new LinkedBlockingQueue<>();
+    private final Object lock = new Object();
+
+    private int bufferedPages = 0;
+    private boolean fetching = false;
+    private String deferredCursor;
+    private Call<FeatureTogglePage> inFlight;
+    private boolean closed = false;
+
+    private Iterator<FeatureToggleItem> current = Collections.emptyIterator();
+    private volatile boolean ended = false;
+
+    FeaturePageIterator(PageRequest pageRequest, int prefetchDepth) {
+        this.pageRequest = pageRequest;
+        this.prefetchDepth = Math.max(1, prefetchDepth);
+        synchronized (lock) {
+            fetch(null);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (ended) {
+                return false;
+            }
+
+            Object next;
+            try {
+                next = ready.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the next page.", e);
+            }
+
+            if (next == END) {
+                ended = true;
+                return false;
+            }
+            if (next instanceof IOException) {
+                ended = true;
+                throw new UncheckedIOException("Failed to fetch the next page of feature toggles.", (IOException) next);
+            }
+
+            FeatureTogglePage page = (FeatureTogglePage) next;
+            synchronized (lock) {
+                bufferedPages--;
+                if (deferredCursor != null && !fetching) {
+                    // A slot in the prefetch window is free again
+                    String cursor = deferredCursor;
+                    deferredCursor = null;
+                    fetch(cursor);
+                }
+            }
+            current = page.getItems() == null
+                    ? Collections.<FeatureToggleItem>emptyIterator()
+                    : page.getItems().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public FeatureToggleItem next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    /**
+     * Stops prefetching and cancels the page request in flight, if any. A thread waiting in
+     * {@link #hasNext()} is woken up and sees the end of the iteration.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            deferredCursor = null;
+            if (inFlight != null) {
+                inFlight.cancel();
+            }
+            // The buffered pages are dropped, END is what a waiting thread takes next
+            ready.clear();
+            ready.add(END);
+        }
+        ended = true;
+    }
+
+    // Must be called while holding lock
+    private void fetch(String cursor) {
+        Call<FeatureTogglePage> call = pageRequest.create(cursor);
+        fetching = true;
+        inFlight = call;
+        PREFETCHER.execute(() -> load(call));
+    }
+
+    private void load(Call<FeatureTogglePage> call) {
+        Object result;
+        try {
+            Response<FeatureTogglePage> response = call.execute();
+            if (response.isSuccessful() && response.body() != null) {
+                result = response.body();
+            } else {
+                result = new IOException("Unexpected response code: " + response.code());
+            }
+        } catch (IOException e) {
+            result = e;
+        } catch (RuntimeException e) {
+            // The body could not be converted, such as a plain list from a backend without paging
+            result = new MalformedPageException(e);
+        }
+
+        synchronized (lock) {
+            fetching = false;
+            inFlight = null;
+            if (closed) {
+                return;
+            }
+
+            if (!(result instanceof FeatureTogglePage)) {
+                ready.add(result);
+                return;
+            }
+
+            FeatureTogglePage page = (FeatureTogglePage) result;
+            ready.add(page);
+            bufferedPages++;
+
+            String nextCursor = page.getNext_cursor();
+            if (nextCursor == null || nextCursor.isEmpty()) {
+                ready.add(END);
+            } else if (bufferedPages < prefetchDepth) {
+                fetch(nextCursor);
+            } else {
+                // The window is full, fetch once the caller takes a page
+                deferredCursor = nextCursor;
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+
+import retrofit2.Invocation;
+import retrofit2.http.Path;
+
+/**
+ * Helpers for reading the {@link com.example.featuretogglelibrary.interfaces.FeatureApi} method
+ * and arguments that Retrofit attaches to each request.
+ */
+
+final class Invocations {
+
+    private Invocations() {
+
+    }
+
+    /**
+     * @return The "package_name" path argument, or the package of the toggle being created, or null.
+     */
+    static String packageOf(Invocation invocation) {
+        if (invocation == null) {
+            return null;
+        }
+        List<?> arguments = invocation.arguments();
+        Annotation[][] annotations = invocation.method().getParameterAnnotations();
+        for (int i = 0; i < annotations.length; i++) {
+            for (Annotation annotation : annotations[i]) {
+                if (annotation instanceof Path && "package_name".equals(((Path) annotation).value())) {
+                    return (String) arguments.get(i);
+                }
+            }
+        }
+        for (Object argument : arguments) {
+            if (argument instanceof FeatureToggleItem) {
+                return ((FeatureToggleItem) argument).getPackage_name();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,559 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.interfaces.FeatureApi;
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.model.PendingMutation;
+import com.google.gson.Gson;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * The MutationQueue class keeps a durable log of admin operations that could not reach the backend
+ * and replays them, in order and in batches, once connectivity returns.
+ *
+ * Redundant operations are coalesced when they are queued:
+ * - Several date (or info) updates to the same feature collapse into one.
+ * - Updates to a feature whose creation is still queued are merged into the creation.
+ * - A queued creation followed by a delete of the same feature cancels out.
+ * - A delete drops every queued update of the same feature.
+ *
+ * A queued creation hands out a local placeholder ID. Once the backend has created the feature, the
+ * mutations queued for the placeholder are sent to the ID the backend returned, and later mutations
+ * made with the placeholder are redirected to it as well.
+ *
+ * The log is an append-only file with one {@link PendingMutation} per line. Cancelled mutations are
+ * recorded as tombstone lines, a line with the sequence of an earlier one replaces it, and the file is
+ * rewritten once it holds mostly dead lines.
+ */
+
+public class MutationQueue {
+
+    /**
+     * Prefix of the placeholder IDs handed out for creations that are waiting in the queue.
+     */
+    public static final String LOCAL_ID_PREFIX = "local-";
+
+    private static final int DEFAULT_BATCH_SIZE = 16;
+    private static final String REPLAY_FAILED = "Failed to replay pending mutations";
+
+    private final File logFile;
+    private final Gson gson = new Gson();
+
+    // Writes happen on a single thread so log lines keep the order of the in-memory queue
+    private final ExecutorService logWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "FeatureToggle-MutationLog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LinkedHashMap<Long, PendingMutation> pending = new LinkedHashMap<>();
+    private final Map<String, EnumMap<PendingMutation.Type, Long>> byFeature = new HashMap<>();
+    // The IDs the backend gave to features created under a placeholder ID, by package and placeholder ID
+    private final Map<String, String> serverIds = new HashMap<>();
+    // The placeholder IDs whose creation is being replayed, by package and placeholder ID
+    private final Set<String> creating = new HashSet<>();
+    private long nextSequence = 1;
+    private int logLines = 0;
+    private final List<String> unwrittenLines = new ArrayList<>();
+    private boolean rewriteRequested = false;
+    private boolean flushScheduled = false;
+    private boolean replaying = false;
+
+    /**
+     * Creates a mutation queue backed by the given log file, restoring any mutations left in it.
+     *
+     * @param logFile The file used to persist the queue. It is created if it does not exist.
+     */
+    public MutationQueue(File logFile) {
+        this.logFile = logFile;
+        load();
+    }
+
+    /**
+     * Queues a mutation, coalescing it with the mutations already waiting for the same feature.
+     *
+     * @param mutation The mutation to queue.
+     * @return The ID of the affected feature toggle. For creations this is a local placeholder ID
+     *         that can be used to update or delete the feature before it reaches the backend.
+     */
+    public synchronized String enqueue(PendingMutation mutation) {
+        if (mutation.getType() == PendingMutation.Type.CREATE) {
+            String localId = LOCAL_ID_PREFIX + UUID.randomUUID();
+            append(new PendingMutation(PendingMutation.Type.CREATE, mutation.getPackage_name(), localId,
+                    copyOf(mutation.getPayload())));
+            return localId;
+        }
+
+        String featureId = resolve(mutation.getPackage_name(), mutation.getFeature_id());
+        String key = key(mutation.getPackage_name(), featureId);
+        EnumMap<PendingMutation.Type, Long> queued = byFeature.get(key);
+
+        if (mutation.getType() == PendingMutation.Type.DELETE) {
+            boolean createQueued = queued != null && queued.containsKey(PendingMutation.Type.CREATE);
+            if (queued != null) {
+                for (Long sequence : new ArrayList<>(queued.values())) {
+                    remove(sequence);
+                }
+            }
+            if (!createQueued) {
+                // The feature exists on the backend, so the delete itself still has to be sent
+                append(new PendingMutation(PendingMutation.Type.DELETE, mutation.getPackage_name(), featureId, null));
+            }
+            return featureId;
+        }
+
+        if (queued != null && queued.containsKey(PendingMutation.Type.DELETE)) {
+            // The feature is going to be deleted, updating it first is pointless
+            return featureId;
+        }
+
+        Long createSequence = queued == null ? null : queued.get(PendingMutation.Type.CREATE);
+        if (createSequence != null) {
+            // Fold the update into the queued creation
+            FeatureToggleItem payload = copyOf(pending.get(createSequence).getPayload());
+            PendingMutation.merge(payload, mutation.getType(), mutation.getPayload());
+            remove(createSequence);
+            append(new PendingMutation(PendingMutation.Type.CREATE, mutation.getPackage_name(), featureId, payload));
+            return featureId;
+        }
+
+        FeatureToggleItem payload = new FeatureToggleItem();
+        Long previousSequence = queued == null ? null : queued.get(mutation.getType());
+        if (previousSequence != null) {
+            // Keep the fields of the earlier update that the new one does not override
+            PendingMutation.merge(payload, mutation.getType(), pending.get(previousSequence).getPayload());
+            remove(previousSequence);
+        }
+        PendingMutation.merge(payload, mutation.getType(), mutation.getPayload());
+        append(new PendingMutation(mutation.getType(), mutation.getPackage_name(), featureId, payload));
+        return featureId;
+    }
+
+    /**
+     * Checks whether mutations of the given feature toggle are waiting in the queue.
+     * New mutations of such a feature must be queued too, otherwise they would overtake the older ones.
+     *
+     * @param packageName The name of the package containing the feature toggle.
+     * @param featureId   The ID of the feature toggle.
+     * @return True if the feature has queued mutations or only exists locally.
+     */
+    public synchronized boolean hasPending(String packageName, String featureId) {
+        String key = key(packageName, resolve(packageName, featureId));
+        return byFeature.containsKey(key) || creating.contains(key);
+    }
+
+    /**
+     * Finds the ID the backend gave to a feature that was created from the queue.
+     *
+     * @param packageName The name of the package containing the feature toggle.
+     * @param featureId   The ID of the feature toggle, possibly a placeholder ID handed out by {@link #enqueue}.
+     * @return The ID of the feature on the backend, or the given ID if it is not a placeholder ID or the
+     *         feature has not been created yet.
+     */
+    public synchronized String resolve(String packageName, String featureId) {
+        if (featureId == null || !featureId.startsWith(LOCAL_ID_PREFIX)) {
+            return featureId;
+        }
+        String serverId = serverIds.get(key(packageName, featureId));
+        return serverId != null ? serverId : featureId;
+    }
+
+    /**
+     * @return The number of mutations waiting to be replayed.
+     */
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * @return A copy of the queued mutations, in replay order.
+     */
+    public synchronized List<PendingMutation> getPendingMutations() {
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Replays the queued mutations using the default batch size.
+     *
+     * @param controller The controller used to reach the backend.
+     * @param callback   Receives the number of mutations replayed, or an error if replay stopped early.
+     */
+    public void replay(FeatureController controller, GenericCallBack<Integer> callback) {
+        replay(controller, DEFAULT_BATCH_SIZE, callback);
+    }
+
+    /**
+     * Replays the queued mutations in order. Each batch is sent concurrently, and the next batch starts
+     * once the whole batch has completed. Mutations rejected by the backend are dropped, since
+     * sending them again would fail the same way. Replay stops at the first batch in which the
+     * backend could not be reached, leaving the remaining mutations queued.
+     *
+     * @param controller The controller used to reach the backend.
+     * @param batchSize  The maximum number of mutations sent concurrently.
+     * @param callback   Receives the number of mutations replayed, or an error if replay stopped early.
+     */
+    public void replay(FeatureController controller, int batchSize, GenericCallBack<Integer> callback) {
+        synchronized (this) {
+            if (replaying) {
+                callback.error(REPLAY_FAILED + ": Replay already in progress.");
+                return;
+            }
+            replaying = true;
+        }
+        replayNextBatch(controller, Math.max(1, batchSize), 0, callback);
+    }
+
+    private void replayNextBatch(FeatureController controller, int batchSize, int replayedSoFar,
+                                 GenericCallBack<Integer> callback) {
+        List<PendingMutation> batch = takeBatch(batchSize);
+        if (batch.isEmpty()) {
+            finishReplay();
+            callback.success(replayedSoFar);
+            return;
+        }
+
+        AtomicInteger remaining = new AtomicInteger(batch.size());
+        AtomicInteger replayed = new AtomicInteger(replayedSoFar);
+        AtomicBoolean unreachable = new AtomicBoolean(false);
+
+        for (PendingMutation mutation : batch) {
+            toCall(controller.getAPI(), mutation).enqueue(new Callback<ResponseBody>() {
+                @Override
+                public void onResponse(Call<ResponseBody> call, Response<ResponseBody> response) {
+                    if (response.isSuccessful()) {
+                        replayed.incrementAndGet();
+                        String body = FeatureController.bodyOf(response);
+                        if (mutation.getType() == PendingMutation.Type.CREATE) {
+                            FeatureToggleItem created = FeatureController.parseToggle(body);
+                            created(mutation, created == null ? null : created.get_id());
+                        }
+                        controller.mutationSucceeded(mutation, body);
+                        completed(mutation);
+                    } else if (response.code() >= 400 && response.code() < 500) {
+                        // Rejected by the backend, sending it again would fail the same way
+                        if (mutation.getType() == PendingMutation.Type.CREATE) {
+                            created(mutation, null);
+                        }
+                        completed(mutation);
+                    } else {
+                        unreachable.set(true);
+                        requeue(mutation);
+                    }
+                    onBatchItemDone();
+                }
+
+                @Override
+                public void onFailure(Call<ResponseBody> call, Throwable t) {
+                    unreachable.set(true);
+                    requeue(mutation);
+                    onBatchItemDone();
+                }
+
+                private void onBatchItemDone() {
+                    if (remaining.decrementAndGet() > 0) {
+                        return;
+                    }
+                    if (unreachable.get()) {
+                        finishReplay();
+                        callback.error(REPLAY_FAILED + ": Replay stopped, backend unreachable. Mutations replayed: "
+                                + replayed.get());
+                    } else {
+                        replayNextBatch(controller, batchSize, replayed.get(), callback);
+                    }
+                }
+            });
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Call<ResponseBody> toCall(FeatureApi api, PendingMutation mutation) {
+        FeatureToggleItem body = mutation.getPayload();
+        if (mutation.getType() == PendingMutation.Type.CREATE) {
+            body = copyOf(body);
+            body.set_id(null);
+            body.setPackage_name(mutation.getPackage_name());
+        }
+        // The same endpoints as the calls made directly by the controller
+        Endpoint<String> endpoint = Endpoint.of(mutation.getType());
+        return (Call<ResponseBody>) endpoint.newCall(api, new ApiRequest<>(endpoint, mutation, body));
+    }
+
+    /**
+     * Takes the next mutations to replay. They stay in the log until they complete, but are removed
+     * from the coalescing index so that new mutations are never merged into a request already in flight.
+     * A batch ends before a mutation of a feature whose creation is in it, since the feature only gets
+     * its ID once the creation completes.
+     */
+    private synchronized List<PendingMutation> takeBatch(int batchSize) {
+        List<PendingMutation> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        List<PendingMutation> orphans = new ArrayList<>();
+        Iterator<PendingMutation> iterator = pending.values().iterator();
+        while (iterator.hasNext() && batch.size() < batchSize) {
+            PendingMutation mutation = iterator.next();
+            String key = key(mutation.getPackage_name(), mutation.getFeature_id());
+            if (mutation.getType() == PendingMutation.Type.CREATE) {
+                creating.add(key);
+            } else if (mutation.getFeature_id().startsWith(LOCAL_ID_PREFIX)) {
+                if (creating.contains(key)) {
+                    break;
+                }
+                // Its creation was dropped, so the feature does not exist on the backend
+                orphans.add(mutation);
+                continue;
+            }
+            unindex(mutation);
+            batch.add(mutation);
+        }
+        for (PendingMutation orphan : orphans) {
+            remove(orphan.getSequence());
+        }
+        return batch;
+    }
+
+    /**
+     * Records the outcome of a replayed creation. The mutations queued for its placeholder ID are
+     * rewritten with the ID given by the backend, or dropped if the feature was not created or its
+     * ID is unknown.
+     *
+     * @param creation The creation, queued under a placeholder ID.
+     * @param serverId The ID of the created feature, or null.
+     */
+    private synchronized void created(PendingMutation creation, String serverId) {
+        String localId = creation.getFeature_id();
+        creating.remove(key(creation.getPackage_name(), localId));
+        if (serverId != null) {
+            serverIds.put(key(creation.getPackage_name(), localId), serverId);
+        }
+        for (PendingMutation mutation : new ArrayList<>(pending.values())) {
+            if (mutation.getSequence() == creation.getSequence()
+                    || !localId.equals(mutation.getFeature_id())
+                    || !creation.getPackage_name().equals(mutation.getPackage_name())) {
+                continue;
+            }
+            if (serverId == null) {
+                remove(mutation.getSequence());
+                continue;
+            }
+            unindex(mutation);
+            PendingMutation redirected = new PendingMutation(mutation.getType(), mutation.getPackage_name(),
+                    serverId, mutation.getPayload());
+            redirected.setSequence(mutation.getSequence());
+            pending.put(redirected.getSequence(), redirected);
+            index(redirected);
+            writeLine(gson.toJson(redirected));
+        }
+    }
+
+    private synchronized void completed(PendingMutation mutation) {
+        remove(mutation.getSequence());
+    }
+
+    private synchronized void requeue(PendingMutation mutation) {
+        if (mutation.getType() == PendingMutation.Type.CREATE) {
+            creating.remove(key(mutation.getPackage_name(), mutation.getFeature_id()));
+        }
+        if (pending.containsKey(mutation.getSequence())) {
+            index(mutation);
+        }
+    }
+
+    private synchronized void finishReplay() {
+        replaying = false;
+    }
+
+    private void append(PendingMutation mutation) {
+        mutation.setSequence(nextSequence++);
+        pending.put(mutation.getSequence(), mutation);
+        index(mutation);
+        writeLine(gson.toJson(mutation));
+    }
+
+    private void remove(long sequence) {
+        PendingMutation removed = pending.remove(sequence);
+        if (removed == null) {
+            return;
+        }
+        unindex(removed);
+
+        PendingMutation tombstone = new PendingMutation();
+        tombstone.setSequence(sequence);
+        tombstone.setRemoved(true);
+        writeLine(gson.toJson(tombstone));
+    }
+
+    private void index(PendingMutation mutation) {
+        byFeature.computeIfAbsent(key(mutation.getPackage_name(), mutation.getFeature_id()),
+                k -> new EnumMap<>(PendingMutation.Type.class)).put(mutation.getType(), mutation.getSequence());
+    }
+
+    private void unindex(PendingMutation mutation) {
+        String key = key(mutation.getPackage_name(), mutation.getFeature_id());
+        EnumMap<PendingMutation.Type, Long> queued = byFeature.get(key);
+        if (queued == null) {
+            return;
+        }
+        Long sequence = queued.get(mutation.getType());
+        if (sequence != null && sequence == mutation.getSequence()) {
+            queued.remove(mutation.getType());
+        }
+        if (queued.isEmpty()) {
+            byFeature.remove(key);
+        }
+    }
+
+    private void writeLine(String line) {
+        logLines++;
+        synchronized (unwrittenLines) {
+            if (logLines > 2 * pending.size() + 64) {
+                // Most lines are dead, rewrite the log with the live mutations only
+                unwrittenLines.clear();
+                for (PendingMutation mutation : pending.values()) {
+                    unwrittenLines.add(gson.toJson(mutation));
+                }
+                logLines = unwrittenLines.size();
+                rewriteRequested = true;
+            } else {
+                unwrittenLines.add(line);
+            }
+            if (!flushScheduled) {
+                flushScheduled = true;
+                logWriter.execute(this::flushLog);
+            }
+        }
+    }
+
+    /**
+     * Writes every line queued since the last flush with a single file open.
+     */
+    private void flushLog() {
+        List<String> lines;
+        boolean rewrite;
+        synchronized (unwrittenLines) {
+            lines = new ArrayList<>(unwrittenLines);
+            rewrite = rewriteRequested;
+            unwrittenLines.clear();
+            rewriteRequested = false;
+            flushScheduled = false;
+        }
+        if (rewrite) {
+            rewriteLog(lines);
+        } else {
+            appendLog(lines);
+        }
+    }
+
+    private void appendLog(List<String> lines) {
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(logFile, true), StandardCharsets.UTF_8))) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            // The queue is still held in memory, it just will not survive a restart
+        }
+    }
+
+    private void rewriteLog(List<String> lines) {
+        File tempFile = new File(logFile.getPath() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(tempFile, false), StandardCharsets.UTF_8))) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            return;
+        }
+        if (!tempFile.renameTo(logFile)) {
+            tempFile.delete();
+        }
+    }
+
+    private void load() {
+        if (!logFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(logFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                PendingMutation mutation;
+                try {
+                    mutation = gson.fromJson(line, PendingMutation.class);
+                } catch (Exception e) {
+                    // A torn last line from a crash, everything before it is still valid
+                    continue;
+                }
+                logLines++;
+                nextSequence = Math.max(nextSequence, mutation.getSequence() + 1);
+                if (mutation.isRemoved()) {
+                    PendingMutation removed = pending.remove(mutation.getSequence());
+                    if (removed != null) {
+                        unindex(removed);
+                    }
+                } else {
+                    PendingMutation replaced = pending.get(mutation.getSequence());
+                    if (replaced != null) {
+                        // Rewritten with the ID of its created feature, in place
+                        unindex(replaced);
+                    }
+                    pending.put(mutation.getSequence(), mutation);
+                    index(mutation);
+                }
+            }
+        } catch (IOException e) {
+            // Start with whatever was restored before the read failed
+        }
+    }
+
+    private static FeatureToggleItem copyOf(FeatureToggleItem item) {
+        FeatureToggleItem copy = new FeatureToggleItem();
+        if (item != null) {
+            copy.set_id(item.get_id());
+            copy.setBeginning_date(item.getBeginning_date());
+            copy.setCreated_at(item.getCreated_at());
+            copy.setDescription(item.getDescription());
+            copy.setExpiration_date(item.getExpiration_date());
+            copy.setName(item.getName());
+            copy.setUpdated_at(item.getUpdated_at());
+            copy.setPackage_name(item.getPackage_name());
+        }
+        return copy;
+    }
+
+    private static String key(String packageName, String featureId) {
+        return packageName + '/' + featureId;
+    }
+}
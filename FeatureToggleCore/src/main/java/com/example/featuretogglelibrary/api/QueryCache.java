@@ -0,0 +1,259 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.interfaces.RequestInterceptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The QueryCache class keeps the results of {@link FeatureController} read methods for a while,
+ * keyed by method and arguments, so that screens asking the same question again get the answer
+ * without a round trip.
+ *
+ * Each method has its own time to live, and the least recently used results are evicted once the
+ * cache is full. In stale-while-revalidate mode, an expired result is still returned at once, and
+ * the callback is called a second time with the fresh result when it arrives. Successful admin
+ * operations drop the cached results of their package.
+ *
+ * All methods are thread-safe. Install it with {@link FeatureController#setQueryCache}, which puts
+ * it first in the controller's pipeline.
+ */
+
+public class QueryCache implements RequestInterceptor {
+
+    private static final int DEFAULT_MAX_ENTRIES = 64;
+    private static final long DEFAULT_TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final LongSupplier clock;
+    private final boolean staleWhileRevalidate;
+    private final Map<String, Long> ttls = new HashMap<>();
+    private final long defaultTtlMillis;
+
+    // Guarded by itself
+    private final LinkedHashMap<Key, Entry> entries;
+    // Bumped by every invalidation, so that calls started before it do not store their results
+    private long generation;
+
+    /**
+     * Creates a cache of 64 results that live 30 seconds, except the toggle lists, which are not cached.
+     *
+     * @param staleWhileRevalidate True to return expired results at once and revalidate them.
+     */
+    public QueryCache(boolean staleWhileRevalidate) {
+        this(System::currentTimeMillis, DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS, staleWhileRevalidate);
+        // The lists behind the local store are expected to be fresh, opt in with setTtl
+        setTtl("fetchAllFeatureToggles", 0);
+        setTtl("fetchAllActiveFeatures", 0);
+    }
+
+    /**
+     * @param clock                The source of the current time, in milliseconds.
+     * @param maxEntries           The number of results kept.
+     * @param defaultTtlMillis     How long results live, unless set per method with {@link #setTtl}.
+     * @param staleWhileRevalidate True to return expired results at once and revalidate them.
+     */
+    public QueryCache(LongSupplier clock, int maxEntries, long defaultTtlMillis, boolean staleWhileRevalidate) {
+        this.clock = clock;
+        this.defaultTtlMillis = defaultTtlMillis;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, QueryCache.Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Sets the time to live of the results of one controller method.
+     *
+     * @param method    The name of the FeatureController method, such as "getFeatureTogglesByDate".
+     * @param ttlMillis How long its results live, or 0 to not cache them.
+     */
+    public void setTtl(String method, long ttlMillis) {
+        synchronized (ttls) {
+            ttls.put(method, ttlMillis);
+        }
+    }
+
+    /**
+     * @return The number of cached results.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Drops every cached result of a package.
+     *
+     * @param packageName The package whose results are dropped.
+     */
+    public void invalidate(String packageName) {
+        synchronized (entries) {
+            Iterator<Key> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                if (Objects.equals(keys.next().packageName, packageName)) {
+                    keys.remove();
+                }
+            }
+            generation++;
+        }
+    }
+
+    /**
+     * Drops every cached result.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            generation++;
+        }
+    }
+
+    @Override
+    public <T> void intercept(ApiRequest<T> request, GenericCallBack<T> callback, Chain chain) {
+        if (request.getEndpoint().isMutation()) {
+            chain.proceed(request, callback);
+            return;
+        }
+        GenericCallBack<T> storing = lookup(request.getEndpoint().getName(), request.getPackageName(), callback,
+                request.getArguments());
+        if (storing != null) {
+            chain.proceed(request, storing);
+        }
+    }
+
+    /**
+     * Answers a read from the cache if possible.
+     *
+     * @param method      The name of the controller method.
+     * @param packageName The package the method reads.
+     * @param callback    The caller's callback.
+     * @param arguments   The other arguments of the method.
+     * @return Null if the callback was answered with a fresh result and no call is needed. Otherwise
+     *         the callback to make the call with, which stores the result before passing it on.
+     */
+    <T> GenericCallBack<T> lookup(String method, String packageName, GenericCallBack<T> callback, Object... arguments) {
+        long ttl = ttlOf(method);
+        if (ttl <= 0) {
+            return callback;
+        }
+        Key key = new Key(method, packageName, arguments);
+        long now = clock.getAsLong();
+        Entry entry;
+        boolean revalidate = false;
+        long started;
+        synchronized (entries) {
+            started = generation;
+            entry = entries.get(key);
+            if (entry != null && now - entry.storedAt >= ttl) {
+                if (!staleWhileRevalidate) {
+                    entries.remove(key);
+                    entry = null;
+                } else if (!entry.revalidating) {
+                    entry.revalidating = true;
+                    revalidate = true;
+                }
+            }
+        }
+        if (entry == null) {
+            return storing(key, callback, false, started);
+        }
+        deliver(callback, entry.value);
+        // Fresh, or stale with a revalidation already running
+        return revalidate ? storing(key, callback, true, started) : null;
+    }
+
+    private <T> GenericCallBack<T> storing(Key key, GenericCallBack<T> callback, boolean revalidating, long started) {
+        return new GenericCallBack<T>() {
+            @Override
+            public void success(T data) {
+                synchronized (entries) {
+                    if (generation == started) {
+                        entries.put(key, new Entry(data, clock.getAsLong()));
+                    }
+                }
+                deliver(callback, data);
+            }
+
+            @Override
+            public void error(String error) {
+                if (!revalidating) {
+                    callback.error(error);
+                    return;
+                }
+                // The caller already has the stale result, keep it and retry on the next read
+                synchronized (entries) {
+                    Entry entry = entries.get(key);
+                    if (entry != null) {
+                        entry.revalidating = false;
+                    }
+                }
+            }
+        };
+    }
+
+    // Lists are copied, so that a caller sorting or filtering its result does not change the cache
+    @SuppressWarnings("unchecked")
+    static <T> void deliver(GenericCallBack<T> callback, Object value) {
+        callback.success(value instanceof List ? (T) new ArrayList<>((List<?>) value) : (T) value);
+    }
+
+    private long ttlOf(String method) {
+        synchronized (ttls) {
+            Long ttl = ttls.get(method);
+            return ttl == null ? defaultTtlMillis : ttl;
+        }
+    }
+
+    // Also identifies the calls shared by a RequestCoalescer
+    static final class Key {
+        final String method;
+        final String packageName;
+        final Object[] arguments;
+
+        Key(String method, String packageName, Object[] arguments) {
+            this.method = method;
+            this.packageName = packageName;
+            this.arguments = arguments;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return method.equals(other.method) && Objects.equals(packageName, other.packageName)
+                    && Arrays.equals(arguments, other.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * method.hashCode() + Objects.hashCode(packageName)) + Arrays.hashCode(arguments);
+        }
+    }
+
+    private static final class Entry {
+        final Object value;
+        final long storedAt;
+        // Guarded by the entries lock
+        boolean revalidating;
+
+        Entry(Object value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+}
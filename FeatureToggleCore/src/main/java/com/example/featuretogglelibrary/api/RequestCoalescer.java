@@ -0,0 +1,143 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.interfaces.RequestInterceptor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The RequestCoalescer class lets concurrent identical reads share one backend call. While a read is
+ * in flight, the same read of the same package with the same arguments waits for its result instead of
+ * sending another request, as happens when several screens refresh at once. Every caller gets its own
+ * copy of list results. Admin operations are never shared.
+ *
+ * The shared call belongs to none of its callers. Cancelling a caller, or letting its deadline pass,
+ * only drops that caller's callback; the call itself is cancelled once every caller sharing it has.
+ *
+ * All methods are thread-safe. Add it to a controller with {@link FeatureController#addInterceptor}.
+ */
+
+public class RequestCoalescer implements RequestInterceptor {
+
+    // The reads in flight, guarded by itself
+    private final Map<QueryCache.Key, Shared<?>> inFlight = new HashMap<>();
+    private final AtomicLong shared = new AtomicLong();
+
+    @Override
+    public <T> void intercept(ApiRequest<T> request, GenericCallBack<T> callback, Chain chain) {
+        if (request.getEndpoint().isMutation()) {
+            chain.proceed(request, callback);
+            return;
+        }
+        QueryCache.Key key = new QueryCache.Key(request.getEndpoint().getName(), request.getPackageName(),
+                request.getArguments());
+        Shared<?> existing;
+        Shared<T> call;
+        synchronized (inFlight) {
+            existing = inFlight.get(key);
+            call = existing == null ? new Shared<>(key) : null;
+            if (call != null) {
+                inFlight.put(key, call);
+                call.join(callback);
+            } else {
+                existing.join(callback);
+                shared.incrementAndGet();
+            }
+        }
+        if (call == null) {
+            leaveWhenClosed(request, existing);
+            return;
+        }
+        leaveWhenClosed(request, call);
+        try {
+            chain.proceed(request.copy(call.handle), call.handle.asCallback());
+        } catch (RuntimeException e) {
+            for (GenericCallBack<?> waiter : finish(call)) {
+                if (waiter != callback) {
+                    waiter.error(e.toString());
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of reads answered by a call made for another caller.
+     */
+    public long getSharedCount() {
+        return shared.get();
+    }
+
+    private void leaveWhenClosed(ApiRequest<?> request, Shared<?> call) {
+        RequestHandle<?> handle = request.getHandle();
+        if (handle != null) {
+            handle.whenClosed(() -> leave(call));
+        }
+    }
+
+    // A caller gave up, the call is cancelled once nobody waits for it
+    private void leave(Shared<?> call) {
+        synchronized (inFlight) {
+            if (--call.callers > 0) {
+                return;
+            }
+            inFlight.remove(call.key, call);
+        }
+        call.handle.cancel();
+    }
+
+    private List<GenericCallBack<?>> finish(Shared<?> call) {
+        synchronized (inFlight) {
+            // Out of the map, so no caller joins anymore
+            inFlight.remove(call.key, call);
+            return new ArrayList<>(call.callbacks);
+        }
+    }
+
+    /**
+     * A call shared by the callers of the same read, under a handle of its own.
+     */
+    private final class Shared<T> implements GenericCallBack<T> {
+        final QueryCache.Key key;
+        final RequestHandle<T> handle = new RequestHandle<>(this);
+        // Guarded by inFlight
+        final List<GenericCallBack<?>> callbacks = new ArrayList<>(2);
+        int callers;
+
+        Shared(QueryCache.Key key) {
+            this.key = key;
+        }
+
+        // Must be called while holding the lock of inFlight
+        void join(GenericCallBack<?> callback) {
+            callbacks.add(callback);
+            callers++;
+        }
+
+        @Override
+        public void success(T data) {
+            List<GenericCallBack<?>> waiters = finish(this);
+            // All but the last caller get copies, before the last one can change the result
+            for (int i = 0; i < waiters.size() - 1; i++) {
+                QueryCache.deliver(waiters.get(i), data);
+            }
+            deliverOriginal(waiters.get(waiters.size() - 1), data);
+        }
+
+        @Override
+        public void error(String error) {
+            for (GenericCallBack<?> waiter : finish(this)) {
+                waiter.error(error);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void deliverOriginal(GenericCallBack<?> callback, T data) {
+        ((GenericCallBack<T>) callback).success(data);
+    }
+}
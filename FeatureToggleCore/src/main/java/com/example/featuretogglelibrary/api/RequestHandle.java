@@ -0,0 +1,321 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+
+/**
+ * A request made through a {@link FeatureController}, returned by its methods so that the caller can
+ * cancel it, give it a deadline or wait for its result.
+ *
+ * Cancelling a request cancels its HTTP call, which frees its connection and its scheduler slot, and
+ * drops its callback: the callback is not called anymore, and the handle stops referencing it so that
+ * an activity it belongs to can be collected. An admin operation that is cancelled is not queued for
+ * replay. A request whose deadline passes first is cancelled the same way, but its callback is told so
+ * with an error, delivered on the same executor as the other callbacks.
+ *
+ * All methods are thread-safe. Group the handles of a screen with a {@link RequestScope} to cancel
+ * them together.
+ *
+ * @param <T> The type of data the request delivers to its callback.
+ */
+
+public final class RequestHandle<T> {
+
+    private static final ScheduledExecutorService DEADLINES = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "FeatureToggle-Deadlines");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final GenericCallBack<T> delivery = new GenericCallBack<T>() {
+        @Override
+        public void success(T data) {
+            GenericCallBack<T> target;
+            synchronized (RequestHandle.this) {
+                if (closed) {
+                    return;
+                }
+                target = callback;
+                settle(data, null);
+            }
+            settled.countDown();
+            target.success(data);
+        }
+
+        @Override
+        public void error(String error) {
+            GenericCallBack<T> target;
+            synchronized (RequestHandle.this) {
+                if (closed) {
+                    return;
+                }
+                target = callback;
+                settle(null, error);
+            }
+            settled.countDown();
+            target.error(error);
+        }
+    };
+
+    private final CountDownLatch settled = new CountDownLatch(1);
+    private final Executor callbackExecutor;
+
+    // Guarded by this
+    private GenericCallBack<T> callback;
+    private final List<Call<?>> calls = new ArrayList<>(1);
+    private List<Runnable> closeListeners;
+    private ScheduledFuture<?> deadline;
+    private boolean done;
+    private boolean closed;
+    private boolean cancelled;
+    private T result;
+    private String error;
+
+    /**
+     * Creates a handle for a request that is not a single HTTP call, such as a refresh shared by several
+     * callers. Cancelling it only drops its callback.
+     *
+     * @param callback The callback of the caller.
+     */
+    public RequestHandle(GenericCallBack<T> callback) {
+        this(callback, null);
+    }
+
+    /**
+     * @param callback         The callback of the caller.
+     * @param callbackExecutor The executor the error of a passed deadline is delivered on, such as
+     *                         {@link FeatureController#getCallbackExecutor()}, or null to deliver it on the timer thread.
+     */
+    public RequestHandle(GenericCallBack<T> callback, Executor callbackExecutor) {
+        this.callback = callback;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * @return The callback to complete the request with. It passes results on to the caller's callback
+     *         until the request is cancelled or its deadline passes.
+     */
+    public GenericCallBack<T> asCallback() {
+        return delivery;
+    }
+
+    /**
+     * Cancels the request and drops its callback. Does nothing if it was already cancelled or its
+     * deadline passed.
+     */
+    public void cancel() {
+        List<Call<?>> running;
+        List<Runnable> listeners;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            cancelled = true;
+            listeners = closeListeners;
+            running = close();
+        }
+        for (Call<?> call : running) {
+            call.cancel();
+        }
+        settled.countDown();
+        runAll(listeners);
+    }
+
+    /**
+     * Sets how long the request may take, from now. Once it has passed without a result, the request is
+     * cancelled and its callback gets an error. Setting it again replaces the previous deadline.
+     *
+     * @param timeout The time left for the request.
+     * @param unit    The unit of the timeout.
+     * @return This handle.
+     */
+    public RequestHandle<T> setDeadline(long timeout, TimeUnit unit) {
+        long millis = unit.toMillis(timeout);
+        synchronized (this) {
+            if (done || closed) {
+                return this;
+            }
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+            deadline = DEADLINES.schedule(() -> expire(millis), timeout, unit);
+        }
+        return this;
+    }
+
+    /**
+     * Waits for the result of the request. Do not call this on the thread callbacks are delivered on,
+     * such as the main thread of an Android app, as the result would never arrive.
+     *
+     * @return The data passed to the callback.
+     * @throws IOException          With the error passed to the callback, or if the request was cancelled.
+     * @throws InterruptedException If the thread was interrupted while waiting.
+     */
+    public T await() throws IOException, InterruptedException {
+        settled.await();
+        return outcome();
+    }
+
+    /**
+     * Waits for the result of the request, for a while. The request keeps running if it times out.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit    The unit of the timeout.
+     * @return The data passed to the callback.
+     * @throws InterruptedIOException If there is no result yet once the time is up.
+     * @throws IOException            With the error passed to the callback, or if the request was cancelled.
+     * @throws InterruptedException   If the thread was interrupted while waiting.
+     */
+    public T await(long timeout, TimeUnit unit) throws IOException, InterruptedException {
+        if (!settled.await(timeout, unit)) {
+            throw new InterruptedIOException("No response within " + unit.toMillis(timeout) + " ms.");
+        }
+        return outcome();
+    }
+
+    /**
+     * @return True if the request was cancelled with {@link #cancel()}.
+     */
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return True once the callback got a result or an error, or the request was cancelled.
+     */
+    public synchronized boolean isDone() {
+        return done || closed;
+    }
+
+    /**
+     * Registers an HTTP call made for the request, so that cancelling the request cancels it.
+     *
+     * @return False if the request is already cancelled, and the call must not be made.
+     */
+    synchronized boolean attach(Call<?> call) {
+        if (closed) {
+            return false;
+        }
+        calls.add(call);
+        return true;
+    }
+
+    synchronized void detach(Call<?> call) {
+        calls.remove(call);
+    }
+
+    /**
+     * Runs a listener once the request is cancelled or its deadline passes, or at once if that already
+     * happened. It is not run if the request gets its result first.
+     */
+    void whenClosed(Runnable listener) {
+        synchronized (this) {
+            if (!closed) {
+                if (closeListeners == null) {
+                    closeListeners = new ArrayList<>(1);
+                }
+                closeListeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    /**
+     * @return True if the request was cancelled or its deadline passed, so its callback is dropped.
+     */
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    // Neither waits for a result nor holds a call, so a scope can forget it
+    synchronized boolean isIdle() {
+        return closed || (done && calls.isEmpty());
+    }
+
+    private void expire(long millis) {
+        GenericCallBack<T> target;
+        List<Call<?>> running;
+        List<Runnable> listeners;
+        String message = "Deadline of " + millis + " ms exceeded.";
+        synchronized (this) {
+            if (done || closed) {
+                return;
+            }
+            target = callback;
+            listeners = closeListeners;
+            running = close();
+            done = true;
+            error = message;
+        }
+        for (Call<?> call : running) {
+            call.cancel();
+        }
+        settled.countDown();
+        runAll(listeners);
+        if (callbackExecutor == null) {
+            target.error(message);
+        } else {
+            callbackExecutor.execute(() -> target.error(message));
+        }
+    }
+
+    private static void runAll(List<Runnable> listeners) {
+        if (listeners != null) {
+            for (Runnable listener : listeners) {
+                listener.run();
+            }
+        }
+    }
+
+    // Called with the lock held
+    private List<Call<?>> close() {
+        closed = true;
+        callback = null;
+        closeListeners = null;
+        if (deadline != null) {
+            deadline.cancel(false);
+            deadline = null;
+        }
+        List<Call<?>> running = new ArrayList<>(calls);
+        calls.clear();
+        return running;
+    }
+
+    // Called with the lock held. The first outcome is the one awaited, a revalidation may follow it.
+    private void settle(T data, String failure) {
+        if (done) {
+            return;
+        }
+        done = true;
+        result = data;
+        error = failure;
+        closeListeners = null;
+        if (deadline != null) {
+            deadline.cancel(false);
+            deadline = null;
+        }
+    }
+
+    private synchronized T outcome() throws IOException {
+        if (!done) {
+            throw new IOException("Request canceled.");
+        }
+        if (error != null) {
+            throw new IOException(error);
+        }
+        return result;
+    }
+}
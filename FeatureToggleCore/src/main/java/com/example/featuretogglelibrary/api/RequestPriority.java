@@ -0,0 +1,21 @@
+package com.example.featuretogglelibrary.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the priority class of a {@link com.example.featuretogglelibrary.interfaces.FeatureApi} method
+ * in the {@link RequestScheduler}. Methods without it are {@link RequestScheduler.Priority#QUERY}
+ * for GET requests and {@link RequestScheduler.Priority#MUTATION} otherwise.
+ */
+
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequestPriority {
+
+    RequestScheduler.Priority value();
+}
@@ -0,0 +1,238 @@
+package com.example.featuretogglelibrary.api;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The RequestScheduler class decides when each API call of a {@link FeatureController} may start,
+ * so that a burst of background work cannot delay the calls the app waits on.
+ *
+ * Calls belong to a priority class. Whenever a slot frees up, the waiting call of the highest class
+ * starts first, so flag reads always jump ahead of queued queries and mutations. Each class is also
+ * capped below the total, which keeps slots available for flag reads while a bulk admin job runs.
+ * Within a class, packages take turns, so one package with many queued calls cannot starve another.
+ *
+ * All methods are thread-safe.
+ */
+
+public class RequestScheduler {
+
+    /**
+     * The priority classes, from highest to lowest.
+     */
+    public enum Priority {
+        /**
+         * Reads of the toggles an app evaluates, such as the active features.
+         */
+        FLAG_READ,
+        /**
+         * Other reads, such as statistics, date queries and pages.
+         */
+        QUERY,
+        /**
+         * Admin operations that create, update or delete toggles.
+         */
+        MUTATION
+    }
+
+    private static final int DEFAULT_MAX_RUNNING = 6;
+    private static final int DEFAULT_MAX_QUERIES = 4;
+    private static final int DEFAULT_MAX_MUTATIONS = 4;
+
+    private final int maxRunning;
+    private final int[] maxRunningPerClass;
+
+    // Guarded by this
+    private final int[] running = new int[Priority.values().length];
+    private int runningTotal;
+    private final QueueClass[] queues = new QueueClass[Priority.values().length];
+
+    /**
+     * Creates a scheduler running at most 6 calls at once, of which at most 4 queries and 4 mutations.
+     */
+    public RequestScheduler() {
+        this(DEFAULT_MAX_RUNNING, DEFAULT_MAX_QUERIES, DEFAULT_MAX_MUTATIONS);
+    }
+
+    /**
+     * @param maxRunning   The number of calls running at once. Flag reads may use all of them.
+     * @param maxQueries   The number of queries running at once.
+     * @param maxMutations The number of mutations running at once.
+     */
+    public RequestScheduler(int maxRunning, int maxQueries, int maxMutations) {
+        this.maxRunning = maxRunning;
+        this.maxRunningPerClass = new int[]{maxRunning, Math.min(maxQueries, maxRunning), Math.min(maxMutations, maxRunning)};
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new QueueClass();
+        }
+    }
+
+    /**
+     * @return The maximum number of calls running at once.
+     */
+    public int getMaxRunning() {
+        return maxRunning;
+    }
+
+    /**
+     * @param priority The priority class.
+     * @return The number of calls of the class that are running.
+     */
+    public synchronized int getRunning(Priority priority) {
+        return running[priority.ordinal()];
+    }
+
+    /**
+     * @param priority The priority class.
+     * @return The number of calls of the class waiting for a slot.
+     */
+    public synchronized int getQueued(Priority priority) {
+        return queues[priority.ordinal()].size;
+    }
+
+    /**
+     * Runs the start of a call once it gets a slot, on the calling thread if one is free now, or else
+     * on the thread of the call that frees it. The start must not block, and {@link #release} must be
+     * called once the call completes.
+     */
+    void submit(Priority priority, String packageName, Runnable start) {
+        synchronized (this) {
+            if (!canStart(priority.ordinal())) {
+                queues[priority.ordinal()].add(packageName, start);
+                return;
+            }
+            running[priority.ordinal()]++;
+            runningTotal++;
+        }
+        start.run();
+    }
+
+    /**
+     * Blocks until the call gets a slot, for synchronous calls.
+     *
+     * @throws InterruptedIOException If the thread is interrupted while waiting.
+     */
+    void acquire(Priority priority, String packageName) throws InterruptedIOException {
+        Permit permit = new Permit(priority);
+        submit(priority, packageName, permit);
+        if (!permit.await()) {
+            throw new InterruptedIOException("Interrupted while waiting for a request slot");
+        }
+    }
+
+    /**
+     * Frees the slot of a completed call and starts the next waiting calls.
+     */
+    void release(Priority priority) {
+        synchronized (this) {
+            running[priority.ordinal()]--;
+            runningTotal--;
+        }
+        startWaiting();
+    }
+
+    private void startWaiting() {
+        while (true) {
+            Runnable next = null;
+            synchronized (this) {
+                for (Priority candidate : Priority.values()) {
+                    if (queues[candidate.ordinal()].size > 0 && canStart(candidate.ordinal())) {
+                        next = queues[candidate.ordinal()].poll();
+                        running[candidate.ordinal()]++;
+                        runningTotal++;
+                        break;
+                    }
+                }
+            }
+            if (next == null) {
+                return;
+            }
+            next.run();
+        }
+    }
+
+    // Must be called while holding the lock
+    private boolean canStart(int priority) {
+        return runningTotal < maxRunning && running[priority] < maxRunningPerClass[priority];
+    }
+
+    /**
+     * The waiting calls of one class, one queue per package, served round-robin.
+     */
+    private static final class QueueClass {
+        private final LinkedHashMap<String, ArrayDeque<Runnable>> byPackage = new LinkedHashMap<>();
+        int size;
+
+        void add(String packageName, Runnable start) {
+            ArrayDeque<Runnable> queue = byPackage.get(packageName);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                byPackage.put(packageName, queue);
+            }
+            queue.add(start);
+            size++;
+        }
+
+        Runnable poll() {
+            Map.Entry<String, ArrayDeque<Runnable>> first = byPackage.entrySet().iterator().next();
+            String packageName = first.getKey();
+            ArrayDeque<Runnable> queue = first.getValue();
+            Runnable start = queue.poll();
+            // Send the package to the back of the line
+            byPackage.remove(packageName);
+            if (!queue.isEmpty()) {
+                byPackage.put(packageName, queue);
+            }
+            size--;
+            return start;
+        }
+    }
+
+    /**
+     * The start of a synchronous call, which wakes up the waiting thread.
+     */
+    private final class Permit implements Runnable {
+        private final Priority priority;
+        // Guarded by this
+        private boolean granted;
+        private boolean abandoned;
+
+        Permit(Priority priority) {
+            this.priority = priority;
+        }
+
+        /**
+         * @return True once the slot is granted, false if the thread was interrupted before.
+         */
+        synchronized boolean await() {
+            while (!granted) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (granted) {
+                        return true;
+                    }
+                    abandoned = true;
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (!abandoned) {
+                    granted = true;
+                    notifyAll();
+                    return;
+                }
+            }
+            // The waiting thread gave up, hand the slot to the next call
+            release(priority);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.featuretogglelibrary.api;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The RequestScope class groups the requests made on behalf of one owner, such as a screen, so that
+ * they can be cancelled together once the owner is gone. Requests that completed are forgotten as new
+ * ones are tracked, and requests tracked after the scope is closed are cancelled at once.
+ *
+ * All methods are thread-safe.
+ */
+
+public class RequestScope {
+
+    // Guarded by this
+    private final Set<RequestHandle<?>> handles = new LinkedHashSet<>();
+    private boolean closed;
+
+    /**
+     * Adds a request to the scope.
+     *
+     * @param handle The handle of the request, or null.
+     * @param <T>    The type of data of the request.
+     * @return The same handle.
+     */
+    public <T> RequestHandle<T> track(RequestHandle<T> handle) {
+        if (handle == null) {
+            return null;
+        }
+        synchronized (this) {
+            if (!closed) {
+                Iterator<RequestHandle<?>> iterator = handles.iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().isIdle()) {
+                        iterator.remove();
+                    }
+                }
+                handles.add(handle);
+                return handle;
+            }
+        }
+        handle.cancel();
+        return handle;
+    }
+
+    /**
+     * Cancels the requests of the scope that are still running. The scope can still be used afterwards.
+     *
+     * @return The number of requests cancelled.
+     */
+    public int cancelAll() {
+        List<RequestHandle<?>> outstanding;
+        synchronized (this) {
+            outstanding = new ArrayList<>(handles);
+            handles.clear();
+        }
+        int cancelled = 0;
+        for (RequestHandle<?> handle : outstanding) {
+            if (!handle.isIdle()) {
+                cancelled++;
+            }
+            handle.cancel();
+        }
+        return cancelled;
+    }
+
+    /**
+     * Cancels the requests of the scope, and every request tracked afterwards.
+     *
+     * @return The number of requests cancelled.
+     */
+    public int close() {
+        synchronized (this) {
+            closed = true;
+        }
+        return cancelAll();
+    }
+
+    /**
+     * @return True once the scope is closed.
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return The number of tracked requests that are still running.
+     */
+    public synchronized int getOutstanding() {
+        int outstanding = 0;
+        for (RequestHandle<?> handle : handles) {
+            if (!handle.isIdle()) {
+                outstanding++;
+            }
+        }
+        return outstanding;
+    }
+}
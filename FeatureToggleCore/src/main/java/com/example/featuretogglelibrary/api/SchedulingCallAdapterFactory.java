@@ -0,0 +1,161 @@
+package com.example.featuretogglelibrary.api;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.Request;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Invocation;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+/**
+ * Hands every {@link com.example.featuretogglelibrary.interfaces.FeatureApi} call to the controller's
+ * {@link RequestScheduler} before it reaches OkHttp, and frees its slot when the response or failure
+ * arrives on the network thread, before the hop to the callback executor.
+ */
+
+final class SchedulingCallAdapterFactory extends CallAdapter.Factory {
+
+    private final FeatureController controller;
+
+    SchedulingCallAdapterFactory(FeatureController controller) {
+        this.controller = controller;
+    }
+
+    @Override
+    public CallAdapter<?, ?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        CallAdapter<Object, Call<Object>> delegate =
+                (CallAdapter<Object, Call<Object>>) retrofit.nextCallAdapter(this, returnType, annotations);
+        RequestScheduler.Priority priority = priorityOf(annotations);
+
+        return new CallAdapter<Object, Call<Object>>() {
+            @Override
+            public Type responseType() {
+                return delegate.responseType();
+            }
+
+            @Override
+            public Call<Object> adapt(Call<Object> call) {
+                return delegate.adapt(new ScheduledCall<>(call, controller, priority));
+            }
+        };
+    }
+
+    private static RequestScheduler.Priority priorityOf(Annotation[] annotations) {
+        RequestScheduler.Priority priority = RequestScheduler.Priority.MUTATION;
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof RequestPriority) {
+                return ((RequestPriority) annotation).value();
+            } else if (annotation instanceof GET) {
+                priority = RequestScheduler.Priority.QUERY;
+            }
+        }
+        return priority;
+    }
+
+    /**
+     * Wraps the call made by Retrofit, waiting for a slot before it starts.
+     */
+    private static final class ScheduledCall<T> implements Call<T> {
+
+        private final Call<T> delegate;
+        private final FeatureController controller;
+        private final RequestScheduler.Priority priority;
+
+        ScheduledCall(Call<T> delegate, FeatureController controller, RequestScheduler.Priority priority) {
+            this.delegate = delegate;
+            this.controller = controller;
+            this.priority = priority;
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            RequestScheduler scheduler = controller.getRequestScheduler();
+            scheduler.submit(priority, packageName(), () -> start(scheduler, callback));
+        }
+
+        private void start(RequestScheduler scheduler, Callback<T> callback) {
+            try {
+                delegate.enqueue(new Callback<T>() {
+                    @Override
+                    public void onResponse(Call<T> call, Response<T> response) {
+                        scheduler.release(priority);
+                        callback.onResponse(call, response);
+                    }
+
+                    @Override
+                    public void onFailure(Call<T> call, Throwable t) {
+                        scheduler.release(priority);
+                        callback.onFailure(call, t);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Such as a call enqueued twice, which never reaches the callback
+                scheduler.release(priority);
+                throw e;
+            }
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            RequestScheduler scheduler = controller.getRequestScheduler();
+            scheduler.acquire(priority, packageName());
+            try {
+                return delegate.execute();
+            } finally {
+                scheduler.release(priority);
+            }
+        }
+
+        private String packageName() {
+            try {
+                return Invocations.packageOf(delegate.request().tag(Invocation.class));
+            } catch (RuntimeException e) {
+                // The call reports the broken request itself once it starts
+                return null;
+            }
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return delegate.isExecuted();
+        }
+
+        @Override
+        public void cancel() {
+            // A call still waiting for a slot fails as canceled once it starts, which frees the slot
+            delegate.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return delegate.isCanceled();
+        }
+
+        @SuppressWarnings("MethodDoesntCallSuperMethod")
+        @Override
+        public Call<T> clone() {
+            return new ScheduledCall<>(delegate.clone(), controller, priority);
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return delegate.timeout();
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.interfaces.FeatureApi;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.model.ImportSummary;
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * The ToggleTransfer class streams the feature toggles of a package to and from byte channels,
+ * for backups and migrations of packages too large to hold in memory.
+ *
+ * Exports read the package page by page and write each page out before the next is needed.
+ * A backend without paging answers the first page with the whole list: the package is then
+ * fetched once more as a list and written out from memory.
+ * Imports read one toggle at a time and create it while the following ones are read, with a
+ * bounded number of creations in flight. Memory use stays the same whatever the package size.
+ */
+
+public final class ToggleTransfer {
+
+    /**
+     * The formats of exported feature toggles.
+     */
+    public enum Format {
+        /**
+         * Newline-delimited JSON: one feature toggle per line, in the JSON form of the API.
+         */
+        NDJSON,
+        /**
+         * A sequence of frames, each a 4-byte big-endian length followed by a {@link CompactToggleCodec}
+         * payload of up to 1024 feature toggles.
+         */
+        COMPACT
+    }
+
+    private static final int PAGE_SIZE = 500;
+    private static final int PREFETCH_DEPTH = 2;
+    private static final int FRAME_ITEMS = 1024;
+    private static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+    private static final Gson GSON = new Gson();
+
+    private ToggleTransfer() {
+
+    }
+
+    /**
+     * Writes all feature toggles of a package to a channel. The channel is not closed.
+     *
+     * @return The number of feature toggles written.
+     * @throws IOException If a page cannot be fetched or the channel cannot be written.
+     */
+    static long export(FeatureController controller, String packageName, WritableByteChannel channel,
+                       Format format) throws IOException {
+        try (FeaturePageIterator toggles = controller.iterateAllFeatureToggles(packageName, PAGE_SIZE, PREFETCH_DEPTH)) {
+            try {
+                // Waits for the first page, before anything is written
+                toggles.hasNext();
+            } catch (UncheckedIOException e) {
+                if (!(e.getCause() instanceof FeaturePageIterator.MalformedPageException)) {
+                    throw e;
+                }
+                return write(fetchAll(controller, packageName).iterator(), channel, format);
+            }
+            return write(toggles, channel, format);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long write(Iterator<FeatureToggleItem> toggles, WritableByteChannel channel, Format format)
+            throws IOException {
+        return format == Format.NDJSON ? writeNdjson(toggles, channel) : writeCompact(toggles, channel);
+    }
+
+    private static List<FeatureToggleItem> fetchAll(FeatureController controller, String packageName) throws IOException {
+        Response<List<FeatureToggleItem>> response;
+        try {
+            response = controller.getAPI().getAllFeatureToggles(packageName).execute();
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed list of feature toggles: " + e.getMessage(), e);
+        }
+        if (!response.isSuccessful() || response.body() == null) {
+            throw new IOException("Unexpected response code: " + response.code());
+        }
+        return response.body();
+    }
+
+    /**
+     * Creates the feature toggles read from a channel in a package. The channel is not closed.
+     *
+     * @return What was read, created and rejected.
+     * @throws IOException If the channel cannot be read, after the creations in flight completed.
+     */
+    static ImportSummary importToggles(FeatureController controller, String packageName, ReadableByteChannel channel,
+                                       Format format, int parallelism) throws IOException {
+        FeatureApi api = controller.getAPI();
+        Iterator<FeatureToggleItem> toggles = format == Format.NDJSON ? readNdjson(channel) : readCompact(channel);
+        int window = Math.max(1, parallelism);
+        Semaphore inFlight = new Semaphore(window);
+        AtomicLong imported = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicReference<String> firstError = new AtomicReference<>();
+        long read = 0;
+        IOException readFailure = null;
+        try {
+            while (true) {
+                FeatureToggleItem item;
+                try {
+                    if (!toggles.hasNext()) {
+                        break;
+                    }
+                    item = toggles.next();
+                } catch (JsonParseException e) {
+                    read++;
+                    fail(failed, firstError, "Record " + read + " is not a feature toggle: " + e.getMessage());
+                    continue;
+                }
+                read++;
+                // The backend assigns new IDs, and the toggles may come from another package
+                item.set_id(null);
+                item.setPackage_name(packageName);
+                acquire(inFlight, 1);
+                create(api, item, inFlight, imported, failed, firstError);
+            }
+        } catch (UncheckedIOException e) {
+            readFailure = e.getCause();
+        } finally {
+            // Wait for the creations in flight, even when reading failed
+            acquire(inFlight, window);
+            inFlight.release(window);
+            QueryCache cache = controller.getQueryCache();
+            if (cache != null) {
+                cache.invalidate(packageName);
+            }
+        }
+        if (readFailure != null) {
+            throw readFailure;
+        }
+        return new ImportSummary(read, imported.get(), failed.get(), firstError.get());
+    }
+
+    private static void create(FeatureApi api, FeatureToggleItem item, Semaphore inFlight, AtomicLong imported,
+                               AtomicLong failed, AtomicReference<String> firstError) {
+        api.createFeatureToggle(item).enqueue(new Callback<ResponseBody>() {
+            @Override
+            public void onResponse(Call<ResponseBody> call, Response<ResponseBody> response) {
+                if (response.isSuccessful()) {
+                    imported.incrementAndGet();
+                } else {
+                    fail(failed, firstError, "Failed to create feature toggle " + item.getName()
+                            + ": HTTP " + response.code());
+                }
+                inFlight.release();
+            }
+
+            @Override
+            public void onFailure(Call<ResponseBody> call, Throwable t) {
+                fail(failed, firstError, "Failed to create feature toggle " + item.getName() + ": " + t.getMessage());
+                inFlight.release();
+            }
+        });
+    }
+
+    private static void fail(AtomicLong failed, AtomicReference<String> firstError, String error) {
+        failed.incrementAndGet();
+        firstError.compareAndSet(null, error);
+    }
+
+    private static void acquire(Semaphore semaphore, int permits) throws InterruptedIOException {
+        try {
+            semaphore.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for creations in flight");
+        }
+    }
+
+    private static long writeNdjson(Iterator<FeatureToggleItem> toggles, WritableByteChannel channel) throws IOException {
+        Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1), 64 * 1024);
+        long count = 0;
+        try {
+            while (toggles.hasNext()) {
+                GSON.toJson(toggles.next(), FeatureToggleItem.class, writer);
+                writer.write('\n');
+                count++;
+            }
+        } catch (JsonIOException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e);
+        }
+        // Flushing the channel writer also flushes its encoder, which closing would do at the cost of the channel
+        writer.flush();
+        return count;
+    }
+
+    private static long writeCompact(Iterator<FeatureToggleItem> toggles, WritableByteChannel channel) throws IOException {
+        List<FeatureToggleItem> frame = new ArrayList<>(FRAME_ITEMS);
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        long count = 0;
+        while (toggles.hasNext()) {
+            frame.add(toggles.next());
+            count++;
+            if (frame.size() == FRAME_ITEMS || !toggles.hasNext()) {
+                payload.reset();
+                CompactToggleCodec.encode(frame, payload);
+                ByteBuffer header = ByteBuffer.allocate(4).putInt(payload.size());
+                header.flip();
+                writeFully(channel, header);
+                writeFully(channel, ByteBuffer.wrap(payload.toByteArray()));
+                frame.clear();
+            }
+        }
+        return count;
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static Iterator<FeatureToggleItem> readNdjson(ReadableByteChannel channel) {
+        BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1),
+                64 * 1024);
+        return new Iterator<FeatureToggleItem>() {
+            private String line;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    while (line == null) {
+                        line = reader.readLine();
+                        if (line == null) {
+                            return false;
+                        }
+                        if (line.trim().isEmpty()) {
+                            line = null;
+                        }
+                    }
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public FeatureToggleItem next() {
+                hasNext();
+                String json = line;
+                line = null;
+                FeatureToggleItem item = GSON.fromJson(json, FeatureToggleItem.class);
+                if (item == null) {
+                    throw new JsonParseException("null");
+                }
+                return item;
+            }
+        };
+    }
+
+    private static Iterator<FeatureToggleItem> readCompact(ReadableByteChannel channel) {
+        ByteBuffer header = ByteBuffer.allocate(4);
+        return new Iterator<FeatureToggleItem>() {
+            private Iterator<FeatureToggleItem> frame = Collections.emptyIterator();
+            private byte[] buffer = new byte[0];
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    while (!frame.hasNext()) {
+                        header.clear();
+                        if (!readFully(channel, header)) {
+                            return false;
+                        }
+                        int length = header.getInt(0);
+                        if (length < 0 || length > MAX_FRAME_BYTES) {
+                            throw new IOException("Invalid frame length: " + length);
+                        }
+                        if (buffer.length < length) {
+                            buffer = new byte[length];
+                        }
+                        ByteBuffer payload = ByteBuffer.wrap(buffer, 0, length);
+                        if (!readFully(channel, payload)) {
+                            throw new EOFException("Truncated frame.");
+                        }
+                        frame = CompactToggleCodec.decode(new ByteArrayInputStream(buffer, 0, length)).iterator();
+                    }
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public FeatureToggleItem next() {
+                hasNext();
+                return frame.next();
+            }
+        };
+    }
+
+    /**
+     * @return False if the channel ended before the first byte.
+     * @throws EOFException If the channel ended after the first byte.
+     */
+    private static boolean readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (buffer.position() == start) {
+                    return false;
+                }
+                throw new EOFException("Truncated frame.");
+            }
+        }
+        return true;
+    }
+}
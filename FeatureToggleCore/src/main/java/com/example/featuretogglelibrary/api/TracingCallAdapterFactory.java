@@ -0,0 +1,273 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.tracing.Scope;
+import com.example.featuretogglelibrary.tracing.Span;
+import com.example.featuretogglelibrary.tracing.Tracer;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.Request;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.DELETE;
+import retrofit2.http.GET;
+import retrofit2.http.PATCH;
+import retrofit2.http.POST;
+import retrofit2.http.PUT;
+
+/**
+ * Records a span for every {@link com.example.featuretogglelibrary.interfaces.FeatureApi} call,
+ * from the moment it is enqueued until the callback returns.
+ *
+ * The span is current while the call is enqueued, so the HTTP spans of {@link TracingEventListener}
+ * become its children. It also gets a "callback dispatch" child covering the hop from the network
+ * thread to the callback executor, such as the Android main thread, and a "callback" child covering
+ * the callback itself. While tracing is disabled the calls are returned unwrapped.
+ */
+
+final class TracingCallAdapterFactory extends CallAdapter.Factory {
+
+    private final FeatureController controller;
+
+    TracingCallAdapterFactory(FeatureController controller) {
+        this.controller = controller;
+    }
+
+    @Override
+    public CallAdapter<?, ?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        CallAdapter<Object, Call<Object>> delegate =
+                (CallAdapter<Object, Call<Object>>) retrofit.nextCallAdapter(this, returnType, annotations);
+        String name = "FeatureApi " + route(annotations);
+
+        return new CallAdapter<Object, Call<Object>>() {
+            @Override
+            public Type responseType() {
+                return delegate.responseType();
+            }
+
+            @Override
+            public Call<Object> adapt(Call<Object> call) {
+                Tracer tracer = controller.getTracer();
+                if (!tracer.isEnabled()) {
+                    return delegate.adapt(call);
+                }
+                Exchange exchange = new Exchange();
+                Call<Object> adapted = delegate.adapt(new ResponseTimingCall<>(call, exchange));
+                return new TracedCall<>(adapted, call, this, tracer, name, exchange);
+            }
+        };
+    }
+
+    private static String route(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof GET) {
+                return "GET " + ((GET) annotation).value();
+            } else if (annotation instanceof POST) {
+                return "POST " + ((POST) annotation).value();
+            } else if (annotation instanceof PUT) {
+                return "PUT " + ((PUT) annotation).value();
+            } else if (annotation instanceof PATCH) {
+                return "PATCH " + ((PATCH) annotation).value();
+            } else if (annotation instanceof DELETE) {
+                return "DELETE " + ((DELETE) annotation).value();
+            }
+        }
+        return "call";
+    }
+
+    /**
+     * The state shared by the two wrappers of one call.
+     */
+    private static final class Exchange {
+        volatile long responseNanos;
+    }
+
+    /**
+     * Wraps the call made by Retrofit, below the callback executor, to note when its response arrived.
+     */
+    private static final class ResponseTimingCall<T> extends ForwardingCall<T> {
+
+        private final Exchange exchange;
+
+        ResponseTimingCall(Call<T> delegate, Exchange exchange) {
+            super(delegate);
+            this.exchange = exchange;
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            delegate.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> call, Response<T> response) {
+                    exchange.responseNanos = System.nanoTime();
+                    callback.onResponse(call, response);
+                }
+
+                @Override
+                public void onFailure(Call<T> call, Throwable t) {
+                    exchange.responseNanos = System.nanoTime();
+                    callback.onFailure(call, t);
+                }
+            });
+        }
+
+        @SuppressWarnings("MethodDoesntCallSuperMethod")
+        @Override
+        public Call<T> clone() {
+            return new ResponseTimingCall<>(delegate.clone(), new Exchange());
+        }
+    }
+
+    /**
+     * Wraps the call handed to the controller, to record the controller span.
+     */
+    private static final class TracedCall<T> extends ForwardingCall<T> {
+
+        private final Call<T> raw;
+        private final CallAdapter<T, Call<T>> adapter;
+        private final Tracer tracer;
+        private final String name;
+        private final Exchange exchange;
+
+        TracedCall(Call<T> delegate, Call<T> raw, CallAdapter<T, Call<T>> adapter,
+                   Tracer tracer, String name, Exchange exchange) {
+            super(delegate);
+            this.raw = raw;
+            this.adapter = adapter;
+            this.tracer = tracer;
+            this.name = name;
+            this.exchange = exchange;
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            Span span = tracer.startSpan(name);
+            Scope scope = span.makeCurrent();
+            try {
+                delegate.enqueue(new Callback<T>() {
+                    @Override
+                    public void onResponse(Call<T> call, Response<T> response) {
+                        span.setAttribute("http.status_code", response.code());
+                        if (!response.isSuccessful()) {
+                            span.setError("HTTP " + response.code());
+                        }
+                        Span callbackSpan = startCallback(span);
+                        Scope callbackScope = callbackSpan.makeCurrent();
+                        try {
+                            callback.onResponse(call, response);
+                        } finally {
+                            callbackScope.close();
+                            callbackSpan.end();
+                            span.end();
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Call<T> call, Throwable t) {
+                        span.setError(String.valueOf(t.getMessage()));
+                        Span callbackSpan = startCallback(span);
+                        Scope callbackScope = callbackSpan.makeCurrent();
+                        try {
+                            callback.onFailure(call, t);
+                        } finally {
+                            callbackScope.close();
+                            callbackSpan.end();
+                            span.end();
+                        }
+                    }
+                });
+            } finally {
+                scope.close();
+            }
+        }
+
+        private Span startCallback(Span span) {
+            long responseNanos = exchange.responseNanos;
+            if (responseNanos != 0) {
+                tracer.startSpan("callback dispatch", span, responseNanos).end();
+            }
+            return tracer.startSpan("callback", span);
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            Span span = tracer.startSpan(name);
+            Scope scope = span.makeCurrent();
+            try {
+                Response<T> response = delegate.execute();
+                span.setAttribute("http.status_code", response.code());
+                if (!response.isSuccessful()) {
+                    span.setError("HTTP " + response.code());
+                }
+                return response;
+            } catch (IOException | RuntimeException e) {
+                span.setError(String.valueOf(e.getMessage()));
+                throw e;
+            } finally {
+                scope.close();
+                span.end();
+            }
+        }
+
+        @SuppressWarnings("MethodDoesntCallSuperMethod")
+        @Override
+        public Call<T> clone() {
+            return adapter.adapt(raw.clone());
+        }
+    }
+
+    /**
+     * Forwards everything but enqueueing and cloning to the wrapped call.
+     */
+    private abstract static class ForwardingCall<T> implements Call<T> {
+
+        final Call<T> delegate;
+
+        ForwardingCall(Call<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public abstract Call<T> clone();
+
+        @Override
+        public Response<T> execute() throws IOException {
+            return delegate.execute();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return delegate.isExecuted();
+        }
+
+        @Override
+        public void cancel() {
+            delegate.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return delegate.isCanceled();
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return delegate.timeout();
+        }
+    }
+}
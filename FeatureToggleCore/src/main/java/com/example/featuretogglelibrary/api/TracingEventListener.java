@@ -0,0 +1,227 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.tracing.Span;
+import com.example.featuretogglelibrary.tracing.Tracer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Records the phases of one HTTP call as spans: queueing in the dispatcher, DNS, TCP and TLS,
+ * sending the request, waiting for the server and reading the response body.
+ *
+ * The call span becomes a child of the span current on the thread that created the call,
+ * which is the controller span opened by {@link TracingCallAdapterFactory}.
+ * OkHttp reports the events of a call one after the other, so no synchronization is needed.
+ */
+
+final class TracingEventListener extends EventListener {
+
+    private final Tracer tracer;
+    private final Span parent;
+
+    private Span call;
+    private Span queue;
+    private Span dns;
+    private Span connect;
+    private Span tls;
+    private Span request;
+    private Span body;
+    private long requestEndNanos;
+
+    private TracingEventListener(Tracer tracer, Span parent) {
+        this.tracer = tracer;
+        this.parent = parent;
+    }
+
+    /**
+     * @param controller The controller whose tracer is used, read for every new call.
+     * @return A factory creating a listener for every call while tracing is enabled.
+     */
+    static EventListener.Factory factory(FeatureController controller) {
+        return rawCall -> {
+            Tracer tracer = controller.getTracer();
+            if (!tracer.isEnabled()) {
+                return EventListener.NONE;
+            }
+            return new TracingEventListener(tracer, Tracer.currentSpan());
+        };
+    }
+
+    @Override
+    public void callStart(Call rawCall) {
+        Request original = rawCall.request();
+        call = tracer.startSpan("HTTP " + original.method(), parent)
+                .setAttribute("http.method", original.method())
+                .setAttribute("http.url", original.url().toString());
+        // Enqueued calls wait for a dispatcher thread until the first network event
+        queue = tracer.startSpan("queue", call);
+    }
+
+    private void dequeued() {
+        if (queue != null) {
+            queue.end();
+            queue = null;
+        }
+    }
+
+    @Override
+    public void dnsStart(Call rawCall, String domainName) {
+        dequeued();
+        dns = tracer.startSpan("dns", call).setAttribute("net.host", domainName);
+    }
+
+    @Override
+    public void dnsEnd(Call rawCall, String domainName, List<InetAddress> inetAddressList) {
+        end(dns);
+        dns = null;
+    }
+
+    @Override
+    public void connectStart(Call rawCall, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        dequeued();
+        connect = tracer.startSpan("connect", call).setAttribute("net.peer", inetSocketAddress.toString());
+    }
+
+    @Override
+    public void secureConnectStart(Call rawCall) {
+        tls = tracer.startSpan("tls", connect);
+    }
+
+    @Override
+    public void secureConnectEnd(Call rawCall, Handshake handshake) {
+        if (tls != null && handshake != null) {
+            tls.setAttribute("tls.version", handshake.tlsVersion().javaName());
+        }
+        end(tls);
+        tls = null;
+    }
+
+    @Override
+    public void connectEnd(Call rawCall, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        if (connect != null && protocol != null) {
+            connect.setAttribute("net.protocol", protocol.toString());
+        }
+        end(connect);
+        connect = null;
+    }
+
+    @Override
+    public void connectFailed(Call rawCall, InetSocketAddress inetSocketAddress, Proxy proxy,
+                              Protocol protocol, IOException ioe) {
+        fail(tls, ioe);
+        tls = null;
+        fail(connect, ioe);
+        connect = null;
+    }
+
+    @Override
+    public void connectionAcquired(Call rawCall, Connection connection) {
+        dequeued();
+        if (call != null) {
+            call.setAttribute("net.protocol", connection.protocol().toString());
+        }
+    }
+
+    @Override
+    public void requestHeadersStart(Call rawCall) {
+        request = tracer.startSpan("request", call);
+    }
+
+    @Override
+    public void requestHeadersEnd(Call rawCall, Request req) {
+        requestEndNanos = System.nanoTime();
+        if (!"POST".equals(req.method()) && !"PUT".equals(req.method()) && !"PATCH".equals(req.method())) {
+            end(request);
+            request = null;
+        }
+    }
+
+    @Override
+    public void requestBodyEnd(Call rawCall, long byteCount) {
+        requestEndNanos = System.nanoTime();
+        if (request != null) {
+            request.setAttribute("http.request_bytes", byteCount);
+        }
+        end(request);
+        request = null;
+    }
+
+    @Override
+    public void requestFailed(Call rawCall, IOException ioe) {
+        fail(request, ioe);
+        request = null;
+    }
+
+    @Override
+    public void responseHeadersStart(Call rawCall) {
+        // The time between the end of the request and the first response byte is spent by the server
+        end(request);
+        request = null;
+        if (requestEndNanos != 0) {
+            tracer.startSpan("server", call, requestEndNanos).end();
+        }
+    }
+
+    @Override
+    public void responseHeadersEnd(Call rawCall, Response response) {
+        if (call != null) {
+            call.setAttribute("http.status_code", response.code());
+        }
+    }
+
+    @Override
+    public void responseBodyStart(Call rawCall) {
+        body = tracer.startSpan("response body", call);
+    }
+
+    @Override
+    public void responseBodyEnd(Call rawCall, long byteCount) {
+        if (body != null) {
+            body.setAttribute("http.response_bytes", byteCount);
+        }
+        end(body);
+        body = null;
+    }
+
+    @Override
+    public void responseFailed(Call rawCall, IOException ioe) {
+        fail(body, ioe);
+        body = null;
+    }
+
+    @Override
+    public void callEnd(Call rawCall) {
+        end(call);
+    }
+
+    @Override
+    public void callFailed(Call rawCall, IOException ioe) {
+        dequeued();
+        fail(call, ioe);
+    }
+
+    private static void end(Span span) {
+        if (span != null) {
+            span.end();
+        }
+    }
+
+    private static void fail(Span span, IOException ioe) {
+        if (span != null) {
+            span.setError(String.valueOf(ioe.getMessage()));
+            span.end();
+        }
+    }
+}
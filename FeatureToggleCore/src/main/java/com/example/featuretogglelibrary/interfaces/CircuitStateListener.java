@@ -0,0 +1,22 @@
+package com.example.featuretogglelibrary.interfaces;
+
+import com.example.featuretogglelibrary.api.CircuitBreaker;
+
+/**
+ * Receives the state changes of the circuits of a {@link CircuitBreaker}, for example to show
+ * that the app runs on cached toggles or to report incidents.
+ */
+
+public interface CircuitStateListener {
+
+    /**
+     * Called once for every state change, on the thread of the call that caused it.
+     * Implementations must be thread-safe and should not block.
+     *
+     * @param endpoint    The API method of the circuit, such as "getActiveFeatureToggles".
+     * @param packageName The package of the circuit, or null for calls without a package.
+     * @param previous    The state the circuit left.
+     * @param current     The state the circuit entered.
+     */
+    void onStateChanged(String endpoint, String packageName, CircuitBreaker.State previous, CircuitBreaker.State current);
+}
@@ -1,15 +1,20 @@
 package com.example.featuretogglelibrary.interfaces;
 
+import com.example.featuretogglelibrary.api.RequestPriority;
+import com.example.featuretogglelibrary.api.RequestScheduler;
+
 import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.DELETE;
 import retrofit2.http.GET;
+import retrofit2.http.Headers;
 import retrofit2.http.POST;
 import retrofit2.http.PUT;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
 import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.model.FeatureTogglePage;
 
 
 
@@ -21,6 +26,12 @@ import java.util.List;
 
 public interface FeatureApi {
 
+    /**
+     * Accept header sent with every request returning a list of feature toggles.
+     * Servers that support it answer in the compact binary format, the others keep answering with JSON.
+     */
+    String ACCEPT_TOGGLE_LIST = "Accept: application/x-feature-toggles, application/json;q=0.9";
+
     /**
      * Creates a new feature toggle.
      *
@@ -40,6 +51,8 @@ public interface FeatureApi {
      * @param packageName The name of the package for which to retrieve feature toggles.
      * @return A {@link Call} object containing a list of {@link com.example.featuretogglelibrary.model.FeatureToggleItem} objects.
      */
+    @RequestPriority(RequestScheduler.Priority.FLAG_READ)
+    @Headers(ACCEPT_TOGGLE_LIST)
     @GET("feature-toggles/{package_name}")
     Call<List<FeatureToggleItem>> getAllFeatureToggles(@Path("package_name") String packageName);
 
@@ -49,6 +62,8 @@ public interface FeatureApi {
      * @param packageName The name of the package for which to retrieve active feature toggles.
      * @return A {@link Call} object containing a list of {@link com.example.featuretogglelibrary.model.FeatureToggleItem} objects.
      */
+    @RequestPriority(RequestScheduler.Priority.FLAG_READ)
+    @Headers(ACCEPT_TOGGLE_LIST)
     @GET("feature-toggles/{package_name}/active")
     Call<List<FeatureToggleItem>> getActiveFeatureToggles(@Path("package_name") String packageName);
 
@@ -83,6 +98,7 @@ public interface FeatureApi {
      * @param packageName The name of the package for which to retrieve recent feature toggles.
      * @return A {@link Call} object containing a list of {@link com.example.featuretogglelibrary.model.FeatureToggleItem} objects.
      */
+    @Headers(ACCEPT_TOGGLE_LIST)
     @GET("feature-toggles/{package_name}/recent")
     Call<List<FeatureToggleItem>> getRecentFeatureToggles(@Path("package_name") String packageName);
 
@@ -109,6 +125,7 @@ public interface FeatureApi {
      * @param endDate     The end date of the range (format: YYYY-MM-DD HH:MM:SS).
      * @return A {@link Call} object containing a list of {@link com.example.featuretogglelibrary.model.FeatureToggleItem} objects.
      */
+    @Headers(ACCEPT_TOGGLE_LIST)
     @GET("feature-toggles/{package_name}/active-in-range")
     Call<List<FeatureToggleItem>> getActiveFeaturesInRange(
             @Path("package_name") String packageName,
@@ -132,6 +149,7 @@ public interface FeatureApi {
      * @param date        The specific date (format: YYYY-MM-DD HH:MM:SS).
      * @return A {@link Call} object containing a list of {@link com.example.featuretogglelibrary.model.FeatureToggleItem} objects.
      */
+    @Headers(ACCEPT_TOGGLE_LIST)
     @GET("feature-toggles/{package_name}/by-date")
     Call<List<FeatureToggleItem>> getFeatureTogglesByDate(
             @Path("package_name") String packageName,
@@ -147,6 +165,53 @@ public interface FeatureApi {
     @DELETE("feature-toggles/{package_name}")
     Call<ResponseBody> deleteAllFeatureToggles(@Path("package_name") String packageName);
 
+    /**
+     * Retrieves one page of the feature toggles of a specified package.
+     *
+     * @param packageName The name of the package for which to retrieve feature toggles.
+     * @param limit       The maximum number of feature toggles on the page.
+     * @param cursor      The cursor returned with the previous page, or null for the first page.
+     * @return A {@link Call} object containing a {@link FeatureTogglePage}.
+     */
+    @GET("feature-toggles/{package_name}")
+    Call<FeatureTogglePage> getAllFeatureTogglesPage(
+            @Path("package_name") String packageName,
+            @Query("limit") int limit,
+            @Query("cursor") String cursor
+    );
 
+    /**
+     * Retrieves one page of the feature toggles created in the last 30 days for a specified package.
+     *
+     * @param packageName The name of the package for which to retrieve recent feature toggles.
+     * @param limit       The maximum number of feature toggles on the page.
+     * @param cursor      The cursor returned with the previous page, or null for the first page.
+     * @return A {@link Call} object containing a {@link FeatureTogglePage}.
+     */
+    @GET("feature-toggles/{package_name}/recent")
+    Call<FeatureTogglePage> getRecentFeatureTogglesPage(
+            @Path("package_name") String packageName,
+            @Query("limit") int limit,
+            @Query("cursor") String cursor
+    );
+
+    /**
+     * Retrieves one page of the active feature toggles within a specific date range for a specified package.
+     *
+     * @param packageName The name of the package for which to retrieve active feature toggles.
+     * @param startDate   The start date of the range (format: YYYY-MM-DD HH:MM:SS).
+     * @param endDate     The end date of the range (format: YYYY-MM-DD HH:MM:SS).
+     * @param limit       The maximum number of feature toggles on the page.
+     * @param cursor      The cursor returned with the previous page, or null for the first page.
+     * @return A {@link Call} object containing a {@link FeatureTogglePage}.
+     */
+    @GET("feature-toggles/{package_name}/active-in-range")
+    Call<FeatureTogglePage> getActiveFeaturesInRangePage(
+            @Path("package_name") String packageName,
+            @Query("start_date") String startDate,
+            @Query("end_date") String endDate,
+            @Query("limit") int limit,
+            @Query("cursor") String cursor
+    );
 
 }
@@ -0,0 +1,55 @@
+package com.example.featuretogglelibrary.interfaces;
+
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+/**
+ * Receives the feature toggles that actually changed between two snapshots of a local store.
+ * Toggles that are unchanged are never reported, so listeners can update the UI only when needed.
+ * All methods have empty default implementations.
+ */
+
+public interface FeatureChangeListener {
+
+    /**
+     * The toggle became active or inactive.
+     */
+    int ACTIVE_STATE = 1;
+
+    /**
+     * The beginning or expiration date of the toggle changed.
+     */
+    int DATES = 1 << 1;
+
+    /**
+     * The name or description of the toggle changed.
+     */
+    int INFO = 1 << 2;
+
+    /**
+     * Called when a feature toggle appears in the store.
+     *
+     * @param item   The new feature toggle.
+     * @param active Whether the toggle is active now.
+     */
+    default void onFeatureAdded(FeatureToggleItem item, boolean active) {
+    }
+
+    /**
+     * Called when a feature toggle changed.
+     *
+     * @param previous The feature toggle as it was.
+     * @param current  The feature toggle as it is now.
+     * @param changes  A combination of {@link #ACTIVE_STATE}, {@link #DATES} and {@link #INFO}.
+     * @param active   Whether the toggle is active now.
+     */
+    default void onFeatureChanged(FeatureToggleItem previous, FeatureToggleItem current, int changes, boolean active) {
+    }
+
+    /**
+     * Called when a feature toggle disappears from the store.
+     *
+     * @param item The removed feature toggle.
+     */
+    default void onFeatureRemoved(FeatureToggleItem item) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.featuretogglelibrary.interfaces;
+
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.model.PendingMutation;
+
+/**
+ * Follows the admin operations sent by a {@link com.example.featuretogglelibrary.api.FeatureController},
+ * so that local state can be updated without fetching the toggles again.
+ * All methods have empty default implementations.
+ */
+
+public interface MutationListener {
+
+    /**
+     * Called right before the operation is sent.
+     *
+     * @param mutation The operation. Creations have no feature ID yet.
+     */
+    default void onMutationStarted(PendingMutation mutation) {
+    }
+
+    /**
+     * Called when the backend accepted the operation, including operations replayed from the offline queue.
+     *
+     * @param mutation The operation.
+     * @param result   The feature toggle returned by the backend, or null if the response had none.
+     */
+    default void onMutationSucceeded(PendingMutation mutation, FeatureToggleItem result) {
+    }
+
+    /**
+     * Called when the backend could not be reached and the operation was queued for replay.
+     *
+     * @param mutation  The operation.
+     * @param featureId The ID of the feature toggle, a local placeholder ID for creations.
+     */
+    default void onMutationQueued(PendingMutation mutation, String featureId) {
+    }
+
+    /**
+     * Called when the backend rejected the operation or it failed otherwise.
+     *
+     * @param mutation The operation.
+     */
+    default void onMutationFailed(PendingMutation mutation) {
+    }
+}
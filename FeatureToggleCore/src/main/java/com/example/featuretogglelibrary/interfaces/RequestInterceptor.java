@@ -0,0 +1,60 @@
+package com.example.featuretogglelibrary.interfaces;
+
+import com.example.featuretogglelibrary.api.ApiRequest;
+
+/**
+ * A stage of the pipeline every API call of a {@link com.example.featuretogglelibrary.api.FeatureController}
+ * goes through, added with {@link com.example.featuretogglelibrary.api.FeatureController#addInterceptor}.
+ *
+ * An interceptor sees which {@link com.example.featuretogglelibrary.api.Endpoint} is called with which
+ * arguments, and decides what happens next: it can pass the call on unchanged, answer it without a round
+ * trip, pass it on with a callback of its own to observe or transform the result, or proceed several
+ * times to retry it. Interceptors run on the caller's thread, and their callbacks on OkHttp's threads.
+ *
+ * <pre>
+ * controller.addInterceptor(new RequestInterceptor() {
+ *     public &lt;T&gt; void intercept(ApiRequest&lt;T&gt; request, GenericCallBack&lt;T&gt; callback, Chain chain) {
+ *         long start = System.nanoTime();
+ *         chain.proceed(request, new GenericCallBack&lt;T&gt;() {
+ *             public void success(T data) {
+ *                 record(request.getEndpoint(), System.nanoTime() - start);
+ *                 callback.success(data);
+ *             }
+ *
+ *             public void error(String error) {
+ *                 callback.error(error);
+ *             }
+ *         });
+ *     }
+ * });
+ * </pre>
+ */
+
+public interface RequestInterceptor {
+
+    /**
+     * Handles a call. The callback must be called exactly once, either by this interceptor or by the rest
+     * of the chain.
+     *
+     * @param request  The call, with its endpoint and arguments.
+     * @param callback The callback of the caller, or of the previous interceptor.
+     * @param chain    The rest of the pipeline, ending with the HTTP call.
+     * @param <T>      The type of data of the call.
+     */
+    <T> void intercept(ApiRequest<T> request, GenericCallBack<T> callback, Chain chain);
+
+    /**
+     * The interceptors after the current one, ending with the HTTP call.
+     */
+    interface Chain {
+
+        /**
+         * Passes a call on to the next interceptor.
+         *
+         * @param request  The call.
+         * @param callback The callback receiving its result.
+         * @param <T>      The type of data of the call.
+         */
+        <T> void proceed(ApiRequest<T> request, GenericCallBack<T> callback);
+    }
+}
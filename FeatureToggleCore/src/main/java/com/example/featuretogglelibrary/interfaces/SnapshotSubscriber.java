@@ -0,0 +1,39 @@
+package com.example.featuretogglelibrary.interfaces;
+
+/**
+ * Receives the values of a toggle snapshot stream, following the same protocol as
+ * {@code java.util.concurrent.Flow.Subscriber}, which is not available on older Android versions.
+ *
+ * Nothing is delivered until values are requested through the {@link SnapshotSubscription}.
+ * When updates arrive faster than they are requested, they are conflated: the subscriber only
+ * receives the latest value.
+ *
+ * @param <T> The type of values delivered.
+ */
+
+public interface SnapshotSubscriber<T> {
+
+    /**
+     * Called once, before any value, with the subscription used to request values or cancel.
+     *
+     * @param subscription The subscription of this subscriber.
+     */
+    void onSubscribe(SnapshotSubscription subscription);
+
+    /**
+     * Called with the latest value, at most as many times as requested.
+     *
+     * @param value The latest value of the stream.
+     */
+    void onNext(T value);
+
+    /**
+     * Called once if the subscription fails, such as after a request for a number of values that is
+     * not positive. Nothing is delivered afterwards.
+     *
+     * @param error The cause of the failure.
+     */
+    default void onError(Throwable error) {
+
+    }
+}
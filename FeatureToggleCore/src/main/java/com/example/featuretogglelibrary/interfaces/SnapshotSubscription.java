@@ -0,0 +1,21 @@
+package com.example.featuretogglelibrary.interfaces;
+
+/**
+ * Links a {@link SnapshotSubscriber} to a toggle snapshot stream.
+ */
+
+public interface SnapshotSubscription {
+
+    /**
+     * Requests more values. Use {@link Long#MAX_VALUE} to receive every update without backpressure.
+     *
+     * @param n The number of additional values the subscriber is ready to receive. Must be positive,
+     *          otherwise the subscription is cancelled and the subscriber gets an error.
+     */
+    void request(long n);
+
+    /**
+     * Stops the delivery of values. Values already being delivered may still arrive.
+     */
+    void cancel();
+}
@@ -0,0 +1,19 @@
+package com.example.featuretogglelibrary.interfaces;
+
+import com.example.featuretogglelibrary.tracing.Span;
+
+/**
+ * Receives the spans recorded by a {@link com.example.featuretogglelibrary.tracing.Tracer}
+ * once they end, for example to ship them to a tracing system.
+ */
+
+public interface SpanExporter {
+
+    /**
+     * Called once for every span that ends, on the thread that ended it.
+     * Implementations must be thread-safe and should not block.
+     *
+     * @param span The finished span.
+     */
+    void export(Span span);
+}
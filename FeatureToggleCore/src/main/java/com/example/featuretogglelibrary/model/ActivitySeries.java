@@ -0,0 +1,115 @@
+package com.example.featuretogglelibrary.model;
+
+/**
+ * Represents how many feature toggles of a package were active over a range of days, computed from
+ * their beginning and expiration dates by
+ * {@link com.example.featuretogglelibrary.store.ToggleSnapshot#getActivitySeries}.
+ *
+ * Days are UTC days starting at start_millis. Values are primitive arrays indexed by day, or by toggle,
+ * so they can be handed to a chart as they are.
+ *
+ * Fields:
+ * - start_millis: The start of the first day, in milliseconds since the epoch.
+ * - active_per_day: The number of toggles active at some time during each day.
+ * - started_per_day: The number of toggles whose beginning date falls on each day.
+ * - ended_per_day: The number of toggles whose expiration date falls on each day.
+ * - peak_active: The highest number of toggles active at the same time within the range.
+ * - peak_millis: The first time the peak was reached.
+ * - feature_ids, feature_names, beginning_millis, expiration_millis: The toggles active at some time within
+ *   the range, ordered by the time they start being active in it. Missing dates are
+ *   {@link com.example.featuretogglelibrary.utils.ToggleDates#NO_DATE}.
+ */
+
+public class ActivitySeries {
+
+    /**
+     * The length of a day in the series, in milliseconds.
+     */
+    public static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private long start_millis;
+    private int[] active_per_day;
+    private int[] started_per_day;
+    private int[] ended_per_day;
+    private int peak_active;
+    private long peak_millis;
+    private String[] feature_ids;
+    private String[] feature_names;
+    private long[] beginning_millis;
+    private long[] expiration_millis;
+
+    public ActivitySeries() {
+
+    }
+
+    public ActivitySeries(long start_millis, int[] active_per_day, int[] started_per_day, int[] ended_per_day,
+                          int peak_active, long peak_millis, String[] feature_ids, String[] feature_names,
+                          long[] beginning_millis, long[] expiration_millis) {
+        this.start_millis = start_millis;
+        this.active_per_day = active_per_day;
+        this.started_per_day = started_per_day;
+        this.ended_per_day = ended_per_day;
+        this.peak_active = peak_active;
+        this.peak_millis = peak_millis;
+        this.feature_ids = feature_ids;
+        this.feature_names = feature_names;
+        this.beginning_millis = beginning_millis;
+        this.expiration_millis = expiration_millis;
+    }
+
+    public long getStart_millis() {
+        return start_millis;
+    }
+
+    /**
+     * @return The number of days in the series.
+     */
+    public int getDays() {
+        return active_per_day == null ? 0 : active_per_day.length;
+    }
+
+    public int[] getActive_per_day() {
+        return active_per_day;
+    }
+
+    public int[] getStarted_per_day() {
+        return started_per_day;
+    }
+
+    public int[] getEnded_per_day() {
+        return ended_per_day;
+    }
+
+    public int getPeak_active() {
+        return peak_active;
+    }
+
+    public long getPeak_millis() {
+        return peak_millis;
+    }
+
+    public String[] getFeature_ids() {
+        return feature_ids;
+    }
+
+    public String[] getFeature_names() {
+        return feature_names;
+    }
+
+    public long[] getBeginning_millis() {
+        return beginning_millis;
+    }
+
+    public long[] getExpiration_millis() {
+        return expiration_millis;
+    }
+
+    @Override
+    public String toString() {
+        return "ActivitySeries:\n" +
+                "Start: " + start_millis + "\n" +
+                "Days: " + getDays() + "\n" +
+                "Toggles: " + (feature_ids == null ? 0 : feature_ids.length) + "\n" +
+                "Peak Active: " + peak_active + " at " + peak_millis;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.featuretogglelibrary.model;
+
+import java.util.List;
+
+/**
+ * Represents one page of feature toggles returned by a paged list endpoint.
+ *
+ * Example JSON structure:
+ * {
+ *     "items": [ ... ],
+ *     "next_cursor": "eyJpZCI6IjgxNGI1ZGRhIn0"
+ * }
+ *
+ * Fields:
+ * - items: The feature toggles on this page.
+ * - next_cursor: Opaque cursor of the next page, or null on the last page.
+ */
+
+public class FeatureTogglePage {
+
+    private List<FeatureToggleItem> items;
+    private String next_cursor;
+
+    public List<FeatureToggleItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<FeatureToggleItem> items) {
+        this.items = items;
+    }
+
+    public String getNext_cursor() {
+        return next_cursor;
+    }
+
+    public void setNext_cursor(String next_cursor) {
+        this.next_cursor = next_cursor;
+    }
+}
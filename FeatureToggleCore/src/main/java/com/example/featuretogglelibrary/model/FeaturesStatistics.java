@@ -0,0 +1,76 @@
+package com.example.featuretogglelibrary.model;
+
+/**
+ * Represents the statistics for feature toggles in a package.
+ *
+ * This class is used to map the JSON response from the backend that provides
+ * statistical information about feature toggles in a specific package.
+ *
+ * Example JSON structure:
+ * {
+ *     "total_features": 10,
+ *     "active_features": 6
+ * }
+ *
+ * Fields:
+ * - total_features: Total number of feature toggles in the package.
+ * - active_features: Number of currently active feature toggles in the package.
+ * - scheduled_features: Number of feature toggles whose beginning date is still in the future.
+ * - expired_features: Number of feature toggles whose expiration date has passed.
+ * - expiring_soon_features: Number of active feature toggles that expire within the expiring-soon window.
+ *
+ * The last three fields are only filled in by the local statistics kept by
+ * {@link com.example.featuretogglelibrary.store.FeatureToggleStore}, the backend does not return them.
+ */
+
+public class FeaturesStatistics {
+
+    private int total_features;
+    private int active_features;
+    private int scheduled_features;
+    private int expired_features;
+    private int expiring_soon_features;
+
+    public int getTotal_features() {
+        return total_features;
+    }
+
+    public void setTotal_features(int total_features) {
+        this.total_features = total_features;
+    }
+
+    public int getActive_features() {
+        return active_features;
+    }
+
+
+    public void setActive_features(int active_features) {
+        this.active_features = active_features;
+    }
+
+    public int getScheduled_features() {
+        return scheduled_features;
+    }
+
+    public void setScheduled_features(int scheduled_features) {
+        this.scheduled_features = scheduled_features;
+    }
+
+    public int getExpired_features() {
+        return expired_features;
+    }
+
+    public void setExpired_features(int expired_features) {
+        this.expired_features = expired_features;
+    }
+
+    public int getExpiring_soon_features() {
+        return expiring_soon_features;
+    }
+
+    public void setExpiring_soon_features(int expiring_soon_features) {
+        this.expiring_soon_features = expiring_soon_features;
+    }
+
+
+}
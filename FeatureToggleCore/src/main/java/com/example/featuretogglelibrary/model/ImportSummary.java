@@ -0,0 +1,56 @@
+package com.example.featuretogglelibrary.model;
+
+/**
+ * Represents the outcome of a bulk import started by
+ * {@link com.example.featuretogglelibrary.api.FeatureController#importFeatureToggles}.
+ *
+ * Fields:
+ * - read: The number of feature toggles read from the input.
+ * - imported: The number of feature toggles the backend created.
+ * - failed: The number of feature toggles that could not be parsed or created.
+ * - first_error: The reason of the first failure, or null.
+ */
+
+public class ImportSummary {
+
+    private long read;
+    private long imported;
+    private long failed;
+    private String first_error;
+
+    public ImportSummary() {
+
+    }
+
+    public ImportSummary(long read, long imported, long failed, String first_error) {
+        this.read = read;
+        this.imported = imported;
+        this.failed = failed;
+        this.first_error = first_error;
+    }
+
+    public long getRead() {
+        return read;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public String getFirst_error() {
+        return first_error;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportSummary:\n" +
+                "read: " + read + '\n' +
+                "imported: " + imported + '\n' +
+                "failed: " + failed + '\n' +
+                "firstError: " + first_error + '\n';
+    }
+}
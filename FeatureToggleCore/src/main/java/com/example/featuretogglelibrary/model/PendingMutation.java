@@ -0,0 +1,121 @@
+package com.example.featuretogglelibrary.model;
+
+/**
+ * Represents an admin operation that could not reach the backend and is waiting to be replayed.
+ *
+ * Instances are stored one per line in the mutation log, so the field names follow the
+ * snake_case convention used by the rest of the models.
+ *
+ * Fields:
+ * - sequence: Position of the mutation in the log, used to replay mutations in order.
+ * - type: The kind of operation (create, update dates, update info or delete).
+ * - package_name: The package the feature toggle belongs to.
+ * - feature_id: The ID of the feature toggle. Queued creations get a local placeholder ID.
+ * - payload: The feature toggle data sent with the request, if any.
+ * - removed: Marks a log line that cancels an earlier mutation with the same sequence.
+ */
+
+public class PendingMutation {
+
+    /**
+     * The kinds of admin operations. All but DELETE_ALL can be queued while offline.
+     */
+    public enum Type {
+        CREATE,
+        UPDATE_DATES,
+        UPDATE_INFO,
+        DELETE,
+        DELETE_ALL
+    }
+
+    private long sequence;
+    private Type type;
+    private String package_name;
+    private String feature_id;
+    private FeatureToggleItem payload;
+    private boolean removed;
+
+    public PendingMutation() {
+
+    }
+
+    public PendingMutation(Type type, String package_name, String feature_id, FeatureToggleItem payload) {
+        this.type = type;
+        this.package_name = package_name;
+        this.feature_id = feature_id;
+        this.payload = payload;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getPackage_name() {
+        return package_name;
+    }
+
+    public String getFeature_id() {
+        return feature_id;
+    }
+
+    public FeatureToggleItem getPayload() {
+        return payload;
+    }
+
+    public void setPayload(FeatureToggleItem payload) {
+        this.payload = payload;
+    }
+
+    public boolean isRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(boolean removed) {
+        this.removed = removed;
+    }
+
+    /**
+     * Copies the fields changed by an update onto a feature toggle.
+     *
+     * @param target The feature toggle to change.
+     * @param type   The kind of update. Other kinds of operations change nothing.
+     * @param update The data sent with the update, whose null fields are left unchanged.
+     */
+    public static void merge(FeatureToggleItem target, Type type, FeatureToggleItem update) {
+        if (update == null) {
+            return;
+        }
+        if (type == Type.UPDATE_DATES) {
+            if (update.getBeginning_date() != null) {
+                target.setBeginning_date(update.getBeginning_date());
+            }
+            if (update.getExpiration_date() != null) {
+                target.setExpiration_date(update.getExpiration_date());
+            }
+        } else if (type == Type.UPDATE_INFO) {
+            if (update.getName() != null) {
+                target.setName(update.getName());
+            }
+            if (update.getDescription() != null) {
+                target.setDescription(update.getDescription());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PendingMutation:\n" +
+                "sequence: " + sequence + '\n' +
+                "type: " + type + '\n' +
+                "packageName: " + package_name + '\n' +
+                "featureId: " + feature_id + '\n';
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.featuretogglelibrary.model;
+
+/**
+ * Represents the timings of a warm-up started by
+ * {@link com.example.featuretogglelibrary.FeatureToggleClient#warmUp(String, com.example.featuretogglelibrary.interfaces.GenericCallBack)}.
+ *
+ * Fields:
+ * - client_ready_millis: Time until the HTTP client was built.
+ * - host_resolved_millis: Time until the backend's host name was resolved.
+ * - connected_millis: Time until a connection to the backend was open, only when no snapshot is fetched.
+ * - snapshot_ready_millis: Time until the feature toggles of the package were in the local store.
+ * - error: The reason the warm-up stopped early, or null.
+ *
+ * All times are in milliseconds since the warm-up started, or -1 for steps that did not complete.
+ * The fields are filled in from the warm-up thread and can be read at any time.
+ */
+
+public class StartupMetrics {
+
+    private volatile long client_ready_millis = -1;
+    private volatile long host_resolved_millis = -1;
+    private volatile long connected_millis = -1;
+    private volatile long snapshot_ready_millis = -1;
+    private volatile String error;
+
+    public long getClient_ready_millis() {
+        return client_ready_millis;
+    }
+
+    public void setClient_ready_millis(long client_ready_millis) {
+        this.client_ready_millis = client_ready_millis;
+    }
+
+    public long getHost_resolved_millis() {
+        return host_resolved_millis;
+    }
+
+    public void setHost_resolved_millis(long host_resolved_millis) {
+        this.host_resolved_millis = host_resolved_millis;
+    }
+
+    public long getConnected_millis() {
+        return connected_millis;
+    }
+
+    public void setConnected_millis(long connected_millis) {
+        this.connected_millis = connected_millis;
+    }
+
+    public long getSnapshot_ready_millis() {
+        return snapshot_ready_millis;
+    }
+
+    public void setSnapshot_ready_millis(long snapshot_ready_millis) {
+        this.snapshot_ready_millis = snapshot_ready_millis;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "StartupMetrics{" +
+                "client_ready_millis=" + client_ready_millis +
+                ", host_resolved_millis=" + host_resolved_millis +
+                ", connected_millis=" + connected_millis +
+                ", snapshot_ready_millis=" + snapshot_ready_millis +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
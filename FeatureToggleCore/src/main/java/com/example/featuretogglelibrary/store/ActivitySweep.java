@@ -0,0 +1,121 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.model.ActivitySeries;
+import com.example.featuretogglelibrary.utils.ToggleDates;
+
+import java.util.Arrays;
+
+/**
+ * Computes the {@link ActivitySeries} of a snapshot with a sweep line over the beginning and expiration
+ * dates of its toggles, instead of evaluating every toggle once per day.
+ *
+ * Each toggle adds one at the day it starts being active in the range and removes one after the last,
+ * so a running sum gives the active toggles of every day in O(toggles + days). The peak is found by
+ * walking the sorted start and end times once, handling ends before starts at the same time since a
+ * toggle is no longer active at its expiration date.
+ */
+
+final class ActivitySweep {
+
+    private ActivitySweep() {
+
+    }
+
+    static ActivitySeries compute(ToggleTable table, long from, int days) {
+        int dayCount = Math.max(days, 0);
+        long to = from + dayCount * ActivitySeries.DAY_MILLIS;
+        int size = table.size();
+        int[] changes = new int[dayCount + 1];
+        int[] started = new int[dayCount];
+        int[] ended = new int[dayCount];
+        // The toggles active within the range, with the time they start being active in it
+        int[] positions = new int[size];
+        long[] firstActive = new long[size];
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+        int count = 0;
+        int startCount = 0;
+        int endCount = 0;
+        int activeAtFrom = 0;
+
+        for (int i = 0; i < size; i++) {
+            CompactToggle toggle = table.at(i);
+            long beginning = toggle.getBeginning();
+            long expiration = toggle.getExpiration();
+            long activeFrom = beginning == ToggleDates.NO_DATE ? Long.MIN_VALUE : beginning;
+            long activeTo = expiration == ToggleDates.NO_DATE ? Long.MAX_VALUE : expiration;
+            if (activeFrom >= activeTo) {
+                // Expires before it begins, so it is never active
+                continue;
+            }
+            if (beginning != ToggleDates.NO_DATE && beginning >= from && beginning < to) {
+                started[day(beginning, from)]++;
+            }
+            if (expiration != ToggleDates.NO_DATE && expiration >= from && expiration < to) {
+                ended[day(expiration, from)]++;
+            }
+            if (activeFrom >= to || activeTo <= from) {
+                continue;
+            }
+
+            long first = Math.max(activeFrom, from);
+            changes[day(first, from)]++;
+            changes[day(Math.min(activeTo, to) - 1, from) + 1]--;
+            positions[count] = i;
+            firstActive[count++] = first;
+            if (activeFrom <= from) {
+                activeAtFrom++;
+            } else {
+                starts[startCount++] = activeFrom;
+            }
+            if (activeTo < to) {
+                ends[endCount++] = activeTo;
+            }
+        }
+
+        int[] activePerDay = new int[dayCount];
+        int running = 0;
+        for (int day = 0; day < dayCount; day++) {
+            running += changes[day];
+            activePerDay[day] = running;
+        }
+
+        Arrays.sort(starts, 0, startCount);
+        Arrays.sort(ends, 0, endCount);
+        int active = activeAtFrom;
+        int peak = active;
+        long peakMillis = from;
+        for (int s = 0, e = 0; s < startCount; ) {
+            if (e < endCount && ends[e] <= starts[s]) {
+                active--;
+                e++;
+            } else {
+                active++;
+                if (active > peak) {
+                    peak = active;
+                    peakMillis = starts[s];
+                }
+                s++;
+            }
+        }
+
+        int[] order = RecencyIndex.sortedOrder(firstActive, count);
+        String[] ids = new String[count];
+        String[] names = new String[count];
+        long[] beginnings = new long[count];
+        long[] expirations = new long[count];
+        for (int i = 0; i < count; i++) {
+            CompactToggle toggle = table.at(positions[order[i]]);
+            ids[i] = toggle.id();
+            names[i] = toggle.getName();
+            beginnings[i] = toggle.getBeginning();
+            expirations[i] = toggle.getExpiration();
+        }
+        return new ActivitySeries(from, activePerDay, started, ended, peak, peakMillis,
+                ids, names, beginnings, expirations);
+    }
+
+    private static int day(long time, long from) {
+        return (int) ((time - from) / ActivitySeries.DAY_MILLIS);
+    }
+}
@@ -0,0 +1,423 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.utils.ToggleDates;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The in-memory form of a feature toggle inside the stores, which is several times smaller than
+ * a {@link FeatureToggleItem}.
+ *
+ * A canonical UUID is kept as two longs, dates as epoch milliseconds with a code for the format they
+ * arrived in, the package and feature names are interned, and the description is kept as UTF-8 bytes
+ * until it is needed. Values that do not fit these forms are kept as they are, so {@link #toItem()}
+ * always returns exactly the strings that were stored.
+ *
+ * Instances are immutable, except for the statistics class, which only {@link StatisticsTracker}
+ * touches under the store's lock.
+ */
+
+final class CompactToggle {
+
+    private static final int FORMAT_NULL = 0;
+    private static final int FORMAT_DATE_TIME = 1;  // yyyy-MM-dd HH:mm:ss
+    private static final int FORMAT_DATE = 2;       // yyyy-MM-dd
+    private static final int FORMAT_ISO_MILLIS = 3; // yyyy-MM-ddTHH:mm:ss.SSSZ
+    private static final int FORMAT_RAW = 4;
+
+    private static final int BEGINNING = 0;
+    private static final int EXPIRATION = 1;
+    private static final int CREATED = 2;
+    private static final int UPDATED = 3;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final long idHigh;
+    private final long idLow;
+    // Only set when the ID is not a canonical lowercase UUID
+    private final String rawId;
+    private final String packageName;
+    private final String name;
+    private final byte[] description;
+    private final long[] dates = new long[4];
+    // Three bits per date
+    private final int formats;
+    // Only set when a date is in none of the known formats
+    private final String[] rawDates;
+
+    int statisticsClass;
+
+    private CompactToggle(FeatureToggleItem item) {
+        String id = item.get_id();
+        if (isUuid(id)) {
+            idHigh = uuidHigh(id);
+            idLow = uuidLow(id);
+            rawId = null;
+        } else {
+            idHigh = 0;
+            idLow = 0;
+            rawId = id;
+        }
+        packageName = item.getPackage_name() == null ? null : item.getPackage_name().intern();
+        name = item.getName() == null ? null : item.getName().intern();
+        description = item.getDescription() == null ? null : item.getDescription().getBytes(StandardCharsets.UTF_8);
+
+        String[] source = {item.getBeginning_date(), item.getExpiration_date(), item.getCreated_at(), item.getUpdated_at()};
+        String[] raw = null;
+        int packed = 0;
+        for (int i = 0; i < source.length; i++) {
+            int format = encodeDate(source[i], dates, i);
+            if (format == FORMAT_RAW) {
+                if (raw == null) {
+                    raw = new String[source.length];
+                }
+                raw[i] = source[i];
+                dates[i] = ToggleDates.parse(source[i]);
+            }
+            packed |= format << (3 * i);
+        }
+        formats = packed;
+        rawDates = raw;
+    }
+
+    /**
+     * @param item A feature toggle with an ID.
+     * @return The compact form of the toggle.
+     */
+    static CompactToggle of(FeatureToggleItem item) {
+        return new CompactToggle(item);
+    }
+
+    /**
+     * @return A new feature toggle object with the stored values.
+     */
+    FeatureToggleItem toItem() {
+        FeatureToggleItem item = new FeatureToggleItem();
+        item.set_id(id());
+        item.setPackage_name(packageName);
+        item.setName(name);
+        item.setDescription(getDescription());
+        item.setBeginning_date(date(BEGINNING));
+        item.setExpiration_date(date(EXPIRATION));
+        item.setCreated_at(date(CREATED));
+        item.setUpdated_at(date(UPDATED));
+        return item;
+    }
+
+    String id() {
+        if (rawId != null) {
+            return rawId;
+        }
+        char[] chars = new char[36];
+        int position = 0;
+        for (int i = 0; i < 32; i++) {
+            if (i == 8 || i == 12 || i == 16 || i == 20) {
+                chars[position++] = '-';
+            }
+            long half = i < 16 ? idHigh : idLow;
+            chars[position++] = HEX[(int) (half >>> (60 - 4 * (i % 16))) & 0xF];
+        }
+        return new String(chars);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getDescription() {
+        return description == null ? null : new String(description, StandardCharsets.UTF_8);
+    }
+
+    long getBeginning() {
+        return dates[BEGINNING];
+    }
+
+    long getExpiration() {
+        return dates[EXPIRATION];
+    }
+
+    long getCreated() {
+        return dates[CREATED];
+    }
+
+    /**
+     * @return The later of created_at and updated_at, or NO_DATE if neither is known.
+     */
+    long getLastModified() {
+        return Math.max(dates[CREATED], dates[UPDATED]);
+    }
+
+    boolean isActiveAt(long now) {
+        long beginning = dates[BEGINNING];
+        long expiration = dates[EXPIRATION];
+        return (beginning == ToggleDates.NO_DATE || beginning <= now)
+                && (expiration == ToggleDates.NO_DATE || now < expiration);
+    }
+
+    /**
+     * @return The first time after now at which the toggle starts or expires, or Long.MAX_VALUE if there is none.
+     */
+    long nextTransitionAfter(long now) {
+        long beginning = dates[BEGINNING];
+        long expiration = dates[EXPIRATION];
+        if (beginning != ToggleDates.NO_DATE && beginning > now) {
+            return beginning;
+        }
+        if (expiration != ToggleDates.NO_DATE && expiration > now) {
+            return expiration;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * @return True if both toggles have the same ID.
+     */
+    boolean sameId(CompactToggle other) {
+        return idHigh == other.idHigh && idLow == other.idLow && Objects.equals(rawId, other.rawId);
+    }
+
+    /**
+     * Checks the ID against a string without allocating.
+     */
+    boolean hasId(String id, long high, long low, boolean uuid) {
+        return uuid ? rawId == null && idHigh == high && idLow == low : id.equals(rawId);
+    }
+
+    int idHash() {
+        return rawId != null ? rawId.hashCode() : hashUuid(idHigh, idLow);
+    }
+
+    /**
+     * @return True if both toggles carry the same server version, that is the same non-null updated_at.
+     */
+    boolean sameVersion(CompactToggle other) {
+        return formatOf(UPDATED) != FORMAT_NULL && sameDate(other, UPDATED);
+    }
+
+    boolean sameDates(CompactToggle other) {
+        return sameDate(other, BEGINNING) && sameDate(other, EXPIRATION);
+    }
+
+    boolean sameInfo(CompactToggle other) {
+        return Objects.equals(name, other.name) && Arrays.equals(description, other.description);
+    }
+
+    private boolean sameDate(CompactToggle other, int index) {
+        int format = formatOf(index);
+        if (format != other.formatOf(index)) {
+            return false;
+        }
+        if (format == FORMAT_RAW) {
+            return rawDates[index].equals(other.rawDates[index]);
+        }
+        return dates[index] == other.dates[index];
+    }
+
+    private int formatOf(int index) {
+        return (formats >>> (3 * index)) & 0x7;
+    }
+
+    private String date(int index) {
+        switch (formatOf(index)) {
+            case FORMAT_DATE_TIME:
+                return formatDate(dates[index], 19, false);
+            case FORMAT_DATE:
+                return formatDate(dates[index], 10, false);
+            case FORMAT_ISO_MILLIS:
+                return formatDate(dates[index], 24, true);
+            case FORMAT_RAW:
+                return rawDates[index];
+            default:
+                return null;
+        }
+    }
+
+    static int hashUuid(long high, long low) {
+        long hash = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Checks for a canonical lowercase UUID, the form {@link #id()} gives back.
+     */
+    static boolean isUuid(String id) {
+        if (id == null || id.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The first 16 hex digits of a string accepted by {@link #isUuid}.
+     */
+    static long uuidHigh(String id) {
+        return hexDigits(id, 0, 18);
+    }
+
+    /**
+     * @return The last 16 hex digits of a string accepted by {@link #isUuid}.
+     */
+    static long uuidLow(String id) {
+        return hexDigits(id, 19, 36);
+    }
+
+    private static long hexDigits(String id, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = id.charAt(i);
+            if (c != '-') {
+                value = (value << 4) | (c <= '9' ? c - '0' : c - 'a' + 10);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Recognizes the date formats that can be restored exactly from epoch milliseconds.
+     *
+     * @return The format code, with the epoch milliseconds stored in the array, or FORMAT_RAW.
+     */
+    private static int encodeDate(String value, long[] target, int index) {
+        if (value == null) {
+            target[index] = ToggleDates.NO_DATE;
+            return FORMAT_NULL;
+        }
+        int length = value.length();
+        int format;
+        if (length == 19 && value.charAt(10) == ' ') {
+            format = FORMAT_DATE_TIME;
+        } else if (length == 10) {
+            format = FORMAT_DATE;
+        } else if (length == 24 && value.charAt(10) == 'T' && value.charAt(19) == '.' && value.charAt(23) == 'Z') {
+            format = FORMAT_ISO_MILLIS;
+        } else {
+            return FORMAT_RAW;
+        }
+        if (value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return FORMAT_RAW;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            return FORMAT_RAW;
+        }
+        long millis = daysFromCivil(year, month, day) * MILLIS_PER_DAY;
+        if (format != FORMAT_DATE) {
+            if (value.charAt(13) != ':' || value.charAt(16) != ':') {
+                return FORMAT_RAW;
+            }
+            int hour = digits(value, 11, 2);
+            int minute = digits(value, 14, 2);
+            int second = digits(value, 17, 2);
+            if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+                return FORMAT_RAW;
+            }
+            millis += ((hour * 60L + minute) * 60L + second) * 1000L;
+            if (format == FORMAT_ISO_MILLIS) {
+                int fraction = digits(value, 20, 3);
+                if (fraction < 0) {
+                    return FORMAT_RAW;
+                }
+                millis += fraction;
+            }
+        }
+        target[index] = millis;
+        return format;
+    }
+
+    private static String formatDate(long millis, int length, boolean iso) {
+        long days = Math.floorDiv(millis, MILLIS_PER_DAY);
+        long time = Math.floorMod(millis, MILLIS_PER_DAY);
+        // Civil date from days since the epoch, see daysFromCivil
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+        char[] chars = new char[length];
+        put(chars, 0, year, 4);
+        chars[4] = '-';
+        put(chars, 5, month, 2);
+        chars[7] = '-';
+        put(chars, 8, day, 2);
+        if (length > 10) {
+            chars[10] = iso ? 'T' : ' ';
+            put(chars, 11, (int) (time / 3_600_000), 2);
+            chars[13] = ':';
+            put(chars, 14, (int) (time / 60_000 % 60), 2);
+            chars[16] = ':';
+            put(chars, 17, (int) (time / 1000 % 60), 2);
+        }
+        if (iso) {
+            chars[19] = '.';
+            put(chars, 20, (int) (time % 1000), 3);
+            chars[23] = 'Z';
+        }
+        return new String(chars);
+    }
+
+    private static void put(char[] chars, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static int digits(String value, int offset, int count) {
+        int result = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Days since the epoch of a proleptic Gregorian date, after Howard Hinnant's civil calendar algorithms.
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.interfaces.FeatureChangeListener;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * The FeatureFlags class keeps the active state of a fixed set of feature toggles in a bitset,
+ * indexed by dense integers such as the constants generated from a toggle manifest.
+ *
+ * The bits follow the store: they are recomputed when one of the declared toggles changes, and when
+ * the clock passes the next beginning or expiration date among them. Checking a toggle is then a
+ * clock comparison and a word read, and checking many toggles at once is a mask operation.
+ */
+
+public final class FeatureFlags {
+
+    private final FeatureToggleStore store;
+    private final LongSupplier clock;
+    private final String[] ids;
+    private final Map<String, Integer> indexById;
+    private final FeatureChangeListener listener;
+
+    // Replaced as a whole, words first, so a reader that sees a new transition also sees its bits
+    private volatile long[] words;
+    private volatile long nextTransition = Long.MIN_VALUE;
+
+    /**
+     * Creates flags for a store and keeps them up to date as the store changes.
+     *
+     * @param store The store holding the feature toggles.
+     * @param ids   The IDs of the feature toggles, in index order.
+     */
+    public FeatureFlags(FeatureToggleStore store, String... ids) {
+        this.store = store;
+        this.clock = store.clock();
+        this.ids = ids.clone();
+        this.indexById = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            indexById.put(ids[i], i);
+        }
+        this.words = new long[(ids.length + 63) >>> 6];
+        this.listener = new FeatureChangeListener() {
+            @Override
+            public void onFeatureAdded(FeatureToggleItem item, boolean active) {
+                changed(item);
+            }
+
+            @Override
+            public void onFeatureChanged(FeatureToggleItem previous, FeatureToggleItem current, int changes, boolean active) {
+                changed(current);
+            }
+
+            @Override
+            public void onFeatureRemoved(FeatureToggleItem item) {
+                changed(item);
+            }
+        };
+        store.addChangeListener(listener);
+        reevaluate();
+    }
+
+    /**
+     * Builds a mask of several toggles, for {@link #allEnabled(long[])} and {@link #anyEnabled(long[])}.
+     *
+     * @param toggles The indices of the toggles.
+     * @return The mask.
+     * @throws IllegalArgumentException If an index is negative.
+     */
+    public static long[] mask(int... toggles) {
+        int max = -1;
+        for (int toggle : toggles) {
+            if (toggle < 0) {
+                throw new IllegalArgumentException("Invalid toggle index: " + toggle);
+            }
+            max = Math.max(max, toggle);
+        }
+        long[] mask = new long[(max + 64) >>> 6];
+        for (int toggle : toggles) {
+            mask[toggle >>> 6] |= 1L << toggle;
+        }
+        return mask;
+    }
+
+    /**
+     * @param toggle The index of the toggle.
+     * @return True if the toggle is in the store and active now. False for an index that was not declared,
+     *         such as a constant generated from a newer manifest than the IDs the flags were created with.
+     */
+    public boolean isEnabled(int toggle) {
+        if (toggle < 0 || toggle >= ids.length) {
+            return false;
+        }
+        return (current()[toggle >>> 6] & (1L << toggle)) != 0;
+    }
+
+    /**
+     * @param mask A mask built with {@link #mask(int...)}.
+     * @return True if every toggle of the mask is active. False if the mask has a toggle that was not declared.
+     */
+    public boolean allEnabled(long[] mask) {
+        long[] bits = current();
+        for (int i = 0; i < mask.length; i++) {
+            long word = i < bits.length ? bits[i] : 0;
+            if ((word & mask[i]) != mask[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param mask A mask built with {@link #mask(int...)}.
+     * @return True if at least one toggle of the mask is active. Toggles that were not declared are ignored.
+     */
+    public boolean anyEnabled(long[] mask) {
+        long[] bits = current();
+        for (int i = 0; i < Math.min(mask.length, bits.length); i++) {
+            if ((bits[i] & mask[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The number of declared toggles.
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Stops following the store. The bits keep their last value.
+     */
+    public void close() {
+        store.removeChangeListener(listener);
+    }
+
+    private long[] current() {
+        if (clock.getAsLong() >= nextTransition) {
+            reevaluate();
+        }
+        return words;
+    }
+
+    private void changed(FeatureToggleItem item) {
+        if (indexById.containsKey(item.get_id())) {
+            reevaluate();
+        }
+    }
+
+    private synchronized void reevaluate() {
+        ToggleSnapshot snapshot = store.snapshot();
+        long now = clock.getAsLong();
+        long[] bits = new long[words.length];
+        long transition = Long.MAX_VALUE;
+        for (int i = 0; i < ids.length; i++) {
+            CompactToggle toggle = snapshot.table().get(ids[i]);
+            if (toggle == null) {
+                continue;
+            }
+            if (toggle.isActiveAt(now)) {
+                bits[i >>> 6] |= 1L << i;
+            }
+            transition = Math.min(transition, toggle.nextTransitionAfter(now));
+        }
+        words = bits;
+        nextTransition = transition;
+    }
+}
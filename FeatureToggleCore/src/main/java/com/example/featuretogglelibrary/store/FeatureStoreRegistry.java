@@ -0,0 +1,272 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.api.FeatureController;
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The FeatureStoreRegistry class keeps one {@link FeatureToggleStore} per package, so that a single
+ * client can browse and refresh the toggles of many packages independently.
+ *
+ * Packages are spread over shards, each with its own lock, so that threads working on different
+ * packages rarely contend. Looking up a store never locks, which keeps evaluation lock-free.
+ *
+ * The registry has a budget expressed in feature toggles: each shard gets an equal share, and when
+ * a shard exceeds it the least recently used packages of that shard are evicted, based on the time
+ * each package was last looked up. A package that is evicted is simply fetched again the next time
+ * it is refreshed.
+ */
+
+public class FeatureStoreRegistry {
+
+    /**
+     * Default maximum number of feature toggles held across all packages.
+     */
+    public static final long DEFAULT_MAX_TOGGLES = 100_000;
+
+    private static final int DEFAULT_SHARD_COUNT = 16;
+    private static final long ACCESS_STAMP_RESOLUTION_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Shard[] shards;
+    private volatile long maxToggles;
+
+    public FeatureStoreRegistry() {
+        this(DEFAULT_MAX_TOGGLES, DEFAULT_SHARD_COUNT);
+    }
+
+    /**
+     * @param maxToggles The maximum number of feature toggles held across all packages.
+     * @param shardCount The number of independently locked shards.
+     */
+    public FeatureStoreRegistry(long maxToggles, int shardCount) {
+        this.maxToggles = maxToggles;
+        this.shards = new Shard[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    /**
+     * Returns the store of a package, creating an empty one if needed, and marks the package as recently used.
+     *
+     * @param packageName The name of the package.
+     * @return The store of the package.
+     */
+    public FeatureToggleStore getStore(String packageName) {
+        return shardOf(packageName).getOrCreate(packageName).store;
+    }
+
+    /**
+     * Returns the store of a package without creating it or changing its recency.
+     *
+     * @param packageName The name of the package.
+     * @return The store of the package, or null if it is not held.
+     */
+    public FeatureToggleStore peekStore(String packageName) {
+        Entry entry = shardOf(packageName).peek(packageName);
+        return entry == null ? null : entry.store;
+    }
+
+    /**
+     * Fetches all feature toggles of a package and replaces the content of its store.
+     * Concurrent refreshes of the same package share a single request.
+     *
+     * @param controller  The controller used to reach the backend.
+     * @param packageName The name of the package to refresh.
+     * @param callback    The callback to handle the fetched feature toggles or errors.
+     */
+    public void refresh(FeatureController controller, String packageName,
+                        GenericCallBack<List<FeatureToggleItem>> callback) {
+        Shard shard = shardOf(packageName);
+        if (!shard.addRefreshWaiter(packageName, callback)) {
+            // A refresh of this package is already in flight
+            return;
+        }
+
+        controller.fetchAllFeatureToggles(packageName, new GenericCallBack<List<FeatureToggleItem>>() {
+            @Override
+            public void success(List<FeatureToggleItem> data) {
+                Entry entry = shard.getOrCreate(packageName);
+                entry.store.replaceAll(data);
+                shard.updateWeight(entry, entry.store.size(), shareOf(maxToggles));
+                for (GenericCallBack<List<FeatureToggleItem>> waiter : shard.takeRefreshWaiters(packageName)) {
+                    waiter.success(data);
+                }
+            }
+
+            @Override
+            public void error(String error) {
+                for (GenericCallBack<List<FeatureToggleItem>> waiter : shard.takeRefreshWaiters(packageName)) {
+                    waiter.error(error);
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops the store of a package.
+     *
+     * @param packageName The name of the package.
+     */
+    public void evict(String packageName) {
+        shardOf(packageName).remove(packageName);
+    }
+
+    /**
+     * Changes the budget, evicting least recently used packages right away if needed.
+     *
+     * @param maxToggles The maximum number of feature toggles held across all packages.
+     */
+    public void setMaxToggles(long maxToggles) {
+        this.maxToggles = maxToggles;
+        for (Shard shard : shards) {
+            shard.evictOverBudget(shareOf(maxToggles), null);
+        }
+    }
+
+    /**
+     * @return The number of packages currently held.
+     */
+    public int packageCount() {
+        int count = 0;
+        for (Shard shard : shards) {
+            count += shard.packageCount();
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of feature toggles currently held across all packages, as of their last refresh.
+     */
+    public long toggleCount() {
+        long count = 0;
+        for (Shard shard : shards) {
+            count += shard.weight();
+        }
+        return count;
+    }
+
+    private long shareOf(long budget) {
+        return Math.max(1, budget / shards.length);
+    }
+
+    private Shard shardOf(String packageName) {
+        int hash = packageName.hashCode();
+        hash ^= hash >>> 16;
+        return shards[(hash & 0x7FFFFFFF) % shards.length];
+    }
+
+    private static final class Entry {
+        final String packageName;
+        final FeatureToggleStore store = new FeatureToggleStore();
+        volatile long lastAccess;
+        long weight;
+
+        Entry(String packageName) {
+            this.packageName = packageName;
+        }
+
+        void touch() {
+            long now = System.nanoTime();
+            // Skip the write when the stamp is fresh, so hot packages do not bounce the cache line between cores
+            if (now - lastAccess > ACCESS_STAMP_RESOLUTION_NANOS) {
+                lastAccess = now;
+            }
+        }
+    }
+
+    private static final class Shard {
+
+        // Lookups never lock, the shard lock only guards creation, weights and eviction
+        private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+        private final Map<String, List<GenericCallBack<List<FeatureToggleItem>>>> refreshWaiters = new HashMap<>();
+        private long weight;
+
+        Entry getOrCreate(String packageName) {
+            Entry entry = entries.get(packageName);
+            if (entry == null) {
+                synchronized (this) {
+                    entry = entries.get(packageName);
+                    if (entry == null) {
+                        entry = new Entry(packageName);
+                        entries.put(packageName, entry);
+                    }
+                }
+            }
+            entry.touch();
+            return entry;
+        }
+
+        Entry peek(String packageName) {
+            return entries.get(packageName);
+        }
+
+        synchronized void remove(String packageName) {
+            Entry entry = entries.remove(packageName);
+            if (entry != null) {
+                weight -= entry.weight;
+            }
+        }
+
+        synchronized void updateWeight(Entry entry, long newWeight, long budget) {
+            if (entries.get(entry.packageName) != entry) {
+                // Evicted while the refresh was in flight
+                return;
+            }
+            weight += newWeight - entry.weight;
+            entry.weight = newWeight;
+            evictOverBudget(budget, entry);
+        }
+
+        synchronized void evictOverBudget(long budget, Entry keep) {
+            if (weight <= budget) {
+                return;
+            }
+            // Evict from the least recently used package on
+            List<Entry> candidates = new ArrayList<>(entries.values());
+            candidates.sort((a, b) -> Long.compare(a.lastAccess, b.lastAccess));
+            for (Entry candidate : candidates) {
+                if (weight <= budget) {
+                    break;
+                }
+                if (candidate == keep) {
+                    continue;
+                }
+                entries.remove(candidate.packageName);
+                weight -= candidate.weight;
+            }
+        }
+
+        synchronized boolean addRefreshWaiter(String packageName, GenericCallBack<List<FeatureToggleItem>> callback) {
+            List<GenericCallBack<List<FeatureToggleItem>>> waiters = refreshWaiters.get(packageName);
+            if (waiters != null) {
+                waiters.add(callback);
+                return false;
+            }
+            waiters = new ArrayList<>();
+            waiters.add(callback);
+            refreshWaiters.put(packageName, waiters);
+            return true;
+        }
+
+        synchronized List<GenericCallBack<List<FeatureToggleItem>>> takeRefreshWaiters(String packageName) {
+            List<GenericCallBack<List<FeatureToggleItem>>> waiters = refreshWaiters.remove(packageName);
+            return waiters == null ? new ArrayList<>() : waiters;
+        }
+
+        int packageCount() {
+            return entries.size();
+        }
+
+        synchronized long weight() {
+            return weight;
+        }
+    }
+}
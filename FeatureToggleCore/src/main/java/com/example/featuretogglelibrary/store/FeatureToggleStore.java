@@ -0,0 +1,440 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.interfaces.FeatureChangeListener;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.model.FeaturesStatistics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * The FeatureToggleStore class holds the feature toggles of one package known locally,
+ * keyed by their ID, together with statistics that are maintained as the toggles change.
+ * Toggles are kept in a compact form, so the objects returned by the store are new copies.
+ *
+ * All methods are thread-safe. Changes take the store's lock, while evaluation goes through an
+ * immutable {@link ToggleSnapshot} that is rebuilt at most once per change and read without locking.
+ * Changes can be observed through a {@link SnapshotPublisher}, or toggle by toggle through a
+ * {@link FeatureChangeListener}.
+ */
+
+public class FeatureToggleStore {
+
+    /**
+     * Default window in which an active feature toggle counts as expiring soon.
+     */
+    public static final long DEFAULT_EXPIRING_SOON_WINDOW_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    // Shared by the default publishers of all stores. A subscriber holds one thread while it is called.
+    private static final Executor PUBLISHER_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "FeatureToggle-Snapshots");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ToggleTable items = new ToggleTable(0);
+    private final StatisticsTracker statistics;
+    private final LongSupplier clock;
+    private boolean loaded = false;
+    private long version = 0;
+    // Counts the complete lists the store was filled with, so that older local changes know they were overtaken
+    private long replacements = 0;
+
+    // Cleared on every change and rebuilt by the first reader
+    private volatile ToggleSnapshot snapshot;
+
+    private final CopyOnWriteArrayList<SnapshotPublisher> publishers = new CopyOnWriteArrayList<>();
+    private volatile SnapshotPublisher defaultPublisher;
+    private volatile ToggleSearchIndex searchIndex;
+
+    private final CopyOnWriteArrayList<FeatureChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    // Serializes diffs so that listeners see the changes in order, guarded by itself
+    private final Object diffLock = new Object();
+    private ToggleSnapshot lastDiffed;
+    private long lastDiffedAt;
+
+    public FeatureToggleStore() {
+        this(System::currentTimeMillis, DEFAULT_EXPIRING_SOON_WINDOW_MILLIS);
+    }
+
+    /**
+     * @param clock                    The source of the current time, in milliseconds since the epoch.
+     * @param expiringSoonWindowMillis The window in which an active feature toggle counts as expiring soon.
+     */
+    public FeatureToggleStore(LongSupplier clock, long expiringSoonWindowMillis) {
+        this.clock = clock;
+        this.statistics = new StatisticsTracker(clock, expiringSoonWindowMillis);
+    }
+
+    /**
+     * Replaces the content of the store with a complete list of feature toggles.
+     *
+     * @param newItems All feature toggles of the package.
+     */
+    public void replaceAll(List<FeatureToggleItem> newItems) {
+        List<CompactToggle> toggles = compact(newItems);
+        synchronized (this) {
+            items.clear();
+            statistics.clear();
+            for (CompactToggle toggle : toggles) {
+                items.put(toggle);
+            }
+            for (int i = 0; i < items.size(); i++) {
+                statistics.add(items.at(i));
+            }
+            loaded = true;
+            replacements++;
+            changed();
+        }
+        publishChange();
+    }
+
+    /**
+     * Adds a feature toggle, or replaces the one with the same ID.
+     *
+     * @param item The feature toggle. Items without an ID are ignored.
+     */
+    public void upsert(FeatureToggleItem item) {
+        if (item.get_id() == null) {
+            return;
+        }
+        CompactToggle toggle = CompactToggle.of(item);
+        synchronized (this) {
+            put(toggle);
+            changed();
+        }
+        publishChange();
+    }
+
+    /**
+     * Adds or replaces several feature toggles as a single change.
+     *
+     * @param newItems The feature toggles. Items without an ID are ignored.
+     */
+    public void upsertAll(Collection<FeatureToggleItem> newItems) {
+        List<CompactToggle> toggles = compact(newItems);
+        synchronized (this) {
+            for (CompactToggle toggle : toggles) {
+                put(toggle);
+            }
+            changed();
+        }
+        publishChange();
+    }
+
+    /**
+     * Changes a feature toggle as a single step, so that concurrent changes to its other fields are not lost
+     * as they would be between a {@link #get} and an {@link #upsert}.
+     *
+     * @param featureId The ID of the feature toggle to change.
+     * @param update    Changes a copy of the toggle, which then replaces it. It runs under the store's lock.
+     * @return The feature toggle as it was before the change, or null if it is not in the store.
+     */
+    public FeatureToggleItem update(String featureId, Consumer<FeatureToggleItem> update) {
+        FeatureToggleItem previous;
+        synchronized (this) {
+            CompactToggle current = items.get(featureId);
+            if (current == null) {
+                return null;
+            }
+            previous = current.toItem();
+            FeatureToggleItem updated = current.toItem();
+            update.accept(updated);
+            put(CompactToggle.of(updated));
+            changed();
+        }
+        publishChange();
+        return previous;
+    }
+
+    /**
+     * Removes a feature toggle.
+     *
+     * @param featureId The ID of the feature toggle to remove.
+     */
+    public void remove(String featureId) {
+        synchronized (this) {
+            CompactToggle removed = items.remove(featureId);
+            if (removed == null) {
+                return;
+            }
+            statistics.remove(removed);
+            changed();
+        }
+        publishChange();
+    }
+
+    /**
+     * Removes all feature toggles.
+     */
+    public void clear() {
+        synchronized (this) {
+            items.clear();
+            statistics.clear();
+            changed();
+        }
+        publishChange();
+    }
+
+    /**
+     * Returns the publisher pushing this store's snapshots to subscribers, creating it on first use.
+     * Its subscribers are called on a shared pool of background threads, so a slow subscriber does not
+     * delay the others.
+     *
+     * @return The default snapshot publisher of this store.
+     */
+    public SnapshotPublisher getPublisher() {
+        SnapshotPublisher publisher = defaultPublisher;
+        if (publisher == null) {
+            synchronized (this) {
+                if (defaultPublisher == null) {
+                    defaultPublisher = new SnapshotPublisher(this, PUBLISHER_EXECUTOR);
+                }
+                publisher = defaultPublisher;
+            }
+        }
+        return publisher;
+    }
+
+    /**
+     * Returns the index searching this store's toggles by name and description, creating it on first use.
+     * It is filled with the toggles already in the store, then updated as a change listener.
+     *
+     * @return The search index of this store.
+     */
+    public ToggleSearchIndex getSearchIndex() {
+        ToggleSearchIndex index = searchIndex;
+        if (index == null) {
+            synchronized (diffLock) {
+                if (searchIndex == null) {
+                    ToggleSearchIndex created = new ToggleSearchIndex(this);
+                    addChangeListener(created);
+                    searchIndex = created;
+                }
+                index = searchIndex;
+            }
+        }
+        return index;
+    }
+
+    void addPublisher(SnapshotPublisher publisher) {
+        publishers.add(publisher);
+    }
+
+    /**
+     * Registers a listener for the toggles that change in this store. The toggles already in the store
+     * are reported to it as added first. Listeners are called on the thread that changed the store,
+     * after the store's lock is released.
+     *
+     * @param listener The listener to add.
+     */
+    public void addChangeListener(FeatureChangeListener listener) {
+        synchronized (diffLock) {
+            ToggleSnapshot current = snapshot();
+            long now = clock.getAsLong();
+            if (changeListeners.isEmpty()) {
+                lastDiffed = current;
+                lastDiffedAt = now;
+            }
+            // Bring the listener up to the state the others have already been told about
+            SnapshotDiff.compute(null, 0, lastDiffed, lastDiffedAt, Collections.singletonList(listener));
+            changeListeners.add(listener);
+        }
+    }
+
+    /**
+     * @param listener The listener to remove.
+     */
+    public void removeChangeListener(FeatureChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * @param featureId The ID of the feature toggle.
+     * @return The feature toggle, or null if it is not in the store.
+     */
+    public FeatureToggleItem get(String featureId) {
+        return snapshot().get(featureId);
+    }
+
+    /**
+     * @return A copy of all feature toggles in the store.
+     */
+    public List<FeatureToggleItem> getAll() {
+        return new ArrayList<>(snapshot().getItems());
+    }
+
+    /**
+     * Returns a page of the feature toggles created or updated in the last days, newest first, without
+     * a network call. Pages are taken from the current snapshot, so use
+     * {@link ToggleSnapshot#getModifiedSince} on a single snapshot to page through a store that is changing.
+     *
+     * @param days   The number of days to look back from now.
+     * @param offset The number of matching toggles to skip.
+     * @param limit  The maximum number of toggles to return.
+     * @return New objects with the matching toggles.
+     */
+    public List<FeatureToggleItem> getRecent(int days, int offset, int limit) {
+        return snapshot().getModifiedSince(clock.getAsLong() - TimeUnit.DAYS.toMillis(days), offset, limit);
+    }
+
+    /**
+     * Returns the current snapshot of the store. Readers share the same snapshot until the next change.
+     *
+     * @return An immutable view of the feature toggles in the store.
+     */
+    public ToggleSnapshot snapshot() {
+        ToggleSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = new ToggleSnapshot(version, items.copy());
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Checks whether a feature toggle is active now. This method does not lock and is safe to call
+     * from any number of threads.
+     *
+     * @param featureName The name of the feature toggle.
+     * @return True if the toggle is in the store and the current time is within its dates.
+     */
+    public boolean isEnabled(String featureName) {
+        return snapshot().isActive(featureName, clock.getAsLong());
+    }
+
+    /**
+     * Checks whether a feature toggle, looked up by ID, is active now. This method does not lock.
+     *
+     * @param featureId The ID of the feature toggle.
+     * @return True if the toggle is in the store and the current time is within its dates.
+     */
+    public boolean isEnabledById(String featureId) {
+        return snapshot().isActiveById(featureId, clock.getAsLong());
+    }
+
+    /**
+     * @return The number of times the store was filled with a complete list of feature toggles.
+     */
+    synchronized long getReplacements() {
+        return replacements;
+    }
+
+    /**
+     * Puts back feature toggles that a failed local change removed. Toggles added again meanwhile are kept,
+     * and nothing is put back if the store was filled with a complete list since.
+     *
+     * @param removed      The feature toggles to put back.
+     * @param replacements The value of {@link #getReplacements()} when they were removed.
+     */
+    void restore(Collection<FeatureToggleItem> removed, long replacements) {
+        List<CompactToggle> toggles = compact(removed);
+        synchronized (this) {
+            if (this.replacements != replacements) {
+                return;
+            }
+            boolean restored = false;
+            for (CompactToggle toggle : toggles) {
+                if (items.get(toggle.id()) == null) {
+                    put(toggle);
+                    restored = true;
+                }
+            }
+            if (!restored) {
+                return;
+            }
+            changed();
+        }
+        publishChange();
+    }
+
+    /**
+     * @return The number of feature toggles in the store.
+     */
+    public synchronized int size() {
+        return items.size();
+    }
+
+    /**
+     * @return True once the store has been filled with a complete list of feature toggles.
+     */
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns the statistics of the feature toggles in the store, without any network call.
+     *
+     * @return A new {@link FeaturesStatistics} object, including the scheduled, expired and
+     *         expiring soon counts that the backend does not provide.
+     */
+    public synchronized FeaturesStatistics getStatistics() {
+        return statistics.snapshot(items);
+    }
+
+    LongSupplier clock() {
+        return clock;
+    }
+
+    // Converts outside the lock, so that readers and writers wait only for the table updates
+    private static List<CompactToggle> compact(Collection<FeatureToggleItem> newItems) {
+        List<CompactToggle> toggles = new ArrayList<>(newItems.size());
+        for (FeatureToggleItem item : newItems) {
+            if (item.get_id() != null) {
+                toggles.add(CompactToggle.of(item));
+            }
+        }
+        return toggles;
+    }
+
+    // Must be called while holding the lock
+    private void put(CompactToggle toggle) {
+        CompactToggle previous = items.put(toggle);
+        if (previous != null) {
+            statistics.remove(previous);
+        }
+        statistics.add(toggle);
+    }
+
+    // Must be called while holding the lock
+    private void changed() {
+        version++;
+        snapshot = null;
+    }
+
+    // Called after releasing the lock, so that subscribers never run under it
+    private void publishChange() {
+        for (SnapshotPublisher publisher : publishers) {
+            publisher.onStoreChanged();
+        }
+        if (!changeListeners.isEmpty()) {
+            dispatchChanges();
+        }
+    }
+
+    private void dispatchChanges() {
+        synchronized (diffLock) {
+            ToggleSnapshot current = snapshot();
+            if (lastDiffed != null && lastDiffed.getVersion() == current.getVersion()) {
+                // Another thread already reported this version
+                return;
+            }
+            long now = clock.getAsLong();
+            SnapshotDiff.compute(lastDiffed, lastDiffedAt, current, now, changeListeners);
+            lastDiffed = current;
+            lastDiffedAt = now;
+        }
+    }
+}
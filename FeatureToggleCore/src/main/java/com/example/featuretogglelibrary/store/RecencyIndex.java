@@ -0,0 +1,127 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.utils.ToggleDates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * The toggles of a snapshot sorted by a timestamp, so that the toggles since a given time are found
+ * by a binary search and read as one range, newest first. Toggles without the timestamp are left out.
+ *
+ * The index is immutable. {@link ToggleSnapshot} builds it on first use, once per store version.
+ */
+
+final class RecencyIndex {
+
+    private static final int POSITION_BITS = 21;
+    private static final long POSITION_MASK = (1L << POSITION_BITS) - 1;
+
+    private final long[] times;
+    private final CompactToggle[] toggles;
+
+    RecencyIndex(ToggleTable table, ToLongFunction<CompactToggle> timestamp) {
+        int size = table.size();
+        long[] dated = new long[size];
+        int[] positions = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            long time = timestamp.applyAsLong(table.at(i));
+            if (time != ToggleDates.NO_DATE) {
+                dated[count] = time;
+                positions[count++] = i;
+            }
+        }
+        int[] order = sortedOrder(dated, count);
+        times = new long[count];
+        toggles = new CompactToggle[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = dated[order[i]];
+            toggles[i] = table.at(positions[order[i]]);
+        }
+    }
+
+    /**
+     * Sorts times without moving them.
+     *
+     * @param times The times, in milliseconds since the epoch.
+     * @param count The number of times to sort, from the start of the array.
+     * @return The indexes of the times in ascending order of time. Equal times keep their order.
+     */
+    static int[] sortedOrder(long[] times, int count) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            min = Math.min(min, times[i]);
+            max = Math.max(max, times[i]);
+        }
+        int[] order = new int[count];
+        if (count < 1 << POSITION_BITS && max - min >= 0 && max - min < 1L << (63 - POSITION_BITS)) {
+            // Sort the times with their indexes in the low bits, as primitives rather than through a comparator
+            long[] packed = new long[count];
+            for (int i = 0; i < count; i++) {
+                packed[i] = (times[i] - min) << POSITION_BITS | i;
+            }
+            Arrays.sort(packed);
+            for (int i = 0; i < count; i++) {
+                order[i] = (int) (packed[i] & POSITION_MASK);
+            }
+        } else {
+            Integer[] boxed = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                boxed[i] = i;
+            }
+            Arrays.sort(boxed, Comparator.comparingLong(i -> times[i]));
+            for (int i = 0; i < count; i++) {
+                order[i] = boxed[i];
+            }
+        }
+        return order;
+    }
+
+    /**
+     * @return The number of toggles with a timestamp at or after the given time.
+     */
+    int countSince(long since) {
+        return times.length - firstAtOrAfter(since);
+    }
+
+    /**
+     * @param since  The earliest timestamp to include, in milliseconds since the epoch.
+     * @param offset The number of matching toggles to skip, newest first.
+     * @param limit  The maximum number of toggles to return.
+     * @return New objects with the matching toggles, newest first.
+     */
+    List<FeatureToggleItem> since(long since, int offset, int limit) {
+        int first = firstAtOrAfter(since);
+        int start = times.length - 1 - Math.max(offset, 0);
+        int end = Math.max(first, start + 1 - Math.max(limit, 0));
+        if (start < end) {
+            return Collections.emptyList();
+        }
+        List<FeatureToggleItem> items = new ArrayList<>(start - end + 1);
+        for (int i = start; i >= end; i--) {
+            items.add(toggles[i].toItem());
+        }
+        return items;
+    }
+
+    private int firstAtOrAfter(long since) {
+        int low = 0;
+        int high = times.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] < since) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
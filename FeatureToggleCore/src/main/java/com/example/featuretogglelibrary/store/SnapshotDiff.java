@@ -0,0 +1,82 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.interfaces.FeatureChangeListener;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import java.util.List;
+
+/**
+ * Computes the differences between two snapshots of a store in linear time, keyed by toggle ID.
+ *
+ * Toggles whose updated_at is present and unchanged skip the field comparison. Their active state is
+ * still compared, since a toggle starts or expires as time passes without being updated.
+ */
+
+final class SnapshotDiff {
+
+    private SnapshotDiff() {
+
+    }
+
+    /**
+     * Reports every added, changed and removed toggle to the listeners.
+     *
+     * @param previous   The earlier snapshot, or null to report every toggle as added.
+     * @param previousAt The time the earlier snapshot was evaluated at.
+     * @param current    The new snapshot.
+     * @param now        The time the new snapshot is evaluated at.
+     * @param listeners  The listeners to notify.
+     */
+    static void compute(ToggleSnapshot previous, long previousAt, ToggleSnapshot current, long now,
+                        List<FeatureChangeListener> listeners) {
+        ToggleTable table = current.table();
+        ToggleTable previousTable = previous == null ? null : previous.table();
+        for (int i = 0; i < table.size(); i++) {
+            CompactToggle toggle = table.at(i);
+            boolean active = toggle.isActiveAt(now);
+            CompactToggle old = previousTable == null ? null : previousTable.get(toggle);
+
+            if (old == null) {
+                FeatureToggleItem item = toggle.toItem();
+                for (FeatureChangeListener listener : listeners) {
+                    listener.onFeatureAdded(item, active);
+                }
+                continue;
+            }
+
+            int changes = 0;
+            if (active != old.isActiveAt(previousAt)) {
+                changes |= FeatureChangeListener.ACTIVE_STATE;
+            }
+            if (old != toggle && !toggle.sameVersion(old)) {
+                if (!toggle.sameDates(old)) {
+                    changes |= FeatureChangeListener.DATES;
+                }
+                if (!toggle.sameInfo(old)) {
+                    changes |= FeatureChangeListener.INFO;
+                }
+            }
+            if (changes != 0) {
+                // Only the toggles that changed are turned into objects
+                FeatureToggleItem oldItem = old.toItem();
+                FeatureToggleItem item = toggle.toItem();
+                for (FeatureChangeListener listener : listeners) {
+                    listener.onFeatureChanged(oldItem, item, changes, active);
+                }
+            }
+        }
+
+        if (previousTable == null) {
+            return;
+        }
+        for (int i = 0; i < previousTable.size(); i++) {
+            CompactToggle old = previousTable.at(i);
+            if (table.get(old) == null) {
+                FeatureToggleItem item = old.toItem();
+                for (FeatureChangeListener listener : listeners) {
+                    listener.onFeatureRemoved(item);
+                }
+            }
+        }
+    }
+}
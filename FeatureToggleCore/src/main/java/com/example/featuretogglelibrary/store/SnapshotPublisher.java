@@ -0,0 +1,202 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.interfaces.SnapshotSubscriber;
+import com.example.featuretogglelibrary.interfaces.SnapshotSubscription;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The SnapshotPublisher class pushes the snapshots of a {@link FeatureToggleStore} to subscribers
+ * whenever the store changes.
+ *
+ * Subscribers never fetch or copy anything themselves: a change only marks every subscription as
+ * pending, and each delivery reads the store's current {@link ToggleSnapshot}, which is built once
+ * per version and shared by all of them. A subscriber without outstanding demand skips intermediate
+ * versions and receives the latest one once it requests more.
+ *
+ * Deliveries to one subscriber are serialized. Different subscribers are served concurrently when the
+ * executor has several threads, as the default publisher of a store does, so that a slow subscriber only
+ * delays its own deliveries.
+ */
+
+public class SnapshotPublisher {
+
+    private final FeatureToggleStore store;
+    private final Executor executor;
+    private final CopyOnWriteArrayList<Delivery<?>> deliveries = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a publisher for a store. It receives every change of the store from now on.
+     *
+     * @param store    The store whose snapshots are published.
+     * @param executor The executor subscribers are called on.
+     */
+    public SnapshotPublisher(FeatureToggleStore store, Executor executor) {
+        this.store = store;
+        this.executor = executor;
+        store.addPublisher(this);
+    }
+
+    /**
+     * Subscribes to every version of the store. The current snapshot is delivered first.
+     *
+     * @param subscriber The subscriber receiving the snapshots.
+     */
+    public void subscribe(SnapshotSubscriber<ToggleSnapshot> subscriber) {
+        start(new Delivery<ToggleSnapshot>(subscriber) {
+            @Override
+            boolean select(ToggleSnapshot snapshot) {
+                value = snapshot;
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Subscribes to a single feature toggle. The subscriber receives the toggle's current state first,
+     * then a new value only when that toggle changes. A null value means the toggle is not in the store.
+     *
+     * @param featureName The name of the feature toggle to follow.
+     * @param subscriber  The subscriber receiving the toggle.
+     */
+    public void subscribe(String featureName, SnapshotSubscriber<FeatureToggleItem> subscriber) {
+        start(new Delivery<FeatureToggleItem>(subscriber) {
+            private boolean first = true;
+            private CompactToggle last;
+
+            @Override
+            boolean select(ToggleSnapshot snapshot) {
+                CompactToggle current = snapshot.table().getByName(featureName);
+                if (!first && sameToggle(last, current)) {
+                    return false;
+                }
+                first = false;
+                last = current;
+                value = current == null ? null : current.toItem();
+                return true;
+            }
+        });
+    }
+
+    /**
+     * @return The number of active subscriptions.
+     */
+    public int subscriberCount() {
+        return deliveries.size();
+    }
+
+    void onStoreChanged() {
+        for (Delivery<?> delivery : deliveries) {
+            delivery.signal();
+        }
+    }
+
+    private void start(Delivery<?> delivery) {
+        deliveries.add(delivery);
+        delivery.subscriber.onSubscribe(delivery);
+    }
+
+    private static boolean sameToggle(CompactToggle previous, CompactToggle current) {
+        if (previous == current) {
+            return true;
+        }
+        if (previous == null || current == null) {
+            return false;
+        }
+        // A refresh replaces the objects, so compare the server's version of the toggle instead
+        return current.sameVersion(previous) && current.sameId(previous);
+    }
+
+    private abstract class Delivery<T> implements SnapshotSubscription, Runnable {
+
+        final SnapshotSubscriber<T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled = false;
+        private volatile IllegalArgumentException error;
+
+        // Only touched by the draining thread
+        private long deliveredVersion = -1;
+        T value;
+
+        Delivery(SnapshotSubscriber<T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * Decides whether the snapshot is delivered, and if so stores the value to deliver in {@link #value}.
+         */
+        abstract boolean select(ToggleSnapshot snapshot);
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // Reported on the draining thread, so that it does not overlap a delivery
+                error = new IllegalArgumentException("Requested " + n + " values, the number must be positive.");
+                deliveries.remove(this);
+                signal();
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = demand.get();
+                next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            } while (!demand.compareAndSet(current, next));
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            deliveries.remove(this);
+        }
+
+        void signal() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (cancelled) {
+                return;
+            }
+            if (error != null) {
+                cancelled = true;
+                subscriber.onError(error);
+                return;
+            }
+            if (demand.get() == 0) {
+                return;
+            }
+            ToggleSnapshot snapshot = store.snapshot();
+            if (snapshot.getVersion() == deliveredVersion) {
+                return;
+            }
+            deliveredVersion = snapshot.getVersion();
+            if (!select(snapshot)) {
+                return;
+            }
+            if (demand.get() != Long.MAX_VALUE) {
+                demand.decrementAndGet();
+            }
+            T next = value;
+            value = null;
+            subscriber.onNext(next);
+        }
+    }
+}
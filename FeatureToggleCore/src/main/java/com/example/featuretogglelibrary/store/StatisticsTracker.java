@@ -0,0 +1,112 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.model.FeaturesStatistics;
+import com.example.featuretogglelibrary.utils.ToggleDates;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps feature toggle statistics up to date as toggles are added, changed and removed.
+ *
+ * Each toggle is classified as scheduled, active (possibly expiring soon) or expired when it changes,
+ * and the counters are adjusted in O(1). The class is kept on the toggle itself. Because the classification
+ * depends on the current time, the tracker also remembers the earliest moment at which any toggle crosses
+ * a boundary. Only when a read happens after that moment are the toggles classified again.
+ *
+ * This class is not thread-safe, {@link FeatureToggleStore} guards it with its own lock.
+ */
+
+class StatisticsTracker {
+
+    private static final int SCHEDULED = 0;
+    private static final int ACTIVE = 1;
+    private static final int EXPIRING_SOON = 2;
+    private static final int EXPIRED = 3;
+
+    private final LongSupplier clock;
+    private final long expiringSoonWindowMillis;
+
+    private final int[] counts = new int[4];
+    private int total;
+
+    // Earliest time at which a tracked toggle changes class. It may be stale after a removal,
+    // which only costs an unnecessary reclassification.
+    private long nextTransition = Long.MAX_VALUE;
+
+    StatisticsTracker(LongSupplier clock, long expiringSoonWindowMillis) {
+        this.clock = clock;
+        this.expiringSoonWindowMillis = expiringSoonWindowMillis;
+    }
+
+    void add(CompactToggle toggle) {
+        long now = clock.getAsLong();
+        int toggleClass = classify(toggle, now);
+        toggle.statisticsClass = toggleClass;
+        counts[toggleClass]++;
+        total++;
+        nextTransition = Math.min(nextTransition, transitionOf(toggle, toggleClass));
+    }
+
+    void remove(CompactToggle toggle) {
+        counts[toggle.statisticsClass]--;
+        total--;
+    }
+
+    void clear() {
+        total = 0;
+        counts[SCHEDULED] = counts[ACTIVE] = counts[EXPIRING_SOON] = counts[EXPIRED] = 0;
+        nextTransition = Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the current statistics, reclassifying the toggles first if time has moved past a boundary.
+     *
+     * @param items The toggles tracked so far, used only when reclassifying.
+     * @return A new statistics object.
+     */
+    FeaturesStatistics snapshot(ToggleTable items) {
+        if (clock.getAsLong() >= nextTransition) {
+            clear();
+            for (int i = 0; i < items.size(); i++) {
+                add(items.at(i));
+            }
+        }
+
+        FeaturesStatistics statistics = new FeaturesStatistics();
+        statistics.setTotal_features(total);
+        statistics.setActive_features(counts[ACTIVE] + counts[EXPIRING_SOON]);
+        statistics.setScheduled_features(counts[SCHEDULED]);
+        statistics.setExpired_features(counts[EXPIRED]);
+        statistics.setExpiring_soon_features(counts[EXPIRING_SOON]);
+        return statistics;
+    }
+
+    private int classify(CompactToggle toggle, long now) {
+        long beginning = toggle.getBeginning();
+        long expiration = toggle.getExpiration();
+        if (beginning != ToggleDates.NO_DATE && now < beginning) {
+            return SCHEDULED;
+        }
+        if (expiration == ToggleDates.NO_DATE) {
+            return ACTIVE;
+        }
+        if (now >= expiration) {
+            return EXPIRED;
+        }
+        return expiration - now <= expiringSoonWindowMillis ? EXPIRING_SOON : ACTIVE;
+    }
+
+    private long transitionOf(CompactToggle toggle, int toggleClass) {
+        long expiration = toggle.getExpiration();
+        switch (toggleClass) {
+            case SCHEDULED:
+                return toggle.getBeginning();
+            case ACTIVE:
+                return expiration == ToggleDates.NO_DATE ? Long.MAX_VALUE : expiration - expiringSoonWindowMillis;
+            case EXPIRING_SOON:
+                return expiration;
+            default:
+                return Long.MAX_VALUE;
+        }
+    }
+}
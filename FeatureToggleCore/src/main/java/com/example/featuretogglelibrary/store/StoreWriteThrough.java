@@ -0,0 +1,217 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.api.MutationQueue;
+import com.example.featuretogglelibrary.interfaces.MutationListener;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.model.PendingMutation;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The StoreWriteThrough class applies the admin operations accepted by the backend to the local stores
+ * of a {@link FeatureStoreRegistry}, so that callers see their changes without fetching the toggles again.
+ * Only packages that have a store are updated.
+ *
+ * In optimistic mode, operations are applied as soon as they are sent and rolled back if they fail.
+ * A rollback only reverts what the operation changed and the store still shows: fields changed since
+ * by another update are kept, and nothing is put back once a refresh replaced the store.
+ * Creations appear under a local placeholder ID until the backend returns the real toggle. Operations
+ * queued while offline keep their local change until they are replayed.
+ */
+
+public class StoreWriteThrough implements MutationListener {
+
+    private final FeatureStoreRegistry stores;
+    private volatile boolean optimistic;
+
+    // The changes to undo if an optimistic operation fails, guarded by itself
+    private final Map<PendingMutation, Undo> undos = new IdentityHashMap<>();
+
+    /**
+     * @param stores The registry whose stores are updated.
+     */
+    public StoreWriteThrough(FeatureStoreRegistry stores) {
+        this.stores = stores;
+    }
+
+    /**
+     * @param optimistic True to apply operations before the backend answers, and roll them back on error.
+     */
+    public void setOptimistic(boolean optimistic) {
+        this.optimistic = optimistic;
+    }
+
+    /**
+     * @return True if operations are applied before the backend answers.
+     */
+    public boolean isOptimistic() {
+        return optimistic;
+    }
+
+    @Override
+    public void onMutationStarted(PendingMutation mutation) {
+        FeatureToggleStore store = stores.peekStore(mutation.getPackage_name());
+        if (!optimistic || store == null) {
+            return;
+        }
+        Undo undo = apply(store, mutation);
+        if (undo != null) {
+            synchronized (undos) {
+                undos.put(mutation, undo);
+            }
+        }
+    }
+
+    @Override
+    public void onMutationSucceeded(PendingMutation mutation, FeatureToggleItem result) {
+        Undo undo = take(mutation);
+        FeatureToggleStore store = stores.peekStore(mutation.getPackage_name());
+        if (store == null) {
+            return;
+        }
+        switch (mutation.getType()) {
+            case CREATE:
+                if (undo != null) {
+                    store.remove(undo.placeholderId);
+                }
+                if (mutation.getFeature_id() != null) {
+                    // Replayed from the offline queue under its placeholder ID
+                    store.remove(mutation.getFeature_id());
+                }
+                if (result != null && result.get_id() != null) {
+                    store.upsert(result);
+                }
+                break;
+            case UPDATE_DATES:
+            case UPDATE_INFO:
+                // The toggle the backend returns may be older than the store, so only the update that was sent is applied
+                store.update(mutation.getFeature_id(),
+                        updated -> PendingMutation.merge(updated, mutation.getType(), mutation.getPayload()));
+                break;
+            case DELETE:
+                store.remove(mutation.getFeature_id());
+                break;
+            case DELETE_ALL:
+                store.clear();
+                break;
+        }
+    }
+
+    @Override
+    public void onMutationQueued(PendingMutation mutation, String featureId) {
+        Undo undo = take(mutation);
+        FeatureToggleStore store = stores.peekStore(mutation.getPackage_name());
+        if (undo == null || undo.placeholderId == null || store == null) {
+            return;
+        }
+        // Use the placeholder ID of the queue, so that the creation is found again when it is replayed
+        FeatureToggleItem created = store.get(undo.placeholderId);
+        if (created != null) {
+            store.remove(undo.placeholderId);
+            created.set_id(featureId);
+            store.upsert(created);
+        }
+    }
+
+    @Override
+    public void onMutationFailed(PendingMutation mutation) {
+        Undo undo = take(mutation);
+        FeatureToggleStore store = stores.peekStore(mutation.getPackage_name());
+        if (undo == null || store == null) {
+            return;
+        }
+        if (undo.placeholderId != null) {
+            store.remove(undo.placeholderId);
+        } else if (mutation.getType() == PendingMutation.Type.UPDATE_DATES
+                || mutation.getType() == PendingMutation.Type.UPDATE_INFO) {
+            if (store.getReplacements() == undo.replacements) {
+                FeatureToggleItem previous = undo.previous.get(0);
+                store.update(previous.get_id(), current -> revert(current, previous, mutation));
+            }
+        } else {
+            store.restore(undo.previous, undo.replacements);
+        }
+    }
+
+    // Reverts the fields the update set, where the toggle still has the value it set
+    private static void revert(FeatureToggleItem current, FeatureToggleItem previous, PendingMutation mutation) {
+        FeatureToggleItem sent = mutation.getPayload();
+        if (sent == null) {
+            return;
+        }
+        if (mutation.getType() == PendingMutation.Type.UPDATE_DATES) {
+            current.setBeginning_date(revert(sent.getBeginning_date(), current.getBeginning_date(),
+                    previous.getBeginning_date()));
+            current.setExpiration_date(revert(sent.getExpiration_date(), current.getExpiration_date(),
+                    previous.getExpiration_date()));
+        } else {
+            current.setName(revert(sent.getName(), current.getName(), previous.getName()));
+            current.setDescription(revert(sent.getDescription(), current.getDescription(), previous.getDescription()));
+        }
+    }
+
+    private static String revert(String sent, String current, String previous) {
+        return sent != null && sent.equals(current) ? previous : current;
+    }
+
+    private Undo take(PendingMutation mutation) {
+        synchronized (undos) {
+            return undos.remove(mutation);
+        }
+    }
+
+    private static Undo apply(FeatureToggleStore store, PendingMutation mutation) {
+        long replacements = store.getReplacements();
+        switch (mutation.getType()) {
+            case CREATE:
+                FeatureToggleItem created = new FeatureToggleItem();
+                created.set_id(MutationQueue.LOCAL_ID_PREFIX + UUID.randomUUID());
+                created.setPackage_name(mutation.getPackage_name());
+                PendingMutation.merge(created, PendingMutation.Type.UPDATE_INFO, mutation.getPayload());
+                PendingMutation.merge(created, PendingMutation.Type.UPDATE_DATES, mutation.getPayload());
+                store.upsert(created);
+                return new Undo(created.get_id(), null, replacements);
+            case UPDATE_DATES:
+            case UPDATE_INFO:
+                FeatureToggleItem previous = store.update(mutation.getFeature_id(),
+                        updated -> PendingMutation.merge(updated, mutation.getType(), mutation.getPayload()));
+                if (previous == null) {
+                    return null;
+                }
+                return new Undo(null, Collections.singletonList(previous), replacements);
+            case DELETE:
+                FeatureToggleItem deleted = store.get(mutation.getFeature_id());
+                if (deleted == null) {
+                    return null;
+                }
+                store.remove(mutation.getFeature_id());
+                return new Undo(null, Collections.singletonList(deleted), replacements);
+            case DELETE_ALL:
+                List<FeatureToggleItem> all = store.getAll();
+                store.clear();
+                return new Undo(null, all, replacements);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * What an optimistic operation changed: the placeholder ID of a creation, or the toggles it replaced,
+     * and how many times the store had been replaced then.
+     */
+    private static final class Undo {
+        final String placeholderId;
+        final List<FeatureToggleItem> previous;
+        final long replacements;
+
+        Undo(String placeholderId, List<FeatureToggleItem> previous, long replacements) {
+            this.placeholderId = placeholderId;
+            this.previous = previous;
+            this.replacements = replacements;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.interfaces.FeatureChangeListener;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * The ToggleSearchIndex class finds the feature toggles of a store by name fragment or description keyword,
+ * without scanning every toggle. It is kept up to date as a {@link FeatureChangeListener} of its store.
+ *
+ * Names and descriptions are split into lowercase words, also at camelCase boundaries, and every word points
+ * to the toggles containing it. Words are kept sorted, so the words starting with a prefix are one range.
+ * A query matches the toggles containing every query word, either whole or as the start of a word.
+ * Matches are ranked by where they were found: name before description, and whole words before prefixes.
+ */
+
+public class ToggleSearchIndex implements FeatureChangeListener {
+
+    private static final int NAME_WORD = 8;
+    private static final int NAME_PREFIX = 6;
+    private static final int DESCRIPTION_WORD = 2;
+    private static final int DESCRIPTION_PREFIX = 1;
+    private static final int NAME_STARTS_WITH_QUERY = 16;
+    private static final int NAME_EQUALS_QUERY = 32;
+
+    private final FeatureToggleStore store;
+
+    // All guarded by this. Toggles are numbered densely, so that postings and scores are int arrays
+    private final TreeMap<String, Postings> names = new TreeMap<>();
+    private final TreeMap<String, Postings> nameWords = new TreeMap<>();
+    private final TreeMap<String, Postings> descriptionWords = new TreeMap<>();
+    private final Map<String, Integer> docs = new HashMap<>();
+    private final Postings freeDocs = new Postings();
+    private Entry[] entries = new Entry[16];
+
+    // Scratch state of the running search, reset lazily through the search number
+    private int searches;
+    private int[] seen = new int[16];
+    private int[] matched = new int[16];
+    private int[] wordScores = new int[16];
+    private int[] scores = new int[16];
+    private final Postings candidates = new Postings();
+
+    ToggleSearchIndex(FeatureToggleStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Finds the feature toggles matching a query, best matches first. Toggles with the same rank
+     * are ordered by name.
+     *
+     * @param query The words to look for, for example "dark mo" or "checkout".
+     * @param limit The maximum number of toggles to return.
+     * @return The matching feature toggles, or an empty list if the query has no words.
+     */
+    public List<FeatureToggleItem> search(String query, int limit) {
+        List<String> ids = searchIds(query, limit);
+        ToggleSnapshot snapshot = store.snapshot();
+        List<FeatureToggleItem> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            FeatureToggleItem item = snapshot.get(id);
+            // A toggle removed since the index last heard from the store is skipped
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of feature toggles in the index.
+     */
+    public synchronized int size() {
+        return docs.size();
+    }
+
+    synchronized List<String> searchIds(String query, int limit) {
+        List<String> words = words(query);
+        if (words.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String normalized = String.join(" ", words);
+        // Starting from the rarest word keeps the following passes short
+        Map<String, Integer> counts = new HashMap<>();
+        for (String word : words) {
+            counts.put(word, count(nameWords, word) + count(descriptionWords, word));
+        }
+        List<String> passes = new ArrayList<>(counts.keySet());
+        passes.sort(Comparator.comparing(counts::get));
+
+        if (++searches == 0) {
+            Arrays.fill(seen, 0);
+            searches = 1;
+        }
+        for (int pass = 0; pass < passes.size(); pass++) {
+            candidates.size = 0;
+            String word = passes.get(pass);
+            collect(nameWords, word, NAME_WORD, NAME_PREFIX, pass);
+            collect(descriptionWords, word, DESCRIPTION_WORD, DESCRIPTION_PREFIX, pass);
+            if (candidates.size == 0) {
+                return Collections.emptyList();
+            }
+        }
+
+        // Names are also kept whole, so the names starting with the query are one range as well
+        int matchedAll = passes.size();
+        for (Map.Entry<String, Postings> match
+                : names.subMap(normalized, true, normalized + Character.MAX_VALUE, false).entrySet()) {
+            int bonus = match.getKey().length() == normalized.length() ? NAME_EQUALS_QUERY : NAME_STARTS_WITH_QUERY;
+            Postings postings = match.getValue();
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (seen[doc] == searches && matched[doc] == matchedAll) {
+                    scores[doc] += bonus;
+                }
+            }
+        }
+
+        // The candidates of the last pass matched every word. Keep the best ones, worst on top
+        PriorityQueue<Integer> best = new PriorityQueue<>(Math.min(limit, 1024) + 1, this::compare);
+        for (int i = 0; i < candidates.size; i++) {
+            int doc = candidates.docs[i];
+            if (best.size() < limit) {
+                best.add(doc);
+            } else if (compare(doc, best.peek()) > 0) {
+                best.poll();
+                best.add(doc);
+            }
+        }
+
+        String[] ids = new String[best.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = entries[best.poll()].id;
+        }
+        return Arrays.asList(ids);
+    }
+
+    /**
+     * Adds the score of every toggle containing a word of a pass, whole or as a prefix. Only the toggles
+     * that matched every earlier pass are kept, and a toggle counts the best of its matches once per pass.
+     */
+    private void collect(TreeMap<String, Postings> index, String word, int wholeScore, int prefixScore, int pass) {
+        for (Map.Entry<String, Postings> match
+                : index.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+            int score = match.getKey().length() == word.length() ? wholeScore : prefixScore;
+            Postings postings = match.getValue();
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (seen[doc] != searches) {
+                    if (pass > 0) {
+                        continue;
+                    }
+                    seen[doc] = searches;
+                    matched[doc] = 0;
+                    scores[doc] = 0;
+                }
+                if (matched[doc] == pass) {
+                    matched[doc] = pass + 1;
+                    wordScores[doc] = score;
+                    scores[doc] += score;
+                    candidates.add(doc);
+                } else if (matched[doc] == pass + 1 && score > wordScores[doc]) {
+                    scores[doc] += score - wordScores[doc];
+                    wordScores[doc] = score;
+                }
+            }
+        }
+    }
+
+    private static int count(TreeMap<String, Postings> index, String word) {
+        int count = 0;
+        for (Postings postings : index.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+            count += postings.size;
+        }
+        return count;
+    }
+
+    // Higher scores compare greater, then names earlier in the alphabet
+    private int compare(int doc, int other) {
+        if (scores[doc] != scores[other]) {
+            return Integer.compare(scores[doc], scores[other]);
+        }
+        return entries[other].name.compareTo(entries[doc].name);
+    }
+
+    @Override
+    public synchronized void onFeatureAdded(FeatureToggleItem item, boolean active) {
+        add(item);
+    }
+
+    @Override
+    public synchronized void onFeatureChanged(FeatureToggleItem previous, FeatureToggleItem current, int changes,
+                                              boolean active) {
+        if ((changes & INFO) != 0) {
+            remove(previous.get_id());
+            add(current);
+        }
+    }
+
+    @Override
+    public synchronized void onFeatureRemoved(FeatureToggleItem item) {
+        remove(item.get_id());
+    }
+
+    // Must be called while holding the lock
+    private void add(FeatureToggleItem item) {
+        String name = item.getName() == null ? "" : item.getName();
+        List<String> inName = words(name);
+        Entry entry = new Entry(item.get_id(), name.toLowerCase(Locale.ROOT), String.join(" ", inName),
+                distinct(inName), distinct(words(item.getDescription())));
+        int doc;
+        if (freeDocs.size > 0) {
+            doc = freeDocs.docs[--freeDocs.size];
+        } else {
+            doc = docs.size();
+            if (doc == entries.length) {
+                grow(doc * 2);
+            }
+        }
+        entries[doc] = entry;
+        docs.put(entry.id, doc);
+        names.computeIfAbsent(entry.words, key -> new Postings()).add(doc);
+        for (String word : entry.nameWords) {
+            nameWords.computeIfAbsent(word, key -> new Postings()).add(doc);
+        }
+        for (String word : entry.descriptionWords) {
+            descriptionWords.computeIfAbsent(word, key -> new Postings()).add(doc);
+        }
+    }
+
+    // Must be called while holding the lock
+    private void remove(String id) {
+        Integer doc = docs.remove(id);
+        if (doc == null) {
+            return;
+        }
+        Entry entry = entries[doc];
+        unlink(names, new String[]{entry.words}, doc);
+        unlink(nameWords, entry.nameWords, doc);
+        unlink(descriptionWords, entry.descriptionWords, doc);
+        entries[doc] = null;
+        freeDocs.add(doc);
+    }
+
+    private void grow(int capacity) {
+        entries = Arrays.copyOf(entries, capacity);
+        seen = Arrays.copyOf(seen, capacity);
+        matched = Arrays.copyOf(matched, capacity);
+        wordScores = Arrays.copyOf(wordScores, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+    }
+
+    private static void unlink(TreeMap<String, Postings> index, String[] words, int doc) {
+        for (String word : words) {
+            Postings postings = index.get(word);
+            if (postings != null && postings.remove(doc) && postings.size == 0) {
+                index.remove(word);
+            }
+        }
+    }
+
+    private static String[] distinct(List<String> words) {
+        return new LinkedHashSet<>(words).toArray(new String[0]);
+    }
+
+    /**
+     * Splits text into lowercase words at every character that is not a letter or digit,
+     * and where a lowercase letter or digit is followed by an uppercase letter.
+     */
+    static List<String> words(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            boolean wordChar = Character.isLetterOrDigit(c);
+            boolean boundary = !wordChar
+                    || (start >= 0 && Character.isUpperCase(c) && !Character.isUpperCase(text.charAt(i - 1)));
+            if (boundary && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+            if (wordChar && start < 0) {
+                start = i;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * The words of an indexed toggle, kept to unlink them when the toggle changes.
+     */
+    private static final class Entry {
+        final String id;
+        final String name;
+        final String words;
+        final String[] nameWords;
+        final String[] descriptionWords;
+
+        Entry(String id, String name, String words, String[] nameWords, String[] descriptionWords) {
+            this.id = id;
+            this.name = name;
+            this.words = words;
+            this.nameWords = nameWords;
+            this.descriptionWords = descriptionWords;
+        }
+    }
+
+    /**
+     * The toggles containing a word, in no particular order.
+     */
+    private static final class Postings {
+        int[] docs = new int[2];
+        int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        boolean remove(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    docs[i] = docs[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
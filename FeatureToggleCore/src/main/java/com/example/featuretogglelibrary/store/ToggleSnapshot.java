@@ -0,0 +1,181 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.model.ActivitySeries;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable, versioned view of the feature toggles of a {@link FeatureToggleStore}.
+ *
+ * A snapshot is built at most once per store version and then shared by every reader, so evaluating
+ * toggles only needs a volatile read and a hash lookup, without taking any lock. It holds the store's
+ * compact toggles, whose dates are parsed once when they enter the store, and creates
+ * {@link FeatureToggleItem} objects only when they are asked for.
+ */
+
+public final class ToggleSnapshot {
+
+    private final long version;
+    private final ToggleTable table;
+    // Created on the first call to getItems()
+    private volatile List<FeatureToggleItem> items;
+    // Created on the first query by creation or modification time
+    private volatile RecencyIndex byCreation;
+    private volatile RecencyIndex byModification;
+
+    ToggleSnapshot(long version, ToggleTable table) {
+        this.version = version;
+        this.table = table;
+    }
+
+    /**
+     * @return The version of the store this snapshot was taken from. It grows with every change.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The feature toggles of the snapshot, as an unmodifiable list shared by all readers.
+     *         It is created on the first call.
+     */
+    public List<FeatureToggleItem> getItems() {
+        List<FeatureToggleItem> list = items;
+        if (list == null) {
+            List<FeatureToggleItem> created = new ArrayList<>(table.size());
+            for (int i = 0; i < table.size(); i++) {
+                created.add(table.at(i).toItem());
+            }
+            list = Collections.unmodifiableList(created);
+            items = list;
+        }
+        return list;
+    }
+
+    /**
+     * @param featureId The ID of the feature toggle.
+     * @return A new object with the feature toggle, or null if it is not part of the snapshot.
+     */
+    public FeatureToggleItem get(String featureId) {
+        CompactToggle toggle = table.get(featureId);
+        return toggle == null ? null : toggle.toItem();
+    }
+
+    /**
+     * @param featureName The name of the feature toggle.
+     * @return A new object with the feature toggle, or null if it is not part of the snapshot.
+     */
+    public FeatureToggleItem getByName(String featureName) {
+        CompactToggle toggle = table.getByName(featureName);
+        return toggle == null ? null : toggle.toItem();
+    }
+
+    /**
+     * @return The number of feature toggles in the snapshot.
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Checks whether a feature toggle, looked up by name, is active at the given time.
+     *
+     * @param featureName The name of the feature toggle.
+     * @param now         The time to evaluate at, in milliseconds since the epoch.
+     * @return True if the toggle exists and the time is within its beginning and expiration dates.
+     */
+    public boolean isActive(String featureName, long now) {
+        CompactToggle toggle = table.getByName(featureName);
+        return toggle != null && toggle.isActiveAt(now);
+    }
+
+    /**
+     * Returns a page of the feature toggles created at or after a time, newest first. The toggles are
+     * sorted once per snapshot, so every page costs a binary search and the toggles it returns.
+     *
+     * @param since  The earliest created_at to include, in milliseconds since the epoch.
+     * @param offset The number of matching toggles to skip.
+     * @param limit  The maximum number of toggles to return.
+     * @return New objects with the matching toggles. Toggles without created_at are left out.
+     */
+    public List<FeatureToggleItem> getCreatedSince(long since, int offset, int limit) {
+        return byCreation().since(since, offset, limit);
+    }
+
+    /**
+     * @param since The earliest created_at to include, in milliseconds since the epoch.
+     * @return The number of feature toggles created at or after the time.
+     */
+    public int countCreatedSince(long since) {
+        return byCreation().countSince(since);
+    }
+
+    /**
+     * Returns a page of the feature toggles created or updated at or after a time, newest first.
+     *
+     * @param since  The earliest created_at or updated_at to include, in milliseconds since the epoch.
+     * @param offset The number of matching toggles to skip.
+     * @param limit  The maximum number of toggles to return.
+     * @return New objects with the matching toggles. Toggles without either date are left out.
+     */
+    public List<FeatureToggleItem> getModifiedSince(long since, int offset, int limit) {
+        return byModification().since(since, offset, limit);
+    }
+
+    /**
+     * @param since The earliest created_at or updated_at to include, in milliseconds since the epoch.
+     * @return The number of feature toggles created or updated at or after the time.
+     */
+    public int countModifiedSince(long since) {
+        return byModification().countSince(since);
+    }
+
+    /**
+     * Computes how many feature toggles were active on each day of a range, with the days they start and
+     * end and the peak number of toggles active at once, in a single sorted pass over their dates.
+     *
+     * @param from The start of the first day, in milliseconds since the epoch. Days are counted in UTC.
+     * @param days The number of days in the range.
+     * @return A new series, with one value per day.
+     */
+    public ActivitySeries getActivitySeries(long from, int days) {
+        return ActivitySweep.compute(table, from, days);
+    }
+
+    private RecencyIndex byCreation() {
+        RecencyIndex index = byCreation;
+        if (index == null) {
+            index = new RecencyIndex(table, CompactToggle::getCreated);
+            byCreation = index;
+        }
+        return index;
+    }
+
+    private RecencyIndex byModification() {
+        RecencyIndex index = byModification;
+        if (index == null) {
+            index = new RecencyIndex(table, CompactToggle::getLastModified);
+            byModification = index;
+        }
+        return index;
+    }
+
+    ToggleTable table() {
+        return table;
+    }
+
+    /**
+     * Checks whether a feature toggle, looked up by ID, is active at the given time.
+     *
+     * @param featureId The ID of the feature toggle.
+     * @param now       The time to evaluate at, in milliseconds since the epoch.
+     * @return True if the toggle exists and the time is within its beginning and expiration dates.
+     */
+    public boolean isActiveById(String featureId, long now) {
+        CompactToggle toggle = table.get(featureId);
+        return toggle != null && toggle.isActiveAt(now);
+    }
+}
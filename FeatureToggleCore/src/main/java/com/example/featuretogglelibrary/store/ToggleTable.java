@@ -0,0 +1,202 @@
+package com.example.featuretogglelibrary.store;
+
+import java.util.Arrays;
+
+/**
+ * A table of {@link CompactToggle}s in insertion order, indexed by ID and optionally by name.
+ *
+ * The indexes are open-addressing arrays of positions into the table, so a lookup costs no
+ * allocation and an entry costs a few bytes instead of a hash map node. Removal shifts the table
+ * and rebuilds the indexes, which is linear but rare compared to lookups and refreshes.
+ *
+ * This class is not thread-safe. {@link FeatureToggleStore} guards its table with its own lock,
+ * and snapshots only read their copy.
+ */
+
+final class ToggleTable {
+
+    private CompactToggle[] toggles;
+    private int size;
+    // Position + 1 of the toggle with each ID, 0 for an empty slot
+    private int[] idSlots;
+    // Built on first use by name, null until then. Volatile since snapshots build it on any reader thread.
+    private volatile int[] nameSlots;
+
+    ToggleTable(int capacity) {
+        toggles = new CompactToggle[Math.max(capacity, 8)];
+        idSlots = new int[slotsFor(toggles.length)];
+    }
+
+    private ToggleTable(CompactToggle[] toggles, int size, int[] idSlots) {
+        this.toggles = toggles;
+        this.size = size;
+        this.idSlots = idSlots;
+    }
+
+    /**
+     * @return A copy of the table that shares the toggles but not the indexes.
+     */
+    ToggleTable copy() {
+        return new ToggleTable(Arrays.copyOf(toggles, size), size, idSlots.clone());
+    }
+
+    int size() {
+        return size;
+    }
+
+    CompactToggle at(int position) {
+        return toggles[position];
+    }
+
+    /**
+     * Adds a toggle, or replaces the one with the same ID in place.
+     *
+     * @return The replaced toggle, or null if the ID was new.
+     */
+    CompactToggle put(CompactToggle toggle) {
+        int slot = findSlot(toggle);
+        if (idSlots[slot] != 0) {
+            int position = idSlots[slot] - 1;
+            CompactToggle previous = toggles[position];
+            toggles[position] = toggle;
+            nameSlots = null;
+            return previous;
+        }
+        if (size == toggles.length) {
+            toggles = Arrays.copyOf(toggles, size * 2);
+        }
+        toggles[size++] = toggle;
+        if (size * 2 > idSlots.length) {
+            rebuildIdSlots();
+        } else {
+            idSlots[slot] = size;
+        }
+        nameSlots = null;
+        return null;
+    }
+
+    /**
+     * @return The removed toggle, or null if there is none with the ID.
+     */
+    CompactToggle remove(String id) {
+        int position = indexOf(id);
+        if (position < 0) {
+            return null;
+        }
+        CompactToggle removed = toggles[position];
+        System.arraycopy(toggles, position + 1, toggles, position, size - position - 1);
+        toggles[--size] = null;
+        rebuildIdSlots();
+        nameSlots = null;
+        return removed;
+    }
+
+    void clear() {
+        Arrays.fill(toggles, 0, size, null);
+        size = 0;
+        Arrays.fill(idSlots, 0);
+        nameSlots = null;
+    }
+
+    CompactToggle get(String id) {
+        int position = indexOf(id);
+        return position < 0 ? null : toggles[position];
+    }
+
+    /**
+     * @return The toggle with the same ID as the given one, or null.
+     */
+    CompactToggle get(CompactToggle toggle) {
+        int position = idSlots[findSlot(toggle)] - 1;
+        return position < 0 ? null : toggles[position];
+    }
+
+    /**
+     * @return The toggle with the name, the last one added if several share it, or null.
+     */
+    CompactToggle getByName(String name) {
+        if (name == null) {
+            return null;
+        }
+        int[] slots = nameSlots;
+        if (slots == null) {
+            slots = buildNameSlots();
+            nameSlots = slots;
+        }
+        int mask = slots.length - 1;
+        for (int slot = spread(name.hashCode()) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            CompactToggle toggle = toggles[slots[slot] - 1];
+            if (name.equals(toggle.getName())) {
+                return toggle;
+            }
+        }
+        return null;
+    }
+
+    private int indexOf(String id) {
+        if (id == null) {
+            return -1;
+        }
+        boolean uuid = CompactToggle.isUuid(id);
+        long high = uuid ? CompactToggle.uuidHigh(id) : 0;
+        long low = uuid ? CompactToggle.uuidLow(id) : 0;
+        int hash = uuid ? CompactToggle.hashUuid(high, low) : id.hashCode();
+        int mask = idSlots.length - 1;
+        for (int slot = spread(hash) & mask; idSlots[slot] != 0; slot = (slot + 1) & mask) {
+            int position = idSlots[slot] - 1;
+            if (toggles[position].hasId(id, high, low, uuid)) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    // Returns the slot holding the toggle's ID, or the empty slot where it belongs
+    private int findSlot(CompactToggle toggle) {
+        int mask = idSlots.length - 1;
+        int slot = spread(toggle.idHash()) & mask;
+        while (idSlots[slot] != 0 && !toggles[idSlots[slot] - 1].sameId(toggle)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rebuildIdSlots() {
+        int[] slots = new int[slotsFor(size)];
+        int mask = slots.length - 1;
+        for (int position = 0; position < size; position++) {
+            int slot = spread(toggles[position].idHash()) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = position + 1;
+        }
+        idSlots = slots;
+    }
+
+    private int[] buildNameSlots() {
+        int[] slots = new int[slotsFor(size)];
+        int mask = slots.length - 1;
+        for (int position = 0; position < size; position++) {
+            String name = toggles[position].getName();
+            if (name == null) {
+                continue;
+            }
+            int slot = spread(name.hashCode()) & mask;
+            while (slots[slot] != 0 && !name.equals(toggles[slots[slot] - 1].getName())) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = position + 1;
+        }
+        return slots;
+    }
+
+    // A power of two of at least twice the entries, so probe sequences stay short
+    private static int slotsFor(int entries) {
+        return Integer.highestOneBit(Math.max(entries, 4) * 2 - 1) << 1;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
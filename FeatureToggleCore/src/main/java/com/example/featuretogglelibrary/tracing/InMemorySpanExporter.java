@@ -0,0 +1,48 @@
+package com.example.featuretogglelibrary.tracing;
+
+import com.example.featuretogglelibrary.interfaces.SpanExporter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A span exporter that keeps the finished spans in memory, for tests and debugging.
+ */
+
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final List<Span> spans = new ArrayList<>();
+
+    @Override
+    public synchronized void export(Span span) {
+        spans.add(span);
+    }
+
+    /**
+     * @return A copy of the finished spans, in the order they ended.
+     */
+    public synchronized List<Span> getFinishedSpans() {
+        return new ArrayList<>(spans);
+    }
+
+    /**
+     * @param name The name of the spans.
+     * @return The finished spans with the given name, in the order they ended.
+     */
+    public synchronized List<Span> getFinishedSpans(String name) {
+        List<Span> result = new ArrayList<>();
+        for (Span span : spans) {
+            if (span.getName().equals(name)) {
+                result.add(span);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Forgets all finished spans.
+     */
+    public synchronized void reset() {
+        spans.clear();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.featuretogglelibrary.tracing;
+
+/**
+ * Makes a span the current span of a thread until it is closed, so that the spans started meanwhile
+ * on that thread become its children. Scopes must be closed on the thread that opened them.
+ */
+
+public final class Scope implements AutoCloseable {
+
+    static final Scope NOOP = new Scope(null, false);
+
+    private final Span previous;
+    private final boolean restore;
+
+    Scope(Span previous, boolean restore) {
+        this.previous = previous;
+        this.restore = restore;
+    }
+
+    @Override
+    public void close() {
+        if (restore) {
+            Tracer.setCurrent(previous);
+        }
+    }
+}
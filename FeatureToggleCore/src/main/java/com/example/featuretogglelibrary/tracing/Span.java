@@ -0,0 +1,231 @@
+package com.example.featuretogglelibrary.tracing;
+
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A timed operation recorded by a {@link Tracer}. Spans of the same trace share a trace ID,
+ * and every span but the root knows the ID of its parent.
+ *
+ * A span can be ended from another thread than the one that started it, and is exported once.
+ */
+
+public class Span {
+
+    /**
+     * A span that records nothing, returned by {@link Tracer#NOOP}.
+     */
+    public static final Span NOOP = new Span();
+
+    private final Tracer tracer;
+    private final String name;
+    private final long traceId;
+    private final long spanId;
+    private final long parentSpanId;
+    private final long startNanos;
+    private final long startEpochMillis;
+
+    // Guarded by this
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private String error;
+    private long endNanos = -1;
+
+    private Span() {
+        this.tracer = null;
+        this.name = "";
+        this.traceId = 0;
+        this.spanId = 0;
+        this.parentSpanId = 0;
+        this.startNanos = 0;
+        this.startEpochMillis = 0;
+    }
+
+    Span(Tracer tracer, String name, Span parent, long startNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        this.tracer = tracer;
+        this.name = name;
+        this.spanId = random.nextLong();
+        if (parent == null || parent == NOOP) {
+            this.traceId = random.nextLong();
+            this.parentSpanId = 0;
+        } else {
+            this.traceId = parent.traceId;
+            this.parentSpanId = parent.spanId;
+        }
+        this.startNanos = startNanos;
+        this.startEpochMillis = System.currentTimeMillis()
+                - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Adds an attribute to the span, replacing any previous value with the same key.
+     *
+     * @param key   The name of the attribute.
+     * @param value The value of the attribute.
+     * @return This span.
+     */
+    public Span setAttribute(String key, Object value) {
+        if (this != NOOP) {
+            synchronized (this) {
+                attributes.put(key, value);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Marks the span as failed.
+     *
+     * @param error A message describing the error.
+     * @return This span.
+     */
+    public Span setError(String error) {
+        if (this != NOOP) {
+            synchronized (this) {
+                this.error = error;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Ends the span now and exports it. Calls after the first one are ignored.
+     */
+    public void end() {
+        end(System.nanoTime());
+    }
+
+    /**
+     * Ends the span at a given time and exports it. Calls after the first one are ignored.
+     *
+     * @param endNanos The end of the span, from {@link System#nanoTime()}.
+     */
+    public void end(long endNanos) {
+        if (this == NOOP) {
+            return;
+        }
+        synchronized (this) {
+            if (this.endNanos >= 0) {
+                return;
+            }
+            this.endNanos = Math.max(endNanos, startNanos);
+        }
+        tracer.export(this);
+    }
+
+    /**
+     * Makes this span the current span of the calling thread, so that spans started on it become children of this one.
+     *
+     * @return The scope to close to restore the previous current span.
+     */
+    public Scope makeCurrent() {
+        if (this == NOOP) {
+            return Scope.NOOP;
+        }
+        Span previous = Tracer.currentSpan();
+        Tracer.setCurrent(this);
+        return new Scope(previous == NOOP ? null : previous, true);
+    }
+
+    /**
+     * Wraps a callback so that this span ends once the callback has run, and is marked as failed on errors.
+     *
+     * @param callback The callback to wrap.
+     * @param <T>      The type of data of the callback.
+     * @return The wrapping callback, or the callback itself for {@link #NOOP}.
+     */
+    public <T> GenericCallBack<T> wrap(GenericCallBack<T> callback) {
+        if (this == NOOP) {
+            return callback;
+        }
+        return new GenericCallBack<T>() {
+            @Override
+            public void success(T data) {
+                try {
+                    callback.success(data);
+                } finally {
+                    end();
+                }
+            }
+
+            @Override
+            public void error(String error) {
+                setError(error);
+                try {
+                    callback.error(error);
+                } finally {
+                    end();
+                }
+            }
+        };
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getTraceId() {
+        return traceId;
+    }
+
+    public long getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * @return The ID of the parent span, or 0 for the root of a trace.
+     */
+    public long getParentSpanId() {
+        return parentSpanId;
+    }
+
+    /**
+     * @return The start of the span in milliseconds since the epoch.
+     */
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    /**
+     * @return The start of the span, from {@link System#nanoTime()}.
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * @return The duration of the span in nanoseconds, or -1 while it has not ended.
+     */
+    public synchronized long getDurationNanos() {
+        return endNanos < 0 ? -1 : endNanos - startNanos;
+    }
+
+    public synchronized boolean isEnded() {
+        return endNanos >= 0;
+    }
+
+    /**
+     * @return The error message of a failed span, or null.
+     */
+    public synchronized String getError() {
+        return error;
+    }
+
+    /**
+     * @return A copy of the attributes of the span.
+     */
+    public synchronized Map<String, Object> getAttributes() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(attributes));
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Span{name='%s', traceId=%016x, spanId=%016x, parentSpanId=%016x, durationNanos=%d, attributes=%s, error=%s}",
+                name, traceId, spanId, parentSpanId, endNanos < 0 ? -1 : endNanos - startNanos, attributes, error);
+    }
+}
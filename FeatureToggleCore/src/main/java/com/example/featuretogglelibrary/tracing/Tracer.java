@@ -0,0 +1,93 @@
+package com.example.featuretogglelibrary.tracing;
+
+import com.example.featuretogglelibrary.interfaces.SpanExporter;
+
+/**
+ * The Tracer class records nested, timed spans and hands them to a {@link SpanExporter} once they end.
+ *
+ * A span started without an explicit parent becomes a child of the current span of the thread,
+ * see {@link Span#makeCurrent()}. The {@link #NOOP} tracer, used by default, returns a shared
+ * span that records nothing, so tracing costs no allocation when it is not enabled.
+ */
+
+public class Tracer {
+
+    /**
+     * A tracer that records nothing.
+     */
+    public static final Tracer NOOP = new Tracer(null);
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private final SpanExporter exporter;
+
+    /**
+     * @param exporter The exporter receiving every finished span.
+     */
+    public Tracer(SpanExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    /**
+     * @return True if this tracer records spans.
+     */
+    public boolean isEnabled() {
+        return exporter != null;
+    }
+
+    /**
+     * Starts a span as a child of the current span of this thread, or as the root of a new trace.
+     *
+     * @param name The name of the span.
+     * @return The started span, to be ended with {@link Span#end()}.
+     */
+    public Span startSpan(String name) {
+        return startSpan(name, currentSpan(), System.nanoTime());
+    }
+
+    /**
+     * Starts a span as a child of a given span.
+     *
+     * @param name   The name of the span.
+     * @param parent The parent span, or {@link Span#NOOP} to start a new trace.
+     * @return The started span.
+     */
+    public Span startSpan(String name, Span parent) {
+        return startSpan(name, parent, System.nanoTime());
+    }
+
+    /**
+     * Starts a span at a time in the past, for phases whose beginning is only known once they end.
+     *
+     * @param name       The name of the span.
+     * @param parent     The parent span, or {@link Span#NOOP} to start a new trace.
+     * @param startNanos The start of the span, from {@link System#nanoTime()}.
+     * @return The started span.
+     */
+    public Span startSpan(String name, Span parent, long startNanos) {
+        if (exporter == null) {
+            return Span.NOOP;
+        }
+        return new Span(this, name, parent, startNanos);
+    }
+
+    /**
+     * @return The current span of this thread, or {@link Span#NOOP} if there is none.
+     */
+    public static Span currentSpan() {
+        Span span = CURRENT.get();
+        return span == null ? Span.NOOP : span;
+    }
+
+    static void setCurrent(Span span) {
+        if (span == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(span);
+        }
+    }
+
+    void export(Span span) {
+        exporter.export(span);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.featuretogglelibrary.utils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Utility methods for converting the date strings used by the feature toggle API to and from epoch time.
+ *
+ * The backend uses "YYYY-MM-DD HH:MM:SS" for toggle dates, while timestamps such as created_at may be
+ * ISO-8601 strings. Dates without an offset are interpreted as UTC.
+ */
+
+public final class ToggleDates {
+
+    /**
+     * Returned when a date string is missing or cannot be parsed.
+     */
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final DateTimeFormatter API_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private ToggleDates() {
+
+    }
+
+    /**
+     * Parses a date string returned by the API.
+     *
+     * @param date The date string, in "YYYY-MM-DD HH:MM:SS", "YYYY-MM-DD" or ISO-8601 format.
+     * @return The date in milliseconds since the epoch, or {@link #NO_DATE} if it is missing or invalid.
+     */
+    public static long parse(String date) {
+        if (date == null || date.isEmpty()) {
+            return NO_DATE;
+        }
+        try {
+            if (date.length() == 10) {
+                return LocalDate.parse(date).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            }
+            if (date.length() == 19 && date.charAt(10) == ' ') {
+                return LocalDateTime.parse(date, API_FORMAT).toInstant(ZoneOffset.UTC).toEpochMilli();
+            }
+            if (date.endsWith("Z")) {
+                return Instant.parse(date).toEpochMilli();
+            }
+            if (date.lastIndexOf('+') > 10 || date.lastIndexOf('-') > 10) {
+                return OffsetDateTime.parse(date).toInstant().toEpochMilli();
+            }
+            return LocalDateTime.parse(date.replace(' ', 'T')).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return NO_DATE;
+        }
+    }
+
+    /**
+     * Formats a date in the "YYYY-MM-DD HH:MM:SS" format expected by the API.
+     *
+     * @param epochMillis The date in milliseconds since the epoch.
+     * @return The formatted date, or null for {@link #NO_DATE}.
+     */
+    public static String format(long epochMillis) {
+        if (epochMillis == NO_DATE) {
+            return null;
+        }
+        return API_FORMAT.format(LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L), 0, ZoneOffset.UTC));
+    }
+}
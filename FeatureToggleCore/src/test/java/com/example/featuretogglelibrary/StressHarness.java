@@ -0,0 +1,200 @@
+package com.example.featuretogglelibrary;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs actors on several threads at once for the concurrency stress tests.
+ *
+ * {@link #run} starts all actors together and fails with the first error thrown by any of them. Actors still
+ * running after the timeout fail the test with a dump of their stacks, naming the threads that are deadlocked.
+ *
+ * {@link #outcomes} follows jcstress: the same actors are run against a fresh state many times, and an arbiter
+ * turns the state each round leaves behind into an outcome. Tests then check that no forbidden outcome occurred.
+ *
+ * The number of iterations is multiplied by the {@code stress.scale} system property, 1 by default, so that
+ * longer runs can be made without changing the tests: {@code ./gradlew :FeatureToggleCore:test -Pstress.scale=20}.
+ */
+
+public final class StressHarness {
+
+    /**
+     * Default time given to the actors of a test before they count as deadlocked or stuck.
+     */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+
+    private static final int SCALE = Math.max(1, Integer.getInteger("stress.scale", 1));
+
+    private StressHarness() {
+
+    }
+
+    /**
+     * An action run on its own thread.
+     */
+    public interface Actor {
+
+        /**
+         * @param index The index of the thread running the actor.
+         */
+        void run(int index) throws Exception;
+    }
+
+    /**
+     * @param iterations The number of iterations of a normal run.
+     * @return The number of iterations scaled by the {@code stress.scale} system property.
+     */
+    public static int iterations(int iterations) {
+        return iterations * SCALE;
+    }
+
+    /**
+     * Runs the same actor on several threads, all starting at once.
+     *
+     * @param threads The number of threads.
+     * @param actor   The actor, called with the index of its thread.
+     */
+    public static void run(int threads, Actor actor) throws InterruptedException {
+        Actor[] actors = new Actor[threads];
+        for (int i = 0; i < threads; i++) {
+            actors[i] = actor;
+        }
+        run(DEFAULT_TIMEOUT_MILLIS, actors);
+    }
+
+    /**
+     * Runs each actor on its own thread, all starting at once, and waits for them to finish.
+     *
+     * @param timeoutMillis The time after which actors still running fail the test.
+     * @param actors        The actors.
+     */
+    public static void run(long timeoutMillis, Actor... actors) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < actors.length; i++) {
+            Actor actor = actors[i];
+            int index = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    actor.run(index);
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }, "StressActor-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (Thread thread : threads) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining > 0) {
+                thread.join(remaining);
+            }
+        }
+        if (threads.stream().anyMatch(Thread::isAlive)) {
+            AssertionError stuck = new AssertionError(describeStuck(threads, timeoutMillis));
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+            throw stuck;
+        }
+        Throwable failure = failures.peek();
+        if (failure instanceof AssertionError) {
+            throw (AssertionError) failure;
+        }
+        if (failure != null) {
+            throw new AssertionError("An actor failed", failure);
+        }
+    }
+
+    /**
+     * Runs the actors concurrently against a fresh state, round after round, and counts the outcomes.
+     * The actors of a round are released together, and the arbiter sees the state once all of them returned.
+     *
+     * @param rounds  The number of rounds, before scaling.
+     * @param state   Creates the state of a round.
+     * @param arbiter Turns the state left by a round into an outcome.
+     * @param actors  The actors, each running on its own thread for all rounds.
+     * @param <S>     The type of the state.
+     * @return The number of rounds that ended with each outcome.
+     */
+    @SafeVarargs
+    public static <S> Map<String, Integer> outcomes(int rounds, Supplier<S> state, Function<S, String> arbiter,
+                                                    Consumer<S>... actors) throws InterruptedException {
+        int total = iterations(rounds);
+        CyclicBarrier barrier = new CyclicBarrier(actors.length + 1);
+        @SuppressWarnings("unchecked")
+        S[] current = (S[]) new Object[1];
+        Actor[] workers = new Actor[actors.length + 1];
+        for (int i = 0; i < actors.length; i++) {
+            Consumer<S> actor = actors[i];
+            workers[i] = index -> {
+                for (int round = 0; round < total; round++) {
+                    // The barrier publishes the state of the round to every actor
+                    await(barrier);
+                    actor.accept(current[0]);
+                    await(barrier);
+                }
+            };
+        }
+        Map<String, Integer> results = new TreeMap<>();
+        workers[actors.length] = index -> {
+            for (int round = 0; round < total; round++) {
+                current[0] = state.get();
+                await(barrier);
+                await(barrier);
+                results.merge(arbiter.apply(current[0]), 1, Integer::sum);
+            }
+        };
+        run(DEFAULT_TIMEOUT_MILLIS * SCALE, workers);
+        return results;
+    }
+
+    private static void await(CyclicBarrier barrier) throws InterruptedException, BrokenBarrierException,
+            TimeoutException {
+        barrier.await(DEFAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private static String describeStuck(List<Thread> threads, long timeoutMillis) {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        long[] deadlocked = bean.findDeadlockedThreads();
+        StringBuilder message = new StringBuilder();
+        if (deadlocked != null) {
+            message.append("Deadlock between ").append(deadlocked.length).append(" threads:\n");
+            for (ThreadInfo info : bean.getThreadInfo(deadlocked, true, true)) {
+                message.append(info);
+            }
+        } else {
+            message.append("Actors still running after ").append(timeoutMillis).append(" ms:\n");
+        }
+        for (Thread thread : threads) {
+            if (!thread.isAlive()) {
+                continue;
+            }
+            message.append(thread.getName()).append(" (").append(thread.getState()).append(")\n");
+            for (StackTraceElement element : thread.getStackTrace()) {
+                message.append("    at ").append(element).append('\n');
+            }
+        }
+        return message.toString();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.featuretogglelibrary;
+
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+/**
+ * Builds the feature toggles the tests fill stores and backends with, and the payloads of admin operations.
+ * Fields that are not set stay null, as they do in the JSON of the API.
+ */
+public final class ToggleBuilder {
+
+    /**
+     * The package of the toggles made by {@link #item}.
+     */
+    public static final String PACKAGE = "com.example.app";
+
+    private final FeatureToggleItem item = new FeatureToggleItem();
+
+    private ToggleBuilder() {
+
+    }
+
+    /**
+     * @param id   The ID, or null for a toggle that is not created yet.
+     * @param name The name, or null.
+     * @return A builder of a toggle without a package or dates.
+     */
+    public static ToggleBuilder toggle(String id, String name) {
+        ToggleBuilder builder = new ToggleBuilder();
+        builder.item.set_id(id);
+        builder.item.setName(name);
+        return builder;
+    }
+
+    /**
+     * @return A toggle of {@link #PACKAGE}, the shape most tests use.
+     */
+    public static FeatureToggleItem item(String id, String name, String beginning, String expiration) {
+        return toggle(id, name).packageName(PACKAGE).dates(beginning, expiration).build();
+    }
+
+    public ToggleBuilder description(String description) {
+        item.setDescription(description);
+        return this;
+    }
+
+    public ToggleBuilder packageName(String packageName) {
+        item.setPackage_name(packageName);
+        return this;
+    }
+
+    public ToggleBuilder dates(String beginning, String expiration) {
+        item.setBeginning_date(beginning);
+        item.setExpiration_date(expiration);
+        return this;
+    }
+
+    public ToggleBuilder timestamps(String created, String updated) {
+        item.setCreated_at(created);
+        item.setUpdated_at(updated);
+        return this;
+    }
+
+    public FeatureToggleItem build() {
+        return item;
+    }
+}
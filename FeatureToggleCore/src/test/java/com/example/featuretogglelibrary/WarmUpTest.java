@@ -0,0 +1,105 @@
+package com.example.featuretogglelibrary;
+
+import com.example.featuretogglelibrary.api.FeatureController;
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.model.StartupMetrics;
+import com.example.featuretogglelibrary.store.FeatureStoreRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the warm-up of the client against a MockWebServer.
+ */
+public class WarmUpTest {
+
+    private static final String PACKAGE = "com.example.app";
+
+    private MockWebServer server;
+    private FeatureToggleClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        client = new FeatureToggleClient(new FeatureController(server.url("/").toString()), new FeatureStoreRegistry());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void warmUp_sharesItsFetchWithARefresh_andFillsTheMetrics() throws Exception {
+        server.enqueue(new MockResponse().setHeader("Content-Type", "application/json")
+                .setBody("[{\"_id\":\"1\",\"name\":\"christmas_theme\"}]")
+                .setBodyDelay(300, TimeUnit.MILLISECONDS));
+
+        LinkedBlockingQueue<Object> results = new LinkedBlockingQueue<>();
+        StartupMetrics metrics = client.warmUp(PACKAGE, callback(results));
+        assertEquals("/feature-toggles/" + PACKAGE, server.takeRequest(5, TimeUnit.SECONDS).getPath());
+        // Made while the warm-up's fetch is in flight
+        client.refresh(PACKAGE, new GenericCallBack<List<FeatureToggleItem>>() {
+            @Override
+            public void success(List<FeatureToggleItem> data) {
+                results.add(data.get(0).getName());
+            }
+
+            @Override
+            public void error(String error) {
+                results.add(error);
+            }
+        });
+
+        Object first = results.poll(5, TimeUnit.SECONDS);
+        Object second = results.poll(5, TimeUnit.SECONDS);
+        assertTrue(first + " " + second, (first == metrics && "christmas_theme".equals(second))
+                || ("christmas_theme".equals(first) && second == metrics));
+        assertEquals(1, server.getRequestCount());
+        assertTrue(client.isEnabled(PACKAGE, "christmas_theme"));
+
+        assertNull(metrics.getError());
+        assertTrue(metrics.toString(), metrics.getClient_ready_millis() >= 0);
+        assertTrue(metrics.toString(), metrics.getHost_resolved_millis() >= metrics.getClient_ready_millis());
+        assertTrue(metrics.toString(), metrics.getSnapshot_ready_millis() >= metrics.getHost_resolved_millis() + 300);
+        assertEquals(-1, metrics.getConnected_millis());
+    }
+
+    @Test
+    public void warmUp_withoutAPackage_onlyOpensAConnection() throws Exception {
+        server.enqueue(new MockResponse());
+
+        LinkedBlockingQueue<Object> results = new LinkedBlockingQueue<>();
+        StartupMetrics metrics = client.warmUp(null, callback(results));
+        assertSame(metrics, results.poll(5, TimeUnit.SECONDS));
+        assertEquals("HEAD", server.takeRequest().getMethod());
+        assertTrue(metrics.toString(), metrics.getConnected_millis() >= metrics.getHost_resolved_millis());
+        assertEquals(-1, metrics.getSnapshot_ready_millis());
+    }
+
+    private static GenericCallBack<StartupMetrics> callback(LinkedBlockingQueue<Object> results) {
+        return new GenericCallBack<StartupMetrics>() {
+            @Override
+            public void success(StartupMetrics data) {
+                results.add(data);
+            }
+
+            @Override
+            public void error(String error) {
+                results.add(error);
+            }
+        };
+    }
+}
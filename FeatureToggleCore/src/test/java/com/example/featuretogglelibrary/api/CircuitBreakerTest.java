@@ -0,0 +1,138 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the circuit breaker, using a MockWebServer as a stand-in for a failing backend.
+ */
+public class CircuitBreakerTest {
+
+    private static final String PACKAGE = "com.example.app";
+    private static final String ENDPOINT = "getActiveFeatureToggles";
+    private static final String TOGGLES = "[{\"_id\":\"1\",\"name\":\"christmas_theme\"}]";
+
+    private MockWebServer server;
+    private FeatureController controller;
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final List<String> transitions = new CopyOnWriteArrayList<>();
+    private CircuitBreaker breaker;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        controller = new FeatureController(server.url("/").toString());
+        breaker = new CircuitBreaker(clock::get, 4, 4, 0.5f, 1_000, 30_000, 2);
+        breaker.addListener((endpoint, packageName, previous, current) ->
+                transitions.add(endpoint + " " + previous + "->" + current));
+        controller.setCircuitBreaker(breaker);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void openCircuit_servesLastGoodReadWithoutCallingTheBackend() throws Exception {
+        server.enqueue(json(TOGGLES));
+        assertEquals("success", fetchActive());
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503).setBody("{\"error\":\"down\"}"));
+            assertTrue(fetchActive().startsWith("error"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(ENDPOINT, PACKAGE));
+        int requests = server.getRequestCount();
+
+        assertEquals("success", fetchActive());
+        assertEquals(requests, server.getRequestCount());
+
+        // Other endpoints have their own circuit
+        LinkedBlockingQueue<String> result = new LinkedBlockingQueue<>();
+        server.enqueue(json("{\"total_features\":1}"));
+        controller.getFeatureToggleStatistics(PACKAGE, callback(result));
+        assertEquals("success", result.poll(5, TimeUnit.SECONDS));
+        assertEquals(requests + 1, server.getRequestCount());
+        assertEquals(1, transitions.size());
+        assertEquals(ENDPOINT + " CLOSED->OPEN", transitions.get(0));
+    }
+
+    @Test
+    public void halfOpenProbes_closeTheCircuitAfterTheOpenDuration() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+            fetchActive();
+        }
+        int requests = server.getRequestCount();
+        assertTrue(fetchActive().contains("Circuit open"));
+        assertEquals(requests, server.getRequestCount());
+
+        clock.addAndGet(30_000);
+        server.enqueue(json(TOGGLES));
+        server.enqueue(json(TOGGLES));
+        assertEquals("success", fetchActive());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(ENDPOINT, PACKAGE));
+        assertEquals("success", fetchActive());
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(ENDPOINT, PACKAGE));
+        assertEquals(ENDPOINT + " OPEN->HALF_OPEN", transitions.get(1));
+        assertEquals(ENDPOINT + " HALF_OPEN->CLOSED", transitions.get(2));
+    }
+
+    @Test
+    public void canceledCalls_areNotCountedAsFailures() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+            RequestHandle<?> handle = controller.fetchAllActiveFeatures(PACKAGE, callback(new LinkedBlockingQueue<>()));
+            assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+            handle.cancel();
+        }
+        // Lets the canceled calls unwind through the breaker
+        Thread.sleep(300);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(ENDPOINT, PACKAGE));
+        server.enqueue(json(TOGGLES));
+        assertEquals("success", fetchActive());
+        assertTrue(transitions.toString(), transitions.isEmpty());
+    }
+
+    private String fetchActive() throws InterruptedException {
+        LinkedBlockingQueue<String> result = new LinkedBlockingQueue<>();
+        controller.fetchAllActiveFeatures(PACKAGE, callback(result));
+        return result.poll(5, TimeUnit.SECONDS);
+    }
+
+    private static <T> GenericCallBack<T> callback(LinkedBlockingQueue<String> result) {
+        return new GenericCallBack<T>() {
+            @Override
+            public void success(T data) {
+                result.add("success");
+            }
+
+            @Override
+            public void error(String error) {
+                result.add("error " + error);
+            }
+        };
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.interfaces.FeatureApi;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.google.gson.Gson;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the compact binary format, using a MockWebServer as a stand-in for the backend.
+ */
+public class CompactToggleCodecTest {
+
+    private MockWebServer server;
+    private FeatureApi api;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(CompactToggleConverterFactory.create())
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(FeatureApi.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void encodeDecode_roundTripsAllFields() throws Exception {
+        List<FeatureToggleItem> items = sampleItems();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompactToggleCodec.encode(items, out);
+        List<FeatureToggleItem> decoded = CompactToggleCodec.decode(new ByteArrayInputStream(out.toByteArray()));
+
+        Gson gson = new Gson();
+        assertEquals(gson.toJson(items), gson.toJson(decoded));
+    }
+
+    @Test
+    public void listEndpoint_decodesCompactResponse() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompactToggleCodec.encode(sampleItems(), out);
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", CompactToggleCodec.MEDIA_TYPE)
+                .setBody(new Buffer().write(out.toByteArray())));
+
+        Response<List<FeatureToggleItem>> response = api.getActiveFeatureToggles("com.example.app").execute();
+
+        RecordedRequest request = server.takeRequest();
+        assertTrue(request.getHeader("Accept").startsWith(CompactToggleCodec.MEDIA_TYPE));
+        assertEquals(2, response.body().size());
+        assertEquals("christmas_theme", response.body().get(0).getName());
+        assertEquals("2025-12-01 00:00:00", response.body().get(0).getBeginning_date());
+    }
+
+    @Test
+    public void listEndpoint_fallsBackToJson() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(new Gson().toJson(sampleItems())));
+
+        Response<List<FeatureToggleItem>> response = api.getAllFeatureToggles("com.example.app").execute();
+
+        assertEquals(2, response.body().size());
+        assertEquals("halloween_theme", response.body().get(1).getName());
+    }
+
+    @Test
+    public void decode_rejectsCountsTheInputCannotHold() {
+        byte[] magic = {'F', 'T', 'B', '1'};
+        byte[] hugeCount = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        byte[][] payloads = {
+                // A string table of 2^31 - 1 strings
+                concat(magic, hugeCount),
+                // One string of 2^31 - 1 bytes
+                concat(magic, new byte[]{1}, hugeCount),
+                // No strings and 2^31 - 1 items
+                concat(magic, new byte[]{0}, hugeCount),
+                // A 10-byte varint, negative once read
+                concat(magic, new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                        (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01}),
+        };
+        for (byte[] payload : payloads) {
+            try {
+                CompactToggleCodec.decode(new ByteArrayInputStream(payload));
+                fail();
+            } catch (IOException expected) {
+                // Fails on the missing input, without allocating for the announced count
+            }
+        }
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<FeatureToggleItem> sampleItems() {
+        FeatureToggleItem christmas = new FeatureToggleItem("2025-12-01 00:00:00", "2025-01-12T20:08:39.000Z",
+                "Red and green theme", "2025-12-31 23:59:59", "christmas_theme", null, "com.example.app");
+        christmas.set_id("814b5dda-c77b-4929-9a40-b683c56adbc6");
+        FeatureToggleItem halloween = new FeatureToggleItem("2025-10-01 00:00:00", "2025-01-12 20:08:39",
+                null, "2025-10-31 23:59:59", "halloween_theme", "2025-01-13 10:00:00", "com.example.app");
+        halloween.set_id("d02723f6-0df7-4b94-83e3-f737a53eb146");
+        return new ArrayList<>(Arrays.asList(christmas, halloween));
+    }
+}
@@ -0,0 +1,352 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.FeatureToggleClient;
+import com.example.featuretogglelibrary.StressHarness;
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.model.FeaturesStatistics;
+import com.example.featuretogglelibrary.store.FeatureStoreRegistry;
+import com.example.featuretogglelibrary.store.FeatureToggleStore;
+import com.google.gson.Gson;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import javax.net.ServerSocketFactory;
+
+import static com.example.featuretogglelibrary.ToggleBuilder.PACKAGE;
+import static com.example.featuretogglelibrary.ToggleBuilder.item;
+import static org.junit.Assert.*;
+
+/**
+ * Stress tests for a controller and client shared by many threads, against a MockWebServer that keeps the
+ * toggles in memory like the backend: every call gets exactly one callback, concurrent refreshes share one
+ * request and admin operations leave the local store equal to the backend.
+ */
+public class ControllerConcurrencyStressTest {
+
+    private static final String MISSING = "com.example.missing";
+
+    private final Gson gson = new Gson();
+    private final Map<String, FeatureToggleItem> backend = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final AtomicInteger listRequests = new AtomicInteger();
+    private volatile long listDelayMillis = 0;
+
+    private MockWebServer server;
+    private FeatureToggleClient client;
+    private FeatureController controller;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return respond(request);
+            }
+        });
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.start();
+        client = new FeatureToggleClient(new FeatureController(server.url("/").toString()), new FeatureStoreRegistry());
+        controller = client.getController();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void sharedController_callsEveryCallbackExactlyOnce() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            FeatureToggleItem item = item(null, "feature_" + i, i % 2 == 0 ? null : "2030-01-01 00:00:00", null);
+            item.set_id(String.valueOf(nextId.incrementAndGet()));
+            backend.put(item.get_id(), item);
+        }
+        controller.setQueryCache(new QueryCache(false));
+        controller.setCircuitBreaker(new CircuitBreaker());
+
+        int threads = 8;
+        int perThread = StressHarness.iterations(40);
+        AtomicIntegerArray calls = new AtomicIntegerArray(threads * perThread);
+        CountDownLatch answered = new CountDownLatch(threads * perThread);
+        ConcurrentLinkedQueue<String> wrong = new ConcurrentLinkedQueue<>();
+
+        StressHarness.run(threads, index -> {
+            for (int i = 0; i < perThread; i++) {
+                int call = index * perThread + i;
+                switch (call % 5) {
+                    case 0:
+                        controller.fetchAllFeatureToggles(PACKAGE, counting(call, calls, answered, wrong, 20));
+                        break;
+                    case 1:
+                        controller.fetchAllActiveFeatures(PACKAGE, counting(call, calls, answered, wrong, 10));
+                        break;
+                    case 2:
+                        controller.getFeatureToggleStatistics(PACKAGE, counting(call, calls, answered, wrong, 20));
+                        break;
+                    case 3:
+                        controller.getFeatureTogglesByDate(PACKAGE, "2025-06-01", counting(call, calls, answered, wrong, 10));
+                        break;
+                    default:
+                        // Fails on the backend, then fails fast once its circuit opens
+                        controller.getFeatureToggleStatistics(MISSING, counting(call, calls, answered, wrong, -1));
+                        break;
+                }
+            }
+        });
+
+        assertTrue("Callbacks missing", answered.await(30, TimeUnit.SECONDS));
+        // Give duplicate callbacks a chance to arrive
+        Thread.sleep(200);
+        for (int i = 0; i < calls.length(); i++) {
+            assertEquals("Callbacks of call " + i, 1, calls.get(i));
+        }
+        assertTrue(wrong.toString(), wrong.isEmpty());
+    }
+
+    @Test
+    public void concurrentRefreshes_shareOneRequest() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            FeatureToggleItem item = item(String.valueOf(nextId.incrementAndGet()), "feature_" + i, null, null);
+            backend.put(item.get_id(), item);
+        }
+        listDelayMillis = 300;
+        int threads = 16;
+        int rounds = StressHarness.iterations(3);
+
+        for (int round = 1; round <= rounds; round++) {
+            LinkedBlockingQueue<Integer> sizes = new LinkedBlockingQueue<>();
+            StressHarness.run(threads, index -> client.refresh(PACKAGE, new GenericCallBack<List<FeatureToggleItem>>() {
+                @Override
+                public void success(List<FeatureToggleItem> data) {
+                    sizes.add(data.size());
+                }
+
+                @Override
+                public void error(String error) {
+                    sizes.add(-1);
+                }
+            }));
+            for (int i = 0; i < threads; i++) {
+                assertEquals(Integer.valueOf(50), sizes.poll(10, TimeUnit.SECONDS));
+            }
+            assertEquals(round, listRequests.get());
+            assertEquals(50, client.getStore(PACKAGE).size());
+        }
+    }
+
+    @Test
+    public void concurrentAdminOperations_leaveTheStoreEqualToTheBackend() throws Exception {
+        FeatureToggleStore store = client.getStore(PACKAGE);
+        store.replaceAll(Collections.emptyList());
+        int threads = 4;
+        int perThread = StressHarness.iterations(25);
+
+        // Each thread creates its own toggles and deletes some of them
+        StressHarness.run(threads, index -> {
+            for (int i = 0; i < perThread; i++) {
+                String name = "feature_" + index + "_" + i;
+                await(callback -> controller.createNewFeatureToggle(item(null, name, null, null), callback));
+                if (i % 5 == 4) {
+                    String id = store.snapshot().getByName(name).get_id();
+                    await(callback -> controller.deleteFeatureToggle(PACKAGE, id, callback));
+                }
+            }
+        });
+        assertEquals(threads * (perThread - perThread / 5), backend.size());
+
+        // Two threads update different fields of the same toggles at the same time
+        List<String> ids = new ArrayList<>(backend.keySet());
+        int rounds = StressHarness.iterations(3);
+        StressHarness.run(2, index -> {
+            for (int round = 0; round < rounds; round++) {
+                for (String id : ids) {
+                    FeatureToggleItem update = new FeatureToggleItem();
+                    if (index == 0) {
+                        update.setDescription("description " + round);
+                        await(callback -> controller.updateFeatureInfo(PACKAGE, id, update, callback));
+                    } else {
+                        update.setExpiration_date("2030-01-0" + (round % 9 + 1) + " 00:00:00");
+                        await(callback -> controller.updateFeatureDates(PACKAGE, id, update, callback));
+                    }
+                }
+            }
+        });
+
+        assertEquals(backend.size(), store.size());
+        for (FeatureToggleItem expected : backend.values()) {
+            FeatureToggleItem actual = store.get(expected.get_id());
+            assertNotNull("Missing " + expected.getName(), actual);
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals("Lost update of " + expected.getName(), expected.getDescription(), actual.getDescription());
+            assertEquals("Lost update of " + expected.getName(), expected.getExpiration_date(), actual.getExpiration_date());
+        }
+        FeaturesStatistics statistics = store.getStatistics();
+        assertEquals(backend.size(), statistics.getTotal_features());
+    }
+
+    private interface Operation {
+        void start(GenericCallBack<String> callback);
+    }
+
+    private static void await(Operation operation) throws InterruptedException {
+        LinkedBlockingQueue<String> results = new LinkedBlockingQueue<>();
+        operation.start(new GenericCallBack<String>() {
+            @Override
+            public void success(String data) {
+                results.add("success");
+            }
+
+            @Override
+            public void error(String error) {
+                results.add("error " + error);
+            }
+        });
+        assertEquals("success", results.poll(10, TimeUnit.SECONDS));
+    }
+
+    // Counts the callbacks of one call, checking the size of lists or the total of statistics
+    private static <T> GenericCallBack<T> counting(int call, AtomicIntegerArray calls, CountDownLatch answered,
+                                                   ConcurrentLinkedQueue<String> wrong, int expected) {
+        return new GenericCallBack<T>() {
+            @Override
+            public void success(T data) {
+                int size = data instanceof List ? ((List<?>) data).size()
+                        : data instanceof FeaturesStatistics ? ((FeaturesStatistics) data).getTotal_features() : -2;
+                if (size != expected) {
+                    wrong.add("Call " + call + " got " + size + " instead of " + expected);
+                }
+                done();
+            }
+
+            @Override
+            public void error(String error) {
+                if (expected >= 0) {
+                    wrong.add("Call " + call + " failed: " + error);
+                }
+                done();
+            }
+
+            private void done() {
+                if (calls.incrementAndGet(call) == 1) {
+                    answered.countDown();
+                }
+            }
+        };
+    }
+
+    private MockResponse respond(RecordedRequest request) {
+        String path = request.getPath();
+        String method = request.getMethod();
+        if (path.contains(MISSING)) {
+            return json(500, "{\"error\":\"Unknown package\"}");
+        }
+        if (method.equals("POST") && path.equals("/feature-toggle")) {
+            FeatureToggleItem created = gson.fromJson(request.getBody().readUtf8(), FeatureToggleItem.class);
+            created.set_id(String.valueOf(nextId.incrementAndGet()));
+            backend.put(created.get_id(), created);
+            return json(201, "{\"message\":\"Feature created\",\"feature\":" + gson.toJson(created) + "}");
+        }
+
+        String[] parts = path.split("\\?")[0].split("/");
+        // "", "feature-toggles", package, [feature ID or query], [operation]
+        if (method.equals("DELETE") && parts.length == 4) {
+            backend.remove(parts[3]);
+            return json(200, "{\"message\":\"Feature deleted\"}");
+        }
+        if (method.equals("PUT") && parts.length == 5) {
+            FeatureToggleItem update = gson.fromJson(request.getBody().readUtf8(), FeatureToggleItem.class);
+            synchronized (backend) {
+                FeatureToggleItem existing = backend.get(parts[3]);
+                if (existing == null) {
+                    return json(404, "{\"error\":\"Feature not found\"}");
+                }
+                if (parts[4].equals("update-dates")) {
+                    existing.setExpiration_date(update.getExpiration_date());
+                } else {
+                    existing.setDescription(update.getDescription());
+                }
+            }
+            return json(200, "{\"message\":\"Feature updated\"}");
+        }
+        if (parts.length == 3) {
+            listRequests.incrementAndGet();
+            return json(200, gson.toJson(new ArrayList<>(backend.values())))
+                    .setBodyDelay(listDelayMillis, TimeUnit.MILLISECONDS);
+        }
+        List<FeatureToggleItem> active = new ArrayList<>();
+        for (FeatureToggleItem item : backend.values()) {
+            if (item.getBeginning_date() == null) {
+                active.add(item);
+            }
+        }
+        switch (parts[3]) {
+            case "active":
+            case "by-date":
+                return json(200, gson.toJson(active));
+            case "statistics":
+                return json(200, "{\"total_features\":" + backend.size() + ",\"active_features\":" + active.size() + "}");
+            default:
+                return json(404, "{\"error\":\"Not found\"}");
+        }
+    }
+
+    private static MockResponse json(int code, String body) {
+        return new MockResponse().setResponseCode(code).setHeader("Content-Type", "application/json").setBody(body);
+    }
+
+    // MockWebServer writes headers and body separately, which Nagle's algorithm delays by 40 ms per response
+    private static class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new ServerSocket() {
+                @Override
+                public Socket accept() throws IOException {
+                    Socket socket = super.accept();
+                    socket.setTcpNoDelay(true);
+                    return socket;
+                }
+            };
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress address) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
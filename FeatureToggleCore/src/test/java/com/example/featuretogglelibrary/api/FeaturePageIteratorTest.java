@@ -0,0 +1,98 @@
+package com.example.featuretogglelibrary.api;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests paging, failures and closing of the page iterator against a MockWebServer.
+ */
+public class FeaturePageIteratorTest {
+
+    private static final String PACKAGE = "com.example.app";
+
+    private MockWebServer server;
+    private FeatureController controller;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        controller = new FeatureController(server.url("/").toString());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test(timeout = 10_000)
+    public void iterates_overEveryPageByCursor() throws Exception {
+        server.enqueue(json("{\"items\":[{\"_id\":\"1\",\"name\":\"a\"},{\"_id\":\"2\",\"name\":\"b\"}],\"next_cursor\":\"c2\"}"));
+        server.enqueue(json("{\"items\":[{\"_id\":\"3\",\"name\":\"c\"}],\"next_cursor\":null}"));
+
+        List<String> names = new ArrayList<>();
+        try (FeaturePageIterator toggles = controller.iterateAllFeatureToggles(PACKAGE, 2, 2)) {
+            while (toggles.hasNext()) {
+                names.add(toggles.next().getName());
+            }
+        }
+        assertEquals(Arrays.asList("a", "b", "c"), names);
+        assertEquals("/feature-toggles/" + PACKAGE + "?limit=2", server.takeRequest().getPath());
+        assertEquals("/feature-toggles/" + PACKAGE + "?limit=2&cursor=c2", server.takeRequest().getPath());
+    }
+
+    @Test(timeout = 10_000)
+    public void plainList_endsTheIterationWithAnError() {
+        // A backend without paging answers with the whole list
+        server.enqueue(json("[{\"_id\":\"1\",\"name\":\"a\"}]"));
+
+        try (FeaturePageIterator toggles = controller.iterateAllFeatureToggles(PACKAGE, 2, 2)) {
+            toggles.hasNext();
+            fail();
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getCause().getMessage(), e.getCause().getMessage().startsWith("Malformed page of feature toggles"));
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void close_fromAnotherThread_wakesUpAWaitingConsumer() throws Exception {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+        FeaturePageIterator toggles = controller.iterateAllFeatureToggles(PACKAGE, 2, 2);
+        assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+        Thread closer = new Thread(() -> {
+            sleep(200);
+            toggles.close();
+        });
+        closer.start();
+
+        assertFalse(toggles.hasNext());
+        closer.join();
+        assertFalse(toggles.hasNext());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.model.PendingMutation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static com.example.featuretogglelibrary.ToggleBuilder.PACKAGE;
+import static com.example.featuretogglelibrary.ToggleBuilder.toggle;
+import static org.junit.Assert.*;
+
+/**
+ * Tests coalescing, persistence and replay of the offline mutation queue against a MockWebServer.
+ */
+public class MutationQueueTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private FeatureController controller;
+    private File log;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        controller = new FeatureController(server.url("/").toString());
+        log = new File(folder.getRoot(), "mutations.log");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void enqueue_coalescesRedundantMutations_andSurvivesARestart() throws Exception {
+        MutationQueue queue = new MutationQueue(log);
+        queue.enqueue(update(PendingMutation.Type.UPDATE_DATES, "1", dates("2025-12-01 00:00:00", null)));
+        queue.enqueue(update(PendingMutation.Type.UPDATE_DATES, "1", dates(null, "2025-12-31 23:59:59")));
+        queue.enqueue(update(PendingMutation.Type.UPDATE_INFO, "2", info("dark_mode")));
+        queue.enqueue(new PendingMutation(PendingMutation.Type.DELETE, PACKAGE, "2", null));
+        String localId = queue.enqueue(new PendingMutation(PendingMutation.Type.CREATE, PACKAGE, null, info("banner")));
+        queue.enqueue(update(PendingMutation.Type.UPDATE_DATES, localId, dates("2026-01-01 00:00:00", null)));
+        String dropped = queue.enqueue(new PendingMutation(PendingMutation.Type.CREATE, PACKAGE, null, info("gone")));
+        queue.enqueue(new PendingMutation(PendingMutation.Type.DELETE, PACKAGE, dropped, null));
+
+        assertEquals("[UPDATE_DATES 1 2025-12-01 00:00:00 2025-12-31 23:59:59, DELETE 2,"
+                + " CREATE " + localId + " banner 2026-01-01 00:00:00]", describe(queue));
+        assertTrue(queue.hasPending(PACKAGE, localId));
+        assertFalse(queue.hasPending(PACKAGE, dropped));
+
+        // Wait for the log writer by reading it back once it holds every live mutation
+        MutationQueue restored = null;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            restored = new MutationQueue(log);
+            if (restored.size() == 3 && describe(restored).equals(describe(queue))) {
+                break;
+            }
+            Thread.sleep(20);
+        }
+        assertEquals(describe(queue), describe(restored));
+    }
+
+    @Test
+    public void replay_sendsLaterMutationsOfACreatedFeatureToItsNewId() throws Exception {
+        MutationQueue queue = new MutationQueue(log);
+        controller.setMutationQueue(queue);
+        String localId = queue.enqueue(new PendingMutation(PendingMutation.Type.CREATE, PACKAGE, null, info("banner")));
+        server.enqueue(json("{\"message\":\"created\",\"featureToggle\":{\"_id\":\"42\",\"name\":\"banner\"}}")
+                .setBodyDelay(300, TimeUnit.MILLISECONDS));
+        server.enqueue(json("{\"message\":\"updated\"}"));
+        server.enqueue(json("{\"message\":\"updated\"}"));
+
+        LinkedBlockingQueue<String> results = new LinkedBlockingQueue<>();
+        queue.replay(controller, results(results));
+        assertEquals("/feature-toggle", server.takeRequest(5, TimeUnit.SECONDS).getPath());
+
+        // Made while the creation is in flight, so it waits for the ID
+        controller.updateFeatureDates(PACKAGE, localId, dates("2026-01-01 00:00:00", null), results(results));
+        assertTrue(results.poll(5, TimeUnit.SECONDS).startsWith("success Mutation queued behind pending changes"));
+        assertEquals("success 2", results.poll(5, TimeUnit.SECONDS));
+
+        RecordedRequest replayed = server.takeRequest(5, TimeUnit.SECONDS);
+        assertEquals("/feature-toggles/" + PACKAGE + "/42/update-dates", replayed.getPath());
+        assertEquals(0, queue.size());
+        assertFalse(queue.hasPending(PACKAGE, localId));
+        assertEquals("42", queue.resolve(PACKAGE, localId));
+
+        // Made after the creation, so it is sent at once
+        controller.updateFeatureInfo(PACKAGE, localId, info("new_banner"), results(results));
+        assertEquals("/feature-toggles/" + PACKAGE + "/42/update-info", server.takeRequest(5, TimeUnit.SECONDS).getPath());
+        assertNotNull(results.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void replay_dropsTheMutationsOfARejectedCreation() throws Exception {
+        MutationQueue queue = new MutationQueue(log);
+        String localId = queue.enqueue(new PendingMutation(PendingMutation.Type.CREATE, PACKAGE, null, info("banner")));
+        server.enqueue(new MockResponse().setResponseCode(400).setBody("{\"error\":\"Invalid\"}")
+                .setBodyDelay(300, TimeUnit.MILLISECONDS));
+        server.enqueue(json("{\"message\":\"updated\"}"));
+
+        LinkedBlockingQueue<String> results = new LinkedBlockingQueue<>();
+        queue.replay(controller, results(results));
+        assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+        queue.enqueue(new PendingMutation(PendingMutation.Type.DELETE, PACKAGE, localId, null));
+        queue.enqueue(update(PendingMutation.Type.UPDATE_INFO, "7", info("other")));
+
+        assertEquals("success 1", results.poll(5, TimeUnit.SECONDS));
+        assertEquals("/feature-toggles/" + PACKAGE + "/7/update-info", server.takeRequest(5, TimeUnit.SECONDS).getPath());
+        assertEquals(0, queue.size());
+        assertFalse(queue.hasPending(PACKAGE, localId));
+    }
+
+    private static PendingMutation update(PendingMutation.Type type, String featureId, FeatureToggleItem payload) {
+        return new PendingMutation(type, PACKAGE, featureId, payload);
+    }
+
+    private static FeatureToggleItem dates(String beginning, String expiration) {
+        return toggle(null, null).dates(beginning, expiration).build();
+    }
+
+    private static FeatureToggleItem info(String name) {
+        return toggle(null, name).packageName(PACKAGE).build();
+    }
+
+    private static String describe(MutationQueue queue) {
+        StringBuilder description = new StringBuilder("[");
+        List<PendingMutation> mutations = queue.getPendingMutations();
+        for (int i = 0; i < mutations.size(); i++) {
+            PendingMutation mutation = mutations.get(i);
+            FeatureToggleItem payload = mutation.getPayload();
+            description.append(i == 0 ? "" : ", ").append(mutation.getType()).append(' ').append(mutation.getFeature_id());
+            if (payload != null) {
+                for (String field : new String[]{payload.getName(), payload.getBeginning_date(), payload.getExpiration_date()}) {
+                    if (field != null) {
+                        description.append(' ').append(field);
+                    }
+                }
+            }
+        }
+        return description.append(']').toString();
+    }
+
+    private static <T> GenericCallBack<T> results(LinkedBlockingQueue<String> results) {
+        return new GenericCallBack<T>() {
+            @Override
+            public void success(T data) {
+                results.add("success " + data);
+            }
+
+            @Override
+            public void error(String error) {
+                results.add("error " + error);
+            }
+        };
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the query cache in front of a MockWebServer, with a fake clock.
+ */
+public class QueryCacheTest {
+
+    private static final String PACKAGE = "com.example.app";
+    private static final String DATE = "2025-12-24";
+
+    private MockWebServer server;
+    private FeatureController controller;
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        controller = new FeatureController(server.url("/").toString());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void freshResult_isServedUntilExpiryOrAnAdminOperation() throws Exception {
+        controller.setQueryCache(new QueryCache(clock::get, 16, 10_000, false));
+        server.enqueue(json(toggles("christmas_theme")));
+        assertEquals("christmas_theme", byDate().poll(5, TimeUnit.SECONDS));
+        assertEquals("christmas_theme", byDate().poll(5, TimeUnit.SECONDS));
+        assertEquals(1, server.getRequestCount());
+
+        clock.addAndGet(10_000);
+        server.enqueue(json(toggles("snow")));
+        assertEquals("snow", byDate().poll(5, TimeUnit.SECONDS));
+        assertEquals(2, server.getRequestCount());
+
+        server.enqueue(json("{}"));
+        LinkedBlockingQueue<String> deleted = new LinkedBlockingQueue<>();
+        controller.deleteFeatureToggle(PACKAGE, "1", names(deleted));
+        assertNotNull(deleted.poll(5, TimeUnit.SECONDS));
+        server.enqueue(json(toggles("new_year")));
+        assertEquals("new_year", byDate().poll(5, TimeUnit.SECONDS));
+        assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    public void staleResult_isServedThenRevalidated() throws Exception {
+        controller.setQueryCache(new QueryCache(clock::get, 16, 10_000, true));
+        server.enqueue(json(toggles("christmas_theme")));
+        assertEquals("christmas_theme", byDate().poll(5, TimeUnit.SECONDS));
+
+        clock.addAndGet(10_000);
+        server.enqueue(json(toggles("snow")));
+        LinkedBlockingQueue<String> results = byDate();
+        assertEquals("christmas_theme", results.poll(5, TimeUnit.SECONDS));
+        assertEquals("snow", results.poll(5, TimeUnit.SECONDS));
+        assertEquals("snow", byDate().poll(5, TimeUnit.SECONDS));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    private LinkedBlockingQueue<String> byDate() {
+        LinkedBlockingQueue<String> results = new LinkedBlockingQueue<>();
+        controller.getFeatureTogglesByDate(PACKAGE, DATE, names(results));
+        return results;
+    }
+
+    private static <T> GenericCallBack<T> names(LinkedBlockingQueue<String> results) {
+        return new GenericCallBack<T>() {
+            @Override
+            public void success(T data) {
+                results.add(data instanceof List ? ((FeatureToggleItem) ((List<?>) data).get(0)).getName() : "success");
+            }
+
+            @Override
+            public void error(String error) {
+                results.add("error " + error);
+            }
+        };
+    }
+
+    private static String toggles(String name) {
+        return "[{\"_id\":\"1\",\"name\":\"" + name + "\"}]";
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+}
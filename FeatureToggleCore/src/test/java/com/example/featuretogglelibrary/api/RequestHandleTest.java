@@ -0,0 +1,145 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests cancelling, timing out and awaiting requests against a MockWebServer.
+ */
+public class RequestHandleTest {
+
+    private static final String PACKAGE = "com.example.app";
+    private static final String DATE = "2025-12-24";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private FeatureController controller;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        controller = new FeatureController(server.url("/").toString());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void cancel_dropsTheCallback_andDoesNotQueueTheOperation() throws Exception {
+        controller.setMutationQueue(new MutationQueue(new File(folder.getRoot(), "mutations.log")));
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+        LinkedBlockingQueue<String> results = new LinkedBlockingQueue<>();
+        RequestHandle<List<FeatureToggleItem>> read = controller.getFeatureTogglesByDate(PACKAGE, DATE, names(results));
+        RequestHandle<String> delete = controller.deleteFeatureToggle(PACKAGE, "1", names(results));
+        assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+        assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+
+        read.cancel();
+        delete.cancel();
+        assertTrue(read.isCancelled());
+        assertTrue(delete.isDone());
+        assertNull(results.poll(300, TimeUnit.MILLISECONDS));
+        assertEquals(0, controller.getMutationQueue().size());
+        try {
+            read.await();
+            fail();
+        } catch (IOException e) {
+            assertEquals("Request canceled.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void deadline_failsTheRequestOnce_onTheCallbackExecutor() throws Exception {
+        controller.setCallbackExecutor(runnable -> new Thread(runnable, "Callbacks").start());
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+        LinkedBlockingQueue<String> results = new LinkedBlockingQueue<>();
+        RequestHandle<List<FeatureToggleItem>> read = controller.getFeatureTogglesByDate(PACKAGE, DATE,
+                new GenericCallBack<List<FeatureToggleItem>>() {
+                    @Override
+                    public void success(List<FeatureToggleItem> data) {
+                        results.add("success");
+                    }
+
+                    @Override
+                    public void error(String error) {
+                        results.add("error " + error + " on " + Thread.currentThread().getName());
+                    }
+                }).setDeadline(200, TimeUnit.MILLISECONDS);
+
+        assertEquals("error Deadline of 200 ms exceeded. on Callbacks", results.poll(5, TimeUnit.SECONDS));
+        assertNull(results.poll(300, TimeUnit.MILLISECONDS));
+        assertFalse(read.isCancelled());
+        try {
+            read.await(1, TimeUnit.SECONDS);
+            fail();
+        } catch (IOException e) {
+            assertEquals("Deadline of 200 ms exceeded.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void scope_cancelsOutstandingRequests_andForgetsCompletedOnes() throws Exception {
+        RequestScope scope = new RequestScope();
+        server.enqueue(json("[{\"_id\":\"1\",\"name\":\"christmas_theme\"}]"));
+        LinkedBlockingQueue<String> results = new LinkedBlockingQueue<>();
+
+        List<FeatureToggleItem> items = scope.track(controller.getFeatureTogglesByDate(PACKAGE, DATE, names(results)))
+                .await(5, TimeUnit.SECONDS);
+        assertEquals("christmas_theme", items.get(0).getName());
+        assertEquals("christmas_theme", results.poll(5, TimeUnit.SECONDS));
+
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        RequestHandle<?> statistics = scope.track(controller.getFeatureToggleStatistics(PACKAGE, names(results)));
+        assertEquals(1, scope.getOutstanding());
+        assertEquals(1, scope.close());
+        assertTrue(statistics.isCancelled());
+
+        RequestHandle<?> late = scope.track(controller.getRecentFeatureToggles(PACKAGE, names(results)));
+        assertTrue(late.isCancelled());
+        assertNull(results.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    private static <T> GenericCallBack<T> names(LinkedBlockingQueue<String> results) {
+        return new GenericCallBack<T>() {
+            @Override
+            public void success(T data) {
+                results.add(data instanceof List ? ((FeatureToggleItem) ((List<?>) data).get(0)).getName() : "success " + data);
+            }
+
+            @Override
+            public void error(String error) {
+                results.add("error " + error);
+            }
+        };
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.interfaces.RequestInterceptor;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static com.example.featuretogglelibrary.ToggleBuilder.PACKAGE;
+import static com.example.featuretogglelibrary.ToggleBuilder.toggle;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the interceptor pipeline of the controller in front of a MockWebServer.
+ */
+public class RequestPipelineTest {
+
+    private static final String DATE = "2025-12-24";
+
+    private MockWebServer server;
+    private FeatureController controller;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        controller = new FeatureController(server.url("/").toString());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void interceptors_seeEveryCallInOrder_andCanAnswerWithoutARoundTrip() throws Exception {
+        List<String> seen = new CopyOnWriteArrayList<>();
+        controller.addInterceptor(new RequestInterceptor() {
+            @Override
+            public <T> void intercept(ApiRequest<T> request, GenericCallBack<T> callback, Chain chain) {
+                seen.add("first " + request);
+                chain.proceed(request, callback);
+            }
+        });
+        controller.addInterceptor(new RequestInterceptor() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> void intercept(ApiRequest<T> request, GenericCallBack<T> callback, Chain chain) {
+                seen.add("second " + request.getEndpoint() + " " + Arrays.toString(request.getArguments()));
+                if (request.getEndpoint() == Endpoint.BY_DATE) {
+                    callback.success((T) Collections.singletonList(toggle(null, "offline_banner").packageName(PACKAGE).build()));
+                    return;
+                }
+                chain.proceed(request, callback);
+            }
+        });
+
+        assertEquals("offline_banner", byDate().poll(5, TimeUnit.SECONDS));
+        assertEquals(0, server.getRequestCount());
+
+        server.enqueue(json("{\"message\":\"Feature toggle deleted\"}"));
+        LinkedBlockingQueue<String> deleted = new LinkedBlockingQueue<>();
+        controller.deleteFeatureToggle(PACKAGE, "1", names(deleted));
+        assertEquals("success Feature toggle deleted successfully.", deleted.poll(5, TimeUnit.SECONDS));
+        assertEquals(1, server.getRequestCount());
+
+        assertEquals(Arrays.asList(
+                "first getFeatureTogglesByDate " + PACKAGE,
+                "second getFeatureTogglesByDate [" + DATE + "]",
+                "first deleteFeatureToggle " + PACKAGE + "/1",
+                "second deleteFeatureToggle []"), seen);
+    }
+
+    @Test
+    public void coalescer_sharesOneRequestBetweenConcurrentReads() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        controller.addInterceptor(coalescer);
+        server.enqueue(json("[" + toggleJson("christmas_theme") + "]").setBodyDelay(300, TimeUnit.MILLISECONDS));
+
+        LinkedBlockingQueue<String> results = new LinkedBlockingQueue<>();
+        for (int i = 0; i < 3; i++) {
+            controller.getFeatureTogglesByDate(PACKAGE, DATE, names(results));
+        }
+        for (int i = 0; i < 3; i++) {
+            assertEquals("christmas_theme", results.poll(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, server.getRequestCount());
+        assertEquals(2, coalescer.getSharedCount());
+
+        // Once answered, the next read is a new call
+        server.enqueue(json("[" + toggleJson("snow") + "]"));
+        assertEquals("snow", byDate().poll(5, TimeUnit.SECONDS));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void coalescer_cancelsTheSharedCallOnlyWithItsLastCaller() throws Exception {
+        controller.addInterceptor(new RequestCoalescer());
+        server.enqueue(json("[" + toggleJson("christmas_theme") + "]").setBodyDelay(500, TimeUnit.MILLISECONDS));
+
+        LinkedBlockingQueue<String> first = new LinkedBlockingQueue<>();
+        LinkedBlockingQueue<String> second = new LinkedBlockingQueue<>();
+        LinkedBlockingQueue<String> third = new LinkedBlockingQueue<>();
+        RequestHandle<?> owner = controller.getFeatureTogglesByDate(PACKAGE, DATE, names(first));
+        controller.getFeatureTogglesByDate(PACKAGE, DATE, names(second));
+        controller.getFeatureTogglesByDate(PACKAGE, DATE, names(third)).setDeadline(100, TimeUnit.MILLISECONDS);
+        owner.cancel();
+
+        assertEquals("error Deadline of 100 ms exceeded.", third.poll(5, TimeUnit.SECONDS));
+        assertEquals("christmas_theme", second.poll(5, TimeUnit.SECONDS));
+        assertNull(first.poll(100, TimeUnit.MILLISECONDS));
+        assertNull(third.poll(100, TimeUnit.MILLISECONDS));
+        assertNotNull(server.takeRequest());
+        assertEquals(1, server.getRequestCount());
+
+        // Once every caller cancelled, the call is dropped and the next read makes a new one
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        RequestHandle<?> a = controller.getFeatureTogglesByDate(PACKAGE, DATE, names(first));
+        RequestHandle<?> b = controller.getFeatureTogglesByDate(PACKAGE, DATE, names(second));
+        assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+        a.cancel();
+        b.cancel();
+        server.enqueue(json("[" + toggleJson("snow") + "]"));
+        assertEquals("snow", byDate().poll(5, TimeUnit.SECONDS));
+        assertEquals(3, server.getRequestCount());
+        assertNull(first.poll());
+        assertNull(second.poll());
+    }
+
+    @Test
+    public void errors_carryTheEndpointMessageOnce() throws Exception {
+        server.enqueue(json("{\"error\":\"Name already taken\"}").setResponseCode(409));
+        LinkedBlockingQueue<String> created = new LinkedBlockingQueue<>();
+        controller.createNewFeatureToggle(toggle(null, "christmas_theme").packageName(PACKAGE).build(), names(created));
+        assertEquals("error Failed to create feature toggle: Name already taken", created.poll(5, TimeUnit.SECONDS));
+
+        server.enqueue(json("not statistics"));
+        LinkedBlockingQueue<String> statistics = new LinkedBlockingQueue<>();
+        controller.getFeatureToggleStatistics(PACKAGE, names(statistics));
+        assertEquals("error Failed to fetch statistics: invalid response.", statistics.poll(5, TimeUnit.SECONDS));
+    }
+
+    private LinkedBlockingQueue<String> byDate() {
+        LinkedBlockingQueue<String> results = new LinkedBlockingQueue<>();
+        controller.getFeatureTogglesByDate(PACKAGE, DATE, names(results));
+        return results;
+    }
+
+    private static <T> GenericCallBack<T> names(LinkedBlockingQueue<String> results) {
+        return new GenericCallBack<T>() {
+            @Override
+            public void success(T data) {
+                results.add(data instanceof List ? ((FeatureToggleItem) ((List<?>) data).get(0)).getName() : "success " + data);
+            }
+
+            @Override
+            public void error(String error) {
+                results.add("error " + error);
+            }
+        };
+    }
+
+    private static String toggleJson(String name) {
+        return "{\"_id\":\"1\",\"name\":\"" + name + "\"}";
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.featuretogglelibrary.api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the order in which the request scheduler starts waiting calls.
+ */
+public class RequestSchedulerTest {
+
+    @Test
+    public void freedSlot_goesToFlagReadsFirst() {
+        RequestScheduler scheduler = new RequestScheduler(2, 2, 2);
+        List<String> started = new ArrayList<>();
+        scheduler.submit(RequestScheduler.Priority.MUTATION, "a", () -> started.add("write 1"));
+        scheduler.submit(RequestScheduler.Priority.MUTATION, "a", () -> started.add("write 2"));
+        scheduler.submit(RequestScheduler.Priority.MUTATION, "a", () -> started.add("write 3"));
+        scheduler.submit(RequestScheduler.Priority.QUERY, "a", () -> started.add("query"));
+        scheduler.submit(RequestScheduler.Priority.FLAG_READ, "a", () -> started.add("read"));
+
+        scheduler.release(RequestScheduler.Priority.MUTATION);
+        scheduler.release(RequestScheduler.Priority.MUTATION);
+
+        assertEquals(Arrays.asList("write 1", "write 2", "read", "query"), started);
+        assertEquals(1, scheduler.getQueued(RequestScheduler.Priority.MUTATION));
+    }
+
+    @Test
+    public void mutationCap_keepsSlotsForFlagReads() {
+        RequestScheduler scheduler = new RequestScheduler(3, 3, 1);
+        List<String> started = new ArrayList<>();
+        scheduler.submit(RequestScheduler.Priority.MUTATION, "a", () -> started.add("write 1"));
+        scheduler.submit(RequestScheduler.Priority.MUTATION, "a", () -> started.add("write 2"));
+        scheduler.submit(RequestScheduler.Priority.FLAG_READ, "a", () -> started.add("read"));
+
+        assertEquals(Arrays.asList("write 1", "read"), started);
+    }
+
+    @Test
+    public void packages_takeTurnsWithinAClass() {
+        RequestScheduler scheduler = new RequestScheduler(1, 1, 1);
+        List<String> started = new ArrayList<>();
+        scheduler.submit(RequestScheduler.Priority.MUTATION, "bulk", () -> started.add("bulk 0"));
+        for (int i = 1; i <= 3; i++) {
+            String name = "bulk " + i;
+            scheduler.submit(RequestScheduler.Priority.MUTATION, "bulk", () -> started.add(name));
+        }
+        scheduler.submit(RequestScheduler.Priority.MUTATION, "other", () -> started.add("other"));
+
+        for (int i = 0; i < 4; i++) {
+            scheduler.release(RequestScheduler.Priority.MUTATION);
+        }
+
+        assertEquals(Arrays.asList("bulk 0", "bulk 1", "other", "bulk 2", "bulk 3"), started);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.featuretogglelibrary.api;
+
+import com.example.featuretogglelibrary.model.ImportSummary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests streaming exports and imports against a MockWebServer serving a paged package, and exports
+ * from a backend without paging.
+ */
+public class ToggleTransferTest {
+
+    private static final int TOGGLES = 600;
+
+    private MockWebServer server;
+    private FeatureController controller;
+    private final List<String> created = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getMethod().equals("POST")) {
+                    String body = request.getBody().readUtf8();
+                    created.add(body);
+                    return json("{\"message\":\"Feature created\"}").setResponseCode(body.contains("rejected") ? 400 : 201);
+                }
+                int limit = Integer.parseInt(request.getRequestUrl().queryParameter("limit"));
+                String cursor = request.getRequestUrl().queryParameter("cursor");
+                return json(page(cursor == null ? 0 : Integer.parseInt(cursor), limit));
+            }
+        });
+        server.start();
+        controller = new FeatureController(server.url("/").toString());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void export_thenImport_recreatesEveryToggleInBothFormats() throws Exception {
+        for (ToggleTransfer.Format format : ToggleTransfer.Format.values()) {
+            created.clear();
+            ByteArrayOutputStream exported = new ByteArrayOutputStream();
+            assertEquals(TOGGLES, controller.exportFeatureToggles("com.example.source", Channels.newChannel(exported), format));
+
+            ImportSummary summary = controller.importFeatureToggles("com.example.target",
+                    Channels.newChannel(new ByteArrayInputStream(exported.toByteArray())), format, 8);
+            assertEquals(TOGGLES, summary.getRead());
+            assertEquals(TOGGLES, summary.getImported());
+            assertEquals(0, summary.getFailed());
+            assertEquals(TOGGLES, created.size());
+            assertTrue(created.get(0).contains("\"package_name\":\"com.example.target\""));
+            assertFalse(created.get(0).contains("_id"));
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void export_fromABackendWithoutPaging_writesTheWholeList() throws Exception {
+        MockWebServer plain = new MockWebServer();
+        plain.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return json("[{\"_id\":\"1\",\"name\":\"christmas_theme\"},{\"_id\":\"2\",\"name\":\"dark_mode\"}]");
+            }
+        });
+        plain.start();
+        try {
+            ByteArrayOutputStream exported = new ByteArrayOutputStream();
+            FeatureController plainController = new FeatureController(plain.url("/").toString());
+            assertEquals(2, plainController.exportFeatureToggles("com.example.source", Channels.newChannel(exported),
+                    ToggleTransfer.Format.NDJSON));
+
+            String[] lines = exported.toString("UTF-8").split("\n");
+            assertEquals(2, lines.length);
+            assertTrue(lines[1], lines[1].contains("\"name\":\"dark_mode\""));
+            assertEquals("/feature-toggles/com.example.source?limit=500", plain.takeRequest().getPath());
+            assertEquals("/feature-toggles/com.example.source", plain.takeRequest().getPath());
+        } finally {
+            plain.shutdown();
+        }
+    }
+
+    @Test
+    public void import_countsMalformedAndRejectedToggles() throws Exception {
+        String ndjson = "{\"name\":\"christmas_theme\"}\n"
+                + "not json\n"
+                + "\n"
+                + "{\"name\":\"rejected\"}\n";
+        ImportSummary summary = controller.importFeatureToggles("com.example.app",
+                Channels.newChannel(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8))),
+                ToggleTransfer.Format.NDJSON, 2);
+
+        assertEquals(3, summary.getRead());
+        assertEquals(1, summary.getImported());
+        assertEquals(2, summary.getFailed());
+        assertTrue(summary.getFirst_error().startsWith("Record 2"));
+    }
+
+    private static String page(int start, int limit) {
+        StringBuilder json = new StringBuilder("{\"items\":[");
+        int end = Math.min(TOGGLES, start + limit);
+        for (int i = start; i < end; i++) {
+            if (i > start) {
+                json.append(',');
+            }
+            json.append("{\"_id\":\"").append(i).append("\",\"name\":\"feature_").append(i)
+                    .append("\",\"description\":\"Toggle \u00e9 ").append(i)
+                    .append("\",\"package_name\":\"com.example.source\",\"beginning_date\":\"2025-01-01 00:00:00\"}");
+        }
+        json.append("],\"next_cursor\":").append(end < TOGGLES ? "\"" + end + "\"" : "null").append('}');
+        return json.toString();
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.model.ActivitySeries;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.utils.ToggleDates;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static com.example.featuretogglelibrary.ToggleBuilder.item;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the daily activity series against hand-computed values and a day-by-day evaluation.
+ */
+public class ActivitySweepTest {
+
+    private static final long FROM = ToggleDates.parse("2025-01-01");
+
+    @Test
+    public void series_countsActiveStartedAndEndedTogglesPerDay() {
+        FeatureToggleStore store = new FeatureToggleStore();
+        store.replaceAll(Arrays.asList(
+                item("1", "checkout_v2", "2025-01-02 00:00:00", "2025-01-04 00:00:00"),
+                item("2", "flash_sale", "2025-01-03 12:00:00", "2025-01-03 18:00:00"),
+                item("3", "old_banner", null, "2025-01-02 06:00:00"),
+                item("4", "dark_mode", "2024-12-01 00:00:00", null),
+                item("5", "spring_theme", "2025-03-01 00:00:00", null),
+                item("6", "misconfigured", "2025-01-05 00:00:00", "2025-01-02 00:00:00")));
+
+        ActivitySeries series = store.snapshot().getActivitySeries(FROM, 10);
+
+        assertArrayEquals(new int[]{2, 3, 3, 1, 1, 1, 1, 1, 1, 1}, series.getActive_per_day());
+        assertArrayEquals(new int[]{0, 1, 1, 0, 0, 0, 0, 0, 0, 0}, series.getStarted_per_day());
+        assertArrayEquals(new int[]{0, 1, 1, 1, 0, 0, 0, 0, 0, 0}, series.getEnded_per_day());
+        assertEquals(3, series.getPeak_active());
+        assertEquals(ToggleDates.parse("2025-01-02 00:00:00"), series.getPeak_millis());
+
+        String[] names = series.getFeature_names();
+        assertEquals(4, names.length);
+        assertEquals(new HashSet<>(Arrays.asList("old_banner", "dark_mode")), new HashSet<>(Arrays.asList(names[0], names[1])));
+        assertEquals("checkout_v2", names[2]);
+        assertEquals("flash_sale", names[3]);
+        assertEquals(ToggleDates.NO_DATE, series.getBeginning_millis()[Arrays.asList(names).indexOf("old_banner")]);
+    }
+
+    @Test
+    public void series_matchesDayByDayEvaluation() {
+        Random random = new Random(7);
+        List<FeatureToggleItem> items = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long beginning = FROM + (random.nextInt(120) - 20) * 3_600_000L * 12;
+            long expiration = beginning + random.nextInt(60) * 3_600_000L * 6;
+            items.add(item(String.valueOf(i), "feature_" + i,
+                    random.nextInt(10) == 0 ? null : ToggleDates.format(beginning),
+                    random.nextInt(10) == 0 ? null : ToggleDates.format(expiration)));
+        }
+        FeatureToggleStore store = new FeatureToggleStore();
+        store.replaceAll(items);
+        ActivitySeries series = store.snapshot().getActivitySeries(FROM, 45);
+
+        int peak = 0;
+        for (int day = 0; day < 45; day++) {
+            long dayStart = FROM + day * ActivitySeries.DAY_MILLIS;
+            int active = 0;
+            for (FeatureToggleItem item : items) {
+                long beginning = ToggleDates.parse(item.getBeginning_date());
+                long expiration = ToggleDates.parse(item.getExpiration_date());
+                long activeFrom = beginning == ToggleDates.NO_DATE ? Long.MIN_VALUE : beginning;
+                long activeTo = expiration == ToggleDates.NO_DATE ? Long.MAX_VALUE : expiration;
+                if (activeFrom < activeTo && activeFrom < dayStart + ActivitySeries.DAY_MILLIS && activeTo > dayStart) {
+                    active++;
+                }
+            }
+            assertEquals("Day " + day, active, series.getActive_per_day()[day]);
+            // Dates fall on whole quarter days, so checking every 6 hours finds the peak
+            for (long time = dayStart; time < dayStart + ActivitySeries.DAY_MILLIS; time += 6 * 3_600_000L) {
+                int at = 0;
+                for (FeatureToggleItem item : items) {
+                    at += store.snapshot().isActiveById(item.get_id(), time) ? 1 : 0;
+                }
+                peak = Math.max(peak, at);
+            }
+        }
+        assertEquals(peak, series.getPeak_active());
+    }
+}
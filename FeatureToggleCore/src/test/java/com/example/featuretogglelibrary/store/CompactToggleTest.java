@@ -0,0 +1,60 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.utils.ToggleDates;
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import static com.example.featuretogglelibrary.ToggleBuilder.toggle;
+import static org.junit.Assert.*;
+
+/**
+ * Tests that the compact in-memory form of a toggle gives back exactly what was stored.
+ */
+public class CompactToggleTest {
+
+    @Test
+    public void toItem_roundTripsKnownFormats() {
+        FeatureToggleItem item = item("3f2b8c1e-9a4d-4e7f-b6c5-0d1e2f3a4b5c", "2024-02-29 23:59:59",
+                "2025-12-31", "2025-01-02T10:11:12.345Z", "1969-12-31 23:59:59");
+
+        assertRoundTrip(item);
+        CompactToggle toggle = CompactToggle.of(item);
+        assertEquals(ToggleDates.parse(item.getBeginning_date()), toggle.getBeginning());
+        assertEquals(ToggleDates.parse(item.getExpiration_date()), toggle.getExpiration());
+    }
+
+    @Test
+    public void toItem_keepsUnknownValuesAsTheyAre() {
+        assertRoundTrip(item("NOT-A-LOWERCASE-UUID", "2025-02-30", "2025-12-01T00:00:00+02:00", "", null));
+        assertRoundTrip(item("3F2B8C1E-9A4D-4E7F-B6C5-0D1E2F3A4B5C", null, null, "garbage", "2025-12-01T00:00:00Z"));
+    }
+
+    @Test
+    public void table_looksUpByIdAndLastName() {
+        ToggleTable table = new ToggleTable(0);
+        for (int i = 0; i < 100; i++) {
+            FeatureToggleItem item = item(String.format("00000000-0000-0000-0000-%012d", i), null, null, null, null);
+            item.setName("feature_" + (i % 10));
+            table.put(CompactToggle.of(item));
+        }
+        table.remove("00000000-0000-0000-0000-000000000099");
+
+        assertEquals(99, table.size());
+        assertEquals("00000000-0000-0000-0000-000000000042", table.get("00000000-0000-0000-0000-000000000042").id());
+        assertNull(table.get("00000000-0000-0000-0000-000000000099"));
+        assertEquals("00000000-0000-0000-0000-000000000089", table.getByName("feature_9").id());
+        assertNull(table.getByName("feature_10"));
+    }
+
+    private static void assertRoundTrip(FeatureToggleItem item) {
+        Gson gson = new Gson();
+        assertEquals(gson.toJson(item), gson.toJson(CompactToggle.of(item).toItem()));
+    }
+
+    private static FeatureToggleItem item(String id, String beginning, String expiration, String created, String updated) {
+        return toggle(id, "christmas_theme").description("Enable Christmas theme \u2603")
+                .packageName("com.example.featuretoggledemoapp").dates(beginning, expiration).timestamps(created, updated).build();
+    }
+}
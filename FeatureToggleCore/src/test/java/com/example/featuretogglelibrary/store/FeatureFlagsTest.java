@@ -0,0 +1,105 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.utils.ToggleDates;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.featuretogglelibrary.ToggleBuilder.toggle;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the bitset of FeatureFlags as the store and the clock change.
+ */
+public class FeatureFlagsTest {
+
+    private static final long NOW = ToggleDates.parse("2025-12-01 00:00:00");
+
+    private final AtomicLong clock = new AtomicLong(NOW);
+    private final FeatureToggleStore store = new FeatureToggleStore(clock::get, 0);
+
+    @Test
+    public void bits_spanSeveralWords_andFollowTheStore() {
+        String[] ids = new String[130];
+        List<FeatureToggleItem> items = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = "id" + i;
+            if (i % 3 == 0) {
+                items.add(item(ids[i], null, null));
+            }
+        }
+        store.replaceAll(items);
+        FeatureFlags flags = new FeatureFlags(store, ids);
+
+        assertEquals(130, flags.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals("toggle " + i, i % 3 == 0, flags.isEnabled(i));
+        }
+
+        store.upsert(item("id64", null, null));
+        store.remove("id129");
+        store.upsert(item("id0", null, "2025-11-30 00:00:00"));
+        assertTrue(flags.isEnabled(64));
+        assertFalse(flags.isEnabled(129));
+        assertFalse(flags.isEnabled(0));
+
+        // Toggles that were not declared do not change the bits
+        store.upsert(item("other", null, null));
+        assertTrue(flags.isEnabled(3));
+
+        flags.close();
+        store.remove("id3");
+        assertTrue(flags.isEnabled(3));
+    }
+
+    @Test
+    public void bits_changeWhenTheClockPassesADate() {
+        store.replaceAll(List.of(
+                item("starts", "2025-12-24 00:00:00", null),
+                item("expires", null, "2025-12-10 00:00:00")));
+        FeatureFlags flags = new FeatureFlags(store, "starts", "expires");
+        assertFalse(flags.isEnabled(0));
+        assertTrue(flags.isEnabled(1));
+
+        clock.set(ToggleDates.parse("2025-12-10 00:00:00"));
+        assertFalse(flags.isEnabled(0));
+        assertFalse(flags.isEnabled(1));
+
+        clock.set(ToggleDates.parse("2025-12-24 00:00:00"));
+        assertTrue(flags.isEnabled(0));
+    }
+
+    @Test
+    public void masks_checkSeveralToggles_andIgnoreStaleIndices() {
+        store.replaceAll(List.of(item("a", null, null), item("b", null, null)));
+        FeatureFlags flags = new FeatureFlags(store, "a", "b", "c");
+
+        assertTrue(flags.allEnabled(FeatureFlags.mask(0, 1)));
+        assertFalse(flags.allEnabled(FeatureFlags.mask(0, 2)));
+        assertTrue(flags.anyEnabled(FeatureFlags.mask(0, 2)));
+        assertFalse(flags.anyEnabled(FeatureFlags.mask(2)));
+        assertTrue(flags.allEnabled(FeatureFlags.mask()));
+
+        // Indices generated from a newer manifest than the declared IDs
+        assertFalse(flags.isEnabled(3));
+        assertFalse(flags.isEnabled(200));
+        assertFalse(flags.isEnabled(-1));
+        assertFalse(flags.allEnabled(FeatureFlags.mask(0, 200)));
+        assertTrue(flags.anyEnabled(FeatureFlags.mask(0, 200)));
+        assertFalse(flags.anyEnabled(FeatureFlags.mask(200)));
+        try {
+            FeatureFlags.mask(-1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // Negative indices are never valid
+        }
+    }
+
+    private static FeatureToggleItem item(String id, String beginning, String expiration) {
+        return toggle(id, id).dates(beginning, expiration).build();
+    }
+}
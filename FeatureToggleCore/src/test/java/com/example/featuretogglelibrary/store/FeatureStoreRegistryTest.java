@@ -0,0 +1,172 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.api.ApiRequest;
+import com.example.featuretogglelibrary.api.Endpoint;
+import com.example.featuretogglelibrary.api.FeatureController;
+import com.example.featuretogglelibrary.interfaces.FeatureChangeListener;
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.interfaces.RequestInterceptor;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.featuretogglelibrary.ToggleBuilder.item;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the toggle budget of the registry: which packages it evicts, when, and how it counts them.
+ */
+public class FeatureStoreRegistryTest {
+
+    private final Map<String, List<FeatureToggleItem>> backend = new ConcurrentHashMap<>();
+    private FeatureController controller;
+
+    @Before
+    public void setUp() {
+        // Answers every fetch from the map above, nothing reaches the network
+        controller = new FeatureController("http://localhost/");
+        controller.addInterceptor(new RequestInterceptor() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> void intercept(ApiRequest<T> request, GenericCallBack<T> callback, Chain chain) {
+                assertSame(Endpoint.FETCH_ALL, request.getEndpoint());
+                callback.success((T) backend.get(request.getPackageName()));
+            }
+        });
+    }
+
+    @Test
+    public void overBudget_evictsTheLeastRecentlyUsedPackages() throws Exception {
+        FeatureStoreRegistry registry = new FeatureStoreRegistry(6, 1);
+        refresh(registry, "a", 2);
+        refresh(registry, "b", 2);
+        refresh(registry, "c", 2);
+        assertEquals(6, registry.toggleCount());
+
+        // Looking up "a" makes "b" the least recently used
+        Thread.sleep(2);
+        registry.getStore("a");
+        refresh(registry, "d", 1);
+        assertNull(registry.peekStore("b"));
+        assertNotNull(registry.peekStore("a"));
+        assertEquals(3, registry.packageCount());
+        assertEquals(5, registry.toggleCount());
+    }
+
+    @Test
+    public void budget_isSharedEquallyByTheShards() throws Exception {
+        // Two toggles per shard: a shard holds one package of two even though the others have room
+        FeatureStoreRegistry registry = new FeatureStoreRegistry(8, 4);
+        for (int i = 0; i < 12; i++) {
+            refresh(registry, "package_" + i, 2);
+            assertNotNull(registry.peekStore("package_" + i));
+        }
+        assertTrue(registry.packageCount() <= 4);
+        assertEquals(2L * registry.packageCount(), registry.toggleCount());
+
+        FeatureStoreRegistry unsharded = new FeatureStoreRegistry(8, 1);
+        for (int i = 0; i < 12; i++) {
+            refresh(unsharded, "package_" + i, 2);
+        }
+        assertEquals(4, unsharded.packageCount());
+    }
+
+    @Test
+    public void justRefreshedPackage_isKeptEvenAboveTheBudget() throws Exception {
+        FeatureStoreRegistry registry = new FeatureStoreRegistry(4, 1);
+        refresh(registry, "a", 2);
+        refresh(registry, "b", 2);
+        refresh(registry, "big", 6);
+
+        assertEquals(1, registry.packageCount());
+        assertEquals(6, registry.toggleCount());
+        assertEquals(6, registry.peekStore("big").size());
+    }
+
+    @Test
+    public void setMaxToggles_evictsRightAway() throws Exception {
+        FeatureStoreRegistry registry = new FeatureStoreRegistry(100, 1);
+        refresh(registry, "a", 3);
+        refresh(registry, "b", 3);
+        refresh(registry, "c", 3);
+        Thread.sleep(2);
+        registry.getStore("a");
+
+        registry.setMaxToggles(5);
+        assertEquals(1, registry.packageCount());
+        assertEquals(3, registry.toggleCount());
+        assertNotNull(registry.peekStore("a"));
+
+        // A larger budget does not bring anything back
+        registry.setMaxToggles(100);
+        assertEquals(1, registry.packageCount());
+        refresh(registry, "b", 3);
+        assertEquals(6, registry.toggleCount());
+    }
+
+    @Test
+    public void evict_dropsTheStoreAndItsToggles() throws Exception {
+        FeatureStoreRegistry registry = new FeatureStoreRegistry(100, 1);
+        refresh(registry, "a", 3);
+        refresh(registry, "b", 2);
+
+        registry.evict("a");
+        registry.evict("unknown");
+        assertNull(registry.peekStore("a"));
+        assertEquals(1, registry.packageCount());
+        assertEquals(2, registry.toggleCount());
+
+        FeatureToggleStore store = registry.getStore("a");
+        assertFalse(store.isLoaded());
+        assertEquals(2, registry.toggleCount());
+    }
+
+    @Test
+    public void packageEvictedDuringItsRefresh_isNotCounted() throws Exception {
+        FeatureStoreRegistry registry = new FeatureStoreRegistry(100, 1);
+        // Change listeners run on the refreshing thread, between the new content and its weight
+        registry.getStore("a").addChangeListener(new FeatureChangeListener() {
+            @Override
+            public void onFeatureAdded(FeatureToggleItem item, boolean active) {
+                registry.evict("a");
+            }
+        });
+
+        refresh(registry, "a", 3);
+        assertNull(registry.peekStore("a"));
+        assertEquals(0, registry.packageCount());
+        assertEquals(0, registry.toggleCount());
+    }
+
+    private void refresh(FeatureStoreRegistry registry, String packageName, int size) throws InterruptedException {
+        List<FeatureToggleItem> items = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            items.add(item(packageName + "_" + i, "feature_" + i, null, null));
+        }
+        backend.put(packageName, items);
+
+        LinkedBlockingQueue<String> results = new LinkedBlockingQueue<>();
+        registry.refresh(controller, packageName, new GenericCallBack<List<FeatureToggleItem>>() {
+            @Override
+            public void success(List<FeatureToggleItem> data) {
+                results.add("success " + data.size());
+            }
+
+            @Override
+            public void error(String error) {
+                results.add("error " + error);
+            }
+        });
+        assertEquals("success " + size, results.poll(5, TimeUnit.SECONDS));
+        // Keeps the access stamps of consecutive refreshes apart
+        Thread.sleep(2);
+    }
+}
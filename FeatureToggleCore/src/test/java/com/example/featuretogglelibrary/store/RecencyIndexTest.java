@@ -0,0 +1,58 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.utils.ToggleDates;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.featuretogglelibrary.ToggleBuilder.toggle;
+import static org.junit.Assert.*;
+
+/**
+ * Tests local "recent" and "created since" queries over the timestamps of a store's toggles.
+ */
+public class RecencyIndexTest {
+
+    private static final long NOW = ToggleDates.parse("2025-06-30 12:00:00");
+
+    @Test
+    public void recentToggles_arePagedNewestFirst() {
+        FeatureToggleStore store = new FeatureToggleStore(() -> NOW, TimeUnit.DAYS.toMillis(7));
+        store.replaceAll(Arrays.asList(
+                item("1", "2025-06-01 00:00:00", "2025-06-29 08:00:00"),
+                item("2", "2025-06-25 00:00:00", null),
+                item("3", "2025-06-28 00:00:00", null),
+                item("4", "2025-01-01 00:00:00", "2025-02-01 00:00:00"),
+                item("5", null, null)));
+
+        assertEquals(Arrays.asList("1", "3", "2"), ids(store.getRecent(7, 0, 10)));
+        assertEquals(Arrays.asList("3"), ids(store.getRecent(7, 1, 1)));
+        assertTrue(store.getRecent(7, 3, 10).isEmpty());
+
+        ToggleSnapshot snapshot = store.snapshot();
+        long since = ToggleDates.parse("2025-06-01 00:00:00");
+        assertEquals(Arrays.asList("3", "2", "1"), ids(snapshot.getCreatedSince(since, 0, 10)));
+        assertEquals(3, snapshot.countCreatedSince(since));
+        assertEquals(4, snapshot.countModifiedSince(Long.MIN_VALUE + 1));
+
+        store.upsert(item("4", "2025-01-01 00:00:00", "2025-06-30 11:00:00"));
+        assertEquals(Arrays.asList("4", "1"), ids(store.getRecent(2, 0, 10)));
+    }
+
+    private static List<String> ids(List<FeatureToggleItem> items) {
+        List<String> ids = new ArrayList<>();
+        for (FeatureToggleItem item : items) {
+            ids.add(item.get_id());
+        }
+        return ids;
+    }
+
+    private static FeatureToggleItem item(String id, String created, String updated) {
+        return toggle(id, "feature_" + id).timestamps(created, updated).build();
+    }
+}
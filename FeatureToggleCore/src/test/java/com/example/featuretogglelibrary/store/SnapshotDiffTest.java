@@ -0,0 +1,168 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.interfaces.FeatureChangeListener;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.utils.ToggleDates;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.featuretogglelibrary.ToggleBuilder.toggle;
+import static org.junit.Assert.*;
+
+/**
+ * Tests which differences between two snapshots are reported to change listeners, and how.
+ */
+public class SnapshotDiffTest {
+
+    private static final long NOW = ToggleDates.parse("2025-06-01 12:00:00");
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final String UPDATED = "2025-05-01 00:00:00";
+
+    private final AtomicLong clock = new AtomicLong(NOW);
+
+    @Test
+    public void unchangedUpdatedAt_skipsTheFieldComparison() {
+        ToggleSnapshot previous = snapshot(
+                item("1", "banner", null, UPDATED),
+                item("2", "banner", null, UPDATED),
+                item("3", "banner", null, null),
+                item("4", "banner", null, null),
+                item("5", "banner", null, null));
+        ToggleSnapshot current = snapshot(
+                item("1", "new_banner", null, UPDATED),
+                item("2", "new_banner", null, "2025-05-02 00:00:00"),
+                item("3", "new_banner", null, null),
+                item("4", "banner", date(-HOUR), null),
+                item("5", "new_banner", date(-HOUR), null));
+
+        assertEquals(Arrays.asList(
+                "changed 2 INFO active",
+                "changed 3 INFO active",
+                "changed 4 DATES active",
+                "changed 5 DATES INFO active"), diff(previous, NOW, current, NOW));
+    }
+
+    @Test
+    public void passingTime_changesTheActiveStateWithoutAnUpdate() {
+        ToggleSnapshot snapshot = snapshot(
+                item("1", "starts", date(HOUR), UPDATED),
+                toggle("2", "ends").dates(null, date(2 * HOUR)).timestamps(null, UPDATED).build(),
+                item("3", "always", null, UPDATED));
+
+        assertEquals(Collections.singletonList("changed 1 ACTIVE_STATE active"),
+                diff(snapshot, NOW, snapshot, NOW + HOUR));
+        assertEquals(Arrays.asList("changed 1 ACTIVE_STATE active", "changed 2 ACTIVE_STATE inactive"),
+                diff(snapshot, NOW, snapshot, NOW + 2 * HOUR));
+        assertEquals(Collections.emptyList(), diff(snapshot, NOW + 2 * HOUR, snapshot, NOW + 3 * HOUR));
+
+        // A change of dates that also starts the toggle reports both
+        ToggleSnapshot moved = snapshot(item("1", "starts", date(-HOUR), "2025-05-02 00:00:00"));
+        assertEquals(Collections.singletonList("changed 1 ACTIVE_STATE DATES active"),
+                diff(snapshot(item("1", "starts", date(HOUR), UPDATED)), NOW, moved, NOW));
+    }
+
+    @Test
+    public void missingToggles_areReportedRemoved_andAllAreAddedWithoutAPreviousSnapshot() {
+        ToggleSnapshot previous = snapshot(
+                item("1", "banner", null, UPDATED),
+                item("2", "dark_mode", null, UPDATED),
+                item("3", "summer_sale", date(HOUR), UPDATED));
+        ToggleSnapshot current = snapshot(
+                item("2", "dark_mode", null, UPDATED),
+                item("4", "winter_sale", date(HOUR), UPDATED));
+
+        assertEquals(Arrays.asList("added 4 inactive", "removed 1", "removed 3"),
+                diff(previous, NOW, current, NOW));
+        assertEquals(Arrays.asList("added 2 active", "added 4 inactive"), diff(null, 0, current, NOW));
+        assertEquals(Arrays.asList("removed 2", "removed 4"), diff(current, NOW, snapshot(), NOW));
+    }
+
+    @Test
+    public void addedListener_isBroughtUpToWhatTheOthersWereTold() {
+        FeatureToggleStore store = new FeatureToggleStore(clock::get, FeatureToggleStore.DEFAULT_EXPIRING_SOON_WINDOW_MILLIS);
+        store.replaceAll(Arrays.asList(item("1", "summer_sale", date(HOUR), UPDATED)));
+        Recorder first = new Recorder();
+        store.addChangeListener(first);
+        assertEquals(Collections.singletonList("added 1 inactive"), first.take());
+
+        // The toggle starts, but no change has been reported since
+        clock.set(NOW + HOUR);
+        Recorder second = new Recorder();
+        store.addChangeListener(second);
+        assertEquals(Collections.singletonList("added 1 inactive"), second.take());
+
+        store.upsert(item("2", "dark_mode", null, UPDATED));
+        List<String> expected = Arrays.asList("changed 1 ACTIVE_STATE active", "added 2 active");
+        assertEquals(expected, first.take());
+        assertEquals(expected, second.take());
+
+        store.removeChangeListener(first);
+        store.remove("1");
+        assertEquals(Collections.emptyList(), first.take());
+        assertEquals(Collections.singletonList("removed 1"), second.take());
+    }
+
+    private ToggleSnapshot snapshot(FeatureToggleItem... items) {
+        FeatureToggleStore store = new FeatureToggleStore(clock::get, FeatureToggleStore.DEFAULT_EXPIRING_SOON_WINDOW_MILLIS);
+        store.replaceAll(Arrays.asList(items));
+        return store.snapshot();
+    }
+
+    private static List<String> diff(ToggleSnapshot previous, long previousAt, ToggleSnapshot current, long now) {
+        Recorder recorder = new Recorder();
+        SnapshotDiff.compute(previous, previousAt, current, now, Collections.singletonList(recorder));
+        return recorder.take();
+    }
+
+    private static FeatureToggleItem item(String id, String name, String beginning, String updated) {
+        return toggle(id, name).dates(beginning, null).timestamps(null, updated).build();
+    }
+
+    private static String date(long offset) {
+        return ToggleDates.format(NOW + offset);
+    }
+
+    private static class Recorder implements FeatureChangeListener {
+
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onFeatureAdded(FeatureToggleItem item, boolean active) {
+            events.add("added " + item.get_id() + (active ? " active" : " inactive"));
+        }
+
+        @Override
+        public void onFeatureChanged(FeatureToggleItem previous, FeatureToggleItem current, int changes, boolean active) {
+            assertEquals(previous.get_id(), current.get_id());
+            StringBuilder event = new StringBuilder("changed ").append(current.get_id());
+            if ((changes & ACTIVE_STATE) != 0) {
+                event.append(" ACTIVE_STATE");
+            }
+            if ((changes & DATES) != 0) {
+                event.append(" DATES");
+            }
+            if ((changes & INFO) != 0) {
+                event.append(" INFO");
+            }
+            events.add(event.append(active ? " active" : " inactive").toString());
+        }
+
+        @Override
+        public void onFeatureRemoved(FeatureToggleItem item) {
+            events.add("removed " + item.get_id());
+        }
+
+        List<String> take() {
+            List<String> taken = new ArrayList<>(events);
+            events.clear();
+            return taken;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.interfaces.SnapshotSubscriber;
+import com.example.featuretogglelibrary.interfaces.SnapshotSubscription;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.featuretogglelibrary.ToggleBuilder.toggle;
+import static org.junit.Assert.*;
+
+/**
+ * Tests backpressure, conflation, cancellation and errors of the snapshot publisher.
+ */
+public class SnapshotPublisherTest {
+
+    // Runs deliveries on the calling thread, so every assertion sees them done
+    private static final Executor DIRECT = Runnable::run;
+
+    @Test
+    public void deliversOnlyWhatIsRequested_andConflatesTheRest() {
+        FeatureToggleStore store = new FeatureToggleStore();
+        Recorder recorder = new Recorder();
+        new SnapshotPublisher(store, DIRECT).subscribe(recorder);
+
+        assertNull(recorder.values.poll());
+        recorder.subscription.request(1);
+        assertEquals(Long.valueOf(0), recorder.values.poll());
+
+        store.upsert(toggle("1", "a").build());
+        store.upsert(toggle("2", "b").build());
+        store.upsert(toggle("3", "c").build());
+        assertNull(recorder.values.poll());
+
+        recorder.subscription.request(2);
+        assertEquals(Long.valueOf(3), recorder.values.poll());
+        assertNull(recorder.values.poll());
+        store.remove("1");
+        assertEquals(Long.valueOf(4), recorder.values.poll());
+        store.remove("2");
+        assertNull(recorder.values.poll());
+    }
+
+    @Test
+    public void cancel_stopsDeliveries_andNonPositiveRequestsFail() {
+        FeatureToggleStore store = new FeatureToggleStore();
+        SnapshotPublisher publisher = new SnapshotPublisher(store, DIRECT);
+        Recorder cancelled = new Recorder();
+        Recorder failed = new Recorder();
+        publisher.subscribe(cancelled);
+        publisher.subscribe(failed);
+        cancelled.subscription.request(Long.MAX_VALUE);
+        failed.subscription.request(Long.MAX_VALUE);
+        assertEquals(2, publisher.subscriberCount());
+
+        cancelled.subscription.cancel();
+        failed.subscription.request(0);
+        assertEquals(0, publisher.subscriberCount());
+        assertTrue(failed.error instanceof IllegalArgumentException);
+
+        store.upsert(toggle("1", "a").build());
+        assertEquals(Long.valueOf(0), cancelled.values.poll());
+        assertNull(cancelled.values.poll());
+        assertEquals(Long.valueOf(0), failed.values.poll());
+        assertNull(failed.values.poll());
+    }
+
+    @Test(timeout = 10_000)
+    public void slowSubscriber_doesNotDelayTheOthers() throws Exception {
+        FeatureToggleStore slowStore = new FeatureToggleStore();
+        FeatureToggleStore store = new FeatureToggleStore();
+        CountDownLatch release = new CountDownLatch(1);
+        slowStore.getPublisher().subscribe(new SnapshotSubscriber<ToggleSnapshot>() {
+            @Override
+            public void onSubscribe(SnapshotSubscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ToggleSnapshot value) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        Recorder recorder = new Recorder();
+        store.getPublisher().subscribe(recorder);
+        recorder.subscription.request(Long.MAX_VALUE);
+
+        store.upsert(toggle("1", "a").build());
+        Long version;
+        do {
+            version = recorder.values.poll(5, TimeUnit.SECONDS);
+        } while (version != null && version < 1);
+        release.countDown();
+        assertEquals(Long.valueOf(1), version);
+    }
+
+    private static class Recorder implements SnapshotSubscriber<ToggleSnapshot> {
+
+        final LinkedBlockingQueue<Long> values = new LinkedBlockingQueue<>();
+        volatile SnapshotSubscription subscription;
+        volatile Throwable error;
+
+        @Override
+        public void onSubscribe(SnapshotSubscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(ToggleSnapshot value) {
+            values.add(value.getVersion());
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+    }
+}
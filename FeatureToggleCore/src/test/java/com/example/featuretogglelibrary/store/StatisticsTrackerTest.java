@@ -0,0 +1,119 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.model.FeaturesStatistics;
+import com.example.featuretogglelibrary.utils.ToggleDates;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.featuretogglelibrary.ToggleBuilder.item;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the incremental statistics of a store as a fake clock moves the toggles across their boundaries.
+ */
+public class StatisticsTrackerTest {
+
+    private static final long NOW = ToggleDates.parse("2025-06-01 12:00:00");
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private final AtomicLong clock = new AtomicLong(NOW);
+    private FeatureToggleStore store;
+
+    @Before
+    public void setUp() {
+        store = new FeatureToggleStore(clock::get, 7 * DAY);
+    }
+
+    @Test
+    public void toggle_movesFromScheduledToExpiredAsTimePasses() {
+        store.replaceAll(Arrays.asList(
+                item("1", "summer_sale", date(10 * DAY), date(30 * DAY)),
+                item("2", "dark_mode", null, null)));
+        assertCounts(2, 1, 1, 0, 0);
+
+        clock.set(NOW + 10 * DAY - 1);
+        assertCounts(2, 1, 1, 0, 0);
+        clock.set(NOW + 10 * DAY);
+        assertCounts(2, 2, 0, 0, 0);
+
+        clock.set(NOW + 23 * DAY - 1);
+        assertCounts(2, 2, 0, 0, 0);
+        clock.set(NOW + 23 * DAY);
+        assertCounts(2, 2, 0, 0, 1);
+
+        clock.set(NOW + 30 * DAY - 1);
+        assertCounts(2, 2, 0, 0, 1);
+        clock.set(NOW + 30 * DAY);
+        assertCounts(2, 1, 0, 1, 0);
+
+        clock.set(NOW + 3650 * DAY);
+        assertCounts(2, 1, 0, 1, 0);
+    }
+
+    @Test
+    public void addedToggle_bringsTheNextReclassificationForward() {
+        store.replaceAll(Arrays.asList(item("1", "summer_sale", date(10 * DAY), null)));
+        assertCounts(1, 0, 1, 0, 0);
+
+        // Expires soon from tomorrow on, well before the scheduled toggle starts
+        store.upsert(item("2", "flash_sale", null, date(8 * DAY)));
+        assertCounts(2, 1, 1, 0, 0);
+
+        clock.set(NOW + DAY);
+        assertCounts(2, 1, 1, 0, 1);
+        clock.set(NOW + 8 * DAY);
+        assertCounts(2, 0, 1, 1, 0);
+        clock.set(NOW + 10 * DAY);
+        assertCounts(2, 1, 0, 1, 0);
+    }
+
+    @Test
+    public void removeAndUpdate_adjustTheCounts() {
+        store.replaceAll(Arrays.asList(
+                item("1", "summer_sale", date(DAY), null),
+                item("2", "flash_sale", null, date(2 * DAY)),
+                item("3", "old_banner", null, date(-DAY)),
+                item("4", "dark_mode", null, null)));
+        assertCounts(4, 2, 1, 1, 1);
+
+        store.remove("2");
+        assertCounts(3, 1, 1, 1, 0);
+        store.remove("2");
+        assertCounts(3, 1, 1, 1, 0);
+
+        store.update("1", item -> item.setExpiration_date(ToggleDates.format(NOW - 2 * DAY)));
+        assertCounts(3, 1, 1, 1, 0);
+        store.update("1", item -> item.setBeginning_date(null));
+        assertCounts(3, 1, 0, 2, 0);
+        store.update("3", item -> item.setExpiration_date(date(3 * DAY)));
+        assertCounts(3, 2, 0, 1, 1);
+
+        // The removed toggle's transition is still pending, passing it must not change the counts
+        clock.set(NOW + 2 * DAY);
+        assertCounts(3, 2, 0, 1, 1);
+        clock.set(NOW + 3 * DAY);
+        assertCounts(3, 1, 0, 2, 0);
+
+        store.clear();
+        assertCounts(0, 0, 0, 0, 0);
+    }
+
+    private void assertCounts(int total, int active, int scheduled, int expired, int expiringSoon) {
+        FeaturesStatistics statistics = store.getStatistics();
+        String at = "at " + ToggleDates.format(clock.get());
+        assertEquals(at, total, statistics.getTotal_features());
+        assertEquals(at, active, statistics.getActive_features());
+        assertEquals(at, scheduled, statistics.getScheduled_features());
+        assertEquals(at, expired, statistics.getExpired_features());
+        assertEquals(at, expiringSoon, statistics.getExpiring_soon_features());
+    }
+
+    private static String date(long offset) {
+        return ToggleDates.format(NOW + offset);
+    }
+}
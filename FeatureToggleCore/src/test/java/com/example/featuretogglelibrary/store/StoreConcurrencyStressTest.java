@@ -0,0 +1,255 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.StressHarness;
+import com.example.featuretogglelibrary.interfaces.FeatureChangeListener;
+import com.example.featuretogglelibrary.interfaces.SnapshotSubscriber;
+import com.example.featuretogglelibrary.interfaces.SnapshotSubscription;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.model.FeaturesStatistics;
+import com.example.featuretogglelibrary.model.PendingMutation;
+import com.example.featuretogglelibrary.utils.ToggleDates;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.featuretogglelibrary.ToggleBuilder.PACKAGE;
+import static com.example.featuretogglelibrary.ToggleBuilder.toggle;
+import static org.junit.Assert.*;
+
+/**
+ * Stress tests for a store shared by threads that read, replace and mutate its toggles at the same time,
+ * checking that no reader sees a torn snapshot, no update is lost and observers see every change in order.
+ */
+public class StoreConcurrencyStressTest {
+
+    private static final long NOW = ToggleDates.parse("2025-06-01 12:00:00");
+
+    @Test
+    public void snapshots_areNeverTorn() throws Exception {
+        int size = 64;
+        int generations = StressHarness.iterations(2_000);
+        FeatureToggleStore store = new FeatureToggleStore(() -> NOW, FeatureToggleStore.DEFAULT_EXPIRING_SOON_WINDOW_MILLIS);
+        store.replaceAll(generation(size, 0));
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger reads = new AtomicInteger();
+
+        StressHarness.run(StressHarness.DEFAULT_TIMEOUT_MILLIS, index -> {
+            try {
+                for (int generation = 1; generation <= generations; generation++) {
+                    // Every write changes all toggles at once, as a refresh or a batch of updates
+                    if (generation % 2 == 0) {
+                        store.replaceAll(generation(size, generation));
+                    } else {
+                        store.upsertAll(generation(size, generation));
+                    }
+                }
+            } finally {
+                writing.set(false);
+            }
+        }, index -> readUntilDone(store, size, writing, reads),
+                index -> readUntilDone(store, size, writing, reads),
+                index -> readUntilDone(store, size, writing, reads));
+
+        assertEquals(String.valueOf(generations), store.snapshot().getItems().get(0).getDescription());
+        assertTrue(reads.get() > 0);
+    }
+
+    @Test
+    public void concurrentMutations_loseNoUpdates() throws Exception {
+        int threads = 4;
+        int perThread = StressHarness.iterations(1_500);
+        FeatureToggleStore store = new FeatureToggleStore(() -> NOW, FeatureToggleStore.DEFAULT_EXPIRING_SOON_WINDOW_MILLIS);
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger removed = new AtomicInteger();
+        store.addChangeListener(new FeatureChangeListener() {
+            @Override
+            public void onFeatureAdded(FeatureToggleItem item, boolean active) {
+                added.incrementAndGet();
+                // Listeners may read the store while it is being changed by other threads
+                store.getStatistics();
+            }
+
+            @Override
+            public void onFeatureRemoved(FeatureToggleItem item) {
+                removed.incrementAndGet();
+                store.snapshot().size();
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Long> versions = new ArrayList<>();
+            AtomicLong delivered = new AtomicLong(-1);
+            SnapshotPublisher publisher = new SnapshotPublisher(store, executor);
+            publisher.subscribe(new SnapshotSubscriber<ToggleSnapshot>() {
+                @Override
+                public void onSubscribe(SnapshotSubscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(ToggleSnapshot snapshot) {
+                    versions.add(snapshot.getVersion());
+                    delivered.set(snapshot.getVersion());
+                }
+            });
+
+            StressHarness.run(threads, index -> {
+                for (int i = 0; i < perThread; i++) {
+                    String id = index + "-" + i;
+                    store.upsert(item(id, "feature_" + id, i % 3 == 0 ? "2025-07-01 00:00:00" : null, null, "0"));
+                    if (i % 4 == 3) {
+                        store.remove(index + "-" + (i - 1));
+                    }
+                    // Toggles shared by all threads, changed and removed by whichever gets there first
+                    String shared = "shared-" + (i % 16);
+                    if (i % 2 == 0) {
+                        store.upsert(item(shared, "feature_" + shared, null, null, String.valueOf(index)));
+                    } else {
+                        store.remove(shared);
+                    }
+                }
+            });
+            // Leave every shared toggle in a known state
+            for (int i = 0; i < 16; i++) {
+                store.remove("shared-" + i);
+            }
+
+            int expected = threads * (perThread - perThread / 4);
+            assertEquals(expected, store.size());
+            assertEquals(expected, store.snapshot().size());
+            assertEquals(expected, added.get() - removed.get());
+
+            FeaturesStatistics statistics = store.getStatistics();
+            assertEquals(expected, statistics.getTotal_features());
+            int active = 0;
+            for (FeatureToggleItem item : store.getAll()) {
+                active += store.snapshot().isActiveById(item.get_id(), NOW) ? 1 : 0;
+            }
+            assertEquals(active, statistics.getActive_features());
+
+            long last = store.snapshot().getVersion();
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (delivered.get() != last && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(last, delivered.get());
+            // Deliveries are serialized, so the list is complete once the last version arrived
+            for (int i = 1; i < versions.size(); i++) {
+                assertTrue("Versions out of order: " + versions.get(i - 1) + ", " + versions.get(i),
+                        versions.get(i) > versions.get(i - 1));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void batchedUpdates_areSeenWholeOrNotAtAll() throws Exception {
+        Map<String, Integer> outcomes = StressHarness.outcomes(20_000,
+                () -> {
+                    FeatureToggleStore store = new FeatureToggleStore();
+                    store.replaceAll(Arrays.asList(item("a", "a", null, null, "0"), item("b", "b", null, null, "0")));
+                    return new Object[]{store, null};
+                },
+                state -> (String) state[1],
+                state -> ((FeatureToggleStore) state[0]).upsertAll(Arrays.asList(
+                        item("a", "a", null, null, "1"), item("b", "b", null, null, "1"))),
+                state -> {
+                    ToggleSnapshot snapshot = ((FeatureToggleStore) state[0]).snapshot();
+                    state[1] = snapshot.get("a").getDescription() + "," + snapshot.get("b").getDescription();
+                });
+
+        assertEquals("Torn snapshots in " + outcomes, new HashSet<>(), forbidden(outcomes, "0,0", "1,1"));
+    }
+
+    @Test
+    public void racingUpsertAndRemove_keepStatisticsInStep() throws Exception {
+        Map<String, Integer> outcomes = StressHarness.outcomes(20_000,
+                () -> {
+                    FeatureToggleStore store = new FeatureToggleStore();
+                    store.upsert(item("1", "christmas_theme", null, null, "0"));
+                    return store;
+                },
+                store -> {
+                    FeatureToggleItem item = store.get("1");
+                    return (item == null ? "removed" : item.getName()) + "," + store.size() + ","
+                            + store.snapshot().size() + "," + store.getStatistics().getTotal_features();
+                },
+                store -> store.upsert(item("1", "winter_theme", null, null, "1")),
+                store -> store.remove("1"));
+
+        // Either order is fine, but the store, its snapshot and its statistics must agree
+        assertEquals("Inconsistent outcomes in " + outcomes, new HashSet<>(),
+                forbidden(outcomes, "winter_theme,1,1,1", "removed,0,0,0"));
+    }
+
+    @Test
+    public void writeThroughOfDifferentFields_losesNeither() throws Exception {
+        FeatureToggleItem info = toggle(null, null).description("1").build();
+        FeatureToggleItem dates = toggle(null, null).dates(null, "2030-01-01 00:00:00").build();
+        Map<String, Integer> outcomes = StressHarness.outcomes(20_000,
+                () -> {
+                    FeatureStoreRegistry registry = new FeatureStoreRegistry();
+                    registry.getStore(PACKAGE).upsert(item("1", "christmas_theme", null, null, "0"));
+                    return registry;
+                },
+                registry -> {
+                    FeatureToggleItem item = registry.getStore(PACKAGE).get("1");
+                    return item.getDescription() + "," + item.getExpiration_date();
+                },
+                registry -> new StoreWriteThrough(registry).onMutationSucceeded(
+                        new PendingMutation(PendingMutation.Type.UPDATE_INFO, PACKAGE, "1", info), null),
+                registry -> new StoreWriteThrough(registry).onMutationSucceeded(
+                        new PendingMutation(PendingMutation.Type.UPDATE_DATES, PACKAGE, "1", dates), null));
+
+        assertEquals("Lost updates in " + outcomes, new HashSet<>(), forbidden(outcomes, "1,2030-01-01 00:00:00"));
+    }
+
+    private static void readUntilDone(FeatureToggleStore store, int size, AtomicBoolean writing, AtomicInteger reads) {
+        long lastVersion = -1;
+        do {
+            ToggleSnapshot snapshot = store.snapshot();
+            assertTrue("Version went back from " + lastVersion, snapshot.getVersion() >= lastVersion);
+            lastVersion = snapshot.getVersion();
+            List<FeatureToggleItem> items = snapshot.getItems();
+            assertEquals(size, items.size());
+            String generation = items.get(0).getDescription();
+            for (FeatureToggleItem item : items) {
+                assertEquals("Torn snapshot at version " + lastVersion, generation, item.getDescription());
+            }
+            assertEquals(size, store.getStatistics().getTotal_features());
+            reads.incrementAndGet();
+        } while (writing.get());
+    }
+
+    private static Set<String> forbidden(Map<String, Integer> outcomes, String... allowed) {
+        Set<String> unexpected = new HashSet<>(outcomes.keySet());
+        unexpected.removeAll(Arrays.asList(allowed));
+        return unexpected;
+    }
+
+    private static List<FeatureToggleItem> generation(int size, int generation) {
+        List<FeatureToggleItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(item(String.valueOf(i), "feature_" + i, null, null, String.valueOf(generation)));
+        }
+        return items;
+    }
+
+    private static FeatureToggleItem item(String id, String name, String beginning, String expiration, String description) {
+        return toggle(id, name).description(description).packageName(PACKAGE).dates(beginning, expiration).build();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.FeatureToggleClient;
+import com.example.featuretogglelibrary.api.FeatureController;
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static com.example.featuretogglelibrary.ToggleBuilder.PACKAGE;
+import static com.example.featuretogglelibrary.ToggleBuilder.item;
+import static org.junit.Assert.*;
+
+/**
+ * Tests that admin operations reach the local store without a refetch, using a MockWebServer as the backend.
+ */
+public class StoreWriteThroughTest {
+
+    private MockWebServer server;
+    private FeatureToggleClient client;
+    private FeatureController controller;
+    private FeatureToggleStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        client = new FeatureToggleClient(new FeatureController(server.url("/").toString()), new FeatureStoreRegistry());
+        controller = client.getController();
+        store = client.getStore(PACKAGE);
+        store.replaceAll(Arrays.asList(item("1", "christmas_theme", "2025-12-01 00:00:00", "2025-12-31 23:59:59")));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void acceptedOperations_areAppliedToTheStore() throws Exception {
+        server.enqueue(json("{\"message\":\"Feature created\",\"feature\":{\"_id\":\"2\",\"name\":\"snow\","
+                + "\"beginning_date\":\"2025-12-01 00:00:00\",\"expiration_date\":\"2026-01-31 23:59:59\"}}"));
+        LinkedBlockingQueue<String> results = new LinkedBlockingQueue<>();
+        controller.createNewFeatureToggle(item(null, "snow", "2025-12-01 00:00:00", "2026-01-31 23:59:59"), callback(results));
+        assertEquals("success", results.poll(5, TimeUnit.SECONDS));
+        assertEquals("snow", store.get("2").getName());
+
+        // A response with only a message still applies the update that was sent
+        server.enqueue(json("{\"message\":\"Feature dates updated\"}"));
+        FeatureToggleItem dates = item(null, null, null, "2026-01-06 23:59:59");
+        controller.updateFeatureDates(PACKAGE, "1", dates, callback(results));
+        assertEquals("success", results.poll(5, TimeUnit.SECONDS));
+        assertEquals("2026-01-06 23:59:59", store.get("1").getExpiration_date());
+        assertEquals("2025-12-01 00:00:00", store.get("1").getBeginning_date());
+
+        // A response echoing the toggle as it was before does not undo the earlier update
+        server.enqueue(json("{\"message\":\"Feature info updated\",\"feature\":{\"_id\":\"1\",\"name\":\"christmas_theme\","
+                + "\"beginning_date\":\"2025-12-01 00:00:00\",\"expiration_date\":\"2025-12-31 23:59:59\"}}"));
+        controller.updateFeatureInfo(PACKAGE, "1", item(null, "winter_theme", null, null), callback(results));
+        assertEquals("success", results.poll(5, TimeUnit.SECONDS));
+        assertEquals("winter_theme", store.get("1").getName());
+        assertEquals("2026-01-06 23:59:59", store.get("1").getExpiration_date());
+
+        server.enqueue(json("{\"message\":\"Feature deleted\"}"));
+        controller.deleteFeatureToggle(PACKAGE, "2", callback(results));
+        assertEquals("success", results.poll(5, TimeUnit.SECONDS));
+        assertNull(store.get("2"));
+        assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    public void optimisticOperations_areRolledBackOnError() throws Exception {
+        client.setOptimisticUpdates(true);
+        server.enqueue(json("{\"message\":\"Feature deleted\"}").setBodyDelay(300, TimeUnit.MILLISECONDS));
+        LinkedBlockingQueue<String> results = new LinkedBlockingQueue<>();
+        controller.deleteFeatureToggle(PACKAGE, "1", callback(results));
+        assertNull(store.get("1"));
+        assertEquals("success", results.poll(5, TimeUnit.SECONDS));
+        assertNull(store.get("1"));
+
+        store.replaceAll(Arrays.asList(item("1", "christmas_theme", "2025-12-01 00:00:00", "2025-12-31 23:59:59")));
+        server.enqueue(new MockResponse().setResponseCode(500).setBody("{\"error\":\"down\"}")
+                .setBodyDelay(300, TimeUnit.MILLISECONDS));
+        FeatureToggleItem info = item(null, "winter_theme", null, null);
+        controller.updateFeatureInfo(PACKAGE, "1", info, callback(results));
+        assertEquals("winter_theme", store.get("1").getName());
+        assertTrue(results.poll(5, TimeUnit.SECONDS).startsWith("error"));
+        assertEquals("christmas_theme", store.get("1").getName());
+    }
+
+    @Test
+    public void rollback_keepsWhatARefreshBroughtInMeanwhile() throws Exception {
+        client.setOptimisticUpdates(true);
+        LinkedBlockingQueue<String> results = new LinkedBlockingQueue<>();
+        server.enqueue(new MockResponse().setResponseCode(500).setBody("{\"error\":\"down\"}")
+                .setBodyDelay(300, TimeUnit.MILLISECONDS));
+        controller.updateFeatureInfo(PACKAGE, "1", item(null, "winter_theme", null, null), callback(results));
+        assertEquals("winter_theme", store.get("1").getName());
+        // Lands between the optimistic change and the failure
+        store.replaceAll(Arrays.asList(item("1", "christmas_theme", "2025-12-01 00:00:00", "2026-01-31 23:59:59")));
+        assertTrue(results.poll(5, TimeUnit.SECONDS).startsWith("error"));
+        assertEquals("christmas_theme", store.get("1").getName());
+        assertEquals("2026-01-31 23:59:59", store.get("1").getExpiration_date());
+
+        // Without a refresh, only the fields the update set are reverted
+        server.enqueue(new MockResponse().setResponseCode(500).setBody("{\"error\":\"down\"}")
+                .setBodyDelay(300, TimeUnit.MILLISECONDS));
+        controller.updateFeatureInfo(PACKAGE, "1", item(null, "winter_theme", null, null), callback(results));
+        store.update("1", updated -> updated.setExpiration_date("2026-02-28 23:59:59"));
+        assertTrue(results.poll(5, TimeUnit.SECONDS).startsWith("error"));
+        assertEquals("christmas_theme", store.get("1").getName());
+        assertEquals("2026-02-28 23:59:59", store.get("1").getExpiration_date());
+
+        server.enqueue(new MockResponse().setResponseCode(500).setBody("{\"error\":\"down\"}")
+                .setBodyDelay(300, TimeUnit.MILLISECONDS));
+        controller.deleteAllFeatureToggles(PACKAGE, callback(results));
+        assertEquals(0, store.size());
+        store.replaceAll(Arrays.asList(item("3", "snow", null, null)));
+        assertTrue(results.poll(5, TimeUnit.SECONDS).startsWith("error"));
+        assertNull(store.get("1"));
+        assertEquals("snow", store.get("3").getName());
+    }
+
+    private static <T> GenericCallBack<T> callback(LinkedBlockingQueue<String> results) {
+        return new GenericCallBack<T>() {
+            @Override
+            public void success(T data) {
+                results.add("success");
+            }
+
+            @Override
+            public void error(String error) {
+                results.add("error " + error);
+            }
+        };
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+}
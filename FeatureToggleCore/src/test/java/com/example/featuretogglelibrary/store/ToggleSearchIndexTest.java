@@ -0,0 +1,69 @@
+package com.example.featuretogglelibrary.store;
+
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.featuretogglelibrary.ToggleBuilder.PACKAGE;
+import static com.example.featuretogglelibrary.ToggleBuilder.toggle;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the ranking of search results and the maintenance of the index as the store changes.
+ */
+public class ToggleSearchIndexTest {
+
+    private FeatureToggleStore store;
+
+    @Before
+    public void setUp() {
+        store = new FeatureToggleStore();
+        store.replaceAll(Arrays.asList(
+                item("1", "dark_mode", "Dark theme for the whole app"),
+                item("2", "darkModeBanner", "Announces the dark mode"),
+                item("3", "checkout_v2", "New checkout flow with a dark button"),
+                item("4", "christmas_theme", "Snow and lights")));
+    }
+
+    @Test
+    public void search_ranksNameMatchesBeforeDescriptionMatches() {
+        assertEquals(Arrays.asList("dark_mode", "darkModeBanner", "checkout_v2"), names("dark", 10));
+        assertEquals(Arrays.asList("dark_mode", "darkModeBanner"), names("dark mo", 10));
+        assertEquals(Arrays.asList("dark_mode"), names("dark", 1));
+        assertEquals(Arrays.asList("christmas_theme", "dark_mode"), names("THEME", 10));
+        assertTrue(names("dark snow", 10).isEmpty());
+        assertTrue(names(" _ ", 10).isEmpty());
+    }
+
+    @Test
+    public void search_followsChangesOfTheStore() {
+        assertEquals(4, store.getSearchIndex().size());
+
+        store.upsert(item("4", "winter_theme", "Snow and lights"));
+        store.upsert(item("5", "dark_launch", null));
+        store.remove("1");
+
+        assertTrue(names("christmas", 10).isEmpty());
+        assertEquals(Arrays.asList("winter_theme"), names("wint", 10));
+        assertEquals(Arrays.asList("dark_launch", "darkModeBanner", "checkout_v2"), names("dark", 10));
+        assertEquals(4, store.getSearchIndex().size());
+    }
+
+    private List<String> names(String query, int limit) {
+        List<String> names = new ArrayList<>();
+        for (FeatureToggleItem item : store.getSearchIndex().search(query, limit)) {
+            names.add(item.getName());
+        }
+        return names;
+    }
+
+    private static FeatureToggleItem item(String id, String name, String description) {
+        return toggle(id, name).description(description).packageName(PACKAGE)
+                .dates("2025-01-01 00:00:00", "2030-01-01 00:00:00").build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.featuretogglelibrary.tracing;
+
+import com.example.featuretogglelibrary.FeatureToggleClient;
+import com.example.featuretogglelibrary.api.FeatureController;
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.store.FeatureStoreRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the spans recorded for a refresh, using a MockWebServer as a stand-in for the backend.
+ */
+public class TracingTest {
+
+    private static final String CLIENT_SPAN = "FeatureToggleClient.refresh";
+    private static final String API_SPAN = "FeatureApi GET feature-toggles/{package_name}";
+
+    private MockWebServer server;
+    private FeatureToggleClient client;
+    private InMemorySpanExporter exporter;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        client = new FeatureToggleClient(new FeatureController(server.url("/").toString()), new FeatureStoreRegistry());
+        exporter = new InMemorySpanExporter();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void refresh_recordsNestedSpansForEachLayer() throws Exception {
+        client.setTracer(new Tracer(exporter));
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("[{\"_id\":\"1\",\"name\":\"christmas_theme\"}]"));
+
+        client.refresh("com.example.app", ignoringCallback());
+        Span root = awaitSpan(CLIENT_SPAN);
+
+        Span api = single(API_SPAN);
+        Span http = single("HTTP GET");
+        assertEquals(0, root.getParentSpanId());
+        assertEquals(root.getSpanId(), api.getParentSpanId());
+        assertEquals(api.getSpanId(), http.getParentSpanId());
+        assertEquals(root.getTraceId(), http.getTraceId());
+        assertEquals(200, http.getAttributes().get("http.status_code"));
+        assertEquals(http.getSpanId(), single("server").getParentSpanId());
+        assertEquals(http.getSpanId(), single("response body").getParentSpanId());
+        assertEquals(api.getSpanId(), single("callback").getParentSpanId());
+        assertTrue(root.getDurationNanos() >= api.getDurationNanos());
+        assertNull(root.getError());
+    }
+
+    @Test
+    public void refresh_marksSpansAsFailedOnErrors() throws Exception {
+        client.setTracer(new Tracer(exporter));
+        server.enqueue(new MockResponse().setResponseCode(500).setBody("{\"error\":\"boom\"}"));
+
+        client.refresh("com.example.app", ignoringCallback());
+        Span root = awaitSpan(CLIENT_SPAN);
+
+        assertNotNull(root.getError());
+        assertEquals("HTTP 500", single(API_SPAN).getError());
+    }
+
+    @Test
+    public void noopTracer_recordsNothing() throws Exception {
+        server.enqueue(new MockResponse().setBody("[]"));
+
+        assertSame(Span.NOOP, Tracer.NOOP.startSpan("anything"));
+        client.refresh("com.example.app", ignoringCallback());
+        server.takeRequest(5, TimeUnit.SECONDS);
+
+        assertTrue(exporter.getFinishedSpans().isEmpty());
+    }
+
+    private Span awaitSpan(String name) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            List<Span> spans = exporter.getFinishedSpans(name);
+            if (!spans.isEmpty()) {
+                return spans.get(0);
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Span not finished: " + name);
+    }
+
+    private Span single(String name) {
+        List<Span> spans = exporter.getFinishedSpans(name);
+        assertEquals("Spans named " + name, 1, spans.size());
+        return spans.get(0);
+    }
+
+    private static GenericCallBack<List<FeatureToggleItem>> ignoringCallback() {
+        return new GenericCallBack<List<FeatureToggleItem>>() {
+            @Override
+            public void success(List<FeatureToggleItem> data) {
+            }
+
+            @Override
+            public void error(String error) {
+            }
+        };
+    }
+}
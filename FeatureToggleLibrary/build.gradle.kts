@@ -67,13 +67,15 @@ dependencies {
 
     implementation(libs.appcompat)
     implementation(libs.material)
+    implementation(libs.startup.runtime)
+    // LifecycleOwner is part of the facade's API
+    api(libs.lifecycle.common)
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 
-    api("com.google.code.gson:gson:2.8.9")
-    implementation("com.squareup.retrofit2:retrofit:2.9.0")
-    implementation("com.squareup.retrofit2:converter-gson:2.9.0")
+    // Controller, models, stores and evaluation live in the pure-Java core module
+    api(project(":FeatureToggleCore"))
 
 
 }
\ No newline at end of file
@@ -1,32 +1,71 @@
 package com.example.featuretogglelibrary;
 
+import com.example.featuretogglelibrary.api.CircuitBreaker;
 import com.example.featuretogglelibrary.api.FeatureController;
+import com.example.featuretogglelibrary.api.FeaturePageIterator;
+import com.example.featuretogglelibrary.api.MutationQueue;
+import com.example.featuretogglelibrary.api.QueryCache;
+import com.example.featuretogglelibrary.api.RequestHandle;
+import com.example.featuretogglelibrary.api.RequestScope;
+import com.example.featuretogglelibrary.model.ActivitySeries;
 import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.interfaces.FeatureChangeListener;
 import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.interfaces.SnapshotSubscriber;
 import com.example.featuretogglelibrary.model.FeaturesStatistics;
+import com.example.featuretogglelibrary.model.StartupMetrics;
+import com.example.featuretogglelibrary.store.FeatureFlags;
+import com.example.featuretogglelibrary.store.FeatureStoreRegistry;
+import com.example.featuretogglelibrary.store.FeatureToggleStore;
+import com.example.featuretogglelibrary.store.ToggleSnapshot;
+import com.example.featuretogglelibrary.tracing.Scope;
+import com.example.featuretogglelibrary.tracing.Span;
+import com.example.featuretogglelibrary.tracing.Tracer;
+import com.example.featuretogglelibrary.utils.ToggleDates;
 
 import android.content.Context;
+import android.os.Process;
+import android.os.SystemClock;
 import android.util.Log;
 
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
 
+
+import java.io.File;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 
 /**
  * The FeatureToggle class provides utility methods to interact with feature toggle APIs.
  * It allows applications to manage and fetch feature toggles dynamically.
+ *
+ * It is the Android adapter on top of {@link FeatureToggleClient}: it resolves the package name
+ * from the Context and logs errors, everything else is done by the pure-Java core.
  */
 
 public class FeatureToggle
 {
-    private  static FeatureController featureController=new FeatureController();
+    private static final FeatureToggleClient client = new FeatureToggleClient();
+    private static final FeatureController featureController = client.getController();
+    private static final FeatureStoreRegistry featureStores = client.getFeatureStores();
+    private static final String MUTATION_LOG_FILE = "feature_toggle_mutations.log";
+    private static volatile StartupMetrics startupMetrics;
+    // The request scopes of the contexts bound to their lifecycle, guarded by itself
+    private static final Map<Object, RequestScope> lifecycleScopes = new WeakHashMap<>();
     /**
      * Interface defining a generic callback mechanism for handling asynchronous operations.
      * This interface allows handling both successful results and error responses.
      *
+     * It is also the {@link GenericCallBack} of the core, so it is passed down to the controller as is:
+     * errors are logged once and reported with the controller's message.
+     *
      * @param <T> The type of data expected in the success callback.
      */
-    public interface Callback_Data<T> {
+    public interface Callback_Data<T> extends GenericCallBack<T> {
 
         /**
          * Called when the asynchronous operation completes successfully.
@@ -41,6 +80,17 @@ public class FeatureToggle
          * @param errorMessage A message describing the error.
          */
         void onError(String errorMessage);
+
+        @Override
+        default void success(T data) {
+            onSuccess(data);
+        }
+
+        @Override
+        default void error(String error) {
+            Log.d("FeatureToggle", "Error: " + error);
+            onError(error);
+        }
     }
 
     /**
@@ -48,33 +98,40 @@ public class FeatureToggle
      *
      * @param context  The Android context, used to get the package name.
      * @param callback The callback to handle the list of active feature toggles or errors.
+     * @return The handle of the request, or null if the callback is null.
      */
 
-    public static void getActiveFeatures(Context context, Callback_Data<List<FeatureToggleItem>> callback)
+    public static RequestHandle<List<FeatureToggleItem>> getActiveFeatures(Context context, Callback_Data<List<FeatureToggleItem>> callback)
     {
         if (callback == null) {
-            return;
+            return null;
         }
 
         // Fetch active features using the FeatureController
-        featureController.fetchAllActiveFeatures(
-                context.getPackageName(),
-                new GenericCallBack<List<FeatureToggleItem>>() {
-                    @Override
-                    public void success(List<FeatureToggleItem> data)
-                    {
-                        // Notify the success callback with the data
-                        callback.onSuccess(data);
-                    }
-
-                    @Override
-                    public void error(String error) {
-                        // Notify the error callback with the error message
-                        callback.onError("Failed to fetch active features: " + error);
-                        Log.d("FeatureToggle", "Error: " + error);
-                    }
-                }
-        );
+        Span span = startSpan("getActiveFeatures");
+        Scope scope = span.makeCurrent();
+        try {
+            return track(context, featureController.fetchAllActiveFeatures(
+                    context.getPackageName(),
+                    span.wrap(new GenericCallBack<List<FeatureToggleItem>>() {
+                        @Override
+                        public void success(List<FeatureToggleItem> data)
+                        {
+                            // Keep the local store up to date with the returned toggles
+                            featureStores.getStore(context.getPackageName()).upsertAll(data);
+                            // Notify the success callback with the data
+                            callback.onSuccess(data);
+                        }
+
+                        @Override
+                        public void error(String error) {
+                            callback.error(error);
+                        }
+                    })
+            ));
+        } finally {
+            scope.close();
+        }
     }
 
     /**
@@ -82,26 +139,36 @@ public class FeatureToggle
      *
      * @param context  The Android context, used to retrieve the package name.
      * @param callback The callback to handle the list of all feature toggles or errors.
+     * @return The handle of the request, or null if the callback is null.
+     */
+    public static RequestHandle<List<FeatureToggleItem>> getAllFeatures(Context context,
+            Callback_Data<List<FeatureToggleItem>> callback)
+    {
+        return track(context, getAllFeatures(context.getPackageName(), callback));
+    }
+
+    /**
+     * Fetch all feature toggles of any package, including inactive ones, and refresh its local store.
+     * Each package has its own store, refreshed independently of the others.
+     *
+     * @param packageName The name of the package whose feature toggles are fetched.
+     * @param callback    The callback to handle the list of all feature toggles or errors.
+     * @return The handle of the request, or null if the callback is null. The refresh may be shared with
+     *         other callers, so cancelling it only drops the callback.
      */
-    public static void getAllFeatures(Context context, Callback_Data<List<FeatureToggleItem>> callback)
+    public static RequestHandle<List<FeatureToggleItem>> getAllFeatures(String packageName,
+            Callback_Data<List<FeatureToggleItem>> callback)
     {
         if (callback == null) {
-            return;
+            return null;
+        }
+        Span span = startSpan("getAllFeatures");
+        Scope scope = span.makeCurrent();
+        try {
+            return client.refresh(packageName, span.wrap(callback));
+        } finally {
+            scope.close();
         }
-        featureController.fetchAllFeatureToggles(context.getPackageName(), new GenericCallBack<List<FeatureToggleItem>>()
-        {
-            @Override
-            public void success(List<FeatureToggleItem> data) {
-                callback.onSuccess(data);
-            }
-
-            @Override
-            public void error(String error) {
-                // Notify the error callback with the error message
-                callback.onError("Failed to fetch all features: " + error);
-                Log.d("FeatureToggle", "Error: " + error);
-            }
-        });
     }
 
     /**
@@ -110,33 +177,27 @@ public class FeatureToggle
      * @param context       The Android context, used to retrieve the package name.
      * @param featureToggle The feature toggle object containing the details to be created.
      * @param callback      The callback to handle the result of the operation or errors.
+     * @return The handle of the request, or null if the callback is null.
      */
-    public static void createFeatureToggle(Context context, FeatureToggleItem featureToggle, Callback_Data<String> callback) {
+    public static RequestHandle<String> createFeatureToggle(Context context, FeatureToggleItem featureToggle, Callback_Data<String> callback) {
         if (callback == null) {
-            return;
+            return null;
         }
 
         // Ensure package_name is set in the featureToggle
         featureToggle.setPackage_name(context.getPackageName());
 
         // Create a new feature toggle using the FeatureController
-        featureController.createNewFeatureToggle(
-                featureToggle,
-                new GenericCallBack<String>() {
-                    @Override
-                    public void success(String message) {
-                        // Notify the success callback with the message
-                        callback.onSuccess(message);
-                    }
-
-                    @Override
-                    public void error(String error) {
-                        // Notify the error callback with the error message
-                        callback.onError("Failed to create feature toggle: " + error);
-                        Log.d("FeatureToggle", "Error: " + error);
-                    }
-                }
-        );
+        Span span = startSpan("createFeatureToggle");
+        Scope scope = span.makeCurrent();
+        try {
+            return track(context, featureController.createNewFeatureToggle(
+                    featureToggle,
+                    span.wrap(callback)
+            ));
+        } finally {
+            scope.close();
+        }
     }
 
     /**
@@ -145,31 +206,25 @@ public class FeatureToggle
      * @param context   The Android context, used to get the package name.
      * @param featureId The ID of the feature toggle to delete.
      * @param callback  The callback to handle success or error responses.
+     * @return The handle of the request, or null if the callback is null.
      */
-    public static void deleteFeatureToggle(Context context, String featureId, Callback_Data<String> callback) {
+    public static RequestHandle<String> deleteFeatureToggle(Context context, String featureId, Callback_Data<String> callback) {
         if (callback == null) {
-            return;
+            return null;
         }
 
         // Use the FeatureController to delete the feature toggle
-        featureController.deleteFeatureToggle(
-                context.getPackageName(),
-                featureId,
-                new GenericCallBack<String>() {
-                    @Override
-                    public void success(String message) {
-                        // Notify the success callback with the message
-                        callback.onSuccess(message);
-                    }
-
-                    @Override
-                    public void error(String error) {
-                        // Notify the error callback with the error message
-                        callback.onError("Failed to delete feature toggle: " + error);
-                        Log.d("FeatureToggle", "Error: " + error);
-                    }
-                }
-        );
+        Span span = startSpan("deleteFeatureToggle");
+        Scope scope = span.makeCurrent();
+        try {
+            return track(context, featureController.deleteFeatureToggle(
+                    context.getPackageName(),
+                    featureId,
+                    span.wrap(callback)
+            ));
+        } finally {
+            scope.close();
+        }
     }
 
     /**
@@ -179,33 +234,27 @@ public class FeatureToggle
      * @param featureId  The unique ID of the feature toggle to update.
      * @param updatedData An instance of {@link FeatureToggleItem} containing the updated dates.
      * @param callback   The callback to handle the result of the operation or errors.
+     * @return The handle of the request, or null if the callback is null.
      */
-    public static void updateFeatureDates(Context context, String featureId, FeatureToggleItem updatedData, Callback_Data<String> callback) {
+    public static RequestHandle<String> updateFeatureDates(Context context, String featureId, FeatureToggleItem updatedData, Callback_Data<String> callback) {
         if (callback == null) {
-            return;
+            return null;
         }
 
 
         // Use the FeatureController to update the feature toggle dates
-        featureController.updateFeatureDates(
-                context.getPackageName(),
-                featureId,
-                updatedData,
-                new GenericCallBack<String>() {
-                    @Override
-                    public void success(String message) {
-                        // Notify the success callback with the message
-                        callback.onSuccess(message);
-                    }
-
-                    @Override
-                    public void error(String error) {
-                        // Notify the error callback with the error message
-                        callback.onError("Failed to update feature toggle dates: " + error);
-                        Log.d("FeatureToggle", "Error: " + error);
-                    }
-                }
-        );
+        Span span = startSpan("updateFeatureDates");
+        Scope scope = span.makeCurrent();
+        try {
+            return track(context, featureController.updateFeatureDates(
+                    context.getPackageName(),
+                    featureId,
+                    updatedData,
+                    span.wrap(callback)
+            ));
+        } finally {
+            scope.close();
+        }
 
     }
 
@@ -214,32 +263,25 @@ public class FeatureToggle
      *
      * @param context The Android context, used to get the package name.
      * @param callback The callback to handle the list of recent feature toggles or errors.
+     * @return The handle of the request, or null if the callback is null.
      */
 
-    public static void getRecentFeatureToggles(Context context, Callback_Data<List<FeatureToggleItem>> callback) {
+    public static RequestHandle<List<FeatureToggleItem>> getRecentFeatureToggles(Context context, Callback_Data<List<FeatureToggleItem>> callback) {
         if (callback == null) {
-            return;
+            return null;
         }
 
         // Fetch recent feature toggles using the FeatureController
-        featureController.getRecentFeatureToggles(
-                context.getPackageName(),
-                new GenericCallBack<List<FeatureToggleItem>>()
-                {
-                    @Override
-                    public void success(List<FeatureToggleItem> data) {
-                        // Notify the success callback with the list of recent feature toggles
-                        callback.onSuccess(data);
-                    }
-
-                    @Override
-                    public void error(String error) {
-                        // Notify the error callback with the error message
-                        callback.onError("Failed to fetch recent feature toggles: " + error);
-                        Log.d("FeatureToggle", "Error: " + error);
-                    }
-                }
-        );
+        Span span = startSpan("getRecentFeatureToggles");
+        Scope scope = span.makeCurrent();
+        try {
+            return track(context, featureController.getRecentFeatureToggles(
+                    context.getPackageName(),
+                    span.wrap(callback)
+            ));
+        } finally {
+            scope.close();
+        }
 
 
 
@@ -253,33 +295,27 @@ public class FeatureToggle
      * @param featureId   The ID of the feature toggle to update.
      * @param updatedData The updated information for the feature toggle.
      * @param callback    The callback to handle the success or error responses.
+     * @return The handle of the request, or null if the callback is null.
      */
 
-    public static void updateFeatureInfo(Context context, String featureId, FeatureToggleItem updatedData, Callback_Data<String> callback) {
+    public static RequestHandle<String> updateFeatureInfo(Context context, String featureId, FeatureToggleItem updatedData, Callback_Data<String> callback) {
         if (callback == null) {
-            return;
+            return null;
         }
 
         // Update the feature toggle information using the FeatureController
-        featureController.updateFeatureInfo(
-                context.getPackageName(),
-                featureId,
-                updatedData,
-                new GenericCallBack<String>() {
-                    @Override
-                    public void success(String message) {
-                        // Notify the success callback with the success message
-                        callback.onSuccess(message);
-                    }
-
-                    @Override
-                    public void error(String error) {
-                        // Notify the error callback with the error message
-                        callback.onError("Failed to update feature information: " + error);
-                        Log.d("FeatureToggle", "Error: " + error);
-                    }
-                }
-        );
+        Span span = startSpan("updateFeatureInfo");
+        Scope scope = span.makeCurrent();
+        try {
+            return track(context, featureController.updateFeatureInfo(
+                    context.getPackageName(),
+                    featureId,
+                    updatedData,
+                    span.wrap(callback)
+            ));
+        } finally {
+            scope.close();
+        }
     }
 
     /**
@@ -289,32 +325,26 @@ public class FeatureToggle
      * @param startDate The start date of the range (format: YYYY-MM-DD).
      * @param endDate The end date of the range (format: YYYY-MM-DD).
      * @param callback The callback to handle success or error responses.
+     * @return The handle of the request, or null if the callback is null.
      */
-    public static void getActiveFeaturesInRange(Context context, String startDate, String endDate,
+    public static RequestHandle<List<FeatureToggleItem>> getActiveFeaturesInRange(Context context, String startDate, String endDate,
             Callback_Data<List<FeatureToggleItem>> callback) {
         if (callback == null) {
-            return;
+            return null;
         }
 
-        featureController.getActiveFeaturesInRange(
-                context.getPackageName(),
-                startDate,
-                endDate,
-                new GenericCallBack<List<FeatureToggleItem>>() {
-                    @Override
-                    public void success(List<FeatureToggleItem> data) {
-                        // Notify the success callback with the data
-                        callback.onSuccess(data);
-                    }
-
-                    @Override
-                    public void error(String error) {
-                        // Notify the error callback with the error message
-                        callback.onError("Failed to fetch active features in range: " + error);
-                        Log.d("FeatureToggle", "Error: " + error);
-                    }
-                }
-        );
+        Span span = startSpan("getActiveFeaturesInRange");
+        Scope scope = span.makeCurrent();
+        try {
+            return track(context, featureController.getActiveFeaturesInRange(
+                    context.getPackageName(),
+                    startDate,
+                    endDate,
+                    span.wrap(callback)
+            ));
+        } finally {
+            scope.close();
+        }
 
 
     }
@@ -324,6 +354,7 @@ public class FeatureToggle
      *
      * @param context The Android context, used to get the package name.
      * @param callback The callback to handle success or error responses.
+     * @return The handle of the request, or null if the callback is null.
      * Example usage:
      * <pre>
      * FeatureToggle.getFeatureToggleStatistics(context,
@@ -344,29 +375,22 @@ public class FeatureToggle
      */
 
 
-    public static void getFeatureToggleStatistics(Context context, Callback_Data<FeaturesStatistics> callback) {
+    public static RequestHandle<FeaturesStatistics> getFeatureToggleStatistics(Context context, Callback_Data<FeaturesStatistics> callback) {
         if (callback == null) {
-            return;
+            return null;
         }
 
         // Fetch statistics using the FeatureController
-        featureController.getFeatureToggleStatistics(
-                context.getPackageName(),
-                new GenericCallBack<FeaturesStatistics>() {
-                    @Override
-                    public void success(FeaturesStatistics data) {
-                        // Notify the success callback with the statistics data
-                        callback.onSuccess(data);
-                    }
-
-                    @Override
-                    public void error(String error) {
-                        // Notify the error callback with the error message
-                        callback.onError("Failed to fetch feature toggle statistics: " + error);
-                        Log.d("FeatureToggle", "Error: " + error);
-                    }
-                }
-        );
+        Span span = startSpan("getFeatureToggleStatistics");
+        Scope scope = span.makeCurrent();
+        try {
+            return track(context, featureController.getFeatureToggleStatistics(
+                    context.getPackageName(),
+                    span.wrap(callback)
+            ));
+        } finally {
+            scope.close();
+        }
     }
 
 
@@ -379,32 +403,26 @@ public class FeatureToggle
          * @param context The Android context, used to get the package name.
          * @param date The date for which feature toggles are to be fetched, in format YYYY-MM-DD.
          * @param callback The callback to handle the data or errors.
+         * @return The handle of the request, or null if the callback is null.
          */
 
-        public static void getFeatureTogglesByDate(Context context, String date, Callback_Data<List<FeatureToggleItem>> callback) {
+        public static RequestHandle<List<FeatureToggleItem>> getFeatureTogglesByDate(Context context, String date, Callback_Data<List<FeatureToggleItem>> callback) {
             if (callback == null) {
-                return;
+                return null;
             }
 
             // Fetch feature toggles by date using the FeatureController
-            featureController.getFeatureTogglesByDate(
-                    context.getPackageName(),
-                    date,
-                    new GenericCallBack<List<FeatureToggleItem>>() {
-                        @Override
-                        public void success(List<FeatureToggleItem> data) {
-                            // Notify the success callback with the data
-                            callback.onSuccess(data);
-                        }
-
-                        @Override
-                        public void error(String error) {
-                            // Notify the error callback with the error message
-                            callback.onError("Failed to fetch feature toggles by date: " + error);
-                            Log.d("FeatureToggle", "Error: " + error);
-                        }
-                    }
-            );
+            Span span = startSpan("getFeatureTogglesByDate");
+            Scope scope = span.makeCurrent();
+            try {
+                return track(context, featureController.getFeatureTogglesByDate(
+                        context.getPackageName(),
+                        date,
+                        span.wrap(callback)
+                ));
+            } finally {
+                scope.close();
+            }
         }
 
 
@@ -413,32 +431,433 @@ public class FeatureToggle
      *
      * @param context The Android context, used to get the package name.
      * @param callback The callback to handle success or error responses.
+     * @return The handle of the request, or null if the callback is null.
      */
-    public static void deleteAllFeatureToggles(
+    public static RequestHandle<String> deleteAllFeatureToggles(
             Context context,
             Callback_Data<String> callback) {
         if (callback == null) {
-            return;
+            return null;
         }
 
         // Delete all feature toggles using the FeatureController
-        featureController.deleteAllFeatureToggles(
-                context.getPackageName(),
-                new GenericCallBack<String>() {
-                    @Override
-                    public void success(String message) {
-                        // Notify the success callback with the message
-                        callback.onSuccess(message);
-                    }
-
-                    @Override
-                    public void error(String error) {
-                        // Notify the error callback with the error message
-                        callback.onError("Failed to delete all feature toggles: " + error);
-                        Log.d("FeatureToggle", "Error: " + error);
-                    }
+        Span span = startSpan("deleteAllFeatureToggles");
+        Scope scope = span.makeCurrent();
+        try {
+            return track(context, featureController.deleteAllFeatureToggles(
+                    context.getPackageName(),
+                    span.wrap(callback)
+            ));
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Enable offline queuing of admin operations. Once enabled, create, update and delete calls that
+     * cannot reach the backend are stored in a durable queue and reported as queued through onSuccess,
+     * instead of failing with onError. Mutations restored from a previous run are kept.
+     *
+     * @param context The Android context, used to locate the app's private files directory.
+     */
+    public static synchronized void enableOfflineQueue(Context context) {
+        if (featureController.getMutationQueue() != null) {
+            return;
+        }
+        File logFile = new File(context.getFilesDir(), MUTATION_LOG_FILE);
+        featureController.setMutationQueue(new MutationQueue(logFile));
+    }
+
+    /**
+     * Enable the circuit breaker. While the backend keeps failing or answering slowly, calls fail fast
+     * instead of waiting for the timeout, and reads that succeeded before return their last good result.
+     * State changes are logged, and can be observed through the returned breaker.
+     *
+     * @return The circuit breaker guarding the library's calls.
+     */
+    public static synchronized CircuitBreaker enableCircuitBreaker() {
+        CircuitBreaker breaker = featureController.getCircuitBreaker();
+        if (breaker == null) {
+            breaker = new CircuitBreaker();
+            breaker.addListener((endpoint, packageName, previous, current) ->
+                    Log.d("FeatureToggle", "Circuit " + endpoint + " of " + packageName + ": " + previous + " -> " + current));
+            featureController.setCircuitBreaker(breaker);
+        }
+        return breaker;
+    }
+
+    /**
+     * Enable the query cache. Statistics, date and range queries asked again within 30 seconds are
+     * answered without a round trip, and admin operations drop the cached results of their package.
+     *
+     * @param staleWhileRevalidate True to answer with an expired result at once, then call the callback
+     *                             again with the fresh result.
+     * @return The query cache, whose time to live can be set per method.
+     */
+    public static synchronized QueryCache enableQueryCache(boolean staleWhileRevalidate) {
+        QueryCache cache = featureController.getQueryCache();
+        if (cache == null) {
+            cache = new QueryCache(staleWhileRevalidate);
+            featureController.setQueryCache(cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Bind the requests made with an activity, or any other lifecycle owner used as the context, to its
+     * lifecycle. Once it is destroyed, its outstanding requests are cancelled and their callbacks dropped,
+     * so that they neither hold connections nor call back into a dead screen. Call it from onCreate.
+     *
+     * @param owner The activity or other owner whose requests are bound.
+     * @return The scope of the owner's requests, which can also be cancelled early.
+     */
+    public static RequestScope bindToLifecycle(LifecycleOwner owner) {
+        RequestScope scope;
+        synchronized (lifecycleScopes) {
+            scope = lifecycleScopes.get(owner);
+            if (scope != null) {
+                return scope;
+            }
+            scope = new RequestScope();
+            if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+                scope.close();
+                return scope;
+            }
+            lifecycleScopes.put(owner, scope);
+        }
+        RequestScope bound = scope;
+        owner.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(LifecycleOwner destroyed) {
+                synchronized (lifecycleScopes) {
+                    lifecycleScopes.remove(destroyed);
+                }
+                int cancelled = bound.close();
+                if (cancelled > 0) {
+                    Log.d("FeatureToggle", "Cancelled " + cancelled + " requests of a destroyed " + destroyed);
                 }
-        );
+            }
+        });
+        return scope;
+    }
+
+    /**
+     * Get the number of admin operations waiting to be replayed.
+     *
+     * @return The number of queued mutations, or 0 if offline queuing is not enabled.
+     */
+    public static int getPendingMutationCount() {
+        MutationQueue queue = featureController.getMutationQueue();
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Replay the queued admin operations, in order and in batches. Call this when connectivity returns.
+     *
+     * @param context  The Android context, used to enable the queue if needed.
+     * @param callback The callback receiving the number of replayed mutations, or an error if
+     *                 the backend became unreachable again.
+     */
+    public static void replayPendingMutations(Context context, Callback_Data<Integer> callback) {
+        if (callback == null) {
+            return;
+        }
+        enableOfflineQueue(context);
+
+        featureController.getMutationQueue().replay(featureController, callback);
+    }
+
+    /**
+     * Iterate over all feature toggles for the current app, one page at a time. While a page is consumed,
+     * the following pages are fetched in the background, so large packages never have to fit in one response.
+     *
+     * The iterator blocks while waiting for a page: use it from a background thread and close it when done.
+     *
+     * @param context       The Android context, used to get the package name.
+     * @param pageSize      The number of feature toggles requested per page.
+     * @param prefetchDepth The number of pages fetched ahead of the one being consumed.
+     * @return An iterator over all feature toggles.
+     */
+    public static FeaturePageIterator iterateAllFeatures(Context context, int pageSize, int prefetchDepth) {
+        return featureController.iterateAllFeatureToggles(context.getPackageName(), pageSize, prefetchDepth);
+    }
+
+    /**
+     * Iterate over the feature toggles created in the last 30 days for the current app, one page at a time.
+     *
+     * @param context       The Android context, used to get the package name.
+     * @param pageSize      The number of feature toggles requested per page.
+     * @param prefetchDepth The number of pages fetched ahead of the one being consumed.
+     * @return An iterator over the recent feature toggles, to be used from a background thread.
+     */
+    public static FeaturePageIterator iterateRecentFeatureToggles(Context context, int pageSize, int prefetchDepth) {
+        return featureController.iterateRecentFeatureToggles(context.getPackageName(), pageSize, prefetchDepth);
+    }
+
+    /**
+     * Iterate over the feature toggles active within a date range for the current app, one page at a time.
+     *
+     * @param context       The Android context, used to get the package name.
+     * @param startDate     The start date of the range (format: YYYY-MM-DD).
+     * @param endDate       The end date of the range (format: YYYY-MM-DD).
+     * @param pageSize      The number of feature toggles requested per page.
+     * @param prefetchDepth The number of pages fetched ahead of the one being consumed.
+     * @return An iterator over the active feature toggles, to be used from a background thread.
+     */
+    public static FeaturePageIterator iterateActiveFeaturesInRange(Context context, String startDate, String endDate,
+                                                                   int pageSize, int prefetchDepth) {
+        return featureController.iterateActiveFeaturesInRange(context.getPackageName(), startDate, endDate,
+                pageSize, prefetchDepth);
+    }
+
+    /**
+     * Get the local store holding the feature toggles of the current app. It is filled by
+     * {@link #getAllFeatures} and kept up to date by {@link #getActiveFeatures}.
+     *
+     * @param context The Android context, used to get the package name.
+     * @return The local feature toggle store.
+     */
+    public static FeatureToggleStore getFeatureStore(Context context) {
+        return featureStores.getStore(context.getPackageName());
+    }
+
+    /**
+     * Get the local store holding the feature toggles of any package. It is filled by
+     * {@link #getAllFeatures(String, Callback_Data)}.
+     *
+     * @param packageName The name of the package.
+     * @return The local feature toggle store of the package.
+     */
+    public static FeatureToggleStore getFeatureStore(String packageName) {
+        return featureStores.getStore(packageName);
+    }
+
+    /**
+     * Get the registry holding the local stores of all packages, for example to change its
+     * memory budget with {@link FeatureStoreRegistry#setMaxToggles(long)}.
+     *
+     * @return The registry of local feature toggle stores.
+     */
+    public static FeatureStoreRegistry getFeatureStores() {
+        return featureStores;
+    }
+
+    /**
+     * Get feature toggle statistics computed from the local store, without a network round trip.
+     * Unlike {@link #getFeatureToggleStatistics}, the result also counts scheduled, expired and
+     * expiring soon toggles. Call {@link #getAllFeatures} once first to fill the store.
+     *
+     * @param context The Android context, used to get the package name.
+     * @return The statistics of the locally known feature toggles.
+     */
+    public static FeaturesStatistics getLocalStatistics(Context context) {
+        return getLocalStatistics(context.getPackageName());
+    }
+
+    /**
+     * Get feature toggle statistics of any package, computed from its local store.
+     *
+     * @param packageName The name of the package.
+     * @return The statistics of the locally known feature toggles of the package.
+     */
+    public static FeaturesStatistics getLocalStatistics(String packageName) {
+        return client.getLocalStatistics(packageName);
+    }
+
+    /**
+     * Check whether a feature toggle of the current app is active now, using the local store only.
+     * This is a synchronous, lock-free lookup. Call {@link #getAllFeatures} once first to fill the store.
+     *
+     * @param context     The Android context, used to get the package name.
+     * @param featureName The name of the feature toggle.
+     * @return True if the toggle is known locally and the current time is within its dates.
+     */
+    public static boolean isEnabled(Context context, String featureName) {
+        return client.isEnabled(context.getPackageName(), featureName);
+    }
+
+    /**
+     * Get the feature toggles of the current app created or updated in the last days, using the local store
+     * only. Unlike {@link #getRecentFeatureToggles}, the window is chosen by the caller and results are paged.
+     * Call {@link #getAllFeatures} once first to fill the store.
+     *
+     * @param context The Android context, used to get the package name.
+     * @param days    The number of days to look back from now, for example 30.
+     * @param offset  The number of matching toggles to skip.
+     * @param limit   The maximum number of toggles to return.
+     * @return The matching feature toggles, newest first.
+     */
+    public static List<FeatureToggleItem> getLocalRecentFeatures(Context context, int days, int offset, int limit) {
+        return client.getRecent(context.getPackageName(), days, offset, limit);
+    }
+
+    /**
+     * Get how many feature toggles of the current app were active on each day of a range, using the local
+     * store only. Unlike calling {@link #getFeatureTogglesByDate} once per day, all days are computed in a
+     * single pass over the toggles' dates. Call {@link #getAllFeatures} once first to fill the store.
+     *
+     * @param context   The Android context, used to get the package name.
+     * @param startDate The first day of the range (format: YYYY-MM-DD), in UTC.
+     * @param days      The number of days in the range, for example 90.
+     * @return The active, starting and ending toggles per day as arrays ready for a chart, and the peak of
+     *         toggles active at once, or null if the start date cannot be parsed.
+     */
+    public static ActivitySeries getActivitySeries(Context context, String startDate, int days) {
+        long from = ToggleDates.parse(startDate);
+        if (from == ToggleDates.NO_DATE) {
+            Log.d("FeatureToggle", "Error: invalid start date " + startDate);
+            return null;
+        }
+        return client.getActivitySeries(context.getPackageName(), from, days);
+    }
+
+    /**
+     * Search the feature toggles of the current app by name fragment or description keyword, using the
+     * local store only. The index is built on first use and kept up to date as the store changes, so
+     * searching on every keystroke is cheap. Call {@link #getAllFeatures} once first to fill the store.
+     *
+     * @param context The Android context, used to get the package name.
+     * @param query   The words to look for, for example "dark mo".
+     * @param limit   The maximum number of toggles to return.
+     * @return The matching feature toggles, best matches first.
+     */
+    public static List<FeatureToggleItem> searchFeatures(Context context, String query, int limit) {
+        return client.search(context.getPackageName(), query, limit);
+    }
+
+    /**
+     * Observe the feature toggles of the current app instead of fetching them from every screen.
+     * The subscriber receives the current snapshot, then a new one whenever the local store changes,
+     * for example after {@link #getAllFeatures}. Callbacks run on a background thread.
+     *
+     * @param context    The Android context, used to get the package name.
+     * @param subscriber The subscriber receiving the snapshots. It must request values through its subscription.
+     */
+    public static void observeFeatures(Context context, SnapshotSubscriber<ToggleSnapshot> subscriber) {
+        client.subscribe(context.getPackageName(), subscriber);
+    }
+
+    /**
+     * Observe a single feature toggle of the current app. The subscriber only hears about changes of that toggle.
+     *
+     * @param context     The Android context, used to get the package name.
+     * @param featureName The name of the feature toggle to follow.
+     * @param subscriber  The subscriber receiving the toggle, or null once it is removed. Callbacks run on a background thread.
+     */
+    public static void observeFeature(Context context, String featureName,
+                                      SnapshotSubscriber<FeatureToggleItem> subscriber) {
+        client.subscribe(context.getPackageName(), featureName, subscriber);
+    }
+
+    /**
+     * Listen to the feature toggles of the current app that actually change, instead of reprocessing
+     * every toggle after each fetch. The toggles already known locally are reported as added first.
+     * Callbacks run on the thread that updated the local store.
+     *
+     * @param context  The Android context, used to get the package name.
+     * @param listener The listener to add.
+     */
+    public static void addFeatureChangeListener(Context context, FeatureChangeListener listener) {
+        featureStores.getStore(context.getPackageName()).addChangeListener(listener);
+    }
+
+    /**
+     * Stop listening to the feature toggle changes of the current app.
+     *
+     * @param context  The Android context, used to get the package name.
+     * @param listener The listener to remove.
+     */
+    public static void removeFeatureChangeListener(Context context, FeatureChangeListener listener) {
+        featureStores.getStore(context.getPackageName()).removeChangeListener(listener);
+    }
+
+    /**
+     * Track a fixed set of feature toggles of the current app as a bitset, for example the toggles
+     * declared in the app's toggle manifest. Checking one of them is then a word read instead of a lookup.
+     *
+     * @param context The Android context, used to get the package name.
+     * @param ids     The IDs of the feature toggles, in index order, such as {@code Toggles.ids()}.
+     * @return The flags, kept up to date with the local store.
+     */
+    public static FeatureFlags bindFeatureFlags(Context context, String... ids) {
+        return new FeatureFlags(featureStores.getStore(context.getPackageName()), ids);
+    }
+
+    /**
+     * Prepare the library on a background thread: build the HTTP client, resolve the backend's host name
+     * and fetch the app's feature toggles into the local store, so that they are ready or nearly ready
+     * when the first activity asks. It only helps when that happens a while after process start, an
+     * activity asking right away waits for the same fetch. Listeners added with {@link #addFeatureChangeListener} receive them
+     * as soon as they arrive. Called by {@link FeatureToggleInitializer}, or from Application.onCreate.
+     *
+     * @param context The Android context, used to get the package name.
+     * @return The timings of the warm-up, filled in as it progresses.
+     */
+    public static StartupMetrics warmUp(Context context) {
+        long sinceProcessStart = SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+        startupMetrics = client.warmUp(context.getPackageName(), new GenericCallBack<StartupMetrics>() {
+            @Override
+            public void success(StartupMetrics metrics) {
+                Log.d("FeatureToggle", "Warm-up started " + sinceProcessStart + " ms after process start: " + metrics);
+            }
+
+            @Override
+            public void error(String error) {
+                Log.d("FeatureToggle", "Warm-up failed: " + error);
+            }
+        });
+        return startupMetrics;
+    }
+
+    /**
+     * Get the timings of the warm-up started by {@link #warmUp(Context)}.
+     *
+     * @return The warm-up timings, or null if no warm-up was started.
+     */
+    public static StartupMetrics getStartupMetrics() {
+        return startupMetrics;
+    }
+
+    /**
+     * Enable tracing of the library's calls. Every network method records a span, with nested spans
+     * for the API call and the phases of its HTTP exchange, which are handed to the tracer's exporter.
+     *
+     * @param tracer The tracer to use, or {@link Tracer#NOOP} to disable tracing.
+     */
+    public static void setTracer(Tracer tracer) {
+        client.setTracer(tracer);
+    }
+
+    /**
+     * Apply admin operations to the local store as soon as they are sent, instead of once the backend
+     * accepts them. Operations that fail are rolled back.
+     *
+     * @param optimistic True to update the local store before the backend answers.
+     */
+    public static void setOptimisticUpdates(boolean optimistic) {
+        client.setOptimisticUpdates(optimistic);
+    }
+
+    // Cancels the request with the context's lifecycle, if it is bound to one
+    private static <T> RequestHandle<T> track(Context context, RequestHandle<T> handle) {
+        RequestScope scope;
+        synchronized (lifecycleScopes) {
+            scope = lifecycleScopes.get(context);
+        }
+        return scope == null ? handle : scope.track(handle);
+    }
+
+    private static Span startSpan(String method) {
+        return featureController.getTracer().startSpan("FeatureToggle." + method);
+    }
+
+    /**
+     * Get the plain Java client used by this facade, for code that works with explicit package names.
+     *
+     * @return The shared feature toggle client.
+     */
+    public static FeatureToggleClient getClient() {
+        return client;
     }
 
 }
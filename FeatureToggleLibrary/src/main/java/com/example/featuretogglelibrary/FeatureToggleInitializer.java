@@ -0,0 +1,40 @@
+package com.example.featuretogglelibrary;
+
+import android.content.Context;
+
+import androidx.startup.Initializer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Starts {@link FeatureToggle#warmUp(Context)} when the process launches, before the first activity.
+ *
+ * The initializer is opt-in. To enable it, add it to the App Startup provider in the app's manifest:
+ * <pre>
+ * &lt;provider
+ *     android:name="androidx.startup.InitializationProvider"
+ *     android:authorities="${applicationId}.androidx-startup"
+ *     android:exported="false"
+ *     tools:node="merge"&gt;
+ *     &lt;meta-data
+ *         android:name="com.example.featuretogglelibrary.FeatureToggleInitializer"
+ *         android:value="androidx.startup" /&gt;
+ * &lt;/provider&gt;
+ * </pre>
+ */
+
+public class FeatureToggleInitializer implements Initializer<FeatureToggleClient> {
+
+    @Override
+    public FeatureToggleClient create(Context context) {
+        // Returns at once, the work runs on a background thread
+        FeatureToggle.warmUp(context);
+        return FeatureToggle.getClient();
+    }
+
+    @Override
+    public List<Class<? extends Initializer<?>>> dependencies() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,34 @@
+plugins {
+    application
+}
+
+// Relay serving the read routes of the feature toggle API from memory, with one upstream sync per package.
+// Deploy it with ./gradlew :FeatureToggleRelay:installDist and run build/install/FeatureToggleRelay/bin/FeatureToggleRelay.
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+application {
+    mainClass.set("com.example.featuretogglelibrary.relay.FeatureToggleRelay")
+    // Without it, the JDK server's small responses wait for Nagle's algorithm
+    applicationDefaultJvmArgs = listOf("-Dsun.net.httpserver.nodelay=true")
+}
+
+// ./gradlew :FeatureToggleRelay:loadTest [-PloadTest.toggles=200] [-PloadTest.connections=64] [-PloadTest.seconds=10]
+tasks.register<JavaExec>("loadTest") {
+    description = "Measures the relay's requests per second and per CPU second against a local stub backend."
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("com.example.featuretogglelibrary.relay.RelayLoadTest")
+    jvmArgs("-Dsun.net.httpserver.nodelay=true")
+    for (name in listOf("toggles", "connections", "seconds", "threads", "watchers")) {
+        project.findProperty("loadTest.$name")?.let { systemProperty("loadtest.$name", it) }
+    }
+}
+
+dependencies {
+    implementation(project(":FeatureToggleCore"))
+
+    testImplementation(libs.junit)
+    testImplementation(libs.mockwebserver)
+}
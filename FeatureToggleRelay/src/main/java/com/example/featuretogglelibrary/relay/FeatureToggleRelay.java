@@ -0,0 +1,427 @@
+package com.example.featuretogglelibrary.relay;
+
+import com.example.featuretogglelibrary.FeatureToggleClient;
+import com.example.featuretogglelibrary.api.FeatureController;
+import com.example.featuretogglelibrary.store.FeatureStoreRegistry;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The FeatureToggleRelay class is an edge server for the read routes of the feature toggle API. Any number
+ * of clients can point their base URL at it, while the backend only sees one sync per package and interval.
+ *
+ * Every package asked for is synced in the background through a {@link FeatureToggleClient} and kept as an
+ * in-memory snapshot. Each route is encoded once per snapshot, in JSON or in the compact format for clients
+ * accepting it, and then served to every client as is. Responses carry an ETag, so polling clients get a
+ * 304 without a body while nothing changed. A client sending "Prefer: wait=N" with If-None-Match is held for
+ * up to N seconds and answered as soon as its response changes, which pushes updates without polling.
+ *
+ * Connections are multiplexed by the JDK HTTP server's selector thread. Handlers only read memory and run on
+ * a small fixed pool, and held requests are parked without a thread, so the relay needs one thread per core
+ * whatever the number of clients. Admin operations are not relayed and must go to the backend.
+ */
+
+public class FeatureToggleRelay {
+
+    private static final Logger LOG = Logger.getLogger(FeatureToggleRelay.class.getName());
+
+    /**
+     * The path of the read routes, as in {@link com.example.featuretogglelibrary.interfaces.FeatureApi}.
+     */
+    public static final String PATH_PREFIX = "/feature-toggles/";
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(15);
+    public static final long DEFAULT_MAX_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(60);
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    public static final int DEFAULT_MAX_PACKAGES = 1000;
+    public static final int DEFAULT_MAX_WAITING_REQUESTS = 10_000;
+
+    // Small bodies are sent as they are, compressing them saves less than the gzip header costs
+    private static final int MIN_GZIP_BYTES = 1024;
+    // How long the first requests for a package wait for its first sync
+    private static final long LOAD_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private final FeatureToggleClient client;
+    private final InetSocketAddress address;
+    private final int threads;
+    private final Map<String, RelayedPackage> packages = new ConcurrentHashMap<>();
+    private final AtomicInteger waitingRequests = new AtomicInteger();
+
+    private volatile long syncIntervalMillis = DEFAULT_SYNC_INTERVAL_MILLIS;
+    private volatile long maxWaitMillis = DEFAULT_MAX_WAIT_MILLIS;
+    private volatile long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+    private volatile int maxPackages = DEFAULT_MAX_PACKAGES;
+    private volatile int maxWaitingRequests = DEFAULT_MAX_WAITING_REQUESTS;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a relay holding every package asked for, without a toggle budget.
+     *
+     * @param upstream The controller used to reach the backend.
+     * @param address  The address to listen on, with port 0 for any free port.
+     * @param threads  The number of threads answering requests, typically the number of cores.
+     */
+    public FeatureToggleRelay(FeatureController upstream, InetSocketAddress address, int threads) {
+        this(new FeatureToggleClient(upstream, new FeatureStoreRegistry(Long.MAX_VALUE, 16)), address, threads);
+    }
+
+    /**
+     * @param client  The client syncing the packages into its local stores.
+     * @param address The address to listen on, with port 0 for any free port.
+     * @param threads The number of threads answering requests, typically the number of cores.
+     */
+    public FeatureToggleRelay(FeatureToggleClient client, InetSocketAddress address, int threads) {
+        this.client = client;
+        this.address = address;
+        this.threads = threads;
+    }
+
+    /**
+     * Starts listening. Packages are synced from the first request asking for them.
+     *
+     * @throws IOException If the address cannot be bound.
+     */
+    public synchronized void start() throws IOException {
+        executor = Executors.newFixedThreadPool(threads, threadFactory("relay-http-"));
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("relay-sync-"));
+        server = HttpServer.create(address, 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        LOG.info("Relaying on port " + getPort() + " with " + threads + " threads");
+    }
+
+    /**
+     * Closes the connections, including the held requests, and stops syncing.
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+        packages.clear();
+        server = null;
+    }
+
+    /**
+     * @return The port the relay listens on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Syncs a relayed package right away instead of at its next interval, for example when the backend
+     * reports an admin change. Clients holding a request for the package are answered once it changed.
+     *
+     * @param packageName The name of the package.
+     * @return False if the package is not relayed.
+     */
+    public boolean sync(String packageName) {
+        RelayedPackage relayed = packages.get(packageName);
+        if (relayed == null) {
+            return false;
+        }
+        relayed.syncNow();
+        return true;
+    }
+
+    /**
+     * @param packageName The name of the package.
+     * @return The version of the package's relayed snapshot, or -1 if it is not relayed or not loaded yet.
+     */
+    public long getVersion(String packageName) {
+        RelayedPackage relayed = packages.get(packageName);
+        return relayed == null ? -1 : relayed.getVersion();
+    }
+
+    /**
+     * @return The number of packages being relayed.
+     */
+    public int getPackageCount() {
+        return packages.size();
+    }
+
+    /**
+     * @return The number of requests held until their response changes.
+     */
+    public int getWaitingRequests() {
+        return waitingRequests.get();
+    }
+
+    /**
+     * @param syncIntervalMillis The time between the end of a package's sync and the start of the next.
+     */
+    public void setSyncIntervalMillis(long syncIntervalMillis) {
+        this.syncIntervalMillis = syncIntervalMillis;
+    }
+
+    /**
+     * @param maxWaitMillis The longest time a request asking to wait for a change is held.
+     */
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * @param idleTimeoutMillis The time without requests after which a package is no longer synced.
+     */
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * @param maxPackages The maximum number of packages synced at the same time. Requests for other
+     *                    packages are answered with 503.
+     */
+    public void setMaxPackages(int maxPackages) {
+        this.maxPackages = maxPackages;
+    }
+
+    /**
+     * @param maxWaitingRequests The maximum number of held requests. Further requests are answered at once.
+     */
+    public void setMaxWaitingRequests(int maxWaitingRequests) {
+        this.maxWaitingRequests = maxWaitingRequests;
+    }
+
+    FeatureToggleClient getClient() {
+        return client;
+    }
+
+    long getSyncIntervalMillis() {
+        return syncIntervalMillis;
+    }
+
+    long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    long getLoadTimeoutMillis() {
+        return LOAD_TIMEOUT_MILLIS;
+    }
+
+    long now() {
+        return System.currentTimeMillis();
+    }
+
+    private void handle(HttpExchange exchange) {
+        try {
+            String method = exchange.getRequestMethod();
+            boolean head = method.equals("HEAD");
+            if (!head && !method.equals("GET")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                sendError(exchange, 405, "The relay only serves reads, send admin operations to the backend");
+                return;
+            }
+            // feature-toggles/{package_name} followed by nothing or by the route
+            String path = exchange.getRequestURI().getRawPath();
+            String[] parts = path.startsWith(PATH_PREFIX)
+                    ? path.substring(PATH_PREFIX.length()).split("/", -1) : new String[0];
+            RelayRequest.Route route = parts.length == 1 ? RelayRequest.Route.ALL
+                    : parts.length == 2 ? RelayRequest.Route.of(parts[1]) : null;
+            if (route == null || parts[0].isEmpty()) {
+                sendError(exchange, 404, "Not found");
+                return;
+            }
+
+            RelayRequest request;
+            try {
+                request = RelayRequest.parse(route, exchange.getRequestURI().getRawQuery(),
+                        exchange.getRequestHeaders(), head, maxWaitMillis);
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+            RelayedPackage relayed = packageFor(RelayRequest.decode(parts[0]));
+            if (relayed == null) {
+                sendError(exchange, 503, "Too many packages");
+                return;
+            }
+            relayed.serve(exchange, request);
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Failed to answer " + exchange.getRequestURI(), e);
+            sendError(exchange, 500, "Internal error");
+        }
+    }
+
+    private RelayedPackage packageFor(String packageName) {
+        RelayedPackage relayed = packages.get(packageName);
+        if (relayed != null) {
+            return relayed;
+        }
+        if (packages.size() >= maxPackages) {
+            return null;
+        }
+        RelayedPackage created = new RelayedPackage(this, packageName);
+        relayed = packages.putIfAbsent(packageName, created);
+        if (relayed != null) {
+            return relayed;
+        }
+        schedule(created::sync, 0);
+        return created;
+    }
+
+    void remove(RelayedPackage relayed) {
+        if (packages.remove(relayed.getPackageName(), relayed)) {
+            client.getFeatureStores().evict(relayed.getPackageName());
+        }
+    }
+
+    boolean tryPark() {
+        if (waitingRequests.incrementAndGet() > maxWaitingRequests) {
+            waitingRequests.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    void unpark() {
+        waitingRequests.decrementAndGet();
+    }
+
+    void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Stopped
+        }
+    }
+
+    ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        try {
+            return scheduler.schedule(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    LOG.log(Level.WARNING, "Relay task failed", e);
+                }
+            }, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sends a shared response, or only its headers if the client already has it.
+     */
+    void send(HttpExchange exchange, RelayRequest request, RelayView view, int status) {
+        try {
+            // Without reading the empty request body, the JDK server closes the connection after a 304
+            exchange.getRequestBody().close();
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("ETag", view.etag);
+            headers.set("Cache-Control", "no-cache");
+            headers.set("Vary", "Accept, Accept-Encoding");
+            if (status == 304) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            byte[] body = view.body;
+            if (request.gzip && body.length >= MIN_GZIP_BYTES) {
+                body = view.gzipped();
+                headers.set("Content-Encoding", "gzip");
+            }
+            headers.set("Content-Type", view.contentType);
+            exchange.sendResponseHeaders(status, request.head ? -1 : body.length);
+            if (!request.head) {
+                exchange.getResponseBody().write(body);
+            }
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Client went away", e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    void sendError(HttpExchange exchange, int status, String message) {
+        JsonObject error = new JsonObject();
+        error.addProperty("error", message);
+        byte[] body = error.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            exchange.getRequestBody().close();
+            exchange.getResponseHeaders().set("Content-Type", RelayedPackage.JSON);
+            exchange.sendResponseHeaders(status, exchange.getRequestMethod().equals("HEAD") ? -1 : body.length);
+            if (!exchange.getRequestMethod().equals("HEAD")) {
+                exchange.getResponseBody().write(body);
+            }
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Client went away", e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Runs a relay until the process is stopped.
+     *
+     * Options: --port (8080), --upstream (the library's default backend), --threads (the number of cores),
+     * --sync-interval in seconds (15), --max-wait in seconds (60) and --max-packages (1000).
+     *
+     * @param args The options, for example {@code --port 9000 --upstream https://toggles.example.com/}.
+     * @throws IOException          If the port cannot be bound.
+     * @throws InterruptedException If the main thread is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected an option instead of " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        String upstream = options.get("upstream");
+        FeatureController controller = upstream == null ? new FeatureController() : new FeatureController(upstream);
+        int port = Integer.parseInt(options.getOrDefault("port", String.valueOf(DEFAULT_PORT)));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        FeatureToggleRelay relay = new FeatureToggleRelay(controller, new InetSocketAddress(port), threads);
+        if (options.containsKey("sync-interval")) {
+            relay.setSyncIntervalMillis(TimeUnit.SECONDS.toMillis(Long.parseLong(options.get("sync-interval"))));
+        }
+        if (options.containsKey("max-wait")) {
+            relay.setMaxWaitMillis(TimeUnit.SECONDS.toMillis(Long.parseLong(options.get("max-wait"))));
+        }
+        if (options.containsKey("max-packages")) {
+            relay.setMaxPackages(Integer.parseInt(options.get("max-packages")));
+        }
+        relay.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(relay::stop));
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.featuretogglelibrary.relay;
+
+import com.example.featuretogglelibrary.api.CompactToggleCodec;
+import com.example.featuretogglelibrary.utils.ToggleDates;
+import com.sun.net.httpserver.Headers;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A parsed read request of the feature toggle API: the route, its parameters and the conditional
+ * and long-poll headers. Requests for the same response share the same {@link #key}.
+ */
+
+final class RelayRequest {
+
+    /**
+     * The read routes of the API, after feature-toggles/{package_name}.
+     */
+    enum Route {
+        ALL("", true),
+        ACTIVE("active", false),
+        RECENT("recent", true),
+        ACTIVE_IN_RANGE("active-in-range", true),
+        BY_DATE("by-date", false),
+        STATISTICS("statistics", false);
+
+        final String path;
+        final boolean pageable;
+
+        Route(String path, boolean pageable) {
+            this.path = path;
+            this.pageable = pageable;
+        }
+
+        static Route of(String path) {
+            for (Route route : values()) {
+                if (route.path.equals(path)) {
+                    return route;
+                }
+            }
+            return null;
+        }
+    }
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    final Route route;
+    final long date;
+    final long startDate;
+    final long endDate;
+    // Zero when the whole list is asked for
+    final int limit;
+    final int offset;
+    final boolean compact;
+    final boolean gzip;
+    final boolean head;
+    final String ifNoneMatch;
+    final long waitMillis;
+    final String key;
+
+    private RelayRequest(Route route, Map<String, String> query, Headers headers, boolean head, long maxWaitMillis) {
+        this.route = route;
+        this.head = head;
+        date = route == Route.BY_DATE ? requireDate(query, "date") : ToggleDates.NO_DATE;
+        startDate = route == Route.ACTIVE_IN_RANGE ? requireDate(query, "start_date") : ToggleDates.NO_DATE;
+        endDate = route == Route.ACTIVE_IN_RANGE ? requireDate(query, "end_date") : ToggleDates.NO_DATE;
+        if (route.pageable && query.containsKey("limit")) {
+            limit = parseInt(query.get("limit"), "limit", 1, MAX_PAGE_SIZE);
+            offset = query.get("cursor") == null ? 0 : parseInt(query.get("cursor"), "cursor", 0, Integer.MAX_VALUE);
+        } else {
+            limit = 0;
+            offset = 0;
+        }
+        // Pages are JSON objects, only whole lists have a compact form
+        String accept = headers.getFirst("Accept");
+        compact = limit == 0 && route != Route.STATISTICS
+                && accept != null && accept.contains(CompactToggleCodec.MEDIA_TYPE);
+        String encoding = headers.getFirst("Accept-Encoding");
+        gzip = encoding != null && encoding.contains("gzip");
+        ifNoneMatch = headers.getFirst("If-None-Match");
+        waitMillis = ifNoneMatch == null ? 0 : Math.min(preferredWait(headers.getFirst("Prefer")), maxWaitMillis);
+        key = route.path + '|' + date + '|' + startDate + '|' + endDate + '|' + limit + '|' + offset
+                + (compact ? "|compact" : "");
+    }
+
+    /**
+     * Parses a request.
+     *
+     * @param route         The route of the request.
+     * @param rawQuery      The query string, still URL-encoded, or null.
+     * @param headers       The request headers.
+     * @param head          True for a HEAD request.
+     * @param maxWaitMillis The longest time a request may wait for a change.
+     * @return The request.
+     * @throws IllegalArgumentException If a parameter is missing or invalid.
+     */
+    static RelayRequest parse(Route route, String rawQuery, Headers headers, boolean head, long maxWaitMillis) {
+        return new RelayRequest(route, parseQuery(rawQuery), headers, head, maxWaitMillis);
+    }
+
+    /**
+     * @param etag The entity tag of the current response.
+     * @return True if the client already has that response.
+     */
+    boolean notModified(String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                query.put(decode(parameter.substring(0, equals)), decode(parameter.substring(equals + 1)));
+            }
+        }
+        return query;
+    }
+
+    private static long requireDate(Map<String, String> query, String name) {
+        long date = ToggleDates.parse(query.get(name));
+        if (date == ToggleDates.NO_DATE) {
+            throw new IllegalArgumentException("Missing or invalid " + name + ", expected YYYY-MM-DD HH:MM:SS");
+        }
+        return date;
+    }
+
+    private static int parseInt(String value, String name, int min, int max) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed >= min && parsed <= max) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid " + name + ": " + value);
+    }
+
+    // "Prefer: wait=30" (RFC 7240) asks to hold the request for up to 30 seconds until the response changes
+    private static long preferredWait(String prefer) {
+        if (prefer == null) {
+            return 0;
+        }
+        for (String preference : prefer.split(",")) {
+            String trimmed = preference.trim();
+            if (trimmed.startsWith("wait=")) {
+                try {
+                    return Math.max(0, Long.parseLong(trimmed.substring(5).trim())) * 1000;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.featuretogglelibrary.relay;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An encoded response body, shared by every client asking for the same route of the same snapshot.
+ *
+ * The entity tag is a hash of the body, so it only changes when the content does, and relays
+ * behind the same load balancer give the same response the same tag.
+ */
+
+final class RelayView {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    final byte[] body;
+    final String contentType;
+    final String etag;
+    // The time at which the content changes without any change upstream, for example when a toggle expires
+    final long validUntil;
+    // Compressed on the first client accepting gzip
+    private volatile byte[] gzipped;
+
+    RelayView(byte[] body, String contentType, long validUntil) {
+        this.body = body;
+        this.contentType = contentType;
+        this.validUntil = validUntil;
+        this.etag = etag(body);
+    }
+
+    byte[] gzipped() {
+        byte[] compressed = gzipped;
+        if (compressed == null) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream(body.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+                gzip.write(body);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            compressed = output.toByteArray();
+            gzipped = compressed;
+        }
+        return compressed;
+    }
+
+    private static String etag(byte[] body) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+        char[] tag = new char[34];
+        tag[0] = '"';
+        for (int i = 0; i < 16; i++) {
+            tag[1 + i * 2] = HEX[(digest[i] >> 4) & 0xf];
+            tag[2 + i * 2] = HEX[digest[i] & 0xf];
+        }
+        tag[33] = '"';
+        return new String(tag);
+    }
+}
@@ -0,0 +1,406 @@
+package com.example.featuretogglelibrary.relay;
+
+import com.example.featuretogglelibrary.api.CompactToggleCodec;
+import com.example.featuretogglelibrary.interfaces.GenericCallBack;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.model.FeatureTogglePage;
+import com.example.featuretogglelibrary.store.ToggleSnapshot;
+import com.example.featuretogglelibrary.utils.ToggleDates;
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The relayed state of one package: a single upstream sync loop, the snapshot it keeps in memory,
+ * the encoded responses built from it and the clients waiting for it to change.
+ *
+ * Responses are built once per snapshot and route, then shared by every client. Responses that depend
+ * on the current time, such as the active toggles, are rebuilt when a toggle starts or expires.
+ * Waiting clients hold no thread: their exchanges are parked until the snapshot changes, their
+ * response changes with time or they time out.
+ */
+
+final class RelayedPackage {
+
+    static final String JSON = "application/json; charset=utf-8";
+
+    private static final Logger LOG = Logger.getLogger(RelayedPackage.class.getName());
+    private static final Gson GSON = new Gson();
+    // Matches the backend's definition of recent toggles
+    private static final long RECENT_WINDOW_MILLIS = TimeUnit.DAYS.toMillis(30);
+    private static final long STATISTICS_TTL_MILLIS = 1000;
+    // Bounds the memory used by clients asking for many different dates or pages
+    private static final int MAX_CACHED_VIEWS = 256;
+
+    private final FeatureToggleRelay relay;
+    private final String packageName;
+    // Null until the first sync succeeded
+    private volatile Views views;
+    private volatile long lastRequest;
+
+    // Guarded by this
+    private final Set<Waiter> waiters = new LinkedHashSet<>();
+    private ScheduledFuture<?> nextSync;
+    private boolean syncAgain;
+    private boolean closed;
+
+    RelayedPackage(FeatureToggleRelay relay, String packageName) {
+        this.relay = relay;
+        this.packageName = packageName;
+        this.lastRequest = relay.now();
+    }
+
+    String getPackageName() {
+        return packageName;
+    }
+
+    /**
+     * @return The version of the relayed snapshot, or -1 before the first sync.
+     */
+    long getVersion() {
+        Views current = views;
+        return current == null ? -1 : current.snapshot.getVersion();
+    }
+
+    /**
+     * Answers a request from the current snapshot, or parks it until there is one or until it changes.
+     */
+    void serve(HttpExchange exchange, RelayRequest request) {
+        long now = relay.now();
+        lastRequest = now;
+        Views current = views;
+        if (current == null) {
+            if (!relay.tryPark()) {
+                relay.sendError(exchange, 503, "Too many waiting requests");
+                return;
+            }
+            park(new Waiter(exchange, request, now + relay.getLoadTimeoutMillis()), null, Long.MAX_VALUE, now);
+            return;
+        }
+        RelayView view = current.view(request, now);
+        if (!request.notModified(view.etag)) {
+            relay.send(exchange, request, view, 200);
+        } else if (request.waitMillis > 0 && relay.tryPark()) {
+            park(new Waiter(exchange, request, now + request.waitMillis), current, view.validUntil, now);
+        } else {
+            relay.send(exchange, request, view, 304);
+        }
+    }
+
+    /**
+     * Fetches the package from the backend and schedules the next sync. Runs on the relay's scheduler.
+     */
+    void sync() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            nextSync = null;
+        }
+        if (views != null && relay.now() - lastRequest > relay.getIdleTimeoutMillis()) {
+            LOG.info("Stopped relaying idle package " + packageName);
+            relay.remove(this);
+            close(null);
+            return;
+        }
+        relay.getClient().refresh(packageName, new GenericCallBack<List<FeatureToggleItem>>() {
+            @Override
+            public void success(List<FeatureToggleItem> data) {
+                update(relay.getClient().getStore(packageName).snapshot());
+                scheduleSync();
+            }
+
+            @Override
+            public void error(String error) {
+                if (views == null) {
+                    // Nothing to serve: fail the waiting clients, the next request starts over
+                    relay.remove(RelayedPackage.this);
+                    close(error);
+                } else {
+                    // Keep serving the last snapshot until the backend answers again
+                    LOG.warning("Sync of " + packageName + " failed: " + error);
+                    scheduleSync();
+                }
+            }
+        });
+    }
+
+    /**
+     * Syncs as soon as possible, for example after an admin change of the package.
+     */
+    synchronized void syncNow() {
+        if (nextSync == null) {
+            // A sync is running, it may have read the backend before the change
+            syncAgain = true;
+        } else if (nextSync.cancel(false)) {
+            nextSync = relay.schedule(this::sync, 0);
+        }
+    }
+
+    private synchronized void scheduleSync() {
+        if (!closed) {
+            nextSync = relay.schedule(this::sync, syncAgain ? 0 : relay.getSyncIntervalMillis());
+            syncAgain = false;
+        }
+    }
+
+    private void update(ToggleSnapshot snapshot) {
+        Views previous = views;
+        if (previous != null && previous.snapshot.getVersion() == snapshot.getVersion()) {
+            return;
+        }
+        views = new Views(snapshot);
+        List<Waiter> woken;
+        synchronized (this) {
+            woken = new ArrayList<>(waiters);
+            waiters.clear();
+        }
+        for (Waiter waiter : woken) {
+            waiter.cancelTimer();
+            relay.execute(() -> retry(waiter));
+        }
+    }
+
+    /**
+     * Stops syncing and answers the waiting clients.
+     *
+     * @param error The error of the first sync, or null if the package was idle.
+     */
+    void close(String error) {
+        List<Waiter> failed;
+        synchronized (this) {
+            closed = true;
+            if (nextSync != null) {
+                nextSync.cancel(false);
+            }
+            failed = new ArrayList<>(waiters);
+            waiters.clear();
+        }
+        for (Waiter waiter : failed) {
+            waiter.cancelTimer();
+            relay.execute(() -> fail(waiter, error));
+        }
+    }
+
+    private void park(Waiter waiter, Views seen, long validUntil, long now) {
+        boolean parked;
+        synchronized (this) {
+            parked = !closed && waiters.add(waiter);
+        }
+        if (!parked) {
+            fail(waiter, null);
+            return;
+        }
+        waiter.timer = relay.schedule(() -> wake(waiter), Math.min(waiter.deadline, validUntil) - now);
+        // The snapshot may have changed between rendering and parking
+        if (views != seen) {
+            wake(waiter);
+        }
+    }
+
+    private void wake(Waiter waiter) {
+        synchronized (this) {
+            if (!waiters.remove(waiter)) {
+                return;
+            }
+        }
+        waiter.cancelTimer();
+        relay.execute(() -> retry(waiter));
+    }
+
+    private void retry(Waiter waiter) {
+        long now = relay.now();
+        Views current = views;
+        if (current == null) {
+            if (now >= waiter.deadline) {
+                relay.unpark();
+                relay.sendError(waiter.exchange, 504, "Timed out waiting for the backend");
+            } else {
+                park(waiter, null, Long.MAX_VALUE, now);
+            }
+            return;
+        }
+        RelayView view = current.view(waiter.request, now);
+        if (!waiter.request.notModified(view.etag)) {
+            relay.unpark();
+            relay.send(waiter.exchange, waiter.request, view, 200);
+        } else if (now >= waiter.deadline) {
+            relay.unpark();
+            relay.send(waiter.exchange, waiter.request, view, 304);
+        } else {
+            park(waiter, current, view.validUntil, now);
+        }
+    }
+
+    private void fail(Waiter waiter, String error) {
+        relay.unpark();
+        if (error == null) {
+            relay.sendError(waiter.exchange, 503, "The package is no longer relayed, retry");
+        } else {
+            relay.sendError(waiter.exchange, 502, "Backend error: " + error);
+        }
+    }
+
+    private static byte[] json(Object value) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
+            GSON.toJson(value, writer);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * The responses built from one snapshot. The dates of its toggles are parsed once, for the
+     * routes that filter by date.
+     */
+    private final class Views {
+        final ToggleSnapshot snapshot;
+        final List<FeatureToggleItem> items;
+        final long[] beginning;
+        final long[] expiration;
+        final ConcurrentHashMap<String, RelayView> cache = new ConcurrentHashMap<>();
+
+        Views(ToggleSnapshot snapshot) {
+            this.snapshot = snapshot;
+            this.items = snapshot.getItems();
+            this.beginning = new long[items.size()];
+            this.expiration = new long[items.size()];
+            for (int i = 0; i < items.size(); i++) {
+                beginning[i] = ToggleDates.parse(items.get(i).getBeginning_date());
+                expiration[i] = ToggleDates.parse(items.get(i).getExpiration_date());
+            }
+        }
+
+        RelayView view(RelayRequest request, long now) {
+            RelayView cached = cache.get(request.key);
+            if (cached != null && now < cached.validUntil) {
+                return cached;
+            }
+            if (cached == null && cache.size() >= MAX_CACHED_VIEWS) {
+                return render(request, now);
+            }
+            // Requests arriving together after a change wait for a single rendering
+            return cache.compute(request.key,
+                    (key, old) -> old != null && now < old.validUntil ? old : render(request, now));
+        }
+
+        private RelayView render(RelayRequest request, long now) {
+            if (request.route == RelayRequest.Route.STATISTICS) {
+                return new RelayView(json(relay.getClient().getLocalStatistics(packageName)), JSON,
+                        now + STATISTICS_TTL_MILLIS);
+            }
+            List<FeatureToggleItem> selected;
+            long validUntil = Long.MAX_VALUE;
+            switch (request.route) {
+                case ACTIVE:
+                    selected = new ArrayList<>();
+                    for (int i = 0; i < items.size(); i++) {
+                        if (activeAt(i, now)) {
+                            selected.add(items.get(i));
+                        }
+                        validUntil = Math.min(validUntil, nextTransition(i, now));
+                    }
+                    break;
+                case RECENT:
+                    selected = snapshot.getCreatedSince(now - RECENT_WINDOW_MILLIS, 0, Integer.MAX_VALUE);
+                    if (!selected.isEmpty()) {
+                        // Newest first, so the last toggle is the first to leave the window
+                        long oldest = ToggleDates.parse(selected.get(selected.size() - 1).getCreated_at());
+                        validUntil = oldest + RECENT_WINDOW_MILLIS + 1;
+                    }
+                    break;
+                case ACTIVE_IN_RANGE:
+                    selected = new ArrayList<>();
+                    for (int i = 0; i < items.size(); i++) {
+                        if ((beginning[i] == ToggleDates.NO_DATE || beginning[i] <= request.endDate)
+                                && (expiration[i] == ToggleDates.NO_DATE || expiration[i] > request.startDate)) {
+                            selected.add(items.get(i));
+                        }
+                    }
+                    break;
+                case BY_DATE:
+                    selected = new ArrayList<>();
+                    for (int i = 0; i < items.size(); i++) {
+                        if (activeAt(i, request.date)) {
+                            selected.add(items.get(i));
+                        }
+                    }
+                    break;
+                default:
+                    selected = items;
+            }
+
+            if (request.limit > 0) {
+                int from = Math.min(request.offset, selected.size());
+                int to = Math.min(selected.size(), from + request.limit);
+                FeatureTogglePage page = new FeatureTogglePage();
+                page.setItems(new ArrayList<>(selected.subList(from, to)));
+                page.setNext_cursor(to < selected.size() ? String.valueOf(to) : null);
+                return new RelayView(json(page), JSON, validUntil);
+            }
+            if (request.compact) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                try {
+                    CompactToggleCodec.encode(selected, output);
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+                return new RelayView(output.toByteArray(), CompactToggleCodec.MEDIA_TYPE, validUntil);
+            }
+            return new RelayView(json(selected), JSON, validUntil);
+        }
+
+        private boolean activeAt(int i, long time) {
+            return (beginning[i] == ToggleDates.NO_DATE || beginning[i] <= time)
+                    && (expiration[i] == ToggleDates.NO_DATE || time < expiration[i]);
+        }
+
+        private long nextTransition(int i, long now) {
+            if (beginning[i] != ToggleDates.NO_DATE && beginning[i] > now) {
+                return beginning[i];
+            }
+            if (expiration[i] != ToggleDates.NO_DATE && expiration[i] > now) {
+                return expiration[i];
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * A parked client, waiting for the package to load or for its response to change.
+     */
+    private static final class Waiter {
+        final HttpExchange exchange;
+        final RelayRequest request;
+        final long deadline;
+        volatile ScheduledFuture<?> timer;
+
+        Waiter(HttpExchange exchange, RelayRequest request, long deadline) {
+            this.exchange = exchange;
+            this.request = request;
+            this.deadline = deadline;
+        }
+
+        void cancelTimer() {
+            ScheduledFuture<?> scheduled = timer;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+}
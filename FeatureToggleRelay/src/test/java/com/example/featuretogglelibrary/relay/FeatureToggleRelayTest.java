@@ -0,0 +1,174 @@
+package com.example.featuretogglelibrary.relay;
+
+import com.example.featuretogglelibrary.api.CompactToggleCodec;
+import com.example.featuretogglelibrary.api.FeatureController;
+import com.example.featuretogglelibrary.model.FeatureToggleItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the relay against a MockWebServer backend, with plain HTTP clients.
+ */
+public class FeatureToggleRelayTest {
+
+    private static final String PACKAGE = "com.example.app";
+    private static final String CHRISTMAS = toggle("1", "christmas_theme", "2020-01-01 00:00:00", "2100-01-01 00:00:00");
+    private static final String EXPIRED = toggle("2", "old_banner", "2020-01-01 00:00:00", "2021-01-01 00:00:00");
+
+    private MockWebServer backend;
+    private FeatureToggleRelay relay;
+    private final AtomicReference<String> toggles = new AtomicReference<>("[" + CHRISTMAS + "," + EXPIRED + "]");
+    private final AtomicInteger upstreamRequests = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        backend = new MockWebServer();
+        backend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                upstreamRequests.incrementAndGet();
+                return new MockResponse().setHeader("Content-Type", "application/json").setBody(toggles.get());
+            }
+        });
+        backend.start();
+        relay = new FeatureToggleRelay(new FeatureController(backend.url("/").toString()),
+                new InetSocketAddress("127.0.0.1", 0), 2);
+        relay.setSyncIntervalMillis(TimeUnit.MINUTES.toMillis(1));
+        relay.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        relay.stop();
+        backend.shutdown();
+    }
+
+    @Test
+    public void reads_areServedFromOneUpstreamSync() throws Exception {
+        Response first = get("/feature-toggles/" + PACKAGE + "/active", null, null);
+        assertEquals(200, first.status);
+        assertTrue(first.body().contains("christmas_theme"));
+        assertFalse(first.body().contains("old_banner"));
+        for (int i = 0; i < 20; i++) {
+            assertEquals(first.etag, get("/feature-toggles/" + PACKAGE + "/active", null, null).etag);
+        }
+        assertEquals(1, upstreamRequests.get());
+
+        assertEquals(304, get("/feature-toggles/" + PACKAGE + "/active", first.etag, null).status);
+
+        HttpURLConnection compact = open("/feature-toggles/" + PACKAGE);
+        compact.setRequestProperty("Accept", "application/x-feature-toggles, application/json;q=0.9");
+        assertEquals(CompactToggleCodec.MEDIA_TYPE, compact.getContentType());
+        List<FeatureToggleItem> all;
+        try (InputStream input = compact.getInputStream()) {
+            all = CompactToggleCodec.decode(input);
+        }
+        assertEquals(2, all.size());
+
+        assertTrue(get("/feature-toggles/" + PACKAGE + "/by-date?date=2020-06-01%2000:00:00", null, null)
+                .body().contains("old_banner"));
+        assertTrue(get("/feature-toggles/" + PACKAGE + "?limit=1", null, null)
+                .body().contains("\"next_cursor\":\"1\""));
+        assertEquals(400, get("/feature-toggles/" + PACKAGE + "/by-date", null, null).status);
+        assertEquals(404, get("/feature-toggles/" + PACKAGE + "/unknown", null, null).status);
+    }
+
+    @Test
+    public void heldRequest_isAnsweredWhenThePackageChanges() throws Exception {
+        String etag = get("/feature-toggles/" + PACKAGE + "/active", null, null).etag;
+
+        CompletableFuture<Response> held = CompletableFuture.supplyAsync(() -> {
+            try {
+                return get("/feature-toggles/" + PACKAGE + "/active", etag, "wait=10");
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        long deadline = System.currentTimeMillis() + 5000;
+        while (relay.getWaitingRequests() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, relay.getWaitingRequests());
+
+        toggles.set("[" + CHRISTMAS + "," + toggle("3", "dark_mode", "2020-01-01 00:00:00", null) + "]");
+        assertTrue(relay.sync(PACKAGE));
+        Response changed = held.get(5, TimeUnit.SECONDS);
+        assertEquals(200, changed.status);
+        assertTrue(changed.body().contains("dark_mode"));
+        assertNotEquals(etag, changed.etag);
+
+        // Nothing changes anymore, so the next held request times out without a body
+        long start = System.nanoTime();
+        assertEquals(304, get("/feature-toggles/" + PACKAGE + "/active", changed.etag, "wait=1").status);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(900));
+        assertEquals(0, relay.getWaitingRequests());
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://127.0.0.1:" + relay.getPort() + path).openConnection();
+    }
+
+    private Response get(String path, String ifNoneMatch, String prefer) throws IOException {
+        HttpURLConnection connection = open(path);
+        if (ifNoneMatch != null) {
+            connection.setRequestProperty("If-None-Match", ifNoneMatch);
+        }
+        if (prefer != null) {
+            connection.setRequestProperty("Prefer", prefer);
+        }
+        int status = connection.getResponseCode();
+        InputStream input = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if (input != null) {
+            try (InputStream in = input) {
+                in.transferTo(body);
+            }
+        }
+        return new Response(status, connection.getHeaderField("ETag"), body.toByteArray());
+    }
+
+    private static String toggle(String id, String name, String beginning, String expiration) {
+        return "{\"_id\":\"" + id + "\",\"name\":\"" + name + "\",\"package_name\":\"" + PACKAGE + "\","
+                + "\"beginning_date\":\"" + beginning + "\""
+                + (expiration == null ? "" : ",\"expiration_date\":\"" + expiration + "\"")
+                + ",\"created_at\":\"2020-01-01T00:00:00.000Z\"}";
+    }
+
+    private static final class Response {
+        final int status;
+        final String etag;
+        final byte[] bytes;
+
+        Response(int status, String etag, byte[] bytes) {
+            this.status = status;
+            this.etag = etag;
+            this.bytes = bytes;
+        }
+
+        String body() {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
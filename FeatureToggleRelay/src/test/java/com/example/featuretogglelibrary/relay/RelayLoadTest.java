@@ -0,0 +1,261 @@
+package com.example.featuretogglelibrary.relay;
+
+import com.example.featuretogglelibrary.api.FeatureController;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the relay against a local stub backend: requests per second, and requests per CPU second of the
+ * relay's threads, which is the throughput one core sustains whatever the load generator costs.
+ *
+ * The clients keep their connections open, like apps polling the relay. Three scenarios are run: full
+ * responses of the active toggles, conditional requests answered with 304, and held requests all answered
+ * by one change of the package.
+ *
+ * Run with: ./gradlew :FeatureToggleRelay:loadTest
+ * Optional Gradle properties: -PloadTest.toggles (200), -PloadTest.connections (64), -PloadTest.seconds (10),
+ * -PloadTest.threads (half the cores) and -PloadTest.watchers (1000).
+ */
+public class RelayLoadTest {
+
+    private static final String PACKAGE = "com.example.app";
+    private static final String PATH = "/feature-toggles/" + PACKAGE + "/active";
+
+    public static void main(String[] args) throws Exception {
+        int toggles = Integer.getInteger("loadtest.toggles", 200);
+        int connections = Integer.getInteger("loadtest.connections", 64);
+        int seconds = Integer.getInteger("loadtest.seconds", 10);
+        int threads = Integer.getInteger("loadtest.threads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        int watchers = Integer.getInteger("loadtest.watchers", 1000);
+
+        AtomicReference<byte[]> body = new AtomicReference<>(toggles(toggles, "feature_"));
+        HttpServer backend = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        AtomicInteger upstreamRequests = new AtomicInteger();
+        backend.createContext("/", exchange -> {
+            upstreamRequests.incrementAndGet();
+            byte[] bytes = body.get();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        backend.start();
+
+        FeatureToggleRelay relay = new FeatureToggleRelay(
+                new FeatureController("http://127.0.0.1:" + backend.getAddress().getPort() + "/"),
+                new InetSocketAddress("127.0.0.1", 0), threads);
+        relay.setSyncIntervalMillis(TimeUnit.HOURS.toMillis(1));
+        relay.setMaxWaitingRequests(watchers + connections);
+        relay.start();
+        int port = relay.getPort();
+
+        Response first = request(new Connection(port), null, null);
+        System.out.printf(Locale.ROOT, "%d toggles, %d relay threads, %d connections, %d s per scenario%n",
+                toggles, threads, connections, seconds);
+        System.out.printf(Locale.ROOT, "active toggles: %d bytes of JSON%n", first.length);
+
+        run("200 JSON", port, connections, seconds, null);
+        run("304 Not Modified", port, connections, seconds, first.etag);
+
+        // Every watcher holds a request on its own connection, then one change answers them all
+        List<Thread> waiting = new ArrayList<>();
+        CountDownLatch answered = new CountDownLatch(watchers);
+        LongAdder changed = new LongAdder();
+        int threadsBefore = relayThreads();
+        for (int i = 0; i < watchers; i++) {
+            Connection connection = new Connection(port);
+            Thread thread = new Thread(() -> {
+                try {
+                    if (request(connection, first.etag, "wait=60").status == 200) {
+                        changed.increment();
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                } finally {
+                    answered.countDown();
+                }
+            });
+            thread.start();
+            waiting.add(thread);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (relay.getWaitingRequests() < watchers && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        int held = relay.getWaitingRequests();
+        body.set(toggles(toggles, "renamed_"));
+        long start = System.nanoTime();
+        relay.sync(PACKAGE);
+        answered.await(60, TimeUnit.SECONDS);
+        System.out.printf(Locale.ROOT, "push: %d held requests on %d relay threads (%d before), %d answered with"
+                        + " the change %.1f ms after the sync started%n",
+                held, relayThreads(), threadsBefore, changed.sum(), (System.nanoTime() - start) / 1e6);
+        System.out.printf(Locale.ROOT, "upstream requests in all scenarios: %d%n", upstreamRequests.get());
+        for (Thread thread : waiting) {
+            thread.join();
+        }
+
+        relay.stop();
+        backend.stop(0);
+        System.exit(0);
+    }
+
+    private static void run(String scenario, int port, int connections, int seconds, String etag) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        LongAdder completed = new LongAdder();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            Connection connection = new Connection(port);
+            Thread client = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < end) {
+                        request(connection, etag, null);
+                        completed.increment();
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
+            clients.add(client);
+        }
+        long cpuBefore = relayCpuNanos(threads);
+        long start = System.nanoTime();
+        for (Thread client : clients) {
+            client.start();
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        double cpu = (relayCpuNanos(threads) - cpuBefore) / 1e9;
+        System.out.printf(Locale.ROOT, "%s: %.0f requests/s, %.0f requests per relay CPU second (%.2f cores used)%n",
+                scenario, completed.sum() / elapsed, completed.sum() / cpu, cpu / elapsed);
+    }
+
+    // The JDK server's selector thread and the relay's handler threads
+    private static long relayCpuNanos(ThreadMXBean threads) {
+        long total = 0;
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info != null && isRelayThread(info.getThreadName())) {
+                total += Math.max(0, threads.getThreadCpuTime(info.getThreadId()));
+            }
+        }
+        return total;
+    }
+
+    private static int relayThreads() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (isRelayThread(thread.getName())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isRelayThread(String name) {
+        return name.startsWith("relay-") || name.startsWith("HTTP-Dispatcher");
+    }
+
+    private static Response request(Connection connection, String etag, String prefer) throws IOException {
+        StringBuilder request = new StringBuilder("GET ").append(PATH).append(" HTTP/1.1\r\nHost: relay\r\n");
+        if (etag != null) {
+            request.append("If-None-Match: ").append(etag).append("\r\n");
+        }
+        if (prefer != null) {
+            request.append("Prefer: ").append(prefer).append("\r\n");
+        }
+        connection.output.write(request.append("\r\n").toString().getBytes(StandardCharsets.US_ASCII));
+        connection.output.flush();
+
+        String status = readLine(connection.input);
+        Response response = new Response(Integer.parseInt(status.substring(9, 12)));
+        for (String line = readLine(connection.input); !line.isEmpty(); line = readLine(connection.input)) {
+            int colon = line.indexOf(':');
+            String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            if (name.equals("content-length")) {
+                response.length = Integer.parseInt(line.substring(colon + 1).trim());
+            } else if (name.equals("etag")) {
+                response.etag = line.substring(colon + 1).trim();
+            }
+        }
+        for (int read = 0; read < response.length; ) {
+            int n = connection.input.read(connection.buffer, 0, Math.min(connection.buffer.length, response.length - read));
+            if (n < 0) {
+                throw new IOException("Connection closed in the body");
+            }
+            read += n;
+        }
+        return response;
+    }
+
+    private static String readLine(InputStream input) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = input.read()) != '\n') {
+            if (c < 0) {
+                throw new IOException("Connection closed");
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+
+    private static byte[] toggles(int count, String prefix) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"_id\":\"").append(i).append("\",\"name\":\"").append(prefix).append(i)
+                    .append("\",\"description\":\"Load test toggle\",\"package_name\":\"").append(PACKAGE)
+                    .append("\",\"beginning_date\":\"2020-01-01 00:00:00\",\"expiration_date\":\"2100-01-01 00:00:00\"")
+                    .append(",\"created_at\":\"2024-01-01T00:00:00.000Z\"}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class Connection {
+        final InputStream input;
+        final OutputStream output;
+        final byte[] buffer = new byte[16 * 1024];
+
+        Connection(int port) throws IOException {
+            Socket socket = new Socket("127.0.0.1", port);
+            socket.setTcpNoDelay(true);
+            input = new BufferedInputStream(socket.getInputStream(), 64 * 1024);
+            output = socket.getOutputStream();
+        }
+    }
+
+    private static final class Response {
+        final int status;
+        int length;
+        String etag;
+
+        Response(int status) {
+            this.status = status;
+        }
+    }
+}
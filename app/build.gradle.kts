@@ -2,6 +2,91 @@ plugins {
     alias(libs.plugins.android.application)
 }
 
+/**
+ * Generates the Toggles class from the toggle manifest: one int constant per declared toggle,
+ * numbered densely in declaration order, to be used with FeatureFlags.
+ */
+abstract class GenerateTogglesTask : DefaultTask() {
+
+    @get:InputFile
+    abstract val manifestFile: RegularFileProperty
+
+    @get:Input
+    abstract val packageName: Property<String>
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    @TaskAction
+    fun generate() {
+        val toggles = LinkedHashMap<String, String>()
+        manifestFile.get().asFile.readLines().forEachIndexed { index, raw ->
+            val line = raw.trim()
+            if (line.isEmpty() || line.startsWith("#")) {
+                return@forEachIndexed
+            }
+            val separator = line.indexOf('=')
+            val name = if (separator > 0) line.substring(0, separator).trim() else ""
+            val id = if (separator > 0) line.substring(separator + 1).trim() else ""
+            if (!name.matches(Regex("[A-Z][A-Z0-9_]*")) || id.isEmpty()) {
+                throw GradleException("Invalid toggle at line ${index + 1} of ${manifestFile.get().asFile}: $raw")
+            }
+            if (toggles.put(name, id) != null || toggles.values.count { it == id } > 1) {
+                throw GradleException("Duplicate toggle at line ${index + 1} of ${manifestFile.get().asFile}: $raw")
+            }
+        }
+
+        val pkg = packageName.get()
+        val source = StringBuilder()
+        source.append("package $pkg;\n\n")
+        source.append("/**\n * Feature toggles declared in the toggle manifest. Generated by the build, do not edit.\n */\n")
+        source.append("public final class Toggles {\n\n")
+        toggles.keys.forEachIndexed { index, name ->
+            source.append("    public static final int $name = $index;\n")
+        }
+        source.append("\n    /**\n     * The number of declared toggles.\n     */\n")
+        source.append("    public static final int COUNT = ${toggles.size};\n\n")
+        source.append("    private static final String[] IDS = {\n")
+        toggles.values.forEach { id -> source.append("            ${javaString(id)},\n") }
+        source.append("    };\n\n")
+        source.append("    private Toggles() {\n    }\n\n")
+        source.append("    /**\n     * @return The IDs of the declared toggles, in index order.\n     */\n")
+        source.append("    public static String[] ids() {\n        return IDS.clone();\n    }\n")
+        source.append("}\n")
+
+        val dir = outputDir.get().asFile.resolve(pkg.replace('.', '/'))
+        dir.mkdirs()
+        dir.resolve("Toggles.java").writeText(source.toString())
+    }
+
+    /**
+     * Quotes a toggle ID as a Java string literal. Backslashes are escaped too, so an ID cannot
+     * form a unicode escape, which javac would read before the string.
+     */
+    private fun javaString(value: String): String {
+        val literal = StringBuilder("\"")
+        for (c in value) {
+            when {
+                c == '"' || c == '\\' -> literal.append('\\').append(c)
+                c < ' ' || c > '~' -> literal.append(String.format("\\u%04x", c.code))
+                else -> literal.append(c)
+            }
+        }
+        return literal.append('"').toString()
+    }
+}
+
+val generateToggles = tasks.register<GenerateTogglesTask>("generateToggles") {
+    manifestFile.set(layout.projectDirectory.file("src/main/toggles.properties"))
+    packageName.set("com.example.featuretoggledemoapp")
+}
+
+androidComponents {
+    onVariants { variant ->
+        variant.sources.java?.addGeneratedSourceDirectory(generateToggles, GenerateTogglesTask::outputDir)
+    }
+}
+
 android {
     namespace = "com.example.featuretoggledemoapp"
     compileSdk = 35
@@ -29,6 +114,20 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        unitTests {
+            // Robolectric inflates the real layouts and themes
+            isIncludeAndroidResources = true
+            all { test ->
+                // ./gradlew :app:testDebugUnitTest -PcoldStartBenchmark runs ColdStartBenchmark and records its results
+                test.systemProperty("coldstart.benchmark", project.hasProperty("coldStartBenchmark"))
+                test.systemProperty("coldstart.results", file("benchmarks/cold-start.csv").absolutePath)
+                listOf("coldstart.runs", "coldstart.latency_ms", "coldstart.toggles").forEach { name ->
+                    project.findProperty(name)?.let { value -> test.systemProperty(name, value) }
+                }
+            }
+        }
+    }
 }
 
 
@@ -40,9 +139,12 @@ dependencies {
     implementation(libs.activity)
     implementation(libs.constraintlayout)
     testImplementation(libs.junit)
+    testImplementation(libs.robolectric)
+    testImplementation(libs.mockwebserver)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
-    implementation(libs.featuretogglelibrary)
+    // Built from this repository, so the demo always uses the current library
+    implementation(project(":FeatureToggleLibrary"))
 
 
 
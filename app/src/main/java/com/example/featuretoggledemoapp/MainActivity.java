@@ -2,6 +2,8 @@ package com.example.featuretoggledemoapp;
 
 import android.graphics.Color;
 import android.os.Bundle;
+import android.os.Process;
+import android.os.SystemClock;
 import android.util.Log;
 import android.widget.LinearLayout;
 import android.widget.TextView;
@@ -9,7 +11,9 @@ import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.featuretogglelibrary.FeatureToggle;
+import com.example.featuretogglelibrary.interfaces.FeatureChangeListener;
 import com.example.featuretogglelibrary.model.FeatureToggleItem;
+import com.example.featuretogglelibrary.store.FeatureFlags;
 
 
 import java.util.List;
@@ -19,8 +23,12 @@ public class MainActivity extends AppCompatActivity
 {
 
     private static final String TAG = "FeatureToggleDemo";
+    private static final long[] THEMES = FeatureFlags.mask(Toggles.CHRISTMAS_THEME, Toggles.HALLOWEEN_THEME,
+            Toggles.NEW_YEAR_THEME, Toggles.VALENTINES_THEME);
     private LinearLayout mainLayout;
     private TextView greetingText;
+    private boolean firstFeatureApplied = false;
+    private FeatureFlags flags;
 
 
     @Override
@@ -32,31 +40,20 @@ public class MainActivity extends AppCompatActivity
         mainLayout = findViewById(R.id.main_layout);
         greetingText = findViewById(R.id.greeting_text);
 
-        // Fetch active features
+        // Track the toggles declared in toggles.properties, before listening so that the flags are current
+        flags = FeatureToggle.bindFeatureFlags(this, Toggles.ids());
+
+        // Requests made with this activity are cancelled once it is destroyed, instead of calling back into it
+        FeatureToggle.bindToLifecycle(this);
+
+        // Apply the theme when features become active, toggles that did not change are skipped
+        FeatureToggle.addFeatureChangeListener(this, featureChangeListener);
+
+        // Fetch active features, which updates the local store and notifies the listener
         FeatureToggle.getActiveFeatures(this, new FeatureToggle.Callback_Data<List<FeatureToggleItem>>() {
             @Override
             public void onSuccess(List<FeatureToggleItem> activeFeatures) {
                 Log.d(TAG, "Active Features: " + activeFeatures);
-
-                // Update UI based on active features
-                for (FeatureToggleItem feature : activeFeatures) {
-                    switch (feature.get_id()) {
-                        case "814b5dda-c77b-4929-9a40-b683c56adbc6":
-                            updateUI(Color.RED, "Merry Christmas!");
-                            break;
-                        case "d02723f6-0df7-4b94-83e3-f737a53eb146":
-                            updateUI(Color.parseColor("#FF8C00"), "Happy Halloween!");
-                            break;
-                        case "87bc1713-1f11-44e9-a9c3-bf5333b42ae8":
-                            updateUI(Color.parseColor("#ADD8E6"), "Happy New Year!");
-                            break;
-                        case "1b35a1e4-3af5-4422-9422-065d9797ae70":
-                            updateUI(Color.parseColor("#FFB6C1"), "Happy Velntines!");
-                        default:
-                            Log.d(TAG, "Unknown feature: " + feature.getName());
-                            break;
-                    }
-                }
             }
 
             @Override
@@ -67,6 +64,51 @@ public class MainActivity extends AppCompatActivity
         });
     }
 
+    @Override
+    protected void onDestroy() {
+        FeatureToggle.removeFeatureChangeListener(this, featureChangeListener);
+        flags.close();
+        super.onDestroy();
+    }
+
+    private final FeatureChangeListener featureChangeListener = new FeatureChangeListener() {
+        @Override
+        public void onFeatureAdded(FeatureToggleItem item, boolean active) {
+            if (active) {
+                applyTheme();
+            }
+        }
+
+        @Override
+        public void onFeatureChanged(FeatureToggleItem previous, FeatureToggleItem current, int changes, boolean active) {
+            if ((changes & FeatureChangeListener.ACTIVE_STATE) != 0) {
+                applyTheme();
+            }
+        }
+    };
+
+    private void applyTheme() {
+        if (!flags.anyEnabled(THEMES)) {
+            return;
+        }
+        if (!firstFeatureApplied) {
+            firstFeatureApplied = true;
+            Log.d(TAG, "First feature applied " + (SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime())
+                    + " ms after process start");
+        }
+
+        // Update UI based on the active features
+        if (flags.isEnabled(Toggles.CHRISTMAS_THEME)) {
+            updateUI(Color.RED, "Merry Christmas!");
+        } else if (flags.isEnabled(Toggles.HALLOWEEN_THEME)) {
+            updateUI(Color.parseColor("#FF8C00"), "Happy Halloween!");
+        } else if (flags.isEnabled(Toggles.NEW_YEAR_THEME)) {
+            updateUI(Color.parseColor("#ADD8E6"), "Happy New Year!");
+        } else if (flags.isEnabled(Toggles.VALENTINES_THEME)) {
+            updateUI(Color.parseColor("#FFB6C1"), "Happy Velntines!");
+        }
+    }
+
     private void updateUI(int backgroundColor, String greeting) {
         runOnUiThread(() -> {
             mainLayout.setBackgroundColor(backgroundColor);
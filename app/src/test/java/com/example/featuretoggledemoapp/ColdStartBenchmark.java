@@ -0,0 +1,251 @@
+package com.example.featuretoggledemoapp;
+
+import android.content.Context;
+import android.os.Looper;
+import android.widget.TextView;
+
+import com.example.featuretogglelibrary.FeatureToggle;
+import com.example.featuretogglelibrary.api.FeatureController;
+import com.example.featuretogglelibrary.model.StartupMetrics;
+import com.example.featuretogglelibrary.tracing.InMemorySpanExporter;
+import com.example.featuretogglelibrary.tracing.Span;
+import com.example.featuretogglelibrary.tracing.Tracer;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Measures how long MainActivity takes from onCreate to showing the themed greeting of the active
+ * feature toggle, on the JVM with Robolectric and a MockWebServer as the backend.
+ *
+ * The first launch follows the App Startup warm-up, as the app does after a process start. The following
+ * launches start from an empty local store, so the greeting waits for the activity's own fetch. Their time
+ * is split with the library's spans:
+ * - activity: onCreate until the fetch starts, mostly inflating the layout.
+ * - client: building the HTTP client and the call.
+ * - network: queuing, connecting, sending the request and waiting for the response headers.
+ * - parsing: reading the response body, which the JSON converter parses as it streams.
+ * - callback: handing the parsed toggles to the callback thread.
+ * - ui_dispatch: updating the local store and the flags, and posting the greeting to the main thread.
+ * Every run appends its medians to benchmarks/cold-start.csv, next to the earlier versions.
+ *
+ * Run with: ./gradlew :app:testDebugUnitTest -PcoldStartBenchmark --tests "*ColdStartBenchmark"
+ * Optional Gradle properties: -Pcoldstart.runs (20), -Pcoldstart.latency_ms (0) and -Pcoldstart.toggles (200).
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class ColdStartBenchmark {
+
+    private static final String GREETING = "Merry Christmas!";
+    private static final String API_SPAN = "FeatureApi GET feature-toggles/{package_name}/active";
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final String HEADER = "recorded_at,version,scenario,runs,total_ms,activity_ms,client_ms,"
+            + "network_ms,parsing_ms,callback_ms,ui_dispatch_ms,warm_up_ms";
+
+    private static MockWebServer server;
+
+    @BeforeClass
+    public static void startBackend() throws IOException {
+        assumeTrue("Run with -PcoldStartBenchmark", Boolean.getBoolean("coldstart.benchmark"));
+        String toggles = toggles(Integer.getInteger("coldstart.toggles", 200));
+        long latency = Long.getLong("coldstart.latency_ms", 0);
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                // Every read of the app's package gets the same toggles, HEAD requests only open the connection
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(request.getMethod().equals("HEAD") ? "" : toggles)
+                        .setHeadersDelay(latency, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+        // The facade's controller is created when the App Startup initializer first uses the library
+        System.setProperty(FeatureController.BASE_URL_PROPERTY, server.url("/").toString());
+    }
+
+    @AfterClass
+    public static void stopBackend() throws IOException {
+        if (server != null) {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void timeToFirstThemedGreeting() throws Exception {
+        Context context = RuntimeEnvironment.getApplication();
+        InMemorySpanExporter spans = new InMemorySpanExporter();
+        FeatureToggle.setTracer(new Tracer(spans));
+
+        // First launch, right after the process started and the warm-up began
+        long start = System.nanoTime();
+        ActivityController<MainActivity> first = Robolectric.buildActivity(MainActivity.class).setup();
+        long firstLaunch = awaitGreeting(first.get()) - start;
+        first.pause().stop().destroy();
+        StartupMetrics warmUp = FeatureToggle.getStartupMetrics();
+        assertNotNull("The App Startup initializer did not run", warmUp);
+        // Let the warm-up and the first launch's fetch finish, so that their spans stay out of the runs
+        awaitSpan(spans, API_SPAN);
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        while (warmUp.getSnapshot_ready_millis() < 0 && warmUp.getError() == null && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(1_000_000);
+        }
+        assertNull(warmUp.getError());
+
+        int runs = Integer.getInteger("coldstart.runs", 20);
+        long[][] phases = new long[7][runs];
+        for (int run = 0; run < runs; run++) {
+            FeatureToggle.getFeatureStore(context).clear();
+            spans.reset();
+            start = System.nanoTime();
+            ActivityController<MainActivity> launch = Robolectric.buildActivity(MainActivity.class).setup();
+            long shown = awaitGreeting(launch.get());
+            launch.pause().stop().destroy();
+
+            // The API span ends last, once the callback that posted the greeting returned
+            Span api = awaitSpan(spans, API_SPAN);
+            Span facade = awaitSpan(spans, "FeatureToggle.getActiveFeatures");
+            Span body = awaitSpan(spans, "response body");
+            Span callback = awaitSpan(spans, "callback");
+            phases[0][run] = shown - start;
+            phases[1][run] = facade.getStartNanos() - start;
+            phases[2][run] = api.getStartNanos() - facade.getStartNanos();
+            phases[3][run] = body.getStartNanos() - api.getStartNanos();
+            phases[4][run] = body.getDurationNanos();
+            phases[5][run] = callback.getStartNanos() - (body.getStartNanos() + body.getDurationNanos());
+            phases[6][run] = shown - callback.getStartNanos();
+        }
+
+        String version = context.getPackageManager().getPackageInfo(context.getPackageName(), 0).versionName;
+        String recordedAt = Instant.now().toString();
+        List<String> rows = new ArrayList<>();
+        rows.add(String.join(",", recordedAt, version, "after-warm-up", "1", millis(firstLaunch),
+                "", "", "", "", "", "", String.valueOf(warmUp.getSnapshot_ready_millis())));
+        StringBuilder network = new StringBuilder(String.join(",", recordedAt, version, "network", String.valueOf(runs)));
+        for (long[] phase : phases) {
+            network.append(',').append(millis(median(phase)));
+        }
+        rows.add(network.append(',').toString());
+        record(rows);
+    }
+
+    /**
+     * Runs the main looper until the greeting is shown.
+     *
+     * @return The time it was first seen, from {@link System#nanoTime()}.
+     */
+    private static long awaitGreeting(MainActivity activity) {
+        TextView greeting = activity.findViewById(R.id.greeting_text);
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        while (true) {
+            shadowOf(Looper.getMainLooper()).idle();
+            if (GREETING.contentEquals(greeting.getText())) {
+                return System.nanoTime();
+            }
+            if (System.nanoTime() > deadline) {
+                fail("No greeting after 10 s, showing \"" + greeting.getText() + "\"");
+            }
+            // The fetch completes on OkHttp's threads and posts the greeting to the main looper
+            LockSupport.parkNanos(20_000);
+        }
+    }
+
+    private static Span awaitSpan(InMemorySpanExporter spans, String name) {
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        List<Span> finished;
+        while ((finished = spans.getFinishedSpans(name)).isEmpty()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("No span " + name + " in " + spans.getFinishedSpans());
+            }
+            LockSupport.parkNanos(20_000);
+        }
+        return finished.get(0);
+    }
+
+    private static void record(List<String> rows) throws IOException {
+        File results = new File(System.getProperty("coldstart.results", "benchmarks/cold-start.csv"));
+        List<String> previous = results.exists()
+                ? Files.readAllLines(results.toPath(), StandardCharsets.UTF_8) : new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        if (previous.isEmpty()) {
+            lines.add(HEADER);
+        }
+        System.out.println(HEADER);
+        for (String row : rows) {
+            String scenario = row.split(",", -1)[2];
+            for (int i = previous.size() - 1; i > 0; i--) {
+                if (previous.get(i).split(",", -1)[2].equals(scenario)) {
+                    System.out.println(previous.get(i) + "  (previous)");
+                    break;
+                }
+            }
+            System.out.println(row);
+            lines.add(row);
+        }
+        results.getParentFile().mkdirs();
+        Files.write(results.toPath(), lines, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1e6);
+    }
+
+    /**
+     * The active toggles of the app: the Christmas theme declared in toggles.properties, and unrelated
+     * toggles for a realistic response size.
+     */
+    private static String toggles(int count) {
+        StringBuilder json = new StringBuilder("[");
+        json.append(toggle(Toggles.ids()[Toggles.CHRISTMAS_THEME], "christmas_theme"));
+        for (int i = 1; i < count; i++) {
+            json.append(',').append(toggle(UUID.nameUUIDFromBytes(new byte[]{(byte) i, (byte) (i >> 8)}).toString(),
+                    "feature_" + i));
+        }
+        return json.append(']').toString();
+    }
+
+    private static String toggle(String id, String name) {
+        return "{\"_id\":\"" + id + "\",\"name\":\"" + name + "\",\"description\":\"Benchmark toggle\","
+                + "\"package_name\":\"com.example.featuretoggledemoapp\","
+                + "\"beginning_date\":\"2000-01-01 00:00:00\",\"expiration_date\":\"2100-01-01 00:00:00\","
+                + "\"created_at\":\"2024-01-01T00:00:00.000Z\",\"updated_at\":\"2024-01-01T00:00:00.000Z\"}";
+    }
+}
@@ -24,3 +24,5 @@ dependencyResolutionManagement {
 rootProject.name = "FeatureToggleDemoApp"
 include(":app")
 include(":FeatureToggleLibrary")
+include(":FeatureToggleCore")
+include(":FeatureToggleRelay")